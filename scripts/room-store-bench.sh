@@ -0,0 +1,45 @@
+#!/usr/bin/env bash
+# Save/load latency of the room store through the REST API (PUT / GET /api/rooms/{code}).
+# Run it once per backend and compare, e.g.
+#   java -jar target/estpoker-*.jar --app.storage.mode=local
+#   java -jar target/estpoker-*.jar --app.storage.mode=ftps --app.rooms.cache.enabled=false
+# (disable the read-through cache, otherwise GET measures the cache, not the store)
+set -euo pipefail
+
+BASE="${1:-http://localhost:8080}"   # 1st arg: base URL
+N="${2:-200}"                        # 2nd arg: rooms to save and load
+PREFIX="bench-$$-"
+HDR_CT='Content-Type: application/json'
+
+save_ms="$(mktemp)"; load_ms="$(mktemp)"
+trap 'rm -f "$save_ms" "$load_ms"' EXIT
+
+timed() { # timed METHOD URL [curl-args...] -> milliseconds
+  curl -sS -o /dev/null -w "%{time_total}\n" -X "$@" | awk '{ printf "%.2f\n", $1 * 1000 }'
+}
+
+for i in $(seq 1 "$N"); do
+  timed PUT "$BASE/api/rooms/$PREFIX$i" -H "$HDR_CT" \
+    --data "{\"title\":\"Bench $i\",\"owner\":\"Host\",\"sequenceId\":\"fib.scrum\"}" >> "$save_ms"
+done
+for i in $(seq 1 "$N"); do
+  timed GET "$BASE/api/rooms/$PREFIX$i" >> "$load_ms"
+done
+
+report() { # report LABEL FILE
+  sort -n "$2" | awk -v label="$1" '
+    { v[NR] = $1; sum += $1 }
+    END {
+      i50 = int(NR * 0.50) + 1; i95 = int(NR * 0.95) + 1; if (i95 > NR) i95 = NR
+      printf "%-5s n=%d  avg=%.2f ms  p50=%.2f ms  p95=%.2f ms  max=%.2f ms\n",
+        label, NR, sum / NR, v[i50], v[i95], v[NR]
+    }'
+}
+
+echo "== $BASE ($N rooms) =="
+report save "$save_ms"
+report load "$load_ms"
+
+if [[ "${CLEANUP:-true}" == "true" ]]; then
+  for i in $(seq 1 "$N"); do curl -sS -o /dev/null -X DELETE "$BASE/api/rooms/$PREFIX$i"; done
+fi
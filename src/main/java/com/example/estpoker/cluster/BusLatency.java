@@ -0,0 +1,66 @@
+package com.example.estpoker.cluster;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free latency recorder for received bus events (origin publish → local delivery).
+ * Uses fixed power-of-two millisecond buckets, which is plenty for p50/p99 at this scale.
+ */
+public final class BusLatency {
+
+  // bucket i holds samples in [2^(i-1), 2^i) ms; bucket 0 = 0 ms
+  private static final int BUCKETS = 16;
+
+  private final LongAdder count = new LongAdder();
+  private final LongAdder sumMs = new LongAdder();
+  private final AtomicLong maxMs = new AtomicLong();
+  private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+  private final LongAdder dropped = new LongAdder();
+
+  public void record(long ms) {
+    long v = Math.max(0L, ms);
+    count.increment();
+    sumMs.add(v);
+    maxMs.accumulateAndGet(v, Math::max);
+    int b = (v == 0) ? 0 : Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(v));
+    buckets.incrementAndGet(b);
+  }
+
+  /** Outbound event dropped (peer queue full). */
+  public void dropped() {
+    dropped.increment();
+  }
+
+  public long count() {
+    return count.sum();
+  }
+
+  /** Upper bound (ms) of the bucket containing the given quantile. */
+  public long quantileMs(double q) {
+    long total = count.sum();
+    if (total == 0) return 0L;
+    long rank = (long) Math.ceil(q * total);
+    long seen = 0;
+    for (int i = 0; i < BUCKETS; i++) {
+      seen += buckets.get(i);
+      if (seen >= rank) return (i == 0) ? 0L : (1L << i) - 1;
+    }
+    return maxMs.get();
+  }
+
+  public Map<String, Object> toMap() {
+    long n = count.sum();
+    Map<String, Object> m = new LinkedHashMap<>();
+    m.put("received", n);
+    m.put("meanMs", n == 0 ? 0.0 : (double) sumMs.sum() / n);
+    m.put("p50Ms", quantileMs(0.50));
+    m.put("p99Ms", quantileMs(0.99));
+    m.put("maxMs", maxMs.get());
+    m.put("droppedOutbound", dropped.sum());
+    return m;
+  }
+}
@@ -0,0 +1,65 @@
+package com.example.estpoker.cluster;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Immutable consistent-hash ring mapping room codes to node ids.
+ * Every node is placed {@code virtualNodes} times on a 64-bit circle; a key belongs to the first
+ * node point at or after its own hash. Adding or removing one node only moves ~1/N of the rooms.
+ */
+public final class HashRing {
+
+  private final NavigableMap<Long, String> points = new TreeMap<>();
+  private final List<String> nodes;
+
+  public HashRing(Collection<String> nodeIds, int virtualNodes) {
+    int v = Math.max(1, virtualNodes);
+    TreeSet<String> sorted = new TreeSet<>();
+    for (String id : nodeIds) {
+      if (id != null && !id.isBlank()) sorted.add(id.trim());
+    }
+    this.nodes = List.copyOf(sorted);
+    for (String id : nodes) {
+      for (int i = 0; i < v; i++) {
+        // on the (astronomically rare) collision the lexicographically smaller id keeps the point
+        points.putIfAbsent(hash(id + "#" + i), id);
+      }
+    }
+  }
+
+  /** Owning node id, or null for an empty ring. */
+  public String ownerOf(String roomCode) {
+    if (points.isEmpty() || roomCode == null) return null;
+    Map.Entry<Long, String> e = points.ceilingEntry(hash(roomCode));
+    return (e != null ? e : points.firstEntry()).getValue();
+  }
+
+  public List<String> nodes() {
+    return nodes;
+  }
+
+  public boolean isEmpty() {
+    return nodes.isEmpty();
+  }
+
+  /** FNV-1a over UTF-8 followed by a 64-bit finalizer, so short similar codes spread evenly. */
+  static long hash(String s) {
+    long h = 0xcbf29ce484222325L;
+    for (byte b : s.getBytes(StandardCharsets.UTF_8)) {
+      h ^= (b & 0xff);
+      h *= 0x100000001b3L;
+    }
+    h ^= (h >>> 33);
+    h *= 0xff51afd7ed558ccdL;
+    h ^= (h >>> 33);
+    h *= 0xc4ceb9fe1a85ec53L;
+    h ^= (h >>> 33);
+    return h;
+  }
+}
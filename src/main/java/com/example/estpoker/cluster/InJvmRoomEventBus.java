@@ -0,0 +1,81 @@
+package com.example.estpoker.cluster;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Room event bus between "nodes" in the same JVM (tests, single-process setups).
+ * Nodes sharing a {@link Hub} see each other's events; delivery runs on one thread per node,
+ * so events keep publish order and never re-enter the publisher's call stack.
+ */
+public class InJvmRoomEventBus implements RoomEventBus {
+
+  /** Shared membership; one per simulated cluster. */
+  public static final class Hub {
+    private final List<InJvmRoomEventBus> members = new CopyOnWriteArrayList<>();
+  }
+
+  private final String nodeId;
+  private final Hub hub;
+  private final AtomicLong seq = new AtomicLong();
+  private final BusLatency latency = new BusLatency();
+  private final List<Consumer<RoomEvent>> listeners = new CopyOnWriteArrayList<>();
+  private final ExecutorService delivery;
+
+  public InJvmRoomEventBus(String nodeId, Hub hub) {
+    this.nodeId = nodeId;
+    this.hub = hub;
+    this.delivery = Executors.newSingleThreadExecutor(r -> {
+      Thread t = new Thread(r, "room-bus-" + nodeId);
+      t.setDaemon(true);
+      return t;
+    });
+    hub.members.add(this);
+  }
+
+  @Override
+  public String nodeId() {
+    return nodeId;
+  }
+
+  @Override
+  public void publish(RoomEvent.Kind kind, String roomCode, RoomReplica replica, String frame) {
+    RoomEvent e = new RoomEvent(nodeId, seq.incrementAndGet(), kind, roomCode, replica, frame, System.currentTimeMillis());
+    for (InJvmRoomEventBus m : hub.members) {
+      if (m != this) m.deliver(e);
+    }
+  }
+
+  private void deliver(RoomEvent e) {
+    try {
+      delivery.execute(() -> {
+        for (Consumer<RoomEvent> l : listeners) {
+          try { l.accept(e); } catch (RuntimeException ignored) { /* listener logs its own failures */ }
+        }
+        latency.record(System.currentTimeMillis() - e.sentAtMs());
+      });
+    } catch (RuntimeException rejected) {
+      latency.dropped(); // node closed
+    }
+  }
+
+  @Override
+  public void subscribe(Consumer<RoomEvent> listener) {
+    listeners.add(listener);
+  }
+
+  @Override
+  public BusLatency latency() {
+    return latency;
+  }
+
+  @Override
+  public void close() {
+    hub.members.remove(this);
+    delivery.shutdownNow();
+  }
+}
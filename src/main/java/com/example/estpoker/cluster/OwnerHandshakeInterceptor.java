@@ -0,0 +1,61 @@
+package com.example.estpoker.cluster;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.lang.NonNull;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.server.HandshakeInterceptor;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.net.URI;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+/**
+ * Refuses a /gameSocket handshake for a room owned by another node with 307 + Location
+ * (ws/wss URL of the owner). Non-browser clients can follow it; browsers already reach the
+ * owner through the {@code /room} redirect.
+ * Like {@link OwnerRedirectInterceptor}, the redirect carries {@code hop=1}; a handshake that
+ * already hopped once is accepted here, so clients do not bounce while nodes disagree about the ring.
+ */
+public class OwnerHandshakeInterceptor implements HandshakeInterceptor {
+
+  private final RoomOwnership ownership;
+
+  public OwnerHandshakeInterceptor(RoomOwnership ownership) {
+    this.ownership = ownership;
+  }
+
+  @Override
+  public boolean beforeHandshake(@NonNull ServerHttpRequest request, @NonNull ServerHttpResponse response,
+                                 @NonNull WebSocketHandler wsHandler, @NonNull Map<String, Object> attributes) {
+    URI uri = request.getURI();
+    var params = UriComponentsBuilder.fromUri(uri).build().getQueryParams();
+    String roomCode = params.getFirst("roomCode");
+    if (roomCode == null || roomCode.isBlank() || params.containsKey(OwnerRedirectInterceptor.HOP_PARAM)) return true;
+
+    String base = ownership.ownerBaseUrl(decode(roomCode).trim());
+    if (base == null) return true;
+
+    String wsBase = base.startsWith("https://") ? "wss://" + base.substring(8)
+        : base.startsWith("http://") ? "ws://" + base.substring(7) : base;
+    String target = wsBase + uri.getRawPath() + "?" + (uri.getRawQuery() == null ? "" : uri.getRawQuery() + "&")
+        + OwnerRedirectInterceptor.HOP_PARAM + "=1";
+    response.setStatusCode(HttpStatus.TEMPORARY_REDIRECT);
+    response.getHeaders().set(HttpHeaders.LOCATION, target);
+    return false;
+  }
+
+  @Override
+  public void afterHandshake(@NonNull ServerHttpRequest request, @NonNull ServerHttpResponse response,
+                             @NonNull WebSocketHandler wsHandler, Exception exception) {
+    // nothing
+  }
+
+  private static String decode(String s) {
+    return URLDecoder.decode(s, StandardCharsets.UTF_8);
+  }
+}
@@ -0,0 +1,39 @@
+package com.example.estpoker.cluster;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.lang.NonNull;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+/**
+ * Sends {@code GET /room?roomCode=…} to the node that owns the room (307), so the page
+ * — and the socket it opens against its own origin — lands on the owner.
+ * A {@code hop=1} marker stops ping-pong while nodes briefly disagree about membership.
+ */
+public class OwnerRedirectInterceptor implements HandlerInterceptor {
+
+  static final String HOP_PARAM = "hop";
+
+  private final RoomOwnership ownership;
+
+  public OwnerRedirectInterceptor(RoomOwnership ownership) {
+    this.ownership = ownership;
+  }
+
+  @Override
+  public boolean preHandle(@NonNull HttpServletRequest request, @NonNull HttpServletResponse response, @NonNull Object handler) {
+    String roomCode = request.getParameter("roomCode");
+    if (roomCode == null || roomCode.isBlank() || request.getParameter(HOP_PARAM) != null) return true;
+
+    String base = ownership.ownerBaseUrl(roomCode.trim());
+    if (base == null) return true;
+
+    String query = request.getQueryString();
+    String target = base + request.getRequestURI() + "?" + (query == null ? "" : query + "&") + HOP_PARAM + "=1";
+    response.setStatus(HttpStatus.TEMPORARY_REDIRECT.value());
+    response.setHeader(HttpHeaders.LOCATION, target);
+    return false;
+  }
+}
@@ -0,0 +1,203 @@
+package com.example.estpoker.cluster;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Compact binary encoding of replica batches for the standby stream.
+ *
+ * Frame payload:
+ * <pre>
+ *   u8 version | u8 type (0 = heartbeat, 1 = batch) | i64 sentAtMs | varint count | entry*
+ *   entry = u8 op (1 = upsert, 2 = remove) | str code | [replica body when upsert]
+ * </pre>
+ * Strings are varint (byteLength + 1, 0 = null) followed by UTF-8; flags are packed into one byte.
+ * An 8-person room with UUID cids is ~400 bytes, about a quarter of its JSON form.
+ */
+public final class ReplicaCodec {
+
+  public static final int VERSION = 1;
+  static final int TYPE_HEARTBEAT = 0;
+  static final int TYPE_BATCH = 1;
+  private static final int OP_UPSERT = 1;
+  private static final int OP_REMOVE = 2;
+
+  private ReplicaCodec() { }
+
+  /** One change: {@code replica == null} means the room is gone. */
+  public record Entry(String code, RoomReplica replica) { }
+
+  public record Batch(long sentAtMs, boolean heartbeat, List<Entry> entries) { }
+
+  public static byte[] heartbeat(long nowMs) {
+    return encode(new Batch(nowMs, true, List.of()));
+  }
+
+  public static byte[] encode(Batch batch) {
+    try {
+      ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+      DataOutputStream out = new DataOutputStream(bytes);
+      out.writeByte(VERSION);
+      out.writeByte(batch.heartbeat() ? TYPE_HEARTBEAT : TYPE_BATCH);
+      out.writeLong(batch.sentAtMs());
+      writeVarInt(out, batch.entries().size());
+      for (Entry e : batch.entries()) {
+        out.writeByte(e.replica() == null ? OP_REMOVE : OP_UPSERT);
+        writeStr(out, e.code());
+        if (e.replica() != null) writeReplica(out, e.replica());
+      }
+      out.flush();
+      return bytes.toByteArray();
+    } catch (IOException e) {
+      throw new IllegalStateException(e); // in-memory stream
+    }
+  }
+
+  public static Batch decode(byte[] payload) throws IOException {
+    DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload));
+    int version = in.readUnsignedByte();
+    if (version != VERSION) throw new IOException("Unsupported replica stream version " + version);
+    boolean heartbeat = in.readUnsignedByte() == TYPE_HEARTBEAT;
+    long sentAt = in.readLong();
+    int n = readVarInt(in);
+    List<Entry> entries = new ArrayList<>(n);
+    for (int i = 0; i < n; i++) {
+      int op = in.readUnsignedByte();
+      String code = readStr(in);
+      entries.add(new Entry(code, op == OP_UPSERT ? readReplica(in, code) : null));
+    }
+    return new Batch(sentAt, heartbeat, entries);
+  }
+
+  /** A single room on its own (hibernated rooms); decode with {@link #decodeRoom}. */
+  public static byte[] encodeRoom(RoomReplica replica) {
+    return encode(new Batch(0L, false, List.of(new Entry(replica.code(), replica))));
+  }
+
+  public static RoomReplica decodeRoom(byte[] payload) throws IOException {
+    List<Entry> entries = decode(payload).entries();
+    if (entries.size() != 1 || entries.get(0).replica() == null) throw new IOException("Not a single-room payload");
+    return entries.get(0).replica();
+  }
+
+  // ------------------------------------------------------------------------
+
+  private static void writeReplica(DataOutputStream out, RoomReplica r) throws IOException {
+    out.writeByte(flags(r.revealed(), r.autoRevealEnabled(), r.allowSpecials(), r.topicVisible(), r.largeRoomMode()));
+    writeStr(out, r.sequenceId());
+    writeStrList(out, r.specialsSelected());
+    writeStr(out, r.topicLabel());
+    writeStr(out, r.topicUrl());
+    writeVarLong(out, r.timerDurationMs());
+    writeVarLong(out, r.timerDeadline());
+    writeVarLong(out, r.timerRemainingMs());
+    List<RoomReplica.Member> ms = (r.participants() == null) ? List.of() : r.participants();
+    writeVarInt(out, ms.size());
+    for (RoomReplica.Member m : ms) {
+      writeStr(out, m.name());
+      out.writeByte(flags(m.host(), m.participating(), m.active()));
+      writeStr(out, m.vote());
+      writeVarLong(out, m.lastSeenAt());
+      writeStrList(out, m.cids());
+    }
+  }
+
+  private static RoomReplica readReplica(DataInputStream in, String code) throws IOException {
+    int f = in.readUnsignedByte();
+    String seq = readStr(in);
+    List<String> specials = readStrList(in);
+    String label = readStr(in);
+    String url = readStr(in);
+    long duration = readVarLong(in);
+    long deadline = readVarLong(in);
+    long remaining = readVarLong(in);
+    int n = readVarInt(in);
+    List<RoomReplica.Member> ms = new ArrayList<>(n);
+    for (int i = 0; i < n; i++) {
+      String name = readStr(in);
+      int mf = in.readUnsignedByte();
+      String vote = readStr(in);
+      long lastSeen = readVarLong(in);
+      List<String> cids = readStrList(in);
+      ms.add(new RoomReplica.Member(name, bit(mf, 0), bit(mf, 1), bit(mf, 2), vote, lastSeen,
+          cids == null ? List.of() : cids));
+    }
+    return new RoomReplica(code, seq, bit(f, 0), bit(f, 1), bit(f, 2), specials, label, url, bit(f, 3), bit(f, 4),
+        duration, deadline, remaining, ms);
+  }
+
+  private static int flags(boolean... bits) {
+    int f = 0;
+    for (int i = 0; i < bits.length; i++) if (bits[i]) f |= (1 << i);
+    return f;
+  }
+
+  private static boolean bit(int flags, int i) {
+    return (flags & (1 << i)) != 0;
+  }
+
+  private static void writeStr(DataOutputStream out, String s) throws IOException {
+    if (s == null) { writeVarInt(out, 0); return; }
+    byte[] b = s.getBytes(StandardCharsets.UTF_8);
+    writeVarInt(out, b.length + 1);
+    out.write(b);
+  }
+
+  private static String readStr(DataInputStream in) throws IOException {
+    int len = readVarInt(in);
+    if (len == 0) return null;
+    byte[] b = new byte[len - 1];
+    in.readFully(b);
+    return new String(b, StandardCharsets.UTF_8);
+  }
+
+  private static void writeStrList(DataOutputStream out, List<String> list) throws IOException {
+    if (list == null) { writeVarInt(out, 0); return; }
+    writeVarInt(out, list.size() + 1);
+    for (String s : list) writeStr(out, s);
+  }
+
+  private static List<String> readStrList(DataInputStream in) throws IOException {
+    int n = readVarInt(in);
+    if (n == 0) return null;
+    List<String> list = new ArrayList<>(n - 1);
+    for (int i = 0; i < n - 1; i++) list.add(readStr(in));
+    return list;
+  }
+
+  private static void writeVarInt(DataOutputStream out, int v) throws IOException {
+    writeVarLong(out, v & 0xffffffffL);
+  }
+
+  private static int readVarInt(DataInputStream in) throws IOException {
+    long v = readVarLong(in);
+    if (v > Integer.MAX_VALUE) throw new IOException("Varint out of range: " + v);
+    return (int) v;
+  }
+
+  /** Unsigned LEB128; callers only pass non-negative values (timestamps, sizes, durations). */
+  private static void writeVarLong(DataOutputStream out, long v) throws IOException {
+    long x = Math.max(0L, v);
+    while ((x & ~0x7FL) != 0) {
+      out.writeByte((int) ((x & 0x7F) | 0x80));
+      x >>>= 7;
+    }
+    out.writeByte((int) x);
+  }
+
+  private static long readVarLong(DataInputStream in) throws IOException {
+    long v = 0;
+    for (int shift = 0; shift < 64; shift += 7) {
+      int b = in.readUnsignedByte();
+      v |= (long) (b & 0x7F) << shift;
+      if ((b & 0x80) == 0) return v;
+    }
+    throw new IOException("Malformed varint");
+  }
+}
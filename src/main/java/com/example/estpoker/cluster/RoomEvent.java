@@ -0,0 +1,27 @@
+package com.example.estpoker.cluster;
+
+/**
+ * One message on the room event bus.
+ * - STATE: room mutated; receivers apply {@code replica} and re-render room state for their sessions
+ * - FRAME: deliver {@code frame} verbatim to local sessions (replica, if present, is applied silently)
+ * - EPHEMERAL: like FRAME but best-effort (reactions; dropped for congested sessions)
+ * - CLOSE: room closed on the origin node
+ * - HANDOFF: origin gave up ownership; {@code frame} is the new owner's node id, and only that node
+ *   applies {@code replica} (without an id: the node that owns the room by its own ring)
+ * - STORED: the stored room (password, title, owner) was changed on the origin node; receivers read
+ *   it again before their next snapshot write
+ *
+ * {@code sentAtMs} is the origin's wall clock; receivers use it for cross-node latency.
+ */
+public record RoomEvent(
+    String origin,
+    long seq,
+    Kind kind,
+    String roomCode,
+    RoomReplica replica,
+    String frame,
+    long sentAtMs
+) {
+
+  public enum Kind { STATE, FRAME, EPHEMERAL, CLOSE, HANDOFF, STORED }
+}
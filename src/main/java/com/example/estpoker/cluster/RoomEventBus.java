@@ -0,0 +1,26 @@
+package com.example.estpoker.cluster;
+
+import java.util.function.Consumer;
+
+/**
+ * Carries room mutations and broadcast frames between estpoker nodes.
+ * Implementations deliver every published event to the subscribers of all <em>other</em> nodes
+ * (never back to the origin), in publish order per origin.
+ */
+public interface RoomEventBus extends AutoCloseable {
+
+  /** Stable id of this node; stamped into every published event. */
+  String nodeId();
+
+  /** Fire-and-forget; must not block the caller on slow or missing peers. */
+  void publish(RoomEvent.Kind kind, String roomCode, RoomReplica replica, String frame);
+
+  /** Register the local consumer for events from other nodes. */
+  void subscribe(Consumer<RoomEvent> listener);
+
+  /** Cross-node delivery latency as observed by this node. */
+  BusLatency latency();
+
+  @Override
+  void close();
+}
@@ -0,0 +1,157 @@
+package com.example.estpoker.cluster;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Properties;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+
+/**
+ * Which node owns which room.
+ * Membership is "nodeId → public base URL" (e.g. {@code a=http://127.0.0.1:8081}), either static or
+ * read from a properties file that is re-checked periodically. When membership changes, listeners
+ * get (previous ring, new ring) so this node can hand off rooms it no longer owns.
+ */
+public class RoomOwnership implements AutoCloseable {
+
+  private static final Logger log = LoggerFactory.getLogger(RoomOwnership.class);
+
+  private final String selfId;
+  private final int virtualNodes;
+  private final Map<String, String> staticMembers;
+  private final Path membersFile;
+  private final List<BiConsumer<HashRing, HashRing>> listeners = new CopyOnWriteArrayList<>();
+  private final ScheduledExecutorService watcher;
+
+  private volatile Map<String, String> members = Map.of();
+  private volatile HashRing ring;
+  private long fileStamp = Long.MIN_VALUE;
+
+  /**
+   * @param membersFile optional; when set, overrides {@code staticMembers} and is polled every {@code pollMs}
+   */
+  public RoomOwnership(String selfId, int virtualNodes, Map<String, String> staticMembers, Path membersFile, long pollMs) {
+    this.selfId = Objects.requireNonNull(selfId);
+    this.virtualNodes = virtualNodes;
+    this.staticMembers = (staticMembers == null) ? Map.of() : Map.copyOf(staticMembers);
+    this.membersFile = membersFile;
+    this.ring = new HashRing(List.of(), virtualNodes);
+    refresh();
+
+    if (membersFile != null && pollMs > 0) {
+      this.watcher = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "room-ownership-watch");
+        t.setDaemon(true);
+        return t;
+      });
+      watcher.scheduleWithFixedDelay(this::refresh, pollMs, pollMs, TimeUnit.MILLISECONDS);
+    } else {
+      this.watcher = null;
+    }
+  }
+
+  public String selfId() {
+    return selfId;
+  }
+
+  public HashRing ring() {
+    return ring;
+  }
+
+  public Map<String, String> members() {
+    return members;
+  }
+
+  /** Owner id; with an empty ring every room is local. */
+  public String ownerOf(String roomCode) {
+    String owner = ring.ownerOf(roomCode);
+    return (owner == null) ? selfId : owner;
+  }
+
+  public boolean isLocal(String roomCode) {
+    return selfId.equals(ownerOf(roomCode));
+  }
+
+  /** Base URL of the owning node (no trailing slash), or null when the room is local or the URL unknown. */
+  public String ownerBaseUrl(String roomCode) {
+    String owner = ownerOf(roomCode);
+    if (selfId.equals(owner)) return null;
+    String url = members.get(owner);
+    if (url == null || url.isBlank()) return null;
+    return url.endsWith("/") ? url.substring(0, url.length() - 1) : url;
+  }
+
+  public void addListener(BiConsumer<HashRing, HashRing> listener) {
+    listeners.add(listener);
+  }
+
+  /** Re-read membership (file if configured and changed); fires listeners when the node set changes. */
+  public synchronized void refresh() {
+    Map<String, String> next;
+    if (membersFile != null) {
+      long stamp;
+      try {
+        stamp = Files.exists(membersFile) ? Files.getLastModifiedTime(membersFile).toMillis() ^ Files.size(membersFile) : -1L;
+      } catch (IOException e) {
+        log.warn("Cluster members file {} not readable: {}", membersFile, e.toString());
+        return;
+      }
+      if (stamp == fileStamp) return;
+      fileStamp = stamp;
+      next = (stamp == -1L) ? staticMembers : readFile(membersFile);
+      if (next == null) return;
+    } else {
+      next = staticMembers;
+    }
+    apply(next);
+  }
+
+  private void apply(Map<String, String> next) {
+    HashRing previous = this.ring;
+    HashRing updated = new HashRing(next.keySet(), virtualNodes);
+    this.members = Map.copyOf(next);
+    this.ring = updated;
+    if (previous.nodes().equals(updated.nodes())) return;
+
+    log.info("Room ownership ring: {} (self={})", updated.nodes(), selfId);
+    if (!updated.isEmpty() && !updated.nodes().contains(selfId)) {
+      log.warn("This node ({}) is not part of the ring; it owns no rooms", selfId);
+    }
+    for (BiConsumer<HashRing, HashRing> l : listeners) {
+      try { l.accept(previous, updated); } catch (RuntimeException ex) { log.warn("Ring listener failed: {}", ex.toString()); }
+    }
+  }
+
+  private static Map<String, String> readFile(Path file) {
+    Properties p = new Properties();
+    try (Reader r = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+      p.load(r);
+    } catch (IOException e) {
+      log.warn("Cluster members file {} not readable: {}", file, e.toString());
+      return null;
+    }
+    Map<String, String> out = new LinkedHashMap<>();
+    for (String id : p.stringPropertyNames()) {
+      if (!id.isBlank()) out.put(id.trim(), p.getProperty(id, "").trim());
+    }
+    return out;
+  }
+
+  @Override
+  public void close() {
+    if (watcher != null) watcher.shutdownNow();
+  }
+}
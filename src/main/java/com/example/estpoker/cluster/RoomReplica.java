@@ -0,0 +1,35 @@
+package com.example.estpoker.cluster;
+
+import java.util.List;
+
+/**
+ * Full live state of one room as carried between nodes (wire format of the room event bus).
+ * Unlike StoredRoom this includes reveal state, cid links and the round timer.
+ */
+public record RoomReplica(
+    String code,
+    String sequenceId,
+    boolean revealed,
+    boolean autoRevealEnabled,
+    boolean allowSpecials,
+    List<String> specialsSelected,
+    String topicLabel,
+    String topicUrl,
+    boolean topicVisible,
+    boolean largeRoomMode,
+    long timerDurationMs,
+    long timerDeadline,
+    long timerRemainingMs,
+    List<Member> participants
+) {
+
+  public record Member(
+      String name,
+      boolean host,
+      boolean participating,
+      boolean active,
+      String vote,
+      long lastSeenAt,
+      List<String> cids
+  ) { }
+}
@@ -0,0 +1,171 @@
+package com.example.estpoker.cluster;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Standby side: accepts the primary's stream, hands decoded batches to {@code apply} and promotes
+ * this node when the primary goes silent for {@code failoverAfterMs} (0 = manual promotion only).
+ *
+ * Failover time is measured from the last frame received to the end of promotion, i.e. the
+ * window in which nobody served the rooms (detection delay + promotion work).
+ */
+public class StandbyReceiver implements AutoCloseable {
+
+  private static final Logger log = LoggerFactory.getLogger(StandbyReceiver.class);
+
+  static final int MAX_FRAME_BYTES = 16 * 1024 * 1024;
+
+  private final ServerSocket server;
+  private final Consumer<ReplicaCodec.Batch> apply;
+  private final Runnable promote;
+  private final long failoverAfterMs;
+  private final ScheduledExecutorService watchdog;
+
+  private final AtomicLong framesReceived = new AtomicLong();
+  private final AtomicLong roomsApplied = new AtomicLong();
+  private final AtomicLong maxLagMs = new AtomicLong();
+  private volatile long lastFrameAt = 0L;
+  private volatile boolean everConnected = false;
+  private volatile boolean promoted = false;
+  private volatile long promotedAt = 0L;
+  private volatile long failoverMs = -1L;
+  private volatile String promotedBy;
+  private volatile boolean closed = false;
+  private volatile Socket current;
+
+  public StandbyReceiver(String bindHost, int port, long failoverAfterMs,
+                         Consumer<ReplicaCodec.Batch> apply, Runnable promote) throws IOException {
+    this.apply = apply;
+    this.promote = promote;
+    this.failoverAfterMs = failoverAfterMs;
+    this.server = new ServerSocket();
+    this.server.setReuseAddress(true);
+    this.server.bind(new InetSocketAddress(InetAddress.getByName(bindHost), port));
+
+    Thread acceptor = new Thread(this::acceptLoop, "standby-accept");
+    acceptor.setDaemon(true);
+    acceptor.start();
+
+    this.watchdog = Executors.newSingleThreadScheduledExecutor(r -> {
+      Thread t = new Thread(r, "standby-watchdog");
+      t.setDaemon(true);
+      return t;
+    });
+    if (failoverAfterMs > 0) {
+      long tick = Math.max(10L, failoverAfterMs / 10);
+      watchdog.scheduleWithFixedDelay(this::checkPrimary, tick, tick, TimeUnit.MILLISECONDS);
+    }
+    log.info("Standby listening on {}:{} (auto failover after {} ms)", bindHost, port(), failoverAfterMs);
+  }
+
+  public int port() {
+    return server.getLocalPort();
+  }
+
+  public boolean isPromoted() {
+    return promoted;
+  }
+
+  /** Promote now (manual procedure or watchdog). Idempotent. */
+  public synchronized boolean promote(String reason) {
+    if (promoted) return false;
+    long start = System.currentTimeMillis();
+    promote.run();
+    promoted = true;
+    promotedAt = System.currentTimeMillis();
+    promotedBy = reason;
+    failoverMs = (lastFrameAt > 0) ? promotedAt - lastFrameAt : -1L;
+    log.warn("Standby promoted to primary ({}): promotion took {} ms, failover window {} ms",
+        reason, promotedAt - start, failoverMs);
+    // a primary that comes back (or was only partitioned) must not feed us any more
+    try { server.close(); } catch (IOException ignored) {}
+    Socket s = current;
+    if (s != null) {
+      try { s.close(); } catch (IOException ignored) {}
+    }
+    return true;
+  }
+
+  private void checkPrimary() {
+    if (promoted || !everConnected) return; // never saw a primary: nothing to take over
+    if (System.currentTimeMillis() - lastFrameAt >= failoverAfterMs) promote("primary silent");
+  }
+
+  private void acceptLoop() {
+    while (!closed && !promoted) {
+      try (Socket s = server.accept()) {
+        current = s;
+        everConnected = true;
+        lastFrameAt = System.currentTimeMillis();
+        log.info("Standby stream from {}", s.getRemoteSocketAddress());
+        readLoop(new DataInputStream(new BufferedInputStream(s.getInputStream())));
+      } catch (IOException e) {
+        if (!closed && !promoted) log.warn("Standby stream ended: {}", e.toString());
+      }
+    }
+  }
+
+  private void readLoop(DataInputStream in) throws IOException {
+    while (!closed && !promoted) {
+      int len;
+      try {
+        len = in.readInt();
+      } catch (EOFException eof) {
+        return;
+      }
+      if (len < 0 || len > MAX_FRAME_BYTES) throw new IOException("Bad standby frame length " + len);
+      byte[] payload = new byte[len];
+      in.readFully(payload);
+      ReplicaCodec.Batch batch = ReplicaCodec.decode(payload);
+      long now = System.currentTimeMillis();
+      lastFrameAt = now;
+      framesReceived.incrementAndGet();
+      if (!batch.heartbeat()) {
+        synchronized (this) { // never interleave with promote()
+          if (promoted) return;
+          apply.accept(batch);
+        }
+        roomsApplied.addAndGet(batch.entries().size());
+        maxLagMs.accumulateAndGet(now - batch.sentAtMs(), Math::max);
+      }
+    }
+  }
+
+  public Map<String, Object> stats() {
+    Map<String, Object> m = new LinkedHashMap<>();
+    m.put("promoted", promoted);
+    m.put("promotedBy", promotedBy);
+    m.put("promotedAt", promotedAt);
+    m.put("failoverMs", failoverMs);
+    m.put("lastFrameAgoMs", lastFrameAt == 0 ? -1L : System.currentTimeMillis() - lastFrameAt);
+    m.put("framesReceived", framesReceived.get());
+    m.put("roomsApplied", roomsApplied.get());
+    m.put("maxLagMs", maxLagMs.get());
+    m.put("autoFailoverAfterMs", failoverAfterMs);
+    return m;
+  }
+
+  @Override
+  public void close() {
+    closed = true;
+    watchdog.shutdownNow();
+    try { server.close(); } catch (IOException ignored) {}
+  }
+}
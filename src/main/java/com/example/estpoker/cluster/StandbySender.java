@@ -0,0 +1,148 @@
+package com.example.estpoker.cluster;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Primary side of warm standby: streams room changes to one standby node.
+ * - {@link #markDirty} only records the room code; every {@code batchMs} the writer encodes the
+ *   <em>current</em> state of all dirty rooms into one frame, so bursts on a room coalesce
+ * - After (re)connecting the full room set is sent first, so a restarted standby catches up
+ * - Idle links carry a heartbeat every {@code heartbeatMs}; the standby promotes itself on silence
+ */
+public class StandbySender implements AutoCloseable {
+
+  private static final Logger log = LoggerFactory.getLogger(StandbySender.class);
+
+  private static final long RETRY_MIN_MS = 200L;
+  private static final long RETRY_MAX_MS = 5_000L;
+  private static final int CONNECT_TIMEOUT_MS = 2_000;
+
+  private final String host;
+  private final int port;
+  private final long batchMs;
+  private final long heartbeatMs;
+  private final Function<String, RoomReplica> replicaOf;
+  private final Supplier<Collection<String>> roomCodes;
+
+  private final Set<String> dirty = ConcurrentHashMap.newKeySet();
+  private final AtomicLong framesSent = new AtomicLong();
+  private final AtomicLong roomsSent = new AtomicLong();
+  private final AtomicLong bytesSent = new AtomicLong();
+  private final Thread writer;
+  private volatile boolean connected = false;
+  private volatile boolean closed = false;
+
+  /**
+   * @param replicaOf current replica for a room code, or null when the room no longer exists
+   * @param roomCodes all live room codes (full sync after connect)
+   */
+  public StandbySender(String host, int port, long batchMs, long heartbeatMs,
+                       Function<String, RoomReplica> replicaOf, Supplier<Collection<String>> roomCodes) {
+    this.host = host;
+    this.port = port;
+    this.batchMs = Math.max(1L, batchMs);
+    this.heartbeatMs = Math.max(this.batchMs, heartbeatMs);
+    this.replicaOf = replicaOf;
+    this.roomCodes = roomCodes;
+    this.writer = new Thread(this::run, "standby-sender");
+    this.writer.setDaemon(true);
+    this.writer.start();
+  }
+
+  /** Room changed (or was closed); cheap, called on every mutation. */
+  public void markDirty(String roomCode) {
+    if (roomCode != null) dirty.add(roomCode);
+  }
+
+  public boolean isConnected() {
+    return connected;
+  }
+
+  public long framesSent() { return framesSent.get(); }
+  public long roomsSent() { return roomsSent.get(); }
+  public long bytesSent() { return bytesSent.get(); }
+  public int pending() { return dirty.size(); }
+
+  private void run() {
+    long backoff = RETRY_MIN_MS;
+    while (!closed) {
+      try (Socket s = new Socket()) {
+        s.setTcpNoDelay(true);
+        s.connect(new InetSocketAddress(host, port), CONNECT_TIMEOUT_MS);
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(s.getOutputStream()));
+        connected = true;
+        backoff = RETRY_MIN_MS;
+        log.info("Standby stream connected to {}:{}", host, port);
+
+        dirty.addAll(roomCodes.get()); // full sync first
+        long lastSend = 0L;
+        while (!closed) {
+          long now = System.currentTimeMillis();
+          if (!dirty.isEmpty()) {
+            sendBatch(out, now);
+            lastSend = now;
+          } else if (now - lastSend >= heartbeatMs) {
+            writeFrame(out, ReplicaCodec.heartbeat(now));
+            lastSend = now;
+          }
+          LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(batchMs));
+        }
+      } catch (IOException e) {
+        if (closed) return;
+        if (connected) log.warn("Standby stream to {}:{} lost: {}", host, port, e.toString());
+        connected = false;
+        LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(backoff));
+        backoff = Math.min(RETRY_MAX_MS, backoff * 2);
+      } finally {
+        connected = false;
+      }
+    }
+  }
+
+  private void sendBatch(DataOutputStream out, long now) throws IOException {
+    List<String> codes = new ArrayList<>(dirty);
+    List<ReplicaCodec.Entry> entries = new ArrayList<>(codes.size());
+    for (String code : codes) {
+      dirty.remove(code); // a change racing with this remove re-adds it for the next batch
+      entries.add(new ReplicaCodec.Entry(code, replicaOf.apply(code)));
+    }
+    try {
+      writeFrame(out, ReplicaCodec.encode(new ReplicaCodec.Batch(now, false, entries)));
+      roomsSent.addAndGet(entries.size());
+    } catch (IOException e) {
+      dirty.addAll(codes); // resend after reconnect
+      throw e;
+    }
+  }
+
+  private void writeFrame(DataOutputStream out, byte[] payload) throws IOException {
+    out.writeInt(payload.length);
+    out.write(payload);
+    out.flush();
+    framesSent.incrementAndGet();
+    bytesSent.addAndGet(4L + payload.length);
+  }
+
+  @Override
+  public void close() {
+    closed = true;
+    writer.interrupt();
+  }
+}
@@ -0,0 +1,248 @@
+package com.example.estpoker.cluster;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Room event bus over plain TCP (full mesh, one outbound link per peer).
+ * - Each event is one JSON line; the reader dispatches in arrival order per peer
+ * - Publishing only enqueues; a writer thread per peer drains its queue and flushes once the
+ *   queue is empty, so bursts go out as one write
+ * - A peer that is down is retried with backoff; its queue is bounded and drops (and counts)
+ *   events when full, so a dead peer never blocks a broadcast
+ *
+ * Meant for a handful of nodes on one host or LAN (e.g. several local processes in tests).
+ */
+public class TcpRoomEventBus implements RoomEventBus {
+
+  private static final Logger log = LoggerFactory.getLogger(TcpRoomEventBus.class);
+
+  static final int QUEUE_CAPACITY = 10_000;
+  private static final long RETRY_MIN_MS = 200L;
+  private static final long RETRY_MAX_MS = 5_000L;
+  private static final int CONNECT_TIMEOUT_MS = 2_000;
+
+  private final String nodeId;
+  private final ObjectMapper mapper = new ObjectMapper()
+      .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+  private final AtomicLong seq = new AtomicLong();
+  private final BusLatency latency = new BusLatency();
+  private final List<Consumer<RoomEvent>> listeners = new CopyOnWriteArrayList<>();
+  private final List<PeerLink> peers = new ArrayList<>();
+  private final List<Socket> inbound = new CopyOnWriteArrayList<>();
+  private final ServerSocket server;
+  private volatile boolean closed = false;
+
+  /**
+   * @param bindHost address to listen on (e.g. 127.0.0.1)
+   * @param port     listen port; 0 picks a free one (see {@link #port()})
+   * @param peerAddrs other nodes as "host:port"
+   */
+  public TcpRoomEventBus(String nodeId, String bindHost, int port, List<String> peerAddrs) throws IOException {
+    this.nodeId = nodeId;
+    this.server = new ServerSocket();
+    this.server.setReuseAddress(true);
+    this.server.bind(new InetSocketAddress(InetAddress.getByName(bindHost), port));
+    daemon("room-bus-accept-" + nodeId, this::acceptLoop).start();
+    if (peerAddrs != null) {
+      for (String addr : peerAddrs) addPeer(addr);
+    }
+    log.info("Room event bus (tcp) node={} listening on {}:{} peers={}", nodeId, bindHost, port(), peerAddrs);
+  }
+
+  /** Actual listen port (useful with port 0). */
+  public int port() {
+    return server.getLocalPort();
+  }
+
+  /** Add an outbound link to another node ("host:port"). */
+  public synchronized void addPeer(String addr) {
+    if (addr == null || addr.isBlank()) return;
+    int i = addr.lastIndexOf(':');
+    if (i <= 0) throw new IllegalArgumentException("Peer must be host:port, got " + addr);
+    PeerLink link = new PeerLink(addr.substring(0, i).trim(), Integer.parseInt(addr.substring(i + 1).trim()));
+    peers.add(link);
+    daemon("room-bus-peer-" + addr, link::writeLoop).start();
+  }
+
+  @Override
+  public String nodeId() {
+    return nodeId;
+  }
+
+  @Override
+  public void publish(RoomEvent.Kind kind, String roomCode, RoomReplica replica, String frame) {
+    if (closed) return;
+    RoomEvent e = new RoomEvent(nodeId, seq.incrementAndGet(), kind, roomCode, replica, frame, System.currentTimeMillis());
+    String line;
+    try {
+      line = mapper.writeValueAsString(e);
+    } catch (IOException ex) {
+      log.warn("Room event bus: cannot encode event for room {}: {}", roomCode, ex.toString());
+      return;
+    }
+    List<PeerLink> snapshot;
+    synchronized (this) { snapshot = new ArrayList<>(peers); }
+    for (PeerLink p : snapshot) {
+      if (!p.queue.offer(line)) latency.dropped();
+    }
+  }
+
+  @Override
+  public void subscribe(Consumer<RoomEvent> listener) {
+    listeners.add(listener);
+  }
+
+  @Override
+  public BusLatency latency() {
+    return latency;
+  }
+
+  @Override
+  public void close() {
+    closed = true;
+    try { server.close(); } catch (IOException ignored) {}
+    for (Socket s : inbound) {
+      try { s.close(); } catch (IOException ignored) {}
+    }
+    synchronized (this) {
+      for (PeerLink p : peers) p.close();
+    }
+  }
+
+  // ------------------------------------------------------------------------
+  // Inbound
+  // ------------------------------------------------------------------------
+
+  private void acceptLoop() {
+    while (!closed) {
+      try {
+        Socket s = server.accept();
+        s.setTcpNoDelay(true);
+        inbound.add(s);
+        daemon("room-bus-in-" + s.getRemoteSocketAddress(), () -> readLoop(s)).start();
+      } catch (IOException e) {
+        if (!closed) log.warn("Room event bus accept failed: {}", e.toString());
+      }
+    }
+  }
+
+  private void readLoop(Socket s) {
+    try (BufferedReader in = new BufferedReader(new InputStreamReader(s.getInputStream(), StandardCharsets.UTF_8))) {
+      String line;
+      while (!closed && (line = in.readLine()) != null) {
+        if (line.isEmpty()) continue;
+        RoomEvent e;
+        try {
+          e = mapper.readValue(line, RoomEvent.class);
+        } catch (IOException bad) {
+          log.warn("Room event bus: dropping malformed event: {}", bad.toString());
+          continue;
+        }
+        if (nodeId.equals(e.origin())) continue;
+        for (Consumer<RoomEvent> l : listeners) {
+          try { l.accept(e); } catch (RuntimeException ex) { log.warn("Room event listener failed: {}", ex.toString()); }
+        }
+        latency.record(System.currentTimeMillis() - e.sentAtMs());
+      }
+    } catch (IOException e) {
+      if (!closed) log.info("Room event bus: inbound link {} closed: {}", s.getRemoteSocketAddress(), e.toString());
+    } finally {
+      inbound.remove(s);
+    }
+  }
+
+  // ------------------------------------------------------------------------
+  // Outbound
+  // ------------------------------------------------------------------------
+
+  private final class PeerLink {
+    final String host;
+    final int port;
+    final BlockingQueue<String> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+    volatile Socket socket;
+
+    PeerLink(String host, int port) {
+      this.host = host;
+      this.port = port;
+    }
+
+    void writeLoop() {
+      long backoff = RETRY_MIN_MS;
+      String pending = null;
+      while (!closed) {
+        try (Socket s = new Socket()) {
+          s.setTcpNoDelay(true);
+          s.connect(new InetSocketAddress(host, port), CONNECT_TIMEOUT_MS);
+          socket = s;
+          backoff = RETRY_MIN_MS;
+          Writer out = new BufferedWriter(new OutputStreamWriter(s.getOutputStream(), StandardCharsets.UTF_8));
+          while (!closed) {
+            if (pending == null) pending = queue.poll(1, TimeUnit.SECONDS);
+            if (pending == null) continue;
+            out.write(pending);
+            out.write('\n');
+            pending = null;
+            // Group everything already queued into the same flush
+            String next;
+            while ((next = queue.poll()) != null) {
+              out.write(next);
+              out.write('\n');
+            }
+            out.flush();
+          }
+        } catch (InterruptedException ie) {
+          Thread.currentThread().interrupt();
+          return;
+        } catch (IOException e) {
+          if (closed) return;
+          log.debug("Room event bus: peer {}:{} unavailable ({}), retry in {} ms", host, port, e.toString(), backoff);
+          try {
+            Thread.sleep(backoff);
+          } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            return;
+          }
+          backoff = Math.min(RETRY_MAX_MS, backoff * 2);
+        } finally {
+          socket = null;
+        }
+      }
+    }
+
+    void close() {
+      Socket s = socket;
+      if (s != null) {
+        try { s.close(); } catch (IOException ignored) {}
+      }
+    }
+  }
+
+  private static Thread daemon(String name, Runnable r) {
+    Thread t = new Thread(r, name);
+    t.setDaemon(true);
+    return t;
+  }
+}
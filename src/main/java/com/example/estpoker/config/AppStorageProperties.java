@@ -13,6 +13,9 @@ public class AppStorageProperties {
   /** FTPS subsection */
   private Ftps ftps = new Ftps();
 
+  /** Local disk subsection (mode "local") */
+  private Local local = new Local();
+
   /** Prefer IPv4 addresses on data/control connections. */
   private boolean preferIpv4 = true;
   public boolean isPreferIpv4() { return preferIpv4; }
@@ -26,6 +29,9 @@ public class AppStorageProperties {
   public Ftps getFtps() { return ftps; }
   public void setFtps(Ftps ftps) { this.ftps = ftps; }
 
+  public Local getLocal() { return local; }
+  public void setLocal(Local local) { this.local = local; }
+
   /** Mutable holder for FTPS connection options. */
   public static class Ftps {
     private String host;
@@ -40,6 +46,7 @@ public class AppStorageProperties {
     private Integer dataTimeoutMs = 20000;
     private boolean useUtf8 = true;
     private boolean debug = false;
+    private Pool pool = new Pool();
 
     // --- getters/setters ---
 
@@ -75,5 +82,56 @@ public class AppStorageProperties {
 
     public boolean isDebug() { return debug; }
     public void setDebug(boolean debug) { this.debug = debug; }
+
+    public Pool getPool() { return pool; }
+    public void setPool(Pool pool) { this.pool = pool; }
+  }
+
+  /** Logged-in control connections kept open between operations (app.storage.ftps.pool.*). */
+  public static class Pool {
+    private int maxSize = 4;                   // concurrent connections (providers limit logins per user)
+    private long borrowTimeoutMs = 10_000L;    // wait for a free connection before failing
+    private long validateAfterIdleMs = 1_000L; // NOOP on borrow when idle at least this long
+    private long keepAliveMs = 30_000L;        // NOOP idle connections this often
+    private long maxIdleMs = 240_000L;         // close connections idle longer (servers drop them ~300 s)
+    private long maxLifetimeMs = 900_000L;     // reconnect after this long, whatever the state
+
+    public int getMaxSize() { return maxSize; }
+    public void setMaxSize(int maxSize) { this.maxSize = maxSize; }
+
+    public long getBorrowTimeoutMs() { return borrowTimeoutMs; }
+    public void setBorrowTimeoutMs(long borrowTimeoutMs) { this.borrowTimeoutMs = borrowTimeoutMs; }
+
+    public long getValidateAfterIdleMs() { return validateAfterIdleMs; }
+    public void setValidateAfterIdleMs(long validateAfterIdleMs) { this.validateAfterIdleMs = validateAfterIdleMs; }
+
+    public long getKeepAliveMs() { return keepAliveMs; }
+    public void setKeepAliveMs(long keepAliveMs) { this.keepAliveMs = keepAliveMs; }
+
+    public long getMaxIdleMs() { return maxIdleMs; }
+    public void setMaxIdleMs(long maxIdleMs) { this.maxIdleMs = maxIdleMs; }
+
+    public long getMaxLifetimeMs() { return maxLifetimeMs; }
+    public void setMaxLifetimeMs(long maxLifetimeMs) { this.maxLifetimeMs = maxLifetimeMs; }
+  }
+
+  /** Files on the local disk (app.storage.local.*). */
+  public static class Local {
+    private String dir = "data";                 // root directory; rooms go to {dir}/rooms
+    private String fsync = "batched";            // always | batched | never
+    private long fsyncIntervalMs = 1_000L;       // batched: max age of a rename not yet on disk
+    private int mmapThresholdBytes = 64 * 1024;  // files at least this big are read memory-mapped
+
+    public String getDir() { return dir; }
+    public void setDir(String dir) { this.dir = dir; }
+
+    public String getFsync() { return fsync; }
+    public void setFsync(String fsync) { this.fsync = fsync; }
+
+    public long getFsyncIntervalMs() { return fsyncIntervalMs; }
+    public void setFsyncIntervalMs(long fsyncIntervalMs) { this.fsyncIntervalMs = fsyncIntervalMs; }
+
+    public int getMmapThresholdBytes() { return mmapThresholdBytes; }
+    public void setMmapThresholdBytes(int mmapThresholdBytes) { this.mmapThresholdBytes = mmapThresholdBytes; }
   }
 }
@@ -0,0 +1,91 @@
+package com.example.estpoker.config;
+
+import com.example.estpoker.cluster.InJvmRoomEventBus;
+import com.example.estpoker.cluster.OwnerHandshakeInterceptor;
+import com.example.estpoker.cluster.OwnerRedirectInterceptor;
+import com.example.estpoker.cluster.RoomEventBus;
+import com.example.estpoker.cluster.RoomOwnership;
+import com.example.estpoker.cluster.TcpRoomEventBus;
+import com.example.estpoker.service.GameService;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.lang.NonNull;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Locale;
+import java.util.UUID;
+
+/**
+ * Multi-node wiring. Without app.cluster.enabled=true there is no bus bean and
+ * GameService stays purely local.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "app.cluster", name = "enabled", havingValue = "true")
+public class ClusterConfig {
+
+  @Bean(destroyMethod = "close")
+  public RoomEventBus roomEventBus(ClusterProperties props) throws IOException {
+    String nodeId = (props.getNodeId() == null || props.getNodeId().isBlank())
+        ? "node-" + UUID.randomUUID().toString().substring(0, 8)
+        : props.getNodeId().trim();
+
+    String transport = props.getTransport() == null ? "tcp" : props.getTransport().trim().toLowerCase(Locale.ROOT);
+    if ("jvm".equals(transport)) {
+      return new InJvmRoomEventBus(nodeId, new InJvmRoomEventBus.Hub());
+    }
+    return new TcpRoomEventBus(nodeId, props.getBindHost(), props.getPort(), props.getPeers());
+  }
+
+  /**
+   * Single-owner rooms (app.cluster.ownership=true): GameService stops mirroring, /room and the
+   * /gameSocket handshake point clients at the owner, and ring changes hand rooms over.
+   */
+  @Configuration
+  @ConditionalOnProperty(prefix = "app.cluster", name = "ownership", havingValue = "true")
+  static class OwnershipConfig implements WebMvcConfigurer {
+
+    private final ObjectProvider<OwnerRedirectInterceptor> redirect;
+
+    OwnershipConfig(ObjectProvider<OwnerRedirectInterceptor> redirect) {
+      this.redirect = redirect;
+    }
+
+    @Bean(destroyMethod = "close")
+    public RoomOwnership roomOwnership(ClusterProperties props, RoomEventBus bus, GameService gameService) {
+      Path file = (props.getMembersFile() == null || props.getMembersFile().isBlank())
+          ? null : Path.of(props.getMembersFile().trim());
+      RoomOwnership ownership = new RoomOwnership(bus.nodeId(), props.getVirtualNodes(),
+          props.getMembers(), file, props.getMembersPollMs());
+
+      gameService.useOwnership(ownership::isLocal);
+      ownership.addListener((previous, next) -> {
+        for (String code : gameService.roomCodes()) {
+          if (!ownership.isLocal(code)) {
+            gameService.handOffRoom(code, ownership.ownerOf(code), ownership.ownerBaseUrl(code));
+          }
+        }
+      });
+      return ownership;
+    }
+
+    @Bean
+    public OwnerRedirectInterceptor ownerRedirectInterceptor(RoomOwnership ownership) {
+      return new OwnerRedirectInterceptor(ownership);
+    }
+
+    @Bean
+    public OwnerHandshakeInterceptor ownerHandshakeInterceptor(RoomOwnership ownership) {
+      return new OwnerHandshakeInterceptor(ownership);
+    }
+
+    @Override
+    public void addInterceptors(@NonNull InterceptorRegistry registry) {
+      registry.addInterceptor(redirect.getObject()).addPathPatterns("/room");
+    }
+  }
+}
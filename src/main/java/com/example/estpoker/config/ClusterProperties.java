@@ -0,0 +1,78 @@
+package com.example.estpoker.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@Configuration
+@ConfigurationProperties("app.cluster")
+public class ClusterProperties {
+
+  /** Run as one node of several (room events are exchanged over the bus). */
+  private boolean enabled = false;
+
+  /** "tcp" (separate processes) or "jvm" (in-process, mainly for tests). */
+  private String transport = "tcp";
+
+  /** Node id; blank = generated at startup. */
+  private String nodeId;
+
+  /** TCP listen address/port for events from other nodes. */
+  private String bindHost = "127.0.0.1";
+  private int port = 7701;
+
+  /** Other nodes as host:port. */
+  private List<String> peers = new ArrayList<>();
+
+  /** Each room lives on exactly one node (consistent-hash ring) instead of being mirrored everywhere. */
+  private boolean ownership = false;
+
+  /** Ring members: node id → public base URL (http://host:port) used for redirects. */
+  private Map<String, String> members = new LinkedHashMap<>();
+
+  /** Optional properties file (nodeId=baseUrl per line); overrides members and is re-read on change. */
+  private String membersFile;
+  private long membersPollMs = 2_000L;
+
+  /** Points per node on the ring; more = smoother spread. */
+  private int virtualNodes = 128;
+
+  // --- getters/setters ---
+
+  public boolean isEnabled() { return enabled; }
+  public void setEnabled(boolean enabled) { this.enabled = enabled; }
+
+  public String getTransport() { return transport; }
+  public void setTransport(String transport) { this.transport = transport; }
+
+  public String getNodeId() { return nodeId; }
+  public void setNodeId(String nodeId) { this.nodeId = nodeId; }
+
+  public String getBindHost() { return bindHost; }
+  public void setBindHost(String bindHost) { this.bindHost = bindHost; }
+
+  public int getPort() { return port; }
+  public void setPort(int port) { this.port = port; }
+
+  public List<String> getPeers() { return peers; }
+  public void setPeers(List<String> peers) { this.peers = (peers == null ? new ArrayList<>() : peers); }
+
+  public boolean isOwnership() { return ownership; }
+  public void setOwnership(boolean ownership) { this.ownership = ownership; }
+
+  public Map<String, String> getMembers() { return members; }
+  public void setMembers(Map<String, String> members) { this.members = (members == null ? new LinkedHashMap<>() : members); }
+
+  public String getMembersFile() { return membersFile; }
+  public void setMembersFile(String membersFile) { this.membersFile = membersFile; }
+
+  public long getMembersPollMs() { return membersPollMs; }
+  public void setMembersPollMs(long membersPollMs) { this.membersPollMs = membersPollMs; }
+
+  public int getVirtualNodes() { return virtualNodes; }
+  public void setVirtualNodes(int virtualNodes) { this.virtualNodes = virtualNodes; }
+}
@@ -7,7 +7,7 @@ import org.springframework.context.annotation.Configuration;
 
 import java.util.function.Supplier;
 
-/** Factory for short-lived FTPSClient instances. Never touches the socket here. */
+/** Factory for FTPSClient instances (connected and pooled by FtpsConnectionPool). Never touches the socket here. */
 @Configuration
 public class FtpsClientConfig {
 
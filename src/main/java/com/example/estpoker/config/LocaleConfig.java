@@ -6,15 +6,18 @@ import org.springframework.lang.NonNull; // import the Spring NonNull annotation
 import org.springframework.web.servlet.LocaleResolver;
 import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import org.springframework.web.servlet.i18n.CookieLocaleResolver;
 import org.springframework.web.servlet.i18n.LocaleChangeInterceptor;
-import org.springframework.web.servlet.i18n.SessionLocaleResolver;
 
+import java.time.Duration;
 import java.util.Locale;
 
 /**
  * Locale/i18n configuration.
  *
- * - Stores the user's Locale in the HTTP session (SessionLocaleResolver).
+ * - Stores the user's Locale in a cookie (CookieLocaleResolver), never in an HTTP session:
+ *   visitors who only open a link or switch the language must not allocate server state.
+ * - The WebSocket handshake reads the same cookie (see LocaleHandshakeInterceptor).
  * - Allows switching the language using the query parameter "lang"
  *   (e.g., /room?lang=de or via our /i18n?lang=de controller that 303-redirects back).
  *
@@ -24,16 +27,21 @@ import java.util.Locale;
 @Configuration
 public class LocaleConfig implements WebMvcConfigurer {
 
-    /** Keep the selected locale in the session; default to English. */
+    /** Name of the cookie holding the selected language tag (e.g. "de"). */
+    public static final String LOCALE_COOKIE = "estpoker-lang";
+
+    /** Keep the selected locale in a cookie; default to English. */
     @Bean
     public LocaleResolver localeResolver() {
-        SessionLocaleResolver r = new SessionLocaleResolver();
+        CookieLocaleResolver r = new CookieLocaleResolver(LOCALE_COOKIE);
         r.setDefaultLocale(Locale.ENGLISH);
+        r.setCookieMaxAge(Duration.ofDays(365));
+        r.setCookieSameSite("Lax");
         return r;
     }
 
     /**
-     * Interceptor that checks the request for "?lang=..." and updates the session locale.
+     * Interceptor that checks the request for "?lang=..." and updates the locale cookie.
      * We keep the parameter name "lang" to align with menu.js and LocaleController.
      */
     @Bean
@@ -0,0 +1,33 @@
+package com.example.estpoker.config;
+
+import com.example.estpoker.cluster.RoomEvent;
+import com.example.estpoker.cluster.RoomReplica;
+import com.example.estpoker.rooms.model.StoredRoom;
+import org.springframework.aot.hint.BindingReflectionHintsRegistrar;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.ImportRuntimeHints;
+
+/**
+ * Runtime hints for the AOT / native builds (see the "fast-start" and "native" Maven profiles).
+ * Spring covers beans, controllers and properties; what it cannot see are the types we hand to a
+ * plain Jackson ObjectMapper ourselves, and the message bundles.
+ */
+@Configuration(proxyBeanMethods = false)
+@ImportRuntimeHints(NativeHints.Registrar.class)
+public class NativeHints {
+
+  static class Registrar implements RuntimeHintsRegistrar {
+    @Override
+    public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+      // JSON (de)serialized outside Spring MVC: stored rooms (FTPS) and bus events (TCP)
+      new BindingReflectionHintsRegistrar().registerReflectionHints(hints.reflection(),
+          StoredRoom.class, RoomEvent.class, RoomReplica.class, RoomReplica.Member.class);
+
+      hints.resources().registerResourceBundle("messages");
+      hints.resources().registerPattern("templates/**");
+      hints.resources().registerPattern("static/**");
+    }
+  }
+}
@@ -1,10 +1,36 @@
 package com.example.estpoker.config;
 
+import com.example.estpoker.cluster.RoomEvent;
+import com.example.estpoker.cluster.RoomEventBus;
 import com.example.estpoker.persistence.NoOpPersistentRooms;
 import com.example.estpoker.persistence.PersistentRooms;
+import com.example.estpoker.rooms.codec.BinarySnapshotCodec;
+import com.example.estpoker.rooms.codec.JsonSnapshotCodec;
+import com.example.estpoker.rooms.codec.SnapshotCodec;
+import com.example.estpoker.rooms.repo.BloomRoomStore;
+import com.example.estpoker.rooms.repo.CachingRoomStore;
+import com.example.estpoker.rooms.repo.FtpsRoomStore;
+import com.example.estpoker.rooms.repo.RoomStore;
+import com.example.estpoker.rooms.repo.TieredRoomStore;
+import com.example.estpoker.rooms.service.LiveRoomArchive;
+import com.example.estpoker.rooms.service.RoomJournal;
+import com.example.estpoker.rooms.service.RoomSnapshotter;
+import com.example.estpoker.rooms.service.StoredRoomLoader;
+import com.example.estpoker.rooms.service.StoredRoomPersistenceService;
+import com.example.estpoker.storage.FileStorage;
+import com.example.estpoker.storage.LocalFileStorage;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
 
 @Configuration
 public class PersistenceConfig {
@@ -15,4 +41,132 @@ public class PersistenceConfig {
   public PersistentRooms persistentRoomsNoOp() {
     return new NoOpPersistentRooms();
   }
+
+  // Byte format of stored rooms; both codecs read both formats (legacy JSON keeps loading)
+  @Bean
+  @ConditionalOnMissingBean(SnapshotCodec.class)
+  public SnapshotCodec snapshotCodec(@Value("${app.rooms.codec.format:binary}") String format,
+                                     @Value("${app.rooms.codec.compress:true}") boolean compress,
+                                     @Value("${app.rooms.codec.compress-min-bytes:256}") int compressMinBytes) {
+    if ("json".equalsIgnoreCase(format.trim())) return new JsonSnapshotCodec();
+    return new BinarySnapshotCodec(compress, compressMinBytes);
+  }
+
+  /** Read-through cache, bloom filter and optional local disk tier in front of the FTPS room store. */
+  @Configuration
+  @ConditionalOnProperty(name = "app.storage.mode", havingValue = "ftps")
+  static class RemoteRoomCache {
+
+    // Local copy of every room touched here; writes reach FTPS through a durable outbox
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty(name = "app.rooms.tiered.enabled", havingValue = "true")
+    public TieredRoomStore tieredRoomStore(FtpsRoomStore ftps, SnapshotCodec codec, AppStorageProperties props,
+                                           @Value("${app.rooms.tiered.dir:data/tier}") String dir,
+                                           @Value("${app.rooms.tiered.sync-threads:2}") int syncThreads,
+                                           @Value("${app.rooms.tiered.refresh-threads:4}") int refreshThreads,
+                                           @Value("${app.rooms.tiered.refresh-after-ms:60000}") long refreshAfterMs)
+        throws IOException {
+      AppStorageProperties.Local cfg = new AppStorageProperties.Local();
+      cfg.setDir(dir);
+      cfg.setFsync(props.getLocal().getFsync());
+      cfg.setFsyncIntervalMs(props.getLocal().getFsyncIntervalMs());
+      cfg.setMmapThresholdBytes(props.getLocal().getMmapThresholdBytes());
+      return new TieredRoomStore(new LocalFileStorage(cfg), codec, ftps, syncThreads, refreshThreads, refreshAfterMs);
+    }
+
+    // Codes never stored are answered in memory; built from the room index once it was reconciled
+    // with the FTPS directory, plus every room the local tier holds (its outbox may not be listed yet).
+    // Rooms stored on other nodes are added as their STORED event arrives.
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty(name = "app.rooms.bloom.enabled", havingValue = "true", matchIfMissing = true)
+    public BloomRoomStore bloomRoomStore(FtpsRoomStore ftps, ObjectProvider<TieredRoomStore> tiered,
+                                         ObjectProvider<RoomEventBus> bus,
+                                         @Value("${app.rooms.bloom.expected-rooms:100000}") int expectedRooms,
+                                         @Value("${app.rooms.bloom.fpp:0.01}") double fpp,
+                                         @Value("${app.rooms.bloom.rebuild-ms:30000}") long rebuildMs) {
+      TieredRoomStore t = tiered.getIfAvailable();
+      BloomRoomStore bloom = (t == null)
+          ? new BloomRoomStore(ftps, expectedRooms, fpp, rebuildMs, ftps::indexReconciled, List::of)
+          : new BloomRoomStore(t, expectedRooms, fpp, rebuildMs, ftps::indexReconciled, t::localCodes);
+      bus.ifAvailable(b -> b.subscribe(e -> {
+        if (e.kind() == RoomEvent.Kind.STORED) bloom.remember(e.roomCode());
+      }));
+      return bloom;
+    }
+
+    // One FTPS round trip per miss for password/name checks and saveFromLive (or one disk read, tiered)
+    @Bean
+    @Primary
+    @ConditionalOnProperty(name = "app.rooms.cache.enabled", havingValue = "true", matchIfMissing = true)
+    public CachingRoomStore cachingRoomStore(FtpsRoomStore ftps, ObjectProvider<TieredRoomStore> tiered,
+                                             ObjectProvider<BloomRoomStore> bloom,
+                                             @Value("${app.rooms.cache.max-entries:5000}") int maxEntries,
+                                             @Value("${app.rooms.cache.ttl-ms:30000}") long ttlMs) {
+      return new CachingRoomStore(remote(ftps, tiered, bloom), maxEntries, ttlMs);
+    }
+
+    // Without the cache: the outermost of bloom filter / tier / FTPS is what everybody uses
+    // (an alias; the store itself is closed by its own bean)
+    @Bean(destroyMethod = "")
+    @Primary
+    @ConditionalOnProperty(name = "app.rooms.cache.enabled", havingValue = "false")
+    public RoomStore uncachedRoomStore(FtpsRoomStore ftps, ObjectProvider<TieredRoomStore> tiered,
+                                       ObjectProvider<BloomRoomStore> bloom) {
+      return remote(ftps, tiered, bloom);
+    }
+
+    private static RoomStore remote(FtpsRoomStore ftps, ObjectProvider<TieredRoomStore> tiered,
+                                    ObjectProvider<BloomRoomStore> bloom) {
+      BloomRoomStore b = bloom.getIfAvailable();
+      if (b != null) return b;
+      TieredRoomStore t = tiered.getIfAvailable();
+      return t != null ? t : ftps;
+    }
+  }
+
+  /** Stored snapshots and the restart archive; backed by FTPS or the local disk (app.storage.mode). */
+  @Configuration
+  @ConditionalOnExpression("'${app.storage.mode:local}' == 'ftps' or '${app.storage.mode:local}' == 'local'")
+  static class RoomStorage {
+
+    // Write-behind live -> StoredRoom sync: debounce capped by maxDelayMs, bounded workers, retries
+    @Bean(destroyMethod = "shutdown")
+    @ConditionalOnProperty(name = "features.persistentRooms.snapshot.enabled", havingValue = "true")
+    @ConditionalOnProperty(name = "app.rooms.journal.enabled", havingValue = "false", matchIfMissing = true)
+    public RoomSnapshotter roomSnapshotter(StoredRoomPersistenceService service,
+                                           @Value("${features.persistentRooms.snapshot.debounceMs:1500}") long debounceMs,
+                                           @Value("${features.persistentRooms.snapshot.maxDelayMs:10000}") long maxDelayMs,
+                                           @Value("${features.persistentRooms.snapshot.workers:2}") int workers,
+                                           @Value("${features.persistentRooms.snapshot.maxAttempts:6}") int maxAttempts) {
+      return new RoomSnapshotter(service, debounceMs, maxDelayMs, workers, maxAttempts);
+    }
+
+    // Journaled alternative: every change appended locally (group commit), compacted into the store
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty(name = "app.rooms.journal.enabled", havingValue = "true")
+    public RoomJournal roomJournal(StoredRoomPersistenceService service,
+                                   @Value("${app.rooms.journal.dir:data/journal}") String dir,
+                                   @Value("${app.rooms.journal.segment-bytes:16777216}") long segmentBytes,
+                                   @Value("${app.rooms.journal.fsync:true}") boolean fsync,
+                                   @Value("${app.rooms.journal.compact-interval-ms:30000}") long compactIntervalMs)
+        throws IOException {
+      return new RoomJournal(service, Path.of(dir), segmentBytes, fsync, compactIntervalMs);
+    }
+
+    // First join of a code loads its stored settings off the WS thread (single flight + negative cache)
+    @Bean(destroyMethod = "shutdown")
+    @ConditionalOnProperty(name = "app.rooms.load.enabled", havingValue = "true", matchIfMissing = true)
+    public StoredRoomLoader storedRoomLoader(RoomStore store,
+                                             @Value("${app.rooms.load.threads:2}") int threads,
+                                             @Value("${app.rooms.load.negative-cache-size:10000}") int negativeCapacity,
+                                             @Value("${app.rooms.load.negative-ttl-ms:3600000}") long negativeTtlMs) {
+      return new StoredRoomLoader(store, threads, negativeCapacity, negativeTtlMs);
+    }
+
+    // Live room handover between instances (drain -> restore)
+    @Bean
+    public LiveRoomArchive liveRoomArchive(FileStorage storage) {
+      return new LiveRoomArchive(storage);
+    }
+  }
 }
@@ -0,0 +1,44 @@
+package com.example.estpoker.config;
+
+import com.example.estpoker.cluster.ReplicaCodec;
+import com.example.estpoker.cluster.StandbyReceiver;
+import com.example.estpoker.cluster.StandbySender;
+import com.example.estpoker.service.GameService;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.io.IOException;
+
+/**
+ * Warm standby (app.standby.role):
+ * - primary: every room change marks the room dirty; StandbySender streams batched binary replicas
+ * - standby: StandbyReceiver mirrors them into the local GameService; on promotion round timers
+ *   are re-armed, replicated participants get a grace period to reconnect (presence/host rules
+ *   apply after it) and /healthz turns ready, so the load balancer switches over
+ */
+@Configuration
+public class StandbyConfig {
+
+  @Bean(destroyMethod = "close")
+  @ConditionalOnProperty(prefix = "app.standby", name = "role", havingValue = "primary")
+  public StandbySender standbySender(StandbyProperties props, GameService gameService) {
+    StandbySender sender = new StandbySender(props.getHost(), props.getPort(), props.getBatchMs(),
+        props.getHeartbeatMs(), gameService::replicaOf, gameService::roomCodes);
+    gameService.setRoomChangeListener(sender::markDirty);
+    return sender;
+  }
+
+  @Bean(destroyMethod = "close")
+  @ConditionalOnProperty(prefix = "app.standby", name = "role", havingValue = "standby")
+  public StandbyReceiver standbyReceiver(StandbyProperties props, GameService gameService) throws IOException {
+    return new StandbyReceiver(props.getBindHost(), props.getPort(), props.getFailoverAfterMs(),
+        batch -> {
+          for (ReplicaCodec.Entry e : batch.entries()) {
+            if (e.replica() == null) gameService.dropRoom(e.code());
+            else gameService.restoreReplica(e.replica());
+          }
+        },
+        () -> gameService.resumeAfterPromotion(props.getPromoteGraceMs()));
+  }
+}
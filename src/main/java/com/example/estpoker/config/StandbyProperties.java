@@ -0,0 +1,57 @@
+package com.example.estpoker.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConfigurationProperties("app.standby")
+public class StandbyProperties {
+
+  /** off | primary (streams to the standby) | standby (keeps a hot copy, promotes on failure). */
+  private String role = "off";
+
+  /** Primary: standby address to stream to. */
+  private String host = "127.0.0.1";
+
+  /** Standby: listen address/port; primary: target port. */
+  private String bindHost = "127.0.0.1";
+  private int port = 7801;
+
+  /** Primary: changes are collected for this long and sent as one frame. */
+  private long batchMs = 50L;
+
+  /** Primary: heartbeat interval while idle. */
+  private long heartbeatMs = 500L;
+
+  /** Standby: promote after this long without frames (0 = only via POST /api/standby/promote). */
+  private long failoverAfterMs = 3_000L;
+
+  /** Standby: after promotion, replicated participants have this long to reconnect. */
+  private long promoteGraceMs = 30_000L;
+
+  // --- getters/setters ---
+
+  public String getRole() { return role; }
+  public void setRole(String role) { this.role = role; }
+
+  public String getHost() { return host; }
+  public void setHost(String host) { this.host = host; }
+
+  public String getBindHost() { return bindHost; }
+  public void setBindHost(String bindHost) { this.bindHost = bindHost; }
+
+  public int getPort() { return port; }
+  public void setPort(int port) { this.port = port; }
+
+  public long getBatchMs() { return batchMs; }
+  public void setBatchMs(long batchMs) { this.batchMs = batchMs; }
+
+  public long getHeartbeatMs() { return heartbeatMs; }
+  public void setHeartbeatMs(long heartbeatMs) { this.heartbeatMs = heartbeatMs; }
+
+  public long getFailoverAfterMs() { return failoverAfterMs; }
+  public void setFailoverAfterMs(long failoverAfterMs) { this.failoverAfterMs = failoverAfterMs; }
+
+  public long getPromoteGraceMs() { return promoteGraceMs; }
+  public void setPromoteGraceMs(long promoteGraceMs) { this.promoteGraceMs = promoteGraceMs; }
+}
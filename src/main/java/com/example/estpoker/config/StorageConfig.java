@@ -1,24 +1,44 @@
 package com.example.estpoker.config;
 
 import com.example.estpoker.storage.FileStorage;
+import com.example.estpoker.storage.FtpsConnectionPool;
 import com.example.estpoker.storage.FtpsFileStorage;
+import com.example.estpoker.storage.LocalFileStorage;
 import org.apache.commons.net.ftp.FTPSClient;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import java.io.IOException;
 import java.util.function.Supplier;
 
 /** Creates a FileStorage bean based on app.storage.mode. */
 @Configuration
 public class StorageConfig {
 
+  // Logged-in connections shared by FileStorage and the FTPS room store
+  @Bean(destroyMethod = "close")
+  @ConditionalOnProperty(name = "app.storage.mode", havingValue = "ftps")
+  public FtpsConnectionPool ftpsConnectionPool(
+      Supplier<FTPSClient> ftpsClientSupplier,
+      AppStorageProperties props
+  ) {
+    return new FtpsConnectionPool(ftpsClientSupplier, props.getFtps());
+  }
+
   @Bean
   @ConditionalOnProperty(name = "app.storage.mode", havingValue = "ftps")
   public FileStorage ftpsFileStorage(
-      Supplier<FTPSClient> ftpsClientSupplier,
+      FtpsConnectionPool ftpsConnectionPool,
       AppStorageProperties props
   ) {
-    return new FtpsFileStorage(ftpsClientSupplier, props.getFtps());
+    return new FtpsFileStorage(ftpsConnectionPool, props.getFtps());
+  }
+
+  // Local disk (default mode): atomic replace, fsync policy, flushed on shutdown
+  @Bean(destroyMethod = "close")
+  @ConditionalOnProperty(name = "app.storage.mode", havingValue = "local", matchIfMissing = true)
+  public LocalFileStorage localFileStorage(AppStorageProperties props) throws IOException {
+    return new LocalFileStorage(props.getLocal());
   }
 }
@@ -1,9 +1,13 @@
 package com.example.estpoker.config;
 
+import com.example.estpoker.cluster.OwnerHandshakeInterceptor;
 import com.example.estpoker.handler.GameWebSocketHandler;
+import com.example.estpoker.handler.LocaleHandshakeInterceptor;
+import com.example.estpoker.handler.MuxWebSocketHandler;
 import jakarta.annotation.PostConstruct;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.lang.NonNull;
@@ -16,9 +20,11 @@ import java.util.List;
 import java.util.stream.Collectors;
 
 /**
- * Registers the raw WebSocket endpoint under /gameSocket and enforces allowed origins.
+ * Registers the raw WebSocket endpoints under /gameSocket (one room) and /gameSocket/mux
+ * (several rooms on one socket) and enforces allowed origins.
  * - Uses origin *patterns* (works for exact values too) to avoid surprises.
  * - Logs the effective origins at startup so you can see immediately what is active in prod.
+ * - Copies the visitor's locale (cookie) into the socket attributes; no HTTP session is used.
  */
 @Configuration
 @EnableWebSocket
@@ -27,13 +33,19 @@ public class WebSocketConfig implements WebSocketConfigurer {
     private static final Logger log = LoggerFactory.getLogger(WebSocketConfig.class);
 
     private final GameWebSocketHandler handler;
+    private final MuxWebSocketHandler muxHandler;
     private final List<String> allowedOrigins;
+    private final ObjectProvider<OwnerHandshakeInterceptor> ownerInterceptor;
 
     public WebSocketConfig(
             GameWebSocketHandler handler,
-            @Value("${app.websocket.allowed-origins:*}") String allowed
+            MuxWebSocketHandler muxHandler,
+            @Value("${app.websocket.allowed-origins:*}") String allowed,
+            ObjectProvider<OwnerHandshakeInterceptor> ownerInterceptor
     ) {
         this.handler = handler;
+        this.muxHandler = muxHandler;
+        this.ownerInterceptor = ownerInterceptor;
         // Split by comma or whitespace, trim, drop empties
         this.allowedOrigins = Arrays.stream(allowed.split("[,\\s]+"))
                 .map(String::trim)
@@ -44,14 +56,22 @@ public class WebSocketConfig implements WebSocketConfigurer {
     @PostConstruct
     void logOrigins() {
         log.info("🔌 WebSocket allowed origins: {}", allowedOrigins);
-        log.info("🔌 WebSocket endpoint mapped to: /gameSocket");
+        log.info("🔌 WebSocket endpoints mapped to: /gameSocket, /gameSocket/mux");
     }
 
     @Override
     public void registerWebSocketHandlers(@NonNull WebSocketHandlerRegistry registry) {
         String[] arr = allowedOrigins.toArray(new String[0]);
         // Use origin *patterns* — they accept exact values and wildcards.
-        registry.addHandler(handler, "/gameSocket")
+        LocaleHandshakeInterceptor locale = new LocaleHandshakeInterceptor();
+        var game = registry.addHandler(handler, "/gameSocket")
                 .setAllowedOriginPatterns(arr);
+        // Multi-node with single-owner rooms: send the handshake to the owning node
+        OwnerHandshakeInterceptor owner = ownerInterceptor.getIfAvailable();
+        if (owner != null) game.addInterceptors(owner);
+        game.addInterceptors(locale);
+        registry.addHandler(muxHandler, "/gameSocket/mux")
+                .setAllowedOriginPatterns(arr)
+                .addInterceptors(locale);
     }
 }
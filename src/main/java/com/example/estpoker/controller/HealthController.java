@@ -1,6 +1,11 @@
 package com.example.estpoker.controller;
 
+import com.example.estpoker.cluster.StandbyReceiver;
+import com.example.estpoker.service.ReadinessGate;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.LinkedHashMap;
@@ -15,10 +20,28 @@ public class HealthController {
   @Value("${features.persistentRooms.enabled:false}")
   private boolean persistentRoomsEnabled;
 
-  /** Fast, DB-freier Liveness/Readiness Check (für Koyeb) */
+  private final ObjectProvider<StandbyReceiver> standby;
+  private final ReadinessGate gate;
+
+  public HealthController(ObjectProvider<StandbyReceiver> standby, ReadinessGate gate) {
+    this.standby = standby;
+    this.gate = gate;
+  }
+
+  /**
+   * Fast, DB-freier Liveness/Readiness Check (für Koyeb).
+   * 503 solange Räume wiederhergestellt werden ("starting"), beim Draining und auf einem nicht promoteten Standby.
+   */
   @GetMapping("/healthz")
-  public String healthz() {
-    return "ok";
+  public ResponseEntity<String> healthz() {
+    StandbyReceiver s = standby.getIfAvailable();
+    if (s != null && !s.isPromoted()) {
+      return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body("standby");
+    }
+    if (!gate.isReady()) {
+      return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(gate.state());
+    }
+    return ResponseEntity.ok("ok");
   }
 
   /** Menschlich lesbarer Health/Status ohne DB */
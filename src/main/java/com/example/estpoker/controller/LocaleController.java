@@ -17,7 +17,7 @@ import org.springframework.web.servlet.LocaleResolver;
  *
  * We keep it primarily for a clean UX:
  * - Frontend navigates to /i18n?lang=de (GET).
- * - We set the session locale and 303-redirect back to the referrer
+ * - We set the locale cookie and 303-redirect back to the referrer
  *   so the page is re-rendered with the new language and the URL stays clean.
  *
  * NOTE: The LocaleChangeInterceptor (param "lang") is also active,
@@ -0,0 +1,53 @@
+package com.example.estpoker.controller;
+
+import com.example.estpoker.model.Room;
+import com.example.estpoker.service.GameService;
+import com.example.estpoker.service.RoomObserverFeed;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * Read-only room state for meeting-room screens and dashboards.
+ * Viewers do not join the room; they share one encoded frame per room version.
+ */
+@RestController
+@RequestMapping("/observe")
+public class ObserverController {
+
+    private final GameService gameService;
+    private final RoomObserverFeed feed;
+
+    public ObserverController(GameService gameService, RoomObserverFeed feed) {
+        this.gameService = gameService;
+        this.feed = feed;
+    }
+
+    /** Server-Sent Events stream ("state" events, id = room version). */
+    @GetMapping(path = "/{roomCode}/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> stream(@PathVariable String roomCode) {
+        Room room = gameService.getRoom(roomCode);
+        if (room == null) return ResponseEntity.notFound().build();
+        return ResponseEntity.ok(feed.subscribe(roomCode, () -> gameService.publishObserverFrame(room)));
+    }
+
+    /**
+     * Long-poll: returns the current state if its version is newer than {@code sinceVersion},
+     * otherwise waits for the next change (304 on timeout). Version is in the body and "X-Room-Version".
+     */
+    @GetMapping("/{roomCode}/state")
+    public DeferredResult<ResponseEntity<String>> state(
+            @PathVariable String roomCode,
+            @RequestParam(name = "sinceVersion", defaultValue = "0") long sinceVersion
+    ) {
+        Room room = gameService.getRoom(roomCode);
+        if (room == null) {
+            DeferredResult<ResponseEntity<String>> missing = new DeferredResult<>();
+            missing.setResult(ResponseEntity.notFound().build());
+            return missing;
+        }
+        return feed.poll(roomCode, sinceVersion, () -> gameService.publishObserverFrame(room));
+    }
+}
@@ -13,7 +13,6 @@ import org.springframework.web.socket.CloseStatus;
 import org.springframework.web.socket.WebSocketSession;
 import org.springframework.web.socket.handler.TextWebSocketHandler;
 
-import java.lang.reflect.Method;
 import java.net.URI;
 import java.net.URLDecoder;
 import java.net.URLEncoder;
@@ -25,9 +24,10 @@ import java.util.concurrent.ConcurrentHashMap;
  * WebSocket handler for /gameSocket.
  * - Joins by roomCode + cid + requested name (service enforces canonical/unique name)
  * - Handles rename:<name>, votes, host actions, toggles
- * - Heartbeat: replies "pong" to client pings (keeps client watchdog happy)
+ * - Heartbeat: replies "pong" to client pings (keeps client watchdog happy);
+ *   "ping:<clientTs>" gets "pong:<clientTs>:<serverNow>" so clients can estimate their clock offset
  * - On unexpected close: schedules grace disconnect (GameService decides timing)
- * - Sends initial state snapshot (best-effort, via reflection)
+ * - Sends the initial state snapshot to the joining session
  * - After join, replays the current roster to the just-joined session
  *
  * Specials:
@@ -37,6 +37,18 @@ import java.util.concurrent.ConcurrentHashMap;
  *
  * Sequence (host-only):
  * - accepts "sequence:", "seq:" and "setSequence:"
+ *
+ * Large rooms:
+ * - "largeRoom:<on|off>" forces the summarized roster (host-only; always on at or above a threshold,
+ *   where frames carry "largeRoomAuto" and "off" has no effect)
+ * - "roster:<offset>:<limit>" returns one page of the compact roster to the caller
+ *
+ * Reactions (anyone):
+ * - "react:<id|emoji>" is aggregated per room and flushed as a small "reactions" frame (never room state)
+ *
+ * Round timer (host-only):
+ * - "timer:start:<seconds>" starts a timebox; "timer:start" resumes/restarts with the last duration
+ * - "timer:pause", "timer:stop"; expiry reveals the cards on the server
  */
 @Component
 public class GameWebSocketHandler extends TextWebSocketHandler {
@@ -86,6 +98,12 @@ public class GameWebSocketHandler extends TextWebSocketHandler {
 
             log.info("WS OPEN room={} name={} cid={}", roomCode, initialName, cid);
 
+            // Shutting down: let the client retry (the next instance picks it up)
+            if (gameService.isDraining()) {
+                session.close(CloseStatus.SERVICE_RESTARTED);
+                return;
+            }
+
             // Reject if a different CID is already active under this name.
             Room existing = gameService.getRoom(roomCode);
             if (existing != null) {
@@ -125,7 +143,7 @@ public class GameWebSocketHandler extends TextWebSocketHandler {
             gameService.sendIdentity(session, canonicalName, cid);
 
             // Initial state snapshot (best-effort)
-            try { sendInitialStateSnapshot(session, room, roomCode); }
+            try { sendInitialStateSnapshot(session, room); }
             catch (Throwable t) { log.warn("WS INIT snapshot failed (room={}, name={}): {}", roomCode, canonicalName, t.toString()); }
 
             // Roster replay for the just-joined client
@@ -153,10 +171,10 @@ public class GameWebSocketHandler extends TextWebSocketHandler {
         final String payload  = message.getPayload();
 
         try {
-            // Heartbeat
-            if ("ping".equals(payload)) {
+            // Heartbeat (optionally with client timestamp for clock-offset estimation)
+            if ("ping".equals(payload) || payload.startsWith("ping:")) {
                 try { gameService.touch(roomCode, cid); } catch (Throwable ignore) {}
-                try { if (session.isOpen()) session.sendMessage(new org.springframework.web.socket.TextMessage("pong")); }
+                try { gameService.sendTo(session, pongFor(payload)); }
                 catch (Exception e) { log.warn("WS pong send failed (room={}, name={}, cid={}): {}", roomCode, c.name, cid, e.toString()); }
                 return;
             }
@@ -164,13 +182,7 @@ public class GameWebSocketHandler extends TextWebSocketHandler {
             // Explicit sync request
             if ("requestSync".equals(payload)) {
                 Room room = gameService.getRoom(roomCode);
-                if (room != null) {
-                    if (!tryInvoke(gameService, "sendRoomState",
-                            new Class<?>[]{WebSocketSession.class, Room.class},
-                            new Object[]{session, room})) {
-                        gameService.broadcastRoomState(room);
-                    }
-                }
+                if (room != null) gameService.sendRoomState(session, room);
                 return;
             }
 
@@ -216,6 +228,40 @@ public class GameWebSocketHandler extends TextWebSocketHandler {
                 return;
             }
 
+            // Large-room mode (host-only) and on-demand roster pages
+            if (payload.startsWith("largeRoom:")) {
+                if (!isHost(roomCode, c.name)) return;
+                gameService.setLargeRoomMode(roomCode, parseOn(payload.substring("largeRoom:".length())));
+                return;
+            }
+            if (payload.startsWith("roster:")) {
+                String[] parts = payload.split(":", 3);
+                int offset = (parts.length >= 2) ? parseIntOr(parts[1], 0) : 0;
+                int limit  = (parts.length >= 3) ? parseIntOr(parts[2], 50) : 50;
+                Room room = gameService.getRoom(roomCode);
+                if (room != null) gameService.sendRosterPage(session, room, offset, limit);
+                return;
+            }
+
+            // Ephemeral reaction (no state change, no snapshot)
+            if (payload.startsWith("react:")) {
+                gameService.react(roomCode, cid, decode(payload.substring("react:".length())));
+                return;
+            }
+
+            // Round timer (host-only)
+            if (payload.startsWith("timer:")) {
+                if (!isHost(roomCode, c.name)) return;
+                String[] parts = payload.split(":", 3);
+                switch (parts.length >= 2 ? parts[1] : "") {
+                    case "start" -> gameService.startTimer(roomCode, (parts.length >= 3) ? parseIntOr(parts[2], 0) : 0);
+                    case "pause" -> gameService.pauseTimer(roomCode);
+                    case "stop"  -> gameService.stopTimer(roomCode);
+                    default -> log.debug("Ignored timer command: {}", payload);
+                }
+                return;
+            }
+
             // Participation toggle (self)
             if (payload.startsWith("participation:")) {
                 boolean estimating = Boolean.parseBoolean(payload.substring("participation:".length()));
@@ -407,6 +453,19 @@ public class GameWebSocketHandler extends TextWebSocketHandler {
         return map;
     }
 
+    /** "pong" for a plain ping, "pong:<clientTs>:<serverNow>" when the client sent its timestamp. */
+    static String pongFor(String ping) {
+        if (ping == null || !ping.startsWith("ping:")) return "pong";
+        String ts = ping.substring("ping:".length()).trim();
+        if (ts.isEmpty() || ts.length() > 20 || !ts.chars().allMatch(Character::isDigit)) return "pong";
+        return "pong:" + ts + ":" + System.currentTimeMillis();
+    }
+
+    private static int parseIntOr(String s, int fallback) {
+        try { return Integer.parseInt(s.trim()); }
+        catch (Exception e) { return fallback; }
+    }
+
     private static String decode(String s) {
         try { return URLDecoder.decode(s, StandardCharsets.UTF_8); }
         catch (Exception e) { return s; }
@@ -443,21 +502,9 @@ public class GameWebSocketHandler extends TextWebSocketHandler {
         return s;
     }
 
-    /** Best-effort: send state snapshot to just-joined session via whatever method exists. */
-    private void sendInitialStateSnapshot(WebSocketSession session, Room room, String roomCode) {
-        if (tryInvoke(gameService, "sendRoomState", new Class<?>[]{WebSocketSession.class, Room.class}, new Object[]{session, room})) return;
-        if (tryInvoke(gameService, "sendRoomState", new Class<?>[]{Room.class, WebSocketSession.class}, new Object[]{room, session})) return;
-        if (tryInvoke(gameService, "sendRoomSnapshot", new Class<?>[]{WebSocketSession.class, Room.class}, new Object[]{session, room})) return;
-        if (tryInvoke(gameService, "sendRoomSnapshot", new Class<?>[]{Room.class, WebSocketSession.class}, new Object[]{room, session})) return;
-        if (tryInvoke(gameService, "sendStateTo", new Class<?>[]{WebSocketSession.class, Room.class}, new Object[]{session, room})) return;
-        if (tryInvoke(gameService, "sendStateTo", new Class<?>[]{WebSocketSession.class, String.class}, new Object[]{session, roomCode})) return;
-
-        // Fallback: broadcast room state (new session is registered and will receive it)
-        if (tryInvoke(gameService, "broadcastRoom", new Class<?>[]{Room.class}, new Object[]{room})) return;
-        if (tryInvoke(gameService, "broadcastRoomState", new Class<?>[]{Room.class}, new Object[]{room})) return;
-        if (tryInvoke(gameService, "broadcast", new Class<?>[]{Room.class}, new Object[]{room})) return;
-
-        log.debug("WS INIT snapshot: no suitable GameService method found; skipping explicit snapshot");
+    /** Send the state snapshot to the just-joined session (it is already registered with the room). */
+    private void sendInitialStateSnapshot(WebSocketSession session, Room room) {
+        gameService.sendRoomState(session, room);
     }
 
     /**
@@ -471,9 +518,7 @@ public class GameWebSocketHandler extends TextWebSocketHandler {
 
         for (String name : names) {
             try {
-                if (session.isOpen()) {
-                    session.sendMessage(new org.springframework.web.socket.TextMessage("participantJoined:" + name));
-                }
+                gameService.sendTo(session, "participantJoined:" + name);
             } catch (Exception e) {
                 log.warn("WS ROSTER send failed to {} for {}: {}", receiverName, name, e.toString());
             }
@@ -481,99 +526,11 @@ public class GameWebSocketHandler extends TextWebSocketHandler {
         log.info("WS ROSTER replay to {} ({}): {}", receiverName, names.size(), names);
     }
 
-    /** Extract active participant names from Room using reflection-friendly fallbacks. */
+    /** Names of the currently connected participants. */
     private List<String> extractActiveNames(Room room) {
-        // 1) Room#getParticipants(): Map<String, Participant> OR Collection<Participant>
-        try {
-            Method m = room.getClass().getMethod("getParticipants");
-            Object res = m.invoke(room);
-            if (res instanceof Map<?, ?> map) {
-                List<String> out = new ArrayList<>();
-                for (Object v : map.values()) {
-                    String n = readNameIfActive(v);
-                    if (n != null) out.add(n);
-                }
-                return out;
-            }
-            if (res instanceof Collection<?> col) {
-                List<String> out = new ArrayList<>();
-                for (Object v : col) {
-                    String n = readNameIfActive(v);
-                    if (n != null) out.add(n);
-                }
-                return out;
-            }
-        } catch (Throwable ignored) {}
-
-        // 2) Room#getActiveParticipants(): Collection<Participant>
-        try {
-            Method m = room.getClass().getMethod("getActiveParticipants");
-            Object res = m.invoke(room);
-            if (res instanceof Collection<?> col) {
-                List<String> out = new ArrayList<>();
-                for (Object v : col) {
-                    String n = readNameIfActive(v);
-                    if (n != null) out.add(n);
-                }
-                return out;
-            }
-        } catch (Throwable ignored) {}
-
-        // 3) Room#getParticipantNames(): Collection<String>
-        try {
-            Method m = room.getClass().getMethod("getParticipantNames");
-            Object res = m.invoke(room);
-            if (res instanceof Collection<?> col) {
-                List<String> out = new ArrayList<>();
-                for (Object v : col) if (v != null) out.add(String.valueOf(v));
-                return out;
-            }
-        } catch (Throwable ignored) {}
-
-        // 4) Strong type fallback
-        try {
-            List<Participant> list = room.getParticipants();
-            List<String> out = new ArrayList<>();
-            for (Participant p : list) {
-                if (p != null && p.isActive()) out.add(p.getName());
-            }
-            return out;
-        } catch (Throwable ignored) {}
-
-        return new ArrayList<>();
-    }
-
-    /** Returns name if object looks like an active Participant; otherwise null. */
-    private String readNameIfActive(Object maybeParticipant) {
-        if (maybeParticipant == null) return null;
-        try {
-            Method isActive = maybeParticipant.getClass().getMethod("isActive");
-            Method getName  = maybeParticipant.getClass().getMethod("getName");
-            Object active   = isActive.invoke(maybeParticipant);
-            if (active instanceof Boolean b && b) {
-                Object n = getName.invoke(maybeParticipant);
-                return (n == null) ? null : String.valueOf(n);
-            }
-        } catch (Throwable ignored) {}
-        return null;
-    }
-
-    private boolean tryInvoke(Object target, String name, Class<?>[] sig, Object[] args) {
-        try {
-            Method m = target.getClass().getMethod(name, sig);
-            m.setAccessible(true);
-            m.invoke(target, args);
-            log.debug("WS INIT snapshot via {}({}) ok",
-                    name,
-                    sig.length == 2 ? (sig[0].getSimpleName() + "," + sig[1].getSimpleName())
-                                    : sig[0].getSimpleName());
-            return true;
-        } catch (NoSuchMethodException ignored) {
-            return false;
-        } catch (Throwable t) {
-            log.warn("WS INIT snapshot: {} invocation failed: {}", name, t.toString());
-            return false;
-        }
+        List<String> out = new ArrayList<>();
+        for (Participant p : room.getActiveParticipants()) out.add(p.getName());
+        return out;
     }
 
     /** Small immutable connection record. */
@@ -638,10 +595,7 @@ public class GameWebSocketHandler extends TextWebSocketHandler {
 
     private void sendRedirectAndClose(WebSocketSession session, String url, CloseStatus status) {
         try {
-            String json = jsonRedirect(url);
-            if (session.isOpen()) {
-                session.sendMessage(new org.springframework.web.socket.TextMessage(json));
-            }
+            gameService.sendTo(session, jsonRedirect(url));
         } catch (Exception ignored) { }
         try {
             session.close(status != null ? status : new CloseStatus(4005, "Rejected"));
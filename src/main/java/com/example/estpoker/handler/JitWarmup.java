@@ -0,0 +1,250 @@
+package com.example.estpoker.handler;
+
+import com.example.estpoker.service.GameService;
+import com.example.estpoker.service.ReadinessGate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.http.HttpHeaders;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketExtension;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.lang.management.CompilationMXBean;
+import java.lang.management.ManagementFactory;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.security.Principal;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Startup JIT warmup: before the readiness gate opens, synthetic rooms are driven through the real
+ * socket handler (join, vote, sync, reveal incl. stats, reset, sequence/topic changes) on a private
+ * GameService with discarding sessions — no storage, no network, nothing visible to real rooms.
+ *
+ * Runs in batches until JIT compilation settles (compile time per batch stays under
+ * {@code settleMs}) or {@code maxMs} is reached. The report compares the first (cold) round with
+ * the last batch (warm) and is exposed at GET /api/warmup.
+ *
+ * Off unless {@code app.warmup.enabled=true} (set in the prod profile), so tests and local runs
+ * start without it.
+ */
+@Component
+public class JitWarmup implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(JitWarmup.class);
+
+    private static final String[] SEQUENCES = {"fib.scrum", "fib.enh", "fib.math", "pow2", "tshirt"};
+    private static final String[] VOTES = {"1", "2", "3", "5", "8", "13", "20", "☕", "❓"};
+    private static final int BATCH_ROUNDS = 50;
+
+    private final ReadinessGate gate;
+
+    @Value("${app.warmup.enabled:false}")
+    private boolean enabled = false;
+
+    @Value("${app.warmup.max-ms:20000}")
+    private long maxMs = 20_000L;
+
+    @Value("${app.warmup.min-rounds:500}")
+    private int minRounds = 500;
+
+    @Value("${app.warmup.rooms:4}")
+    private int roomCount = 4;
+
+    @Value("${app.warmup.participants:8}")
+    private int participants = 8;
+
+    @Value("${app.warmup.settle-ms:5}")
+    private long settleMs = 5L;
+
+    private volatile boolean running = false;
+    private volatile Map<String, Object> report = Map.of("state", "pending");
+
+    public JitWarmup(ReadinessGate gate) {
+        this.gate = gate;
+    }
+
+    public Map<String, Object> report() {
+        return report;
+    }
+
+    // --- SmartLifecycle: run in the background, hold readiness meanwhile ---
+
+    @Override
+    public void start() {
+        running = true;
+        if (!enabled) {
+            report = Map.of("state", "disabled");
+            return;
+        }
+        gate.hold("warmup");
+        Thread t = new Thread(() -> {
+            try {
+                report = run();
+                log.info("JIT warmup done: {}", report);
+            } catch (Throwable e) {
+                log.warn("JIT warmup aborted: {}", e.toString());
+                report = Map.of("state", "failed", "error", e.toString());
+            } finally {
+                gate.release("warmup");
+            }
+        }, "jit-warmup");
+        t.setDaemon(true);
+        t.start();
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    // --- the routine ---
+
+    Map<String, Object> run() throws Exception {
+        long start = System.nanoTime();
+        long compileStart = compileMs();
+
+        GameService service = new GameService();
+        GameWebSocketHandler handler = new GameWebSocketHandler(service);
+        List<List<WebSocketSession>> rooms = new ArrayList<>();
+        try {
+            for (int r = 0; r < roomCount; r++) {
+                List<WebSocketSession> sessions = new ArrayList<>();
+                for (int p = 0; p < participants; p++) {
+                    WebSocketSession s = new DiscardingSession("warmup-" + r + "-" + p, "__warmup-" + r, "W" + p);
+                    handler.afterConnectionEstablished(s);
+                    sessions.add(s);
+                }
+                rooms.add(sessions);
+            }
+
+            long coldRoundUs = -1, coldVoteUs = -1;
+            long warmRoundUs = -1, warmVoteUs = -1;
+            int rounds = 0;
+            int settledBatches = 0;
+            String stoppedBy = "max-ms";
+            long deadline = start + maxMs * 1_000_000L;
+
+            while (System.nanoTime() < deadline) {
+                long batchCompile = compileMs();
+                long batchRoundNs = 0, batchVoteNs = 0;
+                for (int i = 0; i < BATCH_ROUNDS; i++, rounds++) {
+                    List<WebSocketSession> room = rooms.get(rounds % rooms.size());
+                    long[] t = round(handler, room, rounds);
+                    if (rounds == 0) {
+                        coldRoundUs = t[0] / 1_000;
+                        coldVoteUs = t[1] / 1_000;
+                    }
+                    batchRoundNs += t[0];
+                    batchVoteNs += t[1];
+                }
+                warmRoundUs = batchRoundNs / BATCH_ROUNDS / 1_000;
+                warmVoteUs = batchVoteNs / BATCH_ROUNDS / 1_000;
+
+                long delta = compileMs() - batchCompile;
+                settledBatches = (delta >= 0 && delta <= settleMs) ? settledBatches + 1 : 0;
+                if (rounds >= minRounds && settledBatches >= 2) {
+                    stoppedBy = (compileStart < 0) ? "min-rounds" : "compilation settled";
+                    break;
+                }
+            }
+
+            Map<String, Object> out = new LinkedHashMap<>();
+            out.put("state", "done");
+            out.put("stoppedBy", stoppedBy);
+            out.put("durationMs", (System.nanoTime() - start) / 1_000_000L);
+            out.put("rounds", rounds);
+            out.put("jitCompileMs", compileStart < 0 ? -1 : compileMs() - compileStart);
+            out.put("coldRoundUs", coldRoundUs);
+            out.put("warmRoundUs", warmRoundUs);
+            out.put("coldFirstVoteUs", coldVoteUs);
+            out.put("warmVoteUs", warmVoteUs);
+            return out;
+        } finally {
+            for (List<WebSocketSession> room : rooms) {
+                for (WebSocketSession s : room) {
+                    try { handler.afterConnectionClosed(s, CloseStatus.GOING_AWAY); } catch (Exception ignore) {}
+                }
+            }
+            service.shutdown();
+        }
+    }
+
+    /** One estimation round; returns {round ns, first vote ns}. */
+    private static long[] round(GameWebSocketHandler handler, List<WebSocketSession> room, int n) throws Exception {
+        long t0 = System.nanoTime();
+        WebSocketSession host = room.get(0);
+        if (n % 10 == 0) send(handler, host, "sequence:" + SEQUENCES[(n / 10) % SEQUENCES.length]);
+        if (n % 7 == 0) send(handler, host, "topicSave:" + URLEncoder.encode("WARM-" + n, StandardCharsets.UTF_8));
+
+        long v0 = System.nanoTime();
+        send(handler, room.get(0), "vote:x:" + VOTES[n % VOTES.length]);
+        long firstVote = System.nanoTime() - v0;
+        for (int i = 1; i < room.size(); i++) {
+            send(handler, room.get(i), "vote:x:" + VOTES[(n + i) % VOTES.length]);
+        }
+        send(handler, room.get(room.size() - 1), "requestSync");
+        send(handler, room.get(1 % room.size()), "ping:" + System.currentTimeMillis());
+        send(handler, host, "revealCards");
+        send(handler, host, "resetRoom");
+        return new long[]{System.nanoTime() - t0, firstVote};
+    }
+
+    private static void send(GameWebSocketHandler handler, WebSocketSession s, String payload) throws Exception {
+        handler.handleMessage(s, new TextMessage(payload));
+    }
+
+    /** Total JIT compile time so far, or -1 when the JVM does not report it. */
+    private static long compileMs() {
+        CompilationMXBean c = ManagementFactory.getCompilationMXBean();
+        return (c != null && c.isCompilationTimeMonitoringSupported()) ? c.getTotalCompilationTime() : -1L;
+    }
+
+    /** Open session whose outgoing frames go nowhere. */
+    private static final class DiscardingSession implements WebSocketSession {
+        private final String id;
+        private final URI uri;
+        private final Map<String, Object> attributes = new ConcurrentHashMap<>();
+        private volatile boolean open = true;
+
+        DiscardingSession(String id, String roomCode, String name) {
+            this.id = id;
+            this.uri = URI.create("ws://warmup/gameSocket?roomCode=" + roomCode + "&participantName=" + name + "&cid=" + id);
+        }
+
+        @Override @NonNull public String getId() { return id; }
+        @Override public URI getUri() { return uri; }
+        @Override @NonNull public HttpHeaders getHandshakeHeaders() { return HttpHeaders.EMPTY; }
+        @Override @NonNull public Map<String, Object> getAttributes() { return attributes; }
+        @Override public Principal getPrincipal() { return null; }
+        @Override public InetSocketAddress getLocalAddress() { return null; }
+        @Override public InetSocketAddress getRemoteAddress() { return null; }
+        @Override public String getAcceptedProtocol() { return null; }
+        @Override public void setTextMessageSizeLimit(int messageSizeLimit) { }
+        @Override public int getTextMessageSizeLimit() { return Integer.MAX_VALUE; }
+        @Override public void setBinaryMessageSizeLimit(int messageSizeLimit) { }
+        @Override public int getBinaryMessageSizeLimit() { return Integer.MAX_VALUE; }
+        @Override @NonNull public List<WebSocketExtension> getExtensions() { return List.of(); }
+        @Override public void sendMessage(@NonNull WebSocketMessage<?> message) { message.getPayloadLength(); }
+        @Override public boolean isOpen() { return open; }
+        @Override public void close() { open = false; }
+        @Override public void close(@NonNull CloseStatus status) { open = false; }
+    }
+}
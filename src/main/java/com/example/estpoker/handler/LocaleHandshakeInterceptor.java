@@ -0,0 +1,77 @@
+package com.example.estpoker.handler;
+
+import com.example.estpoker.config.LocaleConfig;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.lang.NonNull;
+import org.springframework.util.StringUtils;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.server.HandshakeInterceptor;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.net.URI;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Puts the visitor's locale into the WebSocket session attributes at handshake time.
+ * Same sources as the pages (no HTTP session involved):
+ * - "?lang=de" on the socket URL (non-browser clients)
+ * - the locale cookie written by the CookieLocaleResolver
+ * - otherwise English, like the page default
+ */
+public class LocaleHandshakeInterceptor implements HandshakeInterceptor {
+
+    /** Session attribute holding the resolved {@link Locale}. */
+    public static final String LOCALE_ATTR = "locale";
+
+    @Override
+    public boolean beforeHandshake(@NonNull ServerHttpRequest request, @NonNull ServerHttpResponse response,
+                                   @NonNull WebSocketHandler wsHandler, @NonNull Map<String, Object> attributes) {
+        attributes.put(LOCALE_ATTR, resolve(request.getURI(), request.getHeaders()));
+        return true;
+    }
+
+    @Override
+    public void afterHandshake(@NonNull ServerHttpRequest request, @NonNull ServerHttpResponse response,
+                               @NonNull WebSocketHandler wsHandler, Exception exception) {
+        // nothing
+    }
+
+    /** Locale for a handshake with the given URL and headers. */
+    public static Locale resolve(URI uri, HttpHeaders headers) {
+        if (uri != null) {
+            Locale fromParam = parse(UriComponentsBuilder.fromUri(uri).build().getQueryParams().getFirst("lang"));
+            if (fromParam != null) return fromParam;
+        }
+        if (headers != null) {
+            for (String line : headers.getOrEmpty(HttpHeaders.COOKIE)) {
+                for (String pair : line.split(";")) {
+                    int eq = pair.indexOf('=');
+                    if (eq <= 0 || !pair.substring(0, eq).trim().equals(LocaleConfig.LOCALE_COOKIE)) continue;
+                    Locale fromCookie = parse(pair.substring(eq + 1).trim());
+                    if (fromCookie != null) return fromCookie;
+                }
+            }
+        }
+        return Locale.ENGLISH;
+    }
+
+    /** Locale stored by the handshake, English if there is none (e.g. tests with plain sessions). */
+    public static Locale localeOf(WebSocketSession session) {
+        Object l = (session != null) ? session.getAttributes().get(LOCALE_ATTR) : null;
+        return (l instanceof Locale locale) ? locale : Locale.ENGLISH;
+    }
+
+    private static Locale parse(String value) {
+        if (value == null || value.isBlank()) return null;
+        try {
+            Locale l = StringUtils.parseLocale(value.trim());
+            return (l != null && !l.getLanguage().isBlank()) ? l : null;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package com.example.estpoker.handler;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.lang.NonNull;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketExtension;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.security.Principal;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
+
+/**
+ * One room subscription on a multiplexed socket, seen by {@link GameWebSocketHandler} and
+ * GameService as a regular session.
+ * - Outgoing text frames are prefixed with "<channel>|"
+ * - The URI carries roomCode/participantName/cid like a plain /gameSocket connect
+ * - close() only ends this channel; the physical socket stays open
+ */
+class MuxChannelSession implements WebSocketSession {
+
+    private final WebSocketSession physical;  // already a ConcurrentWebSocketSessionDecorator
+    private final String channel;
+    private final String roomCode;
+    private final String cid;
+    private final URI uri;
+    private final Map<String, Object> attributes = new ConcurrentHashMap<>();
+    private final BiConsumer<MuxChannelSession, CloseStatus> onClose;
+    private volatile boolean open = true;
+
+    MuxChannelSession(WebSocketSession physical, String channel,
+                      String roomCode, String cid, String participantName,
+                      BiConsumer<MuxChannelSession, CloseStatus> onClose) {
+        this.physical = physical;
+        this.channel = channel;
+        this.roomCode = roomCode;
+        this.cid = cid;
+        this.onClose = onClose;
+        Object locale = physical.getAttributes().get(LocaleHandshakeInterceptor.LOCALE_ATTR);
+        if (locale != null) attributes.put(LocaleHandshakeInterceptor.LOCALE_ATTR, locale);
+        URI base = physical.getUri();
+        String path = (base != null && base.getPath() != null) ? base.getPath() : "/gameSocket/mux";
+        this.uri = URI.create(path
+                + "?roomCode=" + enc(roomCode)
+                + "&participantName=" + enc(participantName)
+                + "&cid=" + enc(cid));
+    }
+
+    private static String enc(String s) { return URLEncoder.encode(s == null ? "" : s, StandardCharsets.UTF_8); }
+
+    String getChannel() { return channel; }
+    String getRoomCode() { return roomCode; }
+    String getCid() { return cid; }
+
+    /** Mark closed without notifying the physical socket (used when the socket itself went away). */
+    void markClosed() { open = false; }
+
+    @Override @NonNull
+    public String getId() { return physical.getId() + "#" + channel; }
+
+    @Override
+    public URI getUri() { return uri; }
+
+    @Override @NonNull
+    public HttpHeaders getHandshakeHeaders() { return physical.getHandshakeHeaders(); }
+
+    @Override @NonNull
+    public Map<String, Object> getAttributes() { return attributes; }
+
+    @Override
+    public Principal getPrincipal() { return physical.getPrincipal(); }
+
+    @Override
+    public InetSocketAddress getLocalAddress() { return physical.getLocalAddress(); }
+
+    @Override
+    public InetSocketAddress getRemoteAddress() { return physical.getRemoteAddress(); }
+
+    @Override
+    public String getAcceptedProtocol() { return physical.getAcceptedProtocol(); }
+
+    @Override
+    public void setTextMessageSizeLimit(int messageSizeLimit) { /* shared socket: not per channel */ }
+
+    @Override
+    public int getTextMessageSizeLimit() { return physical.getTextMessageSizeLimit(); }
+
+    @Override
+    public void setBinaryMessageSizeLimit(int messageSizeLimit) { /* shared socket: not per channel */ }
+
+    @Override
+    public int getBinaryMessageSizeLimit() { return physical.getBinaryMessageSizeLimit(); }
+
+    @Override @NonNull
+    public List<WebSocketExtension> getExtensions() { return physical.getExtensions(); }
+
+    @Override
+    public void sendMessage(@NonNull WebSocketMessage<?> message) throws IOException {
+        if (!isOpen()) throw new IOException("Channel " + channel + " is closed");
+        if (!(message instanceof TextMessage text)) {
+            throw new IllegalArgumentException("Only text frames are multiplexed");
+        }
+        physical.sendMessage(new TextMessage(channel + "|" + text.getPayload()));
+    }
+
+    @Override
+    public boolean isOpen() { return open && physical.isOpen(); }
+
+    @Override
+    public void close() throws IOException { close(CloseStatus.NORMAL); }
+
+    /** Ends the channel: tells the client via "<channel>|@close:<code>:<reason>" and runs the close callback once. */
+    @Override
+    public void close(@NonNull CloseStatus status) throws IOException {
+        if (!open) return;
+        open = false;
+        try {
+            if (physical.isOpen()) {
+                String reason = (status.getReason() != null) ? status.getReason() : "";
+                physical.sendMessage(new TextMessage(channel + "|@close:" + status.getCode() + ":" + reason));
+            }
+        } finally {
+            onClose.accept(this, status);
+        }
+    }
+}
@@ -0,0 +1,174 @@
+package com.example.estpoker.handler;
+
+import com.example.estpoker.service.GameService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.ConcurrentWebSocketSessionDecorator;
+import org.springframework.web.socket.handler.TextWebSocketHandler;
+
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+/**
+ * WebSocket handler for /gameSocket/mux: one socket, several room subscriptions.
+ * - "sub:<ch>:<roomCode>:<cid>:<name>" joins a room on channel ch (parts URL-encoded)
+ * - "unsub:<ch>" leaves that room (same as closing a plain /gameSocket)
+ * - "<ch>|<command>" runs any regular /gameSocket command in that room
+ * - "ping" (or "ping:<clientTs>") is answered once and refreshes presence in every subscribed room
+ * - Server frames arrive as "<ch>|<frame>"; "<ch>|@close:<code>:<reason>" ends a channel
+ *
+ * Each channel is a {@link MuxChannelSession}, so joins, broadcasts, host rules and presence
+ * grace all go through {@link GameWebSocketHandler} / GameService unchanged.
+ */
+@Component
+public class MuxWebSocketHandler extends TextWebSocketHandler {
+
+    private static final Logger log = LoggerFactory.getLogger(MuxWebSocketHandler.class);
+
+    /** Rooms per socket; more than a handful of tabs is not a real use case. */
+    static final int MAX_CHANNELS = 16;
+
+    private static final Pattern CHANNEL_ID = Pattern.compile("[A-Za-z0-9_-]{1,16}");
+
+    /** Outgoing frames from several rooms interleave on one socket, so sends are serialized. */
+    private static final int SEND_TIME_LIMIT_MS = 10_000;
+    private static final int SEND_BUFFER_LIMIT = 512 * 1024;
+
+    private final GameWebSocketHandler game;
+    private final GameService gameService;
+
+    /** Physical session id → its decorated session and channels. */
+    private final Map<String, Mux> byPhysical = new ConcurrentHashMap<>();
+
+    private record Mux(WebSocketSession socket, Map<String, MuxChannelSession> channels) {}
+
+    public MuxWebSocketHandler(GameWebSocketHandler game, GameService gameService) {
+        this.game = game;
+        this.gameService = gameService;
+    }
+
+    @Override
+    public void afterConnectionEstablished(@NonNull WebSocketSession session) throws Exception {
+        if (gameService.isDraining()) {
+            session.close(CloseStatus.SERVICE_RESTARTED);
+            return;
+        }
+        WebSocketSession socket = new ConcurrentWebSocketSessionDecorator(session, SEND_TIME_LIMIT_MS, SEND_BUFFER_LIMIT);
+        byPhysical.put(session.getId(), new Mux(socket, new ConcurrentHashMap<>()));
+        log.info("WS MUX OPEN sid={}", session.getId());
+    }
+
+    @Override
+    protected void handleTextMessage(@NonNull WebSocketSession session, @NonNull TextMessage message) throws Exception {
+        Mux mux = byPhysical.get(session.getId());
+        if (mux == null) return;
+        final String payload = message.getPayload();
+
+        // Heartbeat: once per connection, presence for all channels
+        if ("ping".equals(payload) || payload.startsWith("ping:")) {
+            for (MuxChannelSession ch : mux.channels().values()) {
+                try { gameService.touch(ch.getRoomCode(), ch.getCid()); } catch (Throwable ignore) {}
+            }
+            try { mux.socket().sendMessage(new TextMessage(GameWebSocketHandler.pongFor(payload))); }
+            catch (Exception e) { log.warn("WS MUX pong send failed (sid={}): {}", session.getId(), e.toString()); }
+            return;
+        }
+
+        if (payload.startsWith("sub:")) {
+            String[] parts = payload.split(":", 5);
+            if (parts.length < 5 || !CHANNEL_ID.matcher(parts[1]).matches()) {
+                log.debug("WS MUX bad sub: {}", payload);
+                return;
+            }
+            subscribe(mux, parts[1], decode(parts[2]).trim(), decode(parts[3]).trim(), decode(parts[4]).trim());
+            return;
+        }
+
+        if (payload.startsWith("unsub:")) {
+            MuxChannelSession ch = mux.channels().get(payload.substring("unsub:".length()));
+            if (ch != null) ch.close(CloseStatus.NORMAL);
+            return;
+        }
+
+        int bar = payload.indexOf('|');
+        if (bar <= 0) {
+            log.debug("WS MUX ignored message: {}", payload);
+            return;
+        }
+        MuxChannelSession ch = mux.channels().get(payload.substring(0, bar));
+        String command = payload.substring(bar + 1);
+        if (ch == null || !ch.isOpen() || "ping".equals(command) || command.startsWith("ping:")) return; // per-channel pings are redundant here
+
+        try {
+            game.handleTextMessage(ch, new TextMessage(command));
+        } catch (Throwable t) {
+            // the channel was closed by the room handler; other rooms on this socket keep going
+            log.warn("WS MUX command failed (ch={}, room={}): {}", ch.getChannel(), ch.getRoomCode(), t.toString());
+        }
+    }
+
+    private void subscribe(Mux mux, String channel, String roomCode, String cid, String name) throws Exception {
+        if (mux.channels().containsKey(channel)) return;
+        if (mux.channels().size() >= MAX_CHANNELS) {
+            mux.socket().sendMessage(new TextMessage(channel + "|@close:4008:Too many rooms"));
+            return;
+        }
+        if (roomCode.isEmpty() || cid.isEmpty()) return;
+
+        MuxChannelSession ch = new MuxChannelSession(mux.socket(), channel, roomCode, cid,
+                name.isEmpty() ? "Guest" : name, (c, status) -> release(mux, c, status));
+        mux.channels().put(channel, ch);
+        try {
+            game.afterConnectionEstablished(ch);
+        } catch (Throwable t) {
+            // handler already closed the channel (SERVER_ERROR); keep the socket for the other rooms
+            log.warn("WS MUX sub failed (ch={}, room={}): {}", channel, roomCode, t.toString());
+        }
+    }
+
+    /** Channel ended (unsub, kick, room closed, rejected join): run the regular close path once. */
+    private void release(Mux mux, MuxChannelSession ch, CloseStatus status) {
+        if (!mux.channels().remove(ch.getChannel(), ch)) return;
+        game.afterConnectionClosed(ch, status);
+    }
+
+    @Override
+    public void handleTransportError(@NonNull WebSocketSession session, @NonNull Throwable exception) {
+        log.error("WS MUX ERROR sid={} : transport error", session.getId(), exception);
+    }
+
+    @Override
+    public void afterConnectionClosed(@NonNull WebSocketSession session, @NonNull CloseStatus status) {
+        Mux mux = byPhysical.remove(session.getId());
+        if (mux == null) return;
+        log.info("WS MUX CLOSE sid={} channels={} code={}", session.getId(), mux.channels().size(), status.getCode());
+        for (MuxChannelSession ch : new ArrayList<>(mux.channels().values())) {
+            ch.markClosed();
+            release(mux, ch, status);
+        }
+    }
+
+    /** Close every physical socket (drain); channels are released as on a normal close. */
+    public int closeAll(CloseStatus status) {
+        int n = 0;
+        for (Mux mux : new ArrayList<>(byPhysical.values())) {
+            try { mux.socket().close(status); } catch (Exception ignore) {}
+            n++;
+        }
+        return n;
+    }
+
+    private static String decode(String s) {
+        try { return URLDecoder.decode(s, StandardCharsets.UTF_8); }
+        catch (Exception e) { return s; }
+    }
+}
@@ -0,0 +1,158 @@
+package com.example.estpoker.handler;
+
+import io.netty.handler.codec.http.HttpResponseStatus;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.cors.CorsConfiguration;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+import reactor.netty.http.server.HttpServerRequest;
+import reactor.netty.http.server.HttpServerResponse;
+import reactor.netty.http.server.WebsocketServerSpec;
+import reactor.netty.http.websocket.WebsocketInbound;
+import reactor.netty.http.websocket.WebsocketOutbound;
+
+import java.net.URI;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Alternative WebSocket engine (app.websocket.engine=netty): a Reactor Netty server on its own
+ * port serving /gameSocket with the same protocol and the same {@link GameWebSocketHandler}.
+ * - Connections cost no thread: Netty event loops do the I/O, commands run on a bounded pool
+ *   (in order per connection), sends are queued per session (see {@link NettyWebSocketSession})
+ * - Origins are checked against app.websocket.allowed-origins like the servlet endpoint
+ * - The locale is resolved from the handshake like on the servlet side (no HTTP session)
+ * - Pages and REST stay on Tomcat; the proxy routes /gameSocket to this port
+ */
+@Component
+@ConditionalOnProperty(name = "app.websocket.engine", havingValue = "netty")
+public class NettyGameSocketServer implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(NettyGameSocketServer.class);
+
+    static final int MAX_FRAME_BYTES = 64 * 1024;
+
+    private final GameWebSocketHandler handler;
+    private final CorsConfiguration origins = new CorsConfiguration();
+    private final String bindHost;
+    private final int port;
+    private final int queueFrames;
+    private final AtomicLong ids = new AtomicLong();
+    private final Scheduler commands = Schedulers.boundedElastic();
+    private volatile DisposableServer server;
+
+    public NettyGameSocketServer(
+            GameWebSocketHandler handler,
+            @Value("${app.websocket.allowed-origins:*}") String allowed,
+            @Value("${app.websocket.netty.bind-host:0.0.0.0}") String bindHost,
+            @Value("${app.websocket.netty.port:8081}") int port,
+            @Value("${app.websocket.netty.send-queue:256}") int queueFrames
+    ) {
+        this.handler = handler;
+        this.origins.setAllowedOriginPatterns(Arrays.stream(allowed.split("[,\\s]+"))
+                .map(String::trim).filter(s -> !s.isBlank()).toList());
+        this.bindHost = bindHost;
+        this.port = port;
+        this.queueFrames = queueFrames;
+    }
+
+    /** Actual listen port (useful with port 0). */
+    public int port() {
+        DisposableServer s = server;
+        return (s == null) ? -1 : s.port();
+    }
+
+    @Override
+    public void start() {
+        server = HttpServer.create()
+                .host(bindHost)
+                .port(port)
+                .route(routes -> routes.get("/gameSocket", this::upgrade))
+                .bindNow();
+        log.info("🔌 Netty WebSocket engine listening on {}:{} (/gameSocket)", bindHost, server.port());
+    }
+
+    @Override
+    public void stop() {
+        DisposableServer s = server;
+        server = null;
+        if (s != null) s.disposeNow();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return server != null;
+    }
+
+    // ------------------------------------------------------------------------
+
+    private Mono<Void> upgrade(HttpServerRequest req, HttpServerResponse res) {
+        String origin = req.requestHeaders().get("Origin");
+        if (origin != null && origins.checkOrigin(origin) == null) {
+            return res.status(HttpResponseStatus.FORBIDDEN).send();
+        }
+        HttpHeaders headers = new HttpHeaders();
+        req.requestHeaders().forEach(e -> headers.add(e.getKey(), e.getValue()));
+        NettyWebSocketSession session = new NettyWebSocketSession(
+                "n" + Long.toHexString(ids.incrementAndGet()),
+                URI.create(req.uri()), headers, req.hostAddress(), req.remoteAddress(), queueFrames);
+        session.getAttributes().put(LocaleHandshakeInterceptor.LOCALE_ATTR,
+                LocaleHandshakeInterceptor.resolve(session.getUri(), headers));
+        return res.sendWebsocket((in, out) -> serve(session, in, out),
+                WebsocketServerSpec.builder().maxFramePayloadLength(MAX_FRAME_BYTES).build());
+    }
+
+    private Mono<Void> serve(NettyWebSocketSession session, WebsocketInbound in, WebsocketOutbound out) {
+        AtomicReference<CloseStatus> clientClose = new AtomicReference<>();
+        in.receiveCloseStatus().subscribe(s -> clientClose.set(new CloseStatus(s.code(), s.reasonText())));
+
+        Mono<Void> inbound = Mono.fromRunnable(() -> call(() -> handler.afterConnectionEstablished(session), session))
+                .thenMany(in.aggregateFrames(MAX_FRAME_BYTES).receive().asString()
+                        .publishOn(commands)
+                        .doOnNext(text -> call(() -> handler.handleMessage(session, new TextMessage(text)), session)))
+                .subscribeOn(commands)
+                .doFinally(sig -> session.markClosed())
+                .then();
+
+        Mono<Void> outbound = out.sendObject(session.frames()).then()
+                .then(Mono.defer(() -> {
+                    CloseStatus s = session.closeStatus();
+                    return (s == null) ? Mono.empty() : out.sendClose(s.getCode(), s.getReason());
+                }));
+
+        return Mono.when(inbound, outbound)
+                .onErrorResume(e -> Mono.empty())
+                .doFinally(sig -> {
+                    CloseStatus status = session.closeStatus() != null ? session.closeStatus()
+                            : clientClose.get() != null ? clientClose.get() : CloseStatus.NO_CLOSE_FRAME;
+                    session.markClosed();
+                    try {
+                        handler.afterConnectionClosed(session, status);
+                    } catch (Exception e) {
+                        log.warn("WS(netty) close handling failed for {}: {}", session.getId(), e.toString());
+                    }
+                });
+    }
+
+    private interface Call { void run() throws Exception; }
+
+    private static void call(Call c, NettyWebSocketSession session) {
+        try {
+            c.run();
+        } catch (Exception e) {
+            log.warn("WS(netty) handler error on {}: {}", session.getId(), e.toString());
+        }
+    }
+}
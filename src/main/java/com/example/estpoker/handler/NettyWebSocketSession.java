@@ -0,0 +1,140 @@
+package com.example.estpoker.handler;
+
+import io.netty.handler.codec.http.websocketx.TextWebSocketFrame;
+import io.netty.handler.codec.http.websocketx.WebSocketFrame;
+import org.springframework.http.HttpHeaders;
+import org.springframework.lang.NonNull;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketExtension;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+import reactor.util.concurrent.Queues;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.security.Principal;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A Reactor Netty WebSocket connection seen by {@link GameWebSocketHandler} and GameService as a
+ * regular session.
+ * - sendMessage() only enqueues into a bounded sink; Netty drains it as the channel becomes
+ *   writable, so a slow client never holds a broadcasting thread
+ * - A full queue means the client stopped reading: the session is closed (4500 "not reliable"),
+ *   the same policy as the servlet side's send buffer limit
+ * - close() completes the queue; the server then sends the close frame with the given status
+ */
+class NettyWebSocketSession implements WebSocketSession {
+
+    private final String id;
+    private final URI uri;
+    private final HttpHeaders headers;
+    private final InetSocketAddress local;
+    private final InetSocketAddress remote;
+    private final Map<String, Object> attributes = new ConcurrentHashMap<>();
+    private final Sinks.Many<WebSocketFrame> outbound;
+    private final Object emitLock = new Object();
+    private volatile boolean open = true;
+    private volatile CloseStatus closeStatus;
+
+    NettyWebSocketSession(String id, URI uri, HttpHeaders headers,
+                          InetSocketAddress local, InetSocketAddress remote, int queueFrames) {
+        this.id = id;
+        this.uri = uri;
+        this.headers = headers;
+        this.local = local;
+        this.remote = remote;
+        this.outbound = Sinks.many().unicast().onBackpressureBuffer(Queues.<WebSocketFrame>get(queueFrames).get());
+    }
+
+    /** Frames for the Netty outbound; completes once the session is closed. */
+    Flux<WebSocketFrame> frames() { return outbound.asFlux().doOnDiscard(WebSocketFrame.class, WebSocketFrame::release); }
+
+    /** Status passed to close(), or null if the client closed first. */
+    CloseStatus closeStatus() { return closeStatus; }
+
+    /** The connection went away underneath us. */
+    void markClosed() {
+        open = false;
+        synchronized (emitLock) { outbound.tryEmitComplete(); }
+    }
+
+    @Override @NonNull
+    public String getId() { return id; }
+
+    @Override
+    public URI getUri() { return uri; }
+
+    @Override @NonNull
+    public HttpHeaders getHandshakeHeaders() { return headers; }
+
+    @Override @NonNull
+    public Map<String, Object> getAttributes() { return attributes; }
+
+    @Override
+    public Principal getPrincipal() { return null; }
+
+    @Override
+    public InetSocketAddress getLocalAddress() { return local; }
+
+    @Override
+    public InetSocketAddress getRemoteAddress() { return remote; }
+
+    @Override
+    public String getAcceptedProtocol() { return null; }
+
+    @Override
+    public void setTextMessageSizeLimit(int messageSizeLimit) { /* fixed by the server's frame aggregation */ }
+
+    @Override
+    public int getTextMessageSizeLimit() { return NettyGameSocketServer.MAX_FRAME_BYTES; }
+
+    @Override
+    public void setBinaryMessageSizeLimit(int messageSizeLimit) { }
+
+    @Override
+    public int getBinaryMessageSizeLimit() { return NettyGameSocketServer.MAX_FRAME_BYTES; }
+
+    @Override @NonNull
+    public List<WebSocketExtension> getExtensions() { return List.of(); }
+
+    @Override
+    public void sendMessage(@NonNull WebSocketMessage<?> message) throws IOException {
+        if (!(message instanceof TextMessage text)) {
+            throw new IllegalArgumentException("Only text frames are supported");
+        }
+        Sinks.EmitResult r;
+        WebSocketFrame frame = new TextWebSocketFrame(text.getPayload());
+        synchronized (emitLock) {
+            r = open ? outbound.tryEmitNext(frame) : Sinks.EmitResult.FAIL_TERMINATED;
+        }
+        if (r.isFailure()) frame.release();
+        if (r == Sinks.EmitResult.FAIL_OVERFLOW) {
+            close(CloseStatus.SESSION_NOT_RELIABLE);
+            throw new IOException("Send queue full for session " + id);
+        }
+        if (r.isFailure()) throw new IOException("Session " + id + " is closed (" + r + ")");
+    }
+
+    @Override
+    public boolean isOpen() { return open; }
+
+    @Override
+    public void close() { close(CloseStatus.NORMAL); }
+
+    @Override
+    public void close(@NonNull CloseStatus status) {
+        synchronized (emitLock) {
+            if (!open) return;
+            open = false;
+            closeStatus = status;
+            outbound.tryEmitComplete();
+        }
+    }
+}
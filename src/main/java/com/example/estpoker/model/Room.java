@@ -49,6 +49,25 @@ public class Room {
     private String topicUrl;
     private boolean topicVisible = false;
 
+    // ---------------------------------------------------------------------
+    // Large-room mode (summarized roster; GameService also switches automatically above a threshold)
+    // ---------------------------------------------------------------------
+
+    private boolean largeRoomMode = false;
+
+    // ---------------------------------------------------------------------
+    // Round timer (server-authoritative; clients render the countdown from the deadline)
+    // ---------------------------------------------------------------------
+
+    /** Configured round length in ms (0 = no timer set). */
+    private long timerDurationMs = 0L;
+
+    /** Absolute deadline (epoch ms) while running, 0 otherwise. */
+    private long timerDeadline = 0L;
+
+    /** Remaining ms while paused, 0 otherwise. */
+    private long timerRemainingMs = 0L;
+
     // ---------------------------------------------------------------------
     // Construction
     // ---------------------------------------------------------------------
@@ -121,6 +140,60 @@ public class Room {
         this.topicVisible = topicVisible;
     }
 
+    public boolean isLargeRoomMode() {
+        return largeRoomMode;
+    }
+
+    public void setLargeRoomMode(boolean largeRoomMode) {
+        this.largeRoomMode = largeRoomMode;
+    }
+
+    public long getTimerDurationMs() {
+        return timerDurationMs;
+    }
+
+    public long getTimerDeadline() {
+        return timerDeadline;
+    }
+
+    public long getTimerRemainingMs() {
+        return timerRemainingMs;
+    }
+
+    public boolean isTimerRunning() {
+        return timerDeadline > 0L;
+    }
+
+    public boolean isTimerPaused() {
+        return timerDeadline == 0L && timerRemainingMs > 0L;
+    }
+
+    /** Start (or resume) the timer so it ends at {@code deadline}. */
+    public void startTimer(long durationMs, long deadline) {
+        this.timerDurationMs = Math.max(0L, durationMs);
+        this.timerDeadline = deadline;
+        this.timerRemainingMs = 0L;
+    }
+
+    /** Freeze the timer with {@code remainingMs} left. */
+    public void pauseTimer(long remainingMs) {
+        this.timerDeadline = 0L;
+        this.timerRemainingMs = Math.max(1L, remainingMs);
+    }
+
+    /** Clear running/paused state (the configured duration is kept for the next round). */
+    public void stopTimer() {
+        this.timerDeadline = 0L;
+        this.timerRemainingMs = 0L;
+    }
+
+    /** Restore all timer fields as-is (replication/restore; no validation). */
+    public void restoreTimer(long durationMs, long deadline, long remainingMs) {
+        this.timerDurationMs = durationMs;
+        this.timerDeadline = deadline;
+        this.timerRemainingMs = remainingMs;
+    }
+
     // ---------------------------------------------------------------------
     // Participants API (used by GameService/GameWebSocketHandler)
     // ---------------------------------------------------------------------
@@ -130,12 +203,17 @@ public class Room {
         return new ArrayList<>(participants.values());
     }
 
-    /** Convenience: names snapshot; used as a reflection fallback in the handler. */
+    /** Number of participants without copying the roster. */
+    public int getParticipantCount() {
+        return participants.size();
+    }
+
+    /** Convenience: names snapshot (all participants, connected or not). */
     public Collection<String> getParticipantNames() {
         return new ArrayList<>(participants.keySet());
     }
 
-    /** Optional active participants accessor (reflection-friendly fallback). */
+    /** Connected participants; used by the handler for the roster replay. */
     public Collection<Participant> getActiveParticipants() {
         List<Participant> out = new ArrayList<>();
         for (Participant p : participants.values()) {
@@ -177,6 +255,11 @@ public class Room {
         cidToName.put(cid, name);
     }
 
+    /** Snapshot of cid → participant name links. */
+    public Map<String, String> getCidLinks() {
+        return new HashMap<>(cidToName);
+    }
+
     /** Current host, if any. */
     public Participant getHost() {
         for (Participant p : participants.values()) {
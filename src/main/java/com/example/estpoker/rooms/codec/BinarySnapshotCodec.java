@@ -0,0 +1,328 @@
+package com.example.estpoker.rooms.codec;
+
+import com.example.estpoker.rooms.model.StoredParticipant;
+import com.example.estpoker.rooms.model.StoredRoom;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.BufferUnderflowException;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Compact snapshot format: no field names, no whitespace, optionally deflated.
+ * <pre>
+ *   magic   E5 'P' 'K' 'S'     (0xE5 never starts JSON text, so legacy files are told apart)
+ *   version 1 byte
+ *   flags   1 byte             bit 0 = body is raw deflate
+ *   [varint raw length]        only if deflated
+ *   body                       fields in a fixed order (see {@link #writeBody})
+ * </pre>
+ * Version 2 appends the write version of the room; version 1 snapshots read as version 0.
+ * Strings are varint(length + 1) + UTF-8 (0 = null), counts and nanos are varints, seconds
+ * zig-zag varlongs, doubles 8 bytes big-endian. The body is only deflated from
+ * {@code compressMinBytes} on and only if that actually makes it smaller. A field added to
+ * StoredRoom needs a new version here; old versions stay readable. Legacy JSON is detected and
+ * read with Jackson.
+ */
+public final class BinarySnapshotCodec implements SnapshotCodec {
+
+  static final byte[] MAGIC = {(byte) 0xE5, 'P', 'K', 'S'};
+  static final int VERSION = 2;
+  static final int FLAG_DEFLATE = 1;
+
+  private static final ObjectMapper LEGACY = new ObjectMapper().findAndRegisterModules();
+
+  private final boolean compress;
+  private final int compressMinBytes;
+
+  public BinarySnapshotCodec(boolean compress, int compressMinBytes) {
+    this.compress = compress;
+    this.compressMinBytes = Math.max(0, compressMinBytes);
+  }
+
+  @Override
+  public String name() {
+    return compress ? "binary+deflate" : "binary";
+  }
+
+  /** True if {@code bytes} start with the binary header (anything else is treated as JSON). */
+  public static boolean isBinary(byte[] bytes) {
+    if (bytes == null || bytes.length < MAGIC.length + 2) return false;
+    for (int i = 0; i < MAGIC.length; i++) if (bytes[i] != MAGIC[i]) return false;
+    return true;
+  }
+
+  @Override
+  public byte[] encode(StoredRoom room) throws IOException {
+    Out body = new Out(512);
+    writeBody(room, body);
+
+    byte[] deflated = (compress && body.size() >= compressMinBytes) ? deflate(body.buf(), body.size()) : null;
+    boolean useDeflate = deflated != null && deflated.length + 5 < body.size();
+
+    Out out = new Out((useDeflate ? deflated.length : body.size()) + 16);
+    out.write(MAGIC, 0, MAGIC.length);
+    out.write(VERSION);
+    out.write(useDeflate ? FLAG_DEFLATE : 0);
+    if (useDeflate) {
+      out.varint(body.size());
+      out.write(deflated, 0, deflated.length);
+    } else {
+      out.write(body.buf(), 0, body.size());
+    }
+    return out.toByteArray();
+  }
+
+  @Override
+  public StoredRoom decode(byte[] bytes) throws IOException {
+    if (!isBinary(bytes)) return LEGACY.readValue(bytes, StoredRoom.class);
+    return readBinary(bytes);
+  }
+
+  static StoredRoom readBinary(byte[] bytes) throws IOException {
+    try {
+      ByteBuffer in = ByteBuffer.wrap(bytes, MAGIC.length, bytes.length - MAGIC.length);
+      int version = in.get() & 0xff;
+      if (version < 1 || version > VERSION) throw new IOException("Unsupported snapshot version " + version);
+      int flags = in.get() & 0xff;
+      if ((flags & FLAG_DEFLATE) != 0) {
+        int rawLength = varint(in);
+        in = ByteBuffer.wrap(inflate(bytes, in.position(), in.remaining(), rawLength));
+      }
+      StoredRoom room = readBody(in, version);
+      if (in.hasRemaining()) throw new IOException("Trailing bytes in snapshot: " + in.remaining());
+      return room;
+    } catch (BufferUnderflowException | IllegalArgumentException e) {
+      throw new IOException("Truncated or corrupt snapshot", e);
+    }
+  }
+
+  // === body ==================================================================
+
+  private static void writeBody(StoredRoom r, Out out) {
+    out.string(r.getCode());
+    out.string(r.getTitle());
+    out.string(r.getOwner());
+    out.instant(r.getCreatedAt());
+    out.instant(r.getUpdatedAt());
+    out.string(r.getTopicLabel());
+    out.string(r.getTopicUrl());
+    out.string(r.getPasswordHash());
+
+    StoredRoom.Settings s = r.getSettings();
+    out.string(s.getSequenceId());
+    out.write(bits(s.isAutoRevealEnabled(), s.isAllowSpecials(), s.isTopicVisible()));
+
+    StoredRoom.Stats stats = r.getStats();
+    out.write(stats == null ? 0 : 1);
+    if (stats != null) {
+      out.varint(stats.getRoundsPlayed());
+      out.fixed64(Double.doubleToRawLongBits(stats.getLastAverage()));
+    }
+
+    List<StoredParticipant> participants = r.getParticipants() == null ? List.of() : r.getParticipants();
+    out.varint(participants.size());
+    for (StoredParticipant p : participants) {
+      out.string(p.getName());
+      out.string(p.getVote());
+      out.write(bits(p.isHost(), p.isParticipating(), p.isActive()));
+    }
+
+    out.varint(r.getHistory().size());
+    for (StoredRoom.HistoryItem h : r.getHistory()) {
+      out.instant(h.getAt());
+      out.string(h.getActor());
+      out.string(h.getAction());
+    }
+
+    out.varlong(r.getVersion()); // since version 2
+  }
+
+  private static StoredRoom readBody(ByteBuffer in, int format) throws IOException {
+    StoredRoom r = new StoredRoom();
+    String code = string(in);
+    if (code != null) r.setCode(code);
+    r.setTitle(string(in));
+    r.setOwner(string(in));
+    Instant createdAt = instant(in);
+    Instant updatedAt = instant(in);
+    r.setTopicLabel(string(in));
+    r.setTopicUrl(string(in));
+    r.setPasswordHash(string(in));
+
+    StoredRoom.Settings s = new StoredRoom.Settings();
+    s.setSequenceId(string(in));
+    int flags = in.get();
+    s.setAutoRevealEnabled((flags & 1) != 0);
+    s.setAllowSpecials((flags & 2) != 0);
+    s.setTopicVisible((flags & 4) != 0);
+    r.setSettings(s);
+
+    if (in.get() != 0) {
+      StoredRoom.Stats stats = new StoredRoom.Stats();
+      stats.setRoundsPlayed(varint(in));
+      stats.setLastAverage(Double.longBitsToDouble(in.getLong()));
+      r.setStats(stats);
+    }
+
+    int n = count(in);
+    List<StoredParticipant> participants = new ArrayList<>(n);
+    for (int i = 0; i < n; i++) {
+      StoredParticipant p = new StoredParticipant();
+      p.setName(string(in));
+      p.setVote(string(in));
+      int b = in.get();
+      p.setHost((b & 1) != 0);
+      p.setParticipating((b & 2) != 0);
+      p.setActive((b & 4) != 0);
+      participants.add(p);
+    }
+    r.setParticipants(participants);
+
+    int h = count(in);
+    for (int i = 0; i < h; i++) {
+      StoredRoom.HistoryItem item = new StoredRoom.HistoryItem();
+      item.setAt(instant(in));
+      item.setActor(string(in));
+      item.setAction(string(in));
+      r.getHistory().add(item);
+    }
+    if (format >= 2) r.setVersion(varlong(in));
+
+    // last: the setters above touch updatedAt
+    r.setCreatedAt(createdAt);
+    r.setUpdatedAt(updatedAt);
+    return r;
+  }
+
+  private static int bits(boolean a, boolean b, boolean c) {
+    return (a ? 1 : 0) | (b ? 2 : 0) | (c ? 4 : 0);
+  }
+
+  // === compression ==========================================================
+
+  private static byte[] deflate(byte[] buf, int len) {
+    Deflater d = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+    try {
+      d.setInput(buf, 0, len);
+      d.finish();
+      ByteArrayOutputStream out = new ByteArrayOutputStream(len);
+      byte[] chunk = new byte[Math.max(64, len)];
+      while (!d.finished()) out.write(chunk, 0, d.deflate(chunk));
+      return out.toByteArray();
+    } finally {
+      d.end();
+    }
+  }
+
+  private static byte[] inflate(byte[] buf, int off, int len, int rawLength) throws IOException {
+    if (rawLength < 0) throw new IOException("Corrupt snapshot length " + rawLength);
+    Inflater inf = new Inflater(true);
+    try {
+      inf.setInput(buf, off, len);
+      byte[] out = new byte[rawLength];
+      int n = 0;
+      while (n < rawLength) {
+        int r = inf.inflate(out, n, rawLength - n);
+        if (r == 0 && (inf.finished() || inf.needsInput() || inf.needsDictionary())) break;
+        n += r;
+      }
+      if (n != rawLength) throw new IOException("Truncated snapshot body: " + n + " of " + rawLength + " bytes");
+      return out;
+    } catch (DataFormatException e) {
+      throw new IOException("Corrupt snapshot body", e);
+    } finally {
+      inf.end();
+    }
+  }
+
+  // === primitives ===========================================================
+
+  private static int count(ByteBuffer in) throws IOException {
+    int n = varint(in);
+    if (n < 0 || n > in.remaining()) throw new IOException("Corrupt snapshot count " + n);
+    return n;
+  }
+
+  private static String string(ByteBuffer in) throws IOException {
+    int len = varint(in) - 1;
+    if (len < 0) return null;
+    if (len > in.remaining()) throw new IOException("Corrupt snapshot string length " + len);
+    String s = new String(in.array(), in.arrayOffset() + in.position(), len, StandardCharsets.UTF_8);
+    in.position(in.position() + len);
+    return s;
+  }
+
+  private static Instant instant(ByteBuffer in) {
+    if (in.get() == 0) return null;
+    long z = varlong(in);
+    return Instant.ofEpochSecond((z >>> 1) ^ -(z & 1), varint(in));
+  }
+
+  private static int varint(ByteBuffer in) {
+    return (int) varlong(in);
+  }
+
+  private static long varlong(ByteBuffer in) {
+    long v = 0;
+    for (int shift = 0; shift < 64; shift += 7) {
+      byte b = in.get();
+      v |= (long) (b & 0x7f) << shift;
+      if (b >= 0) return v;
+    }
+    throw new IllegalArgumentException("varint too long");
+  }
+
+  /** Growable buffer with the write side of the primitives above. */
+  private static final class Out extends ByteArrayOutputStream {
+    Out(int size) {
+      super(size);
+    }
+
+    byte[] buf() {
+      return buf;
+    }
+
+    void varint(int v) {
+      varlong(v & 0xffffffffL);
+    }
+
+    void varlong(long v) {
+      while ((v & ~0x7fL) != 0) {
+        write((int) ((v & 0x7f) | 0x80));
+        v >>>= 7;
+      }
+      write((int) v);
+    }
+
+    void fixed64(long v) {
+      for (int shift = 56; shift >= 0; shift -= 8) write((int) (v >>> shift));
+    }
+
+    void string(String s) {
+      if (s == null) {
+        write(0);
+        return;
+      }
+      byte[] b = s.getBytes(StandardCharsets.UTF_8);
+      varint(b.length + 1);
+      write(b, 0, b.length);
+    }
+
+    void instant(Instant t) {
+      write(t == null ? 0 : 1);
+      if (t == null) return;
+      long s = t.getEpochSecond();
+      varlong((s << 1) ^ (s >> 63));
+      varint(t.getNano());
+    }
+  }
+}
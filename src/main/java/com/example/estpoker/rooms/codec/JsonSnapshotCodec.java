@@ -0,0 +1,28 @@
+package com.example.estpoker.rooms.codec;
+
+import com.example.estpoker.rooms.model.StoredRoom;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+
+/** The original format: pretty-printed JSON. Binary snapshots are still read. */
+public final class JsonSnapshotCodec implements SnapshotCodec {
+
+  private final ObjectMapper om = new ObjectMapper().findAndRegisterModules();
+  private final ObjectWriter writer = om.writerWithDefaultPrettyPrinter();
+
+  @Override
+  public String name() {
+    return "json";
+  }
+
+  @Override
+  public byte[] encode(StoredRoom room) throws Exception {
+    return writer.writeValueAsBytes(room);
+  }
+
+  @Override
+  public StoredRoom decode(byte[] bytes) throws Exception {
+    if (BinarySnapshotCodec.isBinary(bytes)) return BinarySnapshotCodec.readBinary(bytes);
+    return om.readValue(bytes, StoredRoom.class);
+  }
+}
@@ -0,0 +1,18 @@
+package com.example.estpoker.rooms.codec;
+
+import com.example.estpoker.rooms.model.StoredRoom;
+
+/**
+ * Byte format of a stored room snapshot (what a RoomStore writes per room).
+ * Every implementation reads every known format, so the configured codec can be switched
+ * (binary -> json and back) without losing the rooms written before.
+ */
+public interface SnapshotCodec {
+
+  /** Short name for logs and stats ("binary", "json"). */
+  String name();
+
+  byte[] encode(StoredRoom room) throws Exception;
+
+  StoredRoom decode(byte[] bytes) throws Exception;
+}
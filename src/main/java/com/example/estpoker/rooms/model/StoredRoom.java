@@ -37,6 +37,12 @@ public class StoredRoom {
      */
     private String passwordHash;
 
+    /**
+     * Write counter, bumped by the RoomStore on every save (0 = written before versions existed).
+     * Together with updatedAt it identifies one written state (see StoredRoomPersistenceService).
+     */
+    private long version;
+
     // --- Factory ------------------------------------------------------------
 
     public static StoredRoom newWithCode(String code) {
@@ -203,6 +209,16 @@ public class StoredRoom {
         return passwordHash != null && !passwordHash.isBlank();
     }
 
+    // --- Version -----------------------------------------------------------
+
+    public long getVersion() {
+        return version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
+
     // --- Nested types -------------------------------------------------------
 
     /**
@@ -0,0 +1,316 @@
+package com.example.estpoker.rooms.repo;
+
+import com.example.estpoker.rooms.model.StoredRoom;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Bloom filter of stored room codes in front of a (remote) RoomStore: load/exists of a code that
+ * was never stored (typos, random codes, invite links of new rooms) are answered without a round trip.
+ * - Built from the store listing ({@link RoomStore#list}) off the caller's thread; until then, and
+ *   after a failed build, every call goes to the delegate
+ * - The listing comes from an index that can miss rooms (unflushed after a crash, lost to a
+ *   concurrent write); no filter is built until {@code listingComplete} says it was reconciled
+ *   with the store
+ * - Codes the listing cannot know yet ({@code unlisted}: the local tier and its outbox after a
+ *   restart) are added to every filter
+ * - save adds the code before the delegate writes it; delete cannot remove it (a deleted room
+ *   costs a round trip until the next build)
+ * - Rebuilt every {@code rebuildMs}: picks up rooms created by other instances and drops deleted ones
+ * - Codes saved here stay in every new filter until the listing contains them, so a write not yet
+ *   replicated or indexed is never reported missing
+ * - Rooms stored by other nodes ({@link #remember}, from STORED events) are added right away
+ * Only "definitely not stored" is answered here; a possible hit always asks the delegate.
+ * {@link #loadFresh} never uses the filter: a write must not treat a room as new on a filter miss.
+ */
+public class BloomRoomStore implements RoomStore, AutoCloseable {
+
+  private static final Logger log = LoggerFactory.getLogger(BloomRoomStore.class);
+
+  private static final int PAGE = 1_000;
+
+  private static final long WAIT_FOR_LISTING_MS = 1_000L;
+
+  private final RoomStore delegate;
+  private final int expectedRooms;
+  private final double fpp;
+  private final long rebuildMs;
+  private final BooleanSupplier listingComplete;
+  private final Callable<? extends Collection<String>> storedUnlisted;
+
+  private volatile Filter filter;   // null = not built (yet): pass through
+  private volatile Filter building; // receives saves while a build lists the store
+  // code -> saved here, not yet seen in a listing
+  private final Map<String, Boolean> unlisted = new ConcurrentHashMap<>();
+  private final ScheduledExecutorService builder;
+
+  private final AtomicLong definiteMisses = new AtomicLong();
+  private final AtomicLong passed = new AtomicLong();
+  private final AtomicLong falsePositives = new AtomicLong();
+  private final AtomicLong builds = new AtomicLong();
+  private final AtomicLong buildFailures = new AtomicLong();
+  private volatile long lastBuildMs;
+  private volatile int lastBuildRooms;
+
+  public BloomRoomStore(RoomStore delegate, int expectedRooms, double fpp, long rebuildMs) {
+    this(delegate, expectedRooms, fpp, rebuildMs, () -> true, List::of);
+  }
+
+  /**
+   * @param listingComplete false while the delegate's listing may still miss stored rooms
+   * @param storedUnlisted  codes stored but possibly not listed yet, added to every filter
+   */
+  public BloomRoomStore(RoomStore delegate, int expectedRooms, double fpp, long rebuildMs,
+                        BooleanSupplier listingComplete, Callable<? extends Collection<String>> storedUnlisted) {
+    this.delegate = Objects.requireNonNull(delegate, "delegate");
+    this.expectedRooms = Math.max(1_000, expectedRooms);
+    this.fpp = Math.min(0.5, Math.max(1e-6, fpp));
+    this.rebuildMs = rebuildMs;
+    this.listingComplete = Objects.requireNonNull(listingComplete, "listingComplete");
+    this.storedUnlisted = Objects.requireNonNull(storedUnlisted, "storedUnlisted");
+    this.builder = Executors.newSingleThreadScheduledExecutor(r -> {
+      Thread t = new Thread(r, "room-bloom-build");
+      t.setDaemon(true);
+      return t;
+    });
+    if (rebuildMs > 0) builder.scheduleWithFixedDelay(this::rebuild, 0L, rebuildMs, TimeUnit.MILLISECONDS);
+    else builder.execute(this::rebuild);
+  }
+
+  // === RoomStore ============================================================
+
+  @Override
+  public Optional<StoredRoom> load(String code) throws Exception {
+    if (definitelyMissing(code)) return Optional.empty();
+    Optional<StoredRoom> r = delegate.load(code);
+    if (r.isEmpty() && filter != null) falsePositives.incrementAndGet();
+    return r;
+  }
+
+  @Override
+  public Optional<StoredRoom> loadFresh(String code) throws Exception {
+    Optional<StoredRoom> r = delegate.loadFresh(code);
+    if (r.isPresent()) remember(code);
+    return r;
+  }
+
+  @Override
+  public void invalidate(String code) {
+    delegate.invalidate(code);
+  }
+
+  @Override
+  public boolean exists(String code) throws Exception {
+    if (definitelyMissing(code)) return false;
+    boolean found = delegate.exists(code);
+    if (!found && filter != null) falsePositives.incrementAndGet();
+    return found;
+  }
+
+  @Override
+  public void save(StoredRoom room) throws Exception {
+    Objects.requireNonNull(room, "room");
+    // before the write: a reader must never see "missing" for a room that is stored
+    remember(room.getCode());
+    delegate.save(room);
+  }
+
+  @Override
+  public void delete(String code) throws Exception {
+    delegate.delete(code);
+    if (code != null) unlisted.remove(key(code));
+  }
+
+  @Override
+  public boolean supportsListing() {
+    return delegate.supportsListing();
+  }
+
+  @Override
+  public Page scan(String prefix, String after, int limit) throws Exception {
+    return delegate.scan(prefix, after, limit);
+  }
+
+  /** The room is stored (here or on another node): never reported missing until it is deleted here. */
+  public void remember(String code) {
+    if (code == null) return;
+    String key = key(code);
+    unlisted.put(key, Boolean.TRUE);
+    Filter f = filter, b = building;
+    if (f != null) f.add(key);
+    if (b != null) b.add(key);
+  }
+
+  /** Filter state and how many lookups it answered, for diagnostics. */
+  public Map<String, Object> stats() {
+    Filter f = filter;
+    long misses = definiteMisses.get();
+    long through = passed.get();
+    Map<String, Object> out = new LinkedHashMap<>();
+    out.put("ready", f != null);
+    out.put("listingComplete", listingComplete.getAsBoolean());
+    out.put("bits", f == null ? 0 : f.bits);
+    out.put("hashes", f == null ? 0 : f.hashes);
+    out.put("expectedRooms", f == null ? 0 : f.expected);
+    out.put("targetFpp", fpp);
+    out.put("unlisted", unlisted.size());
+    out.put("definiteMisses", misses);
+    out.put("passedThrough", through);
+    out.put("falsePositives", falsePositives.get());
+    out.put("shortCircuitRatio", (misses + through) == 0 ? 0.0 : (double) misses / (misses + through));
+    out.put("builds", builds.get());
+    out.put("buildFailures", buildFailures.get());
+    out.put("lastBuildRooms", lastBuildRooms);
+    out.put("lastBuildMs", lastBuildMs);
+    return out;
+  }
+
+  @Override
+  public void close() {
+    builder.shutdownNow();
+  }
+
+  // === intern ===============================================================
+
+  private boolean definitelyMissing(String code) {
+    Filter f = filter;
+    if (f != null && code != null && !f.mightContain(key(code))) {
+      definiteMisses.incrementAndGet();
+      return true;
+    }
+    passed.incrementAndGet();
+    return false;
+  }
+
+  /** Fresh filter from the full listing; the old one serves until it is done. */
+  void rebuild() {
+    if (!delegate.supportsListing()) {
+      // no index (app.rooms.index.enabled=false): nothing to build from, stay a pass-through
+      filter = null;
+      builder.shutdown();
+      log.info("Room bloom filter disabled: {} cannot list rooms", delegate.getClass().getSimpleName());
+      return;
+    }
+    if (!listingComplete.getAsBoolean()) {
+      // the index may still miss rooms: a filter from it would report stored rooms missing
+      filter = null;
+      if (rebuildMs <= 0) {
+        try {
+          builder.schedule(this::rebuild, WAIT_FOR_LISTING_MS, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException ignore) {
+          // closed
+        }
+      }
+      return;
+    }
+    long start = System.currentTimeMillis();
+    try {
+      Filter next = new Filter(Math.max(expectedRooms, 2 * lastBuildRooms), fpp);
+      building = next;
+      int rooms = 0;
+      String after = null;
+      do {
+        Page page = delegate.list(after, PAGE);
+        for (Summary s : page.rooms()) {
+          String key = key(s.code());
+          next.add(key);
+          unlisted.remove(key);
+          rooms++;
+        }
+        after = page.next();
+      } while (after != null);
+      for (String code : storedUnlisted.call()) next.add(key(code));
+      for (String key : unlisted.keySet()) next.add(key);
+
+      filter = next;
+      lastBuildRooms = rooms;
+      lastBuildMs = System.currentTimeMillis() - start;
+      if (builds.incrementAndGet() == 1) {
+        log.info("Room bloom filter built: {} room(s), {} bits, {} hashes in {} ms",
+            rooms, next.bits, next.hashes, lastBuildMs);
+      }
+    } catch (Exception e) {
+      // a stale filter could hide rooms created elsewhere: pass through until a build succeeds
+      filter = null;
+      buildFailures.incrementAndGet();
+      log.warn("Room bloom filter build failed, lookups go to the store: {}", e.toString());
+    } finally {
+      building = null;
+    }
+  }
+
+  private static String key(String code) {
+    return code.trim();
+  }
+
+  /** Bits in an AtomicLongArray; k positions by double hashing of one 64-bit hash. */
+  static final class Filter {
+    final int expected;
+    final long bits;
+    final int hashes;
+    private final AtomicLongArray words;
+
+    Filter(int expected, double fpp) {
+      this.expected = expected;
+      long m = (long) Math.ceil(-expected * Math.log(fpp) / (Math.log(2) * Math.log(2)));
+      this.bits = Math.max(64L, (m + 63) / 64 * 64);
+      this.hashes = Math.max(1, (int) Math.round((double) bits / expected * Math.log(2)));
+      this.words = new AtomicLongArray((int) (bits / 64));
+    }
+
+    void add(String key) {
+      long h = hash(key);
+      int h1 = (int) h, h2 = (int) (h >>> 32);
+      for (int i = 0; i < hashes; i++) {
+        long bit = Integer.toUnsignedLong(h1 + i * h2) % bits;
+        long mask = 1L << bit;
+        int w = (int) (bit >>> 6);
+        long cur;
+        while (((cur = words.get(w)) & mask) == 0 && !words.compareAndSet(w, cur, cur | mask)) {
+          // retry: another bit of the same word was set concurrently
+        }
+      }
+    }
+
+    boolean mightContain(String key) {
+      long h = hash(key);
+      int h1 = (int) h, h2 = (int) (h >>> 32);
+      for (int i = 0; i < hashes; i++) {
+        long bit = Integer.toUnsignedLong(h1 + i * h2) % bits;
+        if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) return false;
+      }
+      return true;
+    }
+
+    /** FNV-1a over the chars, then the MurmurHash3 finalizer for an even spread of both halves. */
+    private static long hash(String s) {
+      long h = 0xcbf29ce484222325L;
+      for (int i = 0; i < s.length(); i++) {
+        h ^= s.charAt(i);
+        h *= 0x100000001b3L;
+      }
+      h ^= h >>> 33;
+      h *= 0xff51afd7ed558ccdL;
+      h ^= h >>> 33;
+      h *= 0xc4ceb9fe1a85ec53L;
+      h ^= h >>> 33;
+      return h;
+    }
+  }
+}
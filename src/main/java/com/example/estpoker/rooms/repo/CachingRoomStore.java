@@ -0,0 +1,247 @@
+package com.example.estpoker.rooms.repo;
+
+import com.example.estpoker.rooms.model.StoredRoom;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Read-through cache in front of a (remote) RoomStore.
+ * - Bounded LRU with a TTL; "not found" is cached too (password checks and name checks of
+ *   unknown codes are the common case on the invite page)
+ * - save/delete go to the delegate first, then replace the cached entry (write-through)
+ * - Concurrent loads of the same code share one delegate call (single flight)
+ * - Entries are kept as JSON bytes: every caller gets its own StoredRoom, so mutating a loaded
+ *   room (saveFromLive, setPassword) can never leak into the cache before it is saved
+ * Other instances writing the same store are seen after at most {@code ttlMs}.
+ */
+public class CachingRoomStore implements RoomStore {
+
+  private final RoomStore delegate;
+  private final int maxEntries;
+  private final long ttlMs;
+  private final ObjectMapper om = new ObjectMapper().findAndRegisterModules();
+
+  /** JSON of the stored room, {@code null} if the store has none. */
+  private record Entry(byte[] json, long loadedAt) {}
+
+  // access-ordered: the least recently used entry is evicted first
+  private final Map<String, Entry> entries;
+  private final ConcurrentMap<String, CompletableFuture<byte[]>> inflight = new ConcurrentHashMap<>();
+  // bumped by every write; a load that started before a write does not populate the cache
+  private final AtomicLong writes = new AtomicLong();
+
+  private final AtomicLong hits = new AtomicLong();
+  private final AtomicLong negativeHits = new AtomicLong();
+  private final AtomicLong misses = new AtomicLong();
+  private final AtomicLong joined = new AtomicLong();
+  private final AtomicLong evictions = new AtomicLong();
+  private final AtomicLong loadErrors = new AtomicLong();
+  private final AtomicLong loadCount = new AtomicLong();
+  private final AtomicLong loadNanos = new AtomicLong();
+  private final AtomicLong maxLoadNanos = new AtomicLong();
+
+  public CachingRoomStore(RoomStore delegate, int maxEntries, long ttlMs) {
+    this.delegate = Objects.requireNonNull(delegate, "delegate");
+    this.maxEntries = Math.max(0, maxEntries);
+    this.ttlMs = Math.max(0L, ttlMs);
+    this.entries = new LinkedHashMap<>(64, 0.75f, true) {
+      @Override protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+        boolean evict = size() > CachingRoomStore.this.maxEntries;
+        if (evict) evictions.incrementAndGet();
+        return evict;
+      }
+    };
+  }
+
+  // === API =================================================================
+
+  @Override
+  public Optional<StoredRoom> load(String code) throws Exception {
+    return Optional.ofNullable(decode(json(code)));
+  }
+
+  /** Past the cache (and a cached "not found"); the answer replaces the cached entry. */
+  @Override
+  public Optional<StoredRoom> loadFresh(String code) throws Exception {
+    String key = Objects.requireNonNull(code, "code").trim();
+    Optional<StoredRoom> r = delegate.loadFresh(key);
+    put(key, r.isPresent() ? om.writeValueAsBytes(r.get()) : null);
+    return r;
+  }
+
+  @Override
+  public boolean exists(String code) throws Exception {
+    return json(code) != null;
+  }
+
+  @Override
+  public void save(StoredRoom room) throws Exception {
+    Objects.requireNonNull(room, "room");
+    String code = room.getCode();
+    try {
+      delegate.save(room);
+    } catch (Exception e) {
+      evict(code); // unknown what the store holds now
+      throw e;
+    }
+    // the delegate stamps createdAt/updatedAt on the instance: cache exactly what was written
+    put(code, om.writeValueAsBytes(room));
+  }
+
+  @Override
+  public void delete(String code) throws Exception {
+    try {
+      delegate.delete(code);
+    } catch (Exception e) {
+      evict(code);
+      throw e;
+    }
+    put(code, null);
+  }
+
+  @Override
+  public boolean supportsListing() {
+    return delegate.supportsListing();
+  }
+
+  /** Listing is not cached: it comes from the delegate's index. */
+  @Override
+  public Page scan(String prefix, String after, int limit) throws Exception {
+    return delegate.scan(prefix, after, limit);
+  }
+
+  /** Drop the cached entry (e.g. after an out-of-band change of the store), and the delegate's. */
+  @Override
+  public void invalidate(String code) {
+    if (code == null) return;
+    evict(code);
+    delegate.invalidate(code);
+  }
+
+  /** Hit/miss counters and delegate load latency for diagnostics. */
+  public Map<String, Object> stats() {
+    long h = hits.get() + negativeHits.get();
+    long m = misses.get();
+    long n = loadCount.get();
+    Map<String, Object> out = new LinkedHashMap<>();
+    synchronized (entries) { out.put("entries", entries.size()); }
+    out.put("maxEntries", maxEntries);
+    out.put("ttlMs", ttlMs);
+    out.put("hits", hits.get());
+    out.put("negativeHits", negativeHits.get());
+    out.put("misses", m);
+    out.put("hitRatio", (h + m) == 0 ? 0.0 : (double) h / (h + m));
+    out.put("joinedInflight", joined.get());
+    out.put("evictions", evictions.get());
+    out.put("loadErrors", loadErrors.get());
+    out.put("loads", n);
+    out.put("avgLoadMs", n == 0 ? 0.0 : loadNanos.get() / 1e6 / n);
+    out.put("maxLoadMs", maxLoadNanos.get() / 1e6);
+    return out;
+  }
+
+  // === intern ===============================================================
+
+  private void evict(String code) {
+    if (code == null) return;
+    synchronized (entries) {
+      writes.incrementAndGet();
+      entries.remove(code.trim());
+    }
+  }
+
+  private byte[] json(String code) throws Exception {
+    String key = Objects.requireNonNull(code, "code").trim();
+    Entry cached = cached(key);
+    if (cached != null) {
+      (cached.json() == null ? negativeHits : hits).incrementAndGet();
+      return cached.json();
+    }
+    misses.incrementAndGet();
+
+    CompletableFuture<byte[]> mine = new CompletableFuture<>();
+    CompletableFuture<byte[]> running = inflight.putIfAbsent(key, mine);
+    if (running != null) {
+      joined.incrementAndGet();
+      return await(running);
+    }
+    try {
+      byte[] json = fetch(key);
+      inflight.remove(key, mine);
+      mine.complete(json);
+      return json;
+    } catch (Throwable t) {
+      inflight.remove(key, mine);
+      mine.completeExceptionally(t);
+      throw t;
+    }
+  }
+
+  private byte[] fetch(String key) throws Exception {
+    long epoch = writes.get();
+    long t0 = System.nanoTime();
+    Optional<StoredRoom> r;
+    try {
+      r = delegate.load(key);
+    } catch (Exception e) {
+      loadErrors.incrementAndGet();
+      throw e;
+    } finally {
+      long took = System.nanoTime() - t0;
+      loadCount.incrementAndGet();
+      loadNanos.addAndGet(took);
+      maxLoadNanos.accumulateAndGet(took, Math::max);
+    }
+    byte[] json = (r != null && r.isPresent()) ? om.writeValueAsBytes(r.get()) : null;
+    synchronized (entries) {
+      if (writes.get() == epoch && maxEntries > 0) entries.put(key, new Entry(json, System.currentTimeMillis()));
+    }
+    return json;
+  }
+
+  private Entry cached(String key) {
+    synchronized (entries) {
+      Entry e = entries.get(key);
+      if (e == null) return null;
+      if (ttlMs > 0 && System.currentTimeMillis() - e.loadedAt() >= ttlMs) {
+        entries.remove(key);
+        return null;
+      }
+      return e;
+    }
+  }
+
+  private void put(String code, byte[] json) {
+    if (code == null) return;
+    synchronized (entries) {
+      writes.incrementAndGet();
+      if (maxEntries > 0) entries.put(code.trim(), new Entry(json, System.currentTimeMillis()));
+      else entries.remove(code.trim());
+    }
+  }
+
+  private StoredRoom decode(byte[] json) throws Exception {
+    return json == null ? null : om.readValue(json, StoredRoom.class);
+  }
+
+  private static byte[] await(CompletableFuture<byte[]> f) throws Exception {
+    try {
+      return f.get();
+    } catch (ExecutionException | CompletionException e) {
+      Throwable c = e.getCause();
+      if (c instanceof Exception ex) throw ex;
+      if (c instanceof Error err) throw err;
+      throw e;
+    }
+  }
+}
@@ -1,57 +1,68 @@
 package com.example.estpoker.rooms.repo;
 
 import com.example.estpoker.config.AppStorageProperties;
+import com.example.estpoker.rooms.codec.SnapshotCodec;
 import com.example.estpoker.rooms.model.StoredRoom;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import org.apache.commons.net.ftp.FTP;
+import com.example.estpoker.storage.FtpsConnectionPool;
 import org.apache.commons.net.ftp.FTPFile;
-import org.apache.commons.net.ftp.FTPSClient;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Component;
 
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
-import java.util.function.Supplier;
 
 @Component
 @ConditionalOnProperty(name = "app.storage.mode", havingValue = "ftps")
-public class FtpsRoomStore implements RoomStore {
+public class FtpsRoomStore implements RawRoomStore, AutoCloseable {
 
-  private final AppStorageProperties props;
-  private final Supplier<FTPSClient> ftpsSupplier;
-  private final ObjectMapper om;
+  // next to the {code}.json files; never taken for a room (other suffix)
+  static final String INDEX_FILE = "_rooms.idx";
 
-  public FtpsRoomStore(AppStorageProperties props, Supplier<FTPSClient> ftpsSupplier) {
+  private final AppStorageProperties props;
+  private final FtpsConnectionPool pool;
+  private final SnapshotCodec codec;
+  private final RoomIndex index; // null = listing disabled
+
+  public FtpsRoomStore(AppStorageProperties props, FtpsConnectionPool pool, SnapshotCodec codec,
+                       @Value("${app.rooms.index.enabled:true}") boolean indexed,
+                       @Value("${app.rooms.index.flush-ms:2000}") long indexFlushMs,
+                       @Value("${app.rooms.index.reconcile-ms:600000}") long indexReconcileMs) {
     this.props = Objects.requireNonNull(props, "props");
-    this.ftpsSupplier = Objects.requireNonNull(ftpsSupplier, "ftpsSupplier");
-    this.om = new ObjectMapper().findAndRegisterModules();
+    this.pool = Objects.requireNonNull(pool, "pool");
+    this.codec = Objects.requireNonNull(codec, "codec");
+    this.index = indexed ? new RoomIndex(new RemoteIndex(), indexFlushMs, indexReconcileMs) : null;
   }
 
   // === API =================================================================
 
   @Override
   public Optional<StoredRoom> load(String code) throws Exception {
-    String remote = remotePath(code);
-    FTPSClient c = null;
-    try {
-      c = openAndLogin();
-      c.setFileType(FTP.BINARY_FILE_TYPE);
+    byte[] bytes = loadBytes(code);
+    if (bytes == null) return Optional.empty();
+    return Optional.ofNullable(codec.decode(bytes));
+  }
+
+  @Override
+  public byte[] loadBytes(String code) throws Exception {
+    return retrieve(remotePath(code));
+  }
 
+  private byte[] retrieve(String remote) throws Exception {
+    return pool.execute((c, home) -> {
       var out = new ByteArrayOutputStream();
-      boolean ok = c.retrieveFile(remote, out);
-      if (!ok) {
+      if (!c.retrieveFile(remote, out)) {
         int rc = c.getReplyCode();
         // 550 -> Not found (DF meldet das so)
-        if (rc == 550) return Optional.empty();
+        if (rc == 550) return null;
         throw new IllegalStateException("retrieveFile failed: " + rc + " " + trim(c.getReplyString()));
       }
-      StoredRoom r = om.readValue(out.toByteArray(), StoredRoom.class);
-      return Optional.ofNullable(r);
-    } finally {
-      safeClose(c);
-    }
+      return out.toByteArray();
+    });
   }
 
   @Override
@@ -63,85 +74,125 @@ public class FtpsRoomStore implements RoomStore {
     // Timestamps pflegen
     if (room.getCreatedAt() == null) room.touchCreatedIfNull();
     room.touchUpdated();
+    room.setVersion(room.getVersion() + 1);
+
+    byte[] bytes = codec.encode(room);
+    store(remotePath(room.getCode()), bytes);
+    if (index != null) index.put(RoomStore.Summary.of(room.getCode().trim(), room, bytes.length));
+  }
 
-    String remote = remotePath(room.getCode());
-    byte[] json = om.writerWithDefaultPrettyPrinter().writeValueAsBytes(room);
+  @Override
+  public void saveBytes(String code, byte[] bytes) throws Exception {
+    store(remotePath(code), bytes);
+    if (index != null) index.put(RoomStore.Summary.of(code.trim(), codec.decode(bytes), bytes.length));
+  }
 
-    FTPSClient c = null;
-    try {
-      c = openAndLogin();
-      c.setFileType(FTP.BINARY_FILE_TYPE);
-      try (var in = new ByteArrayInputStream(json)) {
+  private void store(String remote, byte[] bytes) throws Exception {
+    pool.execute((c, home) -> {
+      try (var in = new ByteArrayInputStream(bytes)) {
         if (!c.storeFile(remote, in)) {
           throw new IllegalStateException("storeFile failed: " + c.getReplyCode() + " " + trim(c.getReplyString()));
         }
       }
-    } finally {
-      safeClose(c);
-    }
+      return null;
+    });
   }
 
   @Override
   public boolean exists(String code) throws Exception {
     String remote = remotePath(code);
-    FTPSClient c = null;
-    try {
-      c = openAndLogin();
+    return pool.execute((c, home) -> {
       FTPFile[] files = c.listFiles(remote);
       return files != null && files.length == 1 && files[0].isFile();
-    } finally {
-      safeClose(c);
-    }
+    });
   }
 
   @Override
   public void delete(String code) throws Exception {
     String remote = remotePath(code);
-    FTPSClient c = null;
-    try {
-      c = openAndLogin();
-      // Nicht existiert -> ok
-      FTPFile[] files = c.listFiles(remote);
-      if (files == null || files.length == 0) return;
-
+    pool.execute((c, home) -> {
+      // no LIST first: a missing file is the same 550 as "already gone"
       if (!c.deleteFile(remote)) {
         int rc = c.getReplyCode();
-        if (rc == 550) return; // already gone
+        if (rc == 550) return null; // already gone
         throw new IllegalStateException("deleteFile failed: " + rc + " " + trim(c.getReplyString()));
       }
-    } finally {
-      safeClose(c);
-    }
+      return null;
+    });
+    if (index != null) index.remove(code.trim());
   }
 
-  // === intern ===============================================================
+  @Override
+  public boolean supportsListing() {
+    return index != null;
+  }
 
-  private FTPSClient openAndLogin() throws Exception {
-    var cfg = props.getFtps();
-    if (cfg == null) throw new IllegalStateException("FTPS config missing");
+  @Override
+  public RoomStore.Page scan(String prefix, String after, int limit) throws Exception {
+    if (index == null) return RawRoomStore.super.scan(prefix, after, limit);
+    return index.scan(prefix, after, limit);
+  }
 
-    FTPSClient c = ftpsSupplier.get();
-    c.connect(cfg.getHost(), cfg.getPort());
-    try { c.execPBSZ(0); } catch (Exception ignore) {}
-    try { c.execPROT("P"); } catch (Exception ignore) {}
-    if (!c.login(cfg.getUser(), cfg.getPass())) {
-      throw new IllegalStateException("login failed: " + c.getReplyCode() + " " + trim(c.getReplyString()));
-    }
-    if (cfg.isPassive()) c.enterLocalPassiveMode();
-    return c;
+  /** The listing has been compared with the directory at least once (false without an index). */
+  public boolean indexReconciled() {
+    return index != null && index.reconciled();
+  }
+
+  /** Write outstanding index changes; the room files themselves are always written directly. */
+  @Override
+  public void close() {
+    if (index != null) index.close();
   }
 
+  // === intern ===============================================================
+
   private String remotePath(String code) {
+    return remote(code.trim() + ".json");
+  }
+
+  private String remote(String name) {
+    String base = baseDir();
+    return base.isEmpty() ? name : (base + "/" + name);
+  }
+
+  private String baseDir() {
     String base = String.valueOf(props.getFtps().getBaseDir()).trim();
     if (base.endsWith("/")) base = base.substring(0, base.length() - 1);
-    String safeCode = code.trim();
-    return base.isEmpty() ? (safeCode + ".json") : (base + "/" + safeCode + ".json");
+    return base;
   }
 
-  private static void safeClose(FTPSClient c) {
-    if (c == null) return;
-    try { if (c.isAvailable()) c.logout(); } catch (Exception ignore) {}
-    try { if (c.isConnected()) c.disconnect(); } catch (Exception ignore) {}
+  /** Manifest next to the rooms; checked against one directory listing, a read per missing room. */
+  private final class RemoteIndex implements RoomIndex.Backing {
+    @Override
+    public byte[] read() throws Exception {
+      return retrieve(remote(INDEX_FILE));
+    }
+
+    @Override
+    public void write(byte[] manifest) throws Exception {
+      store(remote(INDEX_FILE), manifest);
+    }
+
+    @Override
+    public List<String> codes() throws Exception {
+      String dir = baseDir();
+      FTPFile[] files = pool.execute((c, home) -> c.listFiles(dir.isEmpty() ? null : dir));
+      List<String> out = new ArrayList<>();
+      if (files == null) return out;
+      for (FTPFile f : files) {
+        if (f == null || !f.isFile()) continue;
+        String name = f.getName().substring(f.getName().lastIndexOf('/') + 1); // some servers list full paths
+        if (!name.endsWith(".json")) continue;
+        out.add(name.substring(0, name.length() - ".json".length()));
+      }
+      return out;
+    }
+
+    @Override
+    public RoomStore.Summary summarize(String code) throws Exception {
+      byte[] bytes = loadBytes(code);
+      return bytes == null ? null : RoomStore.Summary.of(code, codec.decode(bytes), bytes.length);
+    }
   }
 
   private static String trim(String s) {
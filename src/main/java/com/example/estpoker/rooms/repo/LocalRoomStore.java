@@ -0,0 +1,169 @@
+package com.example.estpoker.rooms.repo;
+
+import com.example.estpoker.rooms.codec.SnapshotCodec;
+import com.example.estpoker.rooms.model.StoredRoom;
+import com.example.estpoker.storage.LocalFileStorage;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * Room snapshots as files on the local disk (app.storage.mode=local).
+ * Layout: {@code rooms/<shard>/<url-encoded code>.json}, where the shard is one of 256
+ * directories picked from the code's hash; tens of thousands of rooms stay at a few hundred
+ * entries per directory. Atomic replace and fsync policy come from {@link LocalFileStorage}.
+ * The bytes are whatever the {@link SnapshotCodec} writes; the name stays {@code .json} so rooms
+ * saved before the binary codec are still found. Listing is served from {@code rooms/index.bin}
+ * ({@link RoomIndex}) when enabled.
+ */
+@Component
+@ConditionalOnProperty(name = "app.storage.mode", havingValue = "local", matchIfMissing = true)
+public class LocalRoomStore implements RawRoomStore, AutoCloseable {
+
+  static final String DIR = "rooms";
+  static final String INDEX_FILE = DIR + "/index.bin";
+
+  private final LocalFileStorage storage;
+  private final SnapshotCodec codec;
+  private final RoomIndex index; // null = listing disabled
+
+  public LocalRoomStore(LocalFileStorage storage, SnapshotCodec codec) {
+    this(storage, codec, false, 0L, -1L);
+  }
+
+  public LocalRoomStore(LocalFileStorage storage, SnapshotCodec codec, boolean indexed, long indexFlushMs) {
+    this(storage, codec, indexed, indexFlushMs, 0L);
+  }
+
+  @Autowired
+  public LocalRoomStore(LocalFileStorage storage, SnapshotCodec codec,
+                        @Value("${app.rooms.index.enabled:true}") boolean indexed,
+                        @Value("${app.rooms.index.flush-ms:2000}") long indexFlushMs,
+                        @Value("${app.rooms.index.reconcile-ms:600000}") long indexReconcileMs) {
+    this.storage = Objects.requireNonNull(storage, "storage");
+    this.codec = Objects.requireNonNull(codec, "codec");
+    this.index = indexed ? new RoomIndex(new DiskIndex(), indexFlushMs, indexReconcileMs) : null;
+  }
+
+  // === API =================================================================
+
+  @Override
+  public Optional<StoredRoom> load(String code) throws Exception {
+    byte[] bytes = loadBytes(code);
+    if (bytes == null) return Optional.empty();
+    return Optional.ofNullable(codec.decode(bytes));
+  }
+
+  @Override
+  public void save(StoredRoom room) throws Exception {
+    Objects.requireNonNull(room, "room");
+    if (room.getCode() == null || room.getCode().isBlank()) {
+      throw new IllegalArgumentException("StoredRoom.code is required");
+    }
+    if (room.getCreatedAt() == null) room.touchCreatedIfNull();
+    room.touchUpdated();
+    room.setVersion(room.getVersion() + 1);
+    byte[] bytes = codec.encode(room);
+    storage.putBytes(path(room.getCode()), bytes);
+    if (index != null) index.put(RoomStore.Summary.of(room.getCode().trim(), room, bytes.length));
+  }
+
+  @Override
+  public byte[] loadBytes(String code) throws Exception {
+    return storage.getBytes(path(code));
+  }
+
+  @Override
+  public void saveBytes(String code, byte[] bytes) throws Exception {
+    storage.putBytes(path(code), bytes);
+    if (index != null) index.put(RoomStore.Summary.of(code.trim(), codec.decode(bytes), bytes.length));
+  }
+
+  @Override
+  public boolean exists(String code) throws Exception {
+    return storage.getBytes(path(code)) != null;
+  }
+
+  @Override
+  public void delete(String code) throws Exception {
+    storage.delete(path(code));
+    if (index != null) index.remove(code.trim());
+  }
+
+  @Override
+  public boolean supportsListing() {
+    return index != null;
+  }
+
+  @Override
+  public RoomStore.Page scan(String prefix, String after, int limit) throws Exception {
+    if (index == null) return RawRoomStore.super.scan(prefix, after, limit);
+    return index.scan(prefix, after, limit);
+  }
+
+  /** Write outstanding index changes (before the storage itself is closed). */
+  @Override
+  public void close() {
+    if (index != null) index.close();
+  }
+
+  // === intern ===============================================================
+
+  /** rooms/3f/team%2Fa.json; the encoding keeps "/" and ".." in codes inside one file name. */
+  static String path(String code) {
+    return path(DIR, code, ".json");
+  }
+
+  static String path(String dir, String code, String suffix) {
+    String c = Objects.requireNonNull(code, "code").trim();
+    String shard = String.format("%02x", c.hashCode() & 0xff);
+    return dir + "/" + shard + "/" + URLEncoder.encode(c, StandardCharsets.UTF_8) + suffix;
+  }
+
+  /** Codes of all rooms stored under {@code dir} (layout of {@link #path(String, String, String)}). */
+  static List<String> codes(LocalFileStorage storage, String dir, String suffix) throws IOException {
+    List<String> out = new ArrayList<>();
+    for (int shard = 0; shard < 256; shard++) {
+      for (String name : storage.list(String.format("%s/%02x", dir, shard))) {
+        if (name.endsWith(suffix)) {
+          out.add(URLDecoder.decode(name.substring(0, name.length() - suffix.length()), StandardCharsets.UTF_8));
+        }
+      }
+    }
+    return out;
+  }
+
+  /** Manifest in the rooms directory; checked against the shard listing, a read per missing room. */
+  private final class DiskIndex implements RoomIndex.Backing {
+    @Override
+    public byte[] read() throws Exception {
+      return storage.getBytes(INDEX_FILE);
+    }
+
+    @Override
+    public void write(byte[] manifest) throws Exception {
+      storage.putBytes(INDEX_FILE, manifest);
+    }
+
+    @Override
+    public List<String> codes() throws Exception {
+      return LocalRoomStore.codes(storage, DIR, ".json");
+    }
+
+    @Override
+    public RoomStore.Summary summarize(String code) throws Exception {
+      byte[] bytes = loadBytes(code);
+      return bytes == null ? null : RoomStore.Summary.of(code, codec.decode(bytes), bytes.length);
+    }
+  }
+}
@@ -0,0 +1,14 @@
+package com.example.estpoker.rooms.repo;
+
+/**
+ * A RoomStore that also hands out and takes the encoded snapshot as is, so stores can be
+ * copied into each other byte for byte (tiered storage) without re-stamping version/updatedAt.
+ */
+public interface RawRoomStore extends RoomStore {
+
+  /** Encoded snapshot as stored; {@code null} if there is none. */
+  byte[] loadBytes(String code) throws Exception;
+
+  /** Stores an encoded snapshot unchanged. */
+  void saveBytes(String code, byte[] bytes) throws Exception;
+}
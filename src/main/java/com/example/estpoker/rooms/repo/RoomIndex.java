@@ -0,0 +1,359 @@
+package com.example.estpoker.rooms.repo;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Manifest of all rooms in a store (code, updatedAt, size, password flag) kept in one small file,
+ * so listing thousands of rooms is one read instead of a directory listing plus a load per room.
+ * The manifest is a hint, not the truth: it can miss rooms or list deleted ones for a while.
+ * - save/delete only record the change in memory; the manifest is written {@code flushMs} later,
+ *   many changes in one write. Changes not written yet are lost on a crash
+ * - Every write reads the manifest first and applies our changes on top. There is no compare-and-set:
+ *   two instances writing at the same moment can drop each other's changes
+ * - Both are repaired by reconciling against the store's file listing: at startup and every
+ *   {@code reconcileMs}. Listed rooms missing from the manifest are read and added; entries without
+ *   a file are removed unless they changed after the listing started
+ * - A missing manifest (first start, deleted by hand) is rebuilt from the store itself
+ * - Reads are served from the last read/written manifest for up to {@code flushMs}
+ * Format: "PKIX", version byte, then zlib-deflated count + (UTF code, millis, size, flags) per room.
+ */
+final class RoomIndex implements AutoCloseable {
+
+  private static final Logger log = LoggerFactory.getLogger(RoomIndex.class);
+
+  private static final byte[] MAGIC = {'P', 'K', 'I', 'X'};
+  private static final int VERSION = 1;
+  private static final int MAX_PAGE = 1_000;
+
+  /** Where the manifest lives and what it is rebuilt from. */
+  interface Backing {
+    /** The manifest, null if there is none. */
+    byte[] read() throws Exception;
+
+    void write(byte[] manifest) throws Exception;
+
+    /** Codes of all stored rooms from the file listing; no room is read. */
+    Collection<String> codes() throws Exception;
+
+    /** Summary of one stored room, null if it is gone. */
+    RoomStore.Summary summarize(String code) throws Exception;
+  }
+
+  private final Backing backing;
+  private final long flushMs;
+  private final ScheduledExecutorService flusher;
+  // one read-merge-write of the manifest at a time
+  private final Object flushLock = new Object();
+
+  // guarded by this
+  private NavigableMap<String, RoomStore.Summary> rooms; // null = not read yet
+  private long readAt;
+  // code -> summary, or null for a deleted room; not yet in the manifest
+  private Map<String, RoomStore.Summary> pending = new HashMap<>();
+  // taken from pending by the flush in progress, not on disk yet
+  private Map<String, RoomStore.Summary> writing = Map.of();
+  private long writes; // manifests written by us; a read started before the last one is stale
+  private boolean flushScheduled;
+  private Set<String> changedDuringReconcile; // null = no reconcile running
+  private volatile boolean reconciled;       // at least one reconcile went through
+
+  /** {@code reconcileMs}: interval of the listing check after the one at startup; 0 = startup only, < 0 = never. */
+  RoomIndex(Backing backing, long flushMs, long reconcileMs) {
+    this.backing = Objects.requireNonNull(backing, "backing");
+    this.flushMs = Math.max(0L, flushMs);
+    this.flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+      Thread t = new Thread(r, "room-index-flush");
+      t.setDaemon(true);
+      return t;
+    });
+    if (reconcileMs > 0) {
+      flusher.scheduleWithFixedDelay(this::reconcileQuietly, 0L, reconcileMs, TimeUnit.MILLISECONDS);
+    } else if (reconcileMs == 0) {
+      flusher.execute(this::reconcileQuietly);
+    }
+  }
+
+  void put(RoomStore.Summary room) {
+    change(room.code(), room);
+  }
+
+  void remove(String code) {
+    change(code, null);
+  }
+
+  RoomStore.Page scan(String prefix, String after, int limit) throws Exception {
+    int max = Math.max(1, Math.min(MAX_PAGE, limit));
+    refresh();
+    synchronized (this) {
+      NavigableMap<String, RoomStore.Summary> from;
+      if (after != null && (prefix == null || after.compareTo(prefix) >= 0)) from = rooms.tailMap(after, false);
+      else if (prefix != null) from = rooms.tailMap(prefix, true);
+      else from = rooms;
+
+      List<RoomStore.Summary> page = new ArrayList<>(Math.min(max, from.size()));
+      for (RoomStore.Summary s : from.values()) {
+        if (prefix != null && !s.code().startsWith(prefix)) break; // sorted: no more matches
+        if (page.size() == max) return new RoomStore.Page(page, page.get(max - 1).code());
+        page.add(s);
+      }
+      return new RoomStore.Page(page, null);
+    }
+  }
+
+  /**
+   * Compare the manifest with the store's file listing and write the difference: listed rooms the
+   * manifest lacks are added, entries without a file are removed. Entries that changed after the
+   * listing started are kept (a save by another instance), and our own unwritten changes win.
+   */
+  void reconcile() throws Exception {
+    synchronized (flushLock) {
+      synchronized (this) { changedDuringReconcile = new HashSet<>(); }
+      try {
+        reconcileLocked();
+      } finally {
+        synchronized (this) { changedDuringReconcile = null; }
+      }
+    }
+  }
+
+  private void reconcileLocked() throws Exception {
+    long started = System.currentTimeMillis();
+    Set<String> listed = new HashSet<>(backing.codes());
+    TreeMap<String, RoomStore.Summary> manifest = load();
+
+    Map<String, RoomStore.Summary> fixes = new HashMap<>();
+    for (String code : listed) {
+      if (manifest.containsKey(code)) continue;
+      RoomStore.Summary s = backing.summarize(code);
+      if (s != null) fixes.put(code, s);
+    }
+    for (RoomStore.Summary s : manifest.values()) {
+      if (listed.contains(s.code())) continue;
+      if (s.updatedAt() != null && s.updatedAt().toEpochMilli() >= started) continue;
+      fixes.put(s.code(), null);
+    }
+
+    int added = 0, removed = 0;
+    synchronized (this) {
+      for (Map.Entry<String, RoomStore.Summary> f : fixes.entrySet()) {
+        // saved or deleted here meanwhile: newer than what the listing saw
+        if (pending.containsKey(f.getKey()) || changedDuringReconcile.contains(f.getKey())) continue;
+        pending.put(f.getKey(), f.getValue());
+        if (f.getValue() == null) removed++;
+        else added++;
+      }
+    }
+    flushLocked();
+    reconciled = true;
+    if (added + removed > 0) {
+      log.info("Room index reconciled with the store listing: {} added, {} removed in {} ms",
+          added, removed, System.currentTimeMillis() - started);
+    }
+  }
+
+  /** True once the manifest was compared with the listing; before that it may miss rooms. */
+  boolean reconciled() {
+    return reconciled;
+  }
+
+  /** Write outstanding changes now. */
+  void flush() throws Exception {
+    synchronized (flushLock) {
+      flushLocked();
+    }
+  }
+
+  private void flushLocked() throws Exception {
+    Map<String, RoomStore.Summary> changes;
+    synchronized (this) {
+      flushScheduled = false;
+      if (pending.isEmpty()) return;
+      changes = pending;
+      pending = new HashMap<>();
+      writing = changes;
+    }
+    try {
+      TreeMap<String, RoomStore.Summary> merged = load();
+      apply(merged, changes);
+      backing.write(encode(merged));
+      synchronized (this) {
+        writing = Map.of();
+        writes++;
+        apply(merged, pending); // changed while we wrote: still pending, but visible
+        rooms = merged;
+        readAt = System.currentTimeMillis();
+      }
+    } catch (Exception e) {
+      synchronized (this) {
+        // keep what was not written; newer changes of the same room win
+        writing = Map.of();
+        changes.putAll(pending);
+        pending = changes;
+      }
+      throw e;
+    }
+  }
+
+  @Override
+  public void close() {
+    flusher.shutdownNow();
+    try {
+      flush();
+    } catch (Exception e) {
+      log.warn("Room index not written on shutdown ({} change(s) lost until the next rebuild): {}",
+          pendingCount(), e.toString());
+    }
+  }
+
+  // === intern ===============================================================
+
+  private void change(String code, RoomStore.Summary room) {
+    synchronized (this) {
+      pending.put(code, room);
+      if (changedDuringReconcile != null) changedDuringReconcile.add(code);
+      if (rooms != null) {
+        if (room == null) rooms.remove(code);
+        else rooms.put(code, room);
+      }
+      if (flushScheduled) return;
+      flushScheduled = true;
+    }
+    try {
+      flusher.schedule(this::flushQuietly, flushMs, TimeUnit.MILLISECONDS);
+    } catch (Exception e) {
+      synchronized (this) { flushScheduled = false; } // shutting down: close() flushes
+    }
+  }
+
+  private void flushQuietly() {
+    try {
+      flush();
+    } catch (Exception e) {
+      log.warn("Writing the room index failed ({} change(s) pending, retrying): {}", pendingCount(), e.toString());
+      synchronized (this) {
+        if (flushScheduled) return;
+        flushScheduled = true;
+      }
+      try {
+        flusher.schedule(this::flushQuietly, Math.max(1_000L, flushMs), TimeUnit.MILLISECONDS);
+      } catch (Exception ignore) {
+        // shutting down
+      }
+    }
+  }
+
+  private void reconcileQuietly() {
+    try {
+      reconcile();
+    } catch (Exception e) {
+      log.warn("Reconciling the room index with the store listing failed: {}", e.toString());
+    }
+  }
+
+  private synchronized int pendingCount() {
+    return pending.size();
+  }
+
+  /** Re-read the manifest if ours is older than {@code flushMs}; our unwritten changes stay applied. */
+  private void refresh() throws Exception {
+    long before;
+    synchronized (this) {
+      if (rooms != null && System.currentTimeMillis() - readAt < Math.max(1L, flushMs)) return;
+      before = writes;
+    }
+    TreeMap<String, RoomStore.Summary> fresh = load();
+    synchronized (this) {
+      if (rooms != null && writes != before) return; // we wrote meanwhile: ours is newer
+      apply(fresh, writing);
+      apply(fresh, pending);
+      rooms = fresh;
+      readAt = System.currentTimeMillis();
+    }
+  }
+
+  private TreeMap<String, RoomStore.Summary> load() throws Exception {
+    byte[] bytes = backing.read();
+    if (bytes != null) return decode(bytes);
+
+    long start = System.currentTimeMillis();
+    TreeMap<String, RoomStore.Summary> out = new TreeMap<>();
+    for (String code : backing.codes()) {
+      RoomStore.Summary s = backing.summarize(code);
+      if (s != null) out.put(code, s);
+    }
+    backing.write(encode(out));
+    log.info("Room index rebuilt: {} room(s) in {} ms", out.size(), System.currentTimeMillis() - start);
+    return out;
+  }
+
+  private static void apply(Map<String, RoomStore.Summary> target, Map<String, RoomStore.Summary> changes) {
+    changes.forEach((code, s) -> {
+      if (s == null) target.remove(code);
+      else target.put(code, s);
+    });
+  }
+
+  static byte[] encode(Map<String, RoomStore.Summary> rooms) throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream(64 + rooms.size() * 16);
+    bytes.write(MAGIC);
+    bytes.write(VERSION);
+    try (DataOutputStream out = new DataOutputStream(new DeflaterOutputStream(bytes))) {
+      out.writeInt(rooms.size());
+      for (RoomStore.Summary s : rooms.values()) {
+        out.writeUTF(s.code());
+        out.writeLong(s.updatedAt() == null ? Long.MIN_VALUE : s.updatedAt().toEpochMilli());
+        out.writeLong(s.size());
+        out.writeByte(s.passwordProtected() ? 1 : 0);
+      }
+    }
+    return bytes.toByteArray();
+  }
+
+  static TreeMap<String, RoomStore.Summary> decode(byte[] bytes) throws IOException {
+    if (bytes.length < MAGIC.length + 1) throw new IOException("Truncated room index");
+    for (int i = 0; i < MAGIC.length; i++) {
+      if (bytes[i] != MAGIC[i]) throw new IOException("Not a room index");
+    }
+    int version = bytes[MAGIC.length] & 0xff;
+    if (version != VERSION) throw new IOException("Unsupported room index version " + version);
+
+    int off = MAGIC.length + 1;
+    TreeMap<String, RoomStore.Summary> out = new TreeMap<>();
+    try (DataInputStream in = new DataInputStream(
+        new InflaterInputStream(new ByteArrayInputStream(bytes, off, bytes.length - off)))) {
+      int n = in.readInt();
+      for (int i = 0; i < n; i++) {
+        String code = in.readUTF();
+        long millis = in.readLong();
+        long size = in.readLong();
+        boolean password = (in.readByte() & 1) != 0;
+        Instant updatedAt = millis == Long.MIN_VALUE ? null : Instant.ofEpochMilli(millis);
+        out.put(code, new RoomStore.Summary(code, updatedAt, size, password));
+      }
+    }
+    return out;
+  }
+}
@@ -2,12 +2,29 @@ package com.example.estpoker.rooms.repo;
 
 import com.example.estpoker.rooms.model.StoredRoom;
 
+import java.time.Instant;
+import java.util.List;
 import java.util.Optional;
 
 public interface RoomStore {
   /** Lädt einen Raum-Snapshot; leer wenn Datei (noch) nicht existiert. */
   Optional<StoredRoom> load(String code) throws Exception;
 
+  /**
+   * Wie {@link #load}, aber an Caches und Filtern vorbei: "leer" heißt, der Store selbst hat den
+   * Raum nicht. Für jedes Schreiben, das auf dem Gelesenen aufbaut (anlegen, Passwort/Titel/Besitzer).
+   */
+  default Optional<StoredRoom> loadFresh(String code) throws Exception {
+    return load(code);
+  }
+
+  /**
+   * Der Raum wurde woanders geändert (anderer Knoten, am Store vorbei): zwischengespeicherte
+   * Stände verwerfen, der nächste Lesezugriff holt ihn aus dem Store.
+   */
+  default void invalidate(String code) {
+  }
+
   /** Speichert/überschreibt den Snapshot. */
   void save(StoredRoom room) throws Exception;
 
@@ -16,4 +33,40 @@ public interface RoomStore {
 
   /** Löscht {code}.json, falls vorhanden. */
   void delete(String code) throws Exception;
+
+  /**
+   * Kann dieser Store seine Räume auflisten ({@link #scan}, {@link #list})? Ohne Index nicht;
+   * Aufrufer fragen vorher, statt auf eine Exception zu warten.
+   */
+  default boolean supportsListing() {
+    return false;
+  }
+
+  /**
+   * Gespeicherte Räume, nach Code sortiert, deren Code mit {@code prefix} beginnt (null = alle);
+   * ab dem ersten Code nach {@code after} (null = von vorne), höchstens {@code limit} Einträge.
+   * Weiterblättern mit {@link Page#next()}. Kommt aus einem Index, nicht aus dem Store selbst:
+   * kann neue Räume eine Weile auslassen und gelöschte noch zeigen.
+   * Nur wenn {@link #supportsListing()}; sonst {@link UnsupportedOperationException}.
+   */
+  default Page scan(String prefix, String after, int limit) throws Exception {
+    throw new UnsupportedOperationException("Listing is not supported by " + getClass().getSimpleName());
+  }
+
+  /** Alle gespeicherten Räume, seitenweise ({@link #scan} ohne Präfix). */
+  default Page list(String after, int limit) throws Exception {
+    return scan(null, after, limit);
+  }
+
+  /** Eintrag im Raum-Index: ohne den Snapshot zu laden. */
+  record Summary(String code, Instant updatedAt, long size, boolean passwordProtected) {
+
+    static Summary of(String code, StoredRoom room, long size) {
+      String hash = room.getPasswordHash();
+      return new Summary(code, room.getUpdatedAt(), size, hash != null && !hash.isBlank());
+    }
+  }
+
+  /** Eine Seite aus {@link #scan}; {@code next} ist null auf der letzten Seite. */
+  record Page(List<Summary> rooms, String next) {}
 }
@@ -0,0 +1,497 @@
+package com.example.estpoker.rooms.repo;
+
+import com.example.estpoker.rooms.codec.SnapshotCodec;
+import com.example.estpoker.rooms.model.StoredRoom;
+import com.example.estpoker.storage.LocalFileStorage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Local disk tier in front of a remote RoomStore (FTPS in another datacenter).
+ * - Reads: the local copy if there is one (never waits on the remote); a cold read falls through
+ *   to the remote and populates the local tier
+ * - Writes: local copy + a durable outbox marker ({@code outbox/<shard>/<code>.op}, "S"ave or
+ *   "D"elete), then replicated to the remote in the background; a marker is removed only if the
+ *   room was not written again meanwhile, so the newest state always reaches the remote
+ * - Marker first, then the local file: a crash in between replicates the previous (identical or
+ *   still unsynced) state, never loses a write
+ * - Startup reconciliation: markers left by the previous run are replicated, local copies without
+ *   a marker are compared with the remote (updated or dropped if another instance changed them)
+ * - A local copy older than {@code refreshAfterMs} is still served, and refreshed in the background
+ * - {@link #invalidate} (another node changed the room) and {@link #loadFresh} read the remote
+ *   right away, unless this node has a write of the room in the outbox
+ * Snapshots are copied byte for byte ({@link RawRoomStore}), so version/updatedAt match in both tiers.
+ * Listing goes to the remote index; rooms still in the outbox show up once replicated.
+ */
+public class TieredRoomStore implements RoomStore, AutoCloseable {
+
+  private static final Logger log = LoggerFactory.getLogger(TieredRoomStore.class);
+
+  static final String OUTBOX = "outbox";
+  static final String OP_SUFFIX = ".op";
+  private static final byte[] SAVE = {'S'};
+  private static final byte[] DELETE = {'D'};
+
+  private static final int LOCK_STRIPES = 64;
+  private static final long RETRY_BASE_MS = 1_000L;
+  private static final long RETRY_MAX_MS = 60_000L;
+
+  private final LocalFileStorage tier;
+  private final LocalRoomStore local;
+  private final RawRoomStore remote;
+  private final SnapshotCodec codec;
+  private final long refreshAfterMs;
+
+  // local write + marker per room at a time; background work re-checks under the same lock
+  private final Object[] locks = new Object[LOCK_STRIPES];
+
+  // code -> time it was first queued; guarded by itself
+  private final LinkedHashMap<String, Long> queue = new LinkedHashMap<>();
+  private final Set<String> syncing = ConcurrentHashMap.newKeySet();
+  private long retryNotBefore;   // guarded by queue
+  private int failuresInRow;     // guarded by queue
+  private volatile boolean closed;
+  private final List<Thread> syncers = new ArrayList<>();
+
+  private final ExecutorService refresher;
+  private final Set<String> refreshing = ConcurrentHashMap.newKeySet();
+  // code -> last time the local copy was known to match the remote (memory only)
+  private final ConcurrentMap<String, Long> verifiedAt = new ConcurrentHashMap<>();
+  // changed elsewhere: the next read goes to the remote
+  private final Set<String> stale = ConcurrentHashMap.newKeySet();
+
+  private final AtomicLong localHits = new AtomicLong();
+  private final AtomicLong coldReads = new AtomicLong();
+  private final AtomicLong remoteMisses = new AtomicLong();
+  private final AtomicLong replicated = new AtomicLong();
+  private final AtomicLong syncFailures = new AtomicLong();
+  private final AtomicLong lastSyncLagMs = new AtomicLong();
+  private final AtomicLong maxSyncLagMs = new AtomicLong();
+  private final AtomicLong refreshes = new AtomicLong();
+  private final AtomicLong refreshUpdated = new AtomicLong();
+  private final AtomicLong refreshRemoved = new AtomicLong();
+  private final AtomicLong refreshFailures = new AtomicLong();
+  private final AtomicInteger reconcileTotal = new AtomicInteger();
+
+  public TieredRoomStore(LocalFileStorage tier, SnapshotCodec codec, RawRoomStore remote,
+                         int syncThreads, int refreshThreads, long refreshAfterMs) {
+    this.tier = Objects.requireNonNull(tier, "tier");
+    this.codec = Objects.requireNonNull(codec, "codec");
+    this.remote = Objects.requireNonNull(remote, "remote");
+    this.local = new LocalRoomStore(tier, codec);
+    this.refreshAfterMs = Math.max(0L, refreshAfterMs);
+    for (int i = 0; i < locks.length; i++) locks[i] = new Object();
+
+    AtomicInteger n = new AtomicInteger();
+    this.refresher = Executors.newFixedThreadPool(Math.max(1, refreshThreads), r -> {
+      Thread t = new Thread(r, "room-tier-refresh-" + n.incrementAndGet());
+      t.setDaemon(true);
+      return t;
+    });
+    for (int i = 1; i <= Math.max(1, syncThreads); i++) {
+      Thread t = new Thread(this::syncLoop, "room-tier-sync-" + i);
+      t.setDaemon(true);
+      syncers.add(t);
+    }
+    int[] reconciled = reconcile();
+    syncers.forEach(Thread::start);
+    log.info("TieredRoomStore initialized (outbox={}, localRooms={}, syncThreads={}, refreshAfterMs={})",
+        reconciled[0], reconciled[1], syncers.size(), this.refreshAfterMs);
+  }
+
+  // === RoomStore ============================================================
+
+  @Override
+  public Optional<StoredRoom> load(String code) throws Exception {
+    byte[] bytes = bytes(code);
+    return bytes == null ? Optional.empty() : Optional.ofNullable(codec.decode(bytes));
+  }
+
+  @Override
+  public Optional<StoredRoom> loadFresh(String code) throws Exception {
+    byte[] bytes = fresh(key(code));
+    return bytes == null ? Optional.empty() : Optional.ofNullable(codec.decode(bytes));
+  }
+
+  @Override
+  public boolean exists(String code) throws Exception {
+    return bytes(code) != null;
+  }
+
+  @Override
+  public void invalidate(String code) {
+    if (code == null) return;
+    String key = key(code);
+    verifiedAt.remove(key);
+    stale.add(key);
+  }
+
+  @Override
+  public void save(StoredRoom room) throws Exception {
+    Objects.requireNonNull(room, "room");
+    if (room.getCode() == null || room.getCode().isBlank()) {
+      throw new IllegalArgumentException("StoredRoom.code is required");
+    }
+    String code = key(room.getCode());
+    synchronized (lock(code)) {
+      tier.putBytes(outboxPath(code), SAVE);
+      local.save(room); // stamps createdAt/updatedAt/version, like every store
+    }
+    enqueue(code);
+  }
+
+  @Override
+  public void delete(String code) throws Exception {
+    String key = key(code);
+    synchronized (lock(key)) {
+      tier.putBytes(outboxPath(key), DELETE);
+      local.delete(key);
+    }
+    verifiedAt.remove(key);
+    enqueue(key);
+  }
+
+  @Override
+  public boolean supportsListing() {
+    return remote.supportsListing();
+  }
+
+  @Override
+  public Page scan(String prefix, String after, int limit) throws Exception {
+    return remote.scan(prefix, after, limit);
+  }
+
+  /** Codes of every local copy and outbox marker: stored here, maybe not in the remote listing yet. */
+  public Set<String> localCodes() throws IOException {
+    Set<String> out = new HashSet<>(LocalRoomStore.codes(tier, LocalRoomStore.DIR, ".json"));
+    out.addAll(LocalRoomStore.codes(tier, OUTBOX, OP_SUFFIX));
+    return out;
+  }
+
+  // === sync =================================================================
+
+  /**
+   * Wait until every queued write has reached the remote, or {@code deadlineMs} has passed.
+   * Whatever is left stays in the outbox and is replicated by the next start.
+   *
+   * @return rooms not yet replicated (0 = remote is up to date)
+   */
+  public int flush(long deadlineMs) {
+    long end = System.currentTimeMillis() + Math.max(0L, deadlineMs);
+    synchronized (queue) {
+      retryNotBefore = 0L; // try right away, even if the last attempt failed
+      queue.notifyAll();
+      while (queue.size() + syncing.size() > 0 && !closed) {
+        long left = end - System.currentTimeMillis();
+        if (left <= 0) break;
+        try {
+          queue.wait(Math.min(left, 50L));
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          break;
+        }
+      }
+      int pending = queue.size() + syncing.size();
+      if (pending > 0) log.warn("Tier flush hit its deadline with {} room(s) not replicated", pending);
+      return pending;
+    }
+  }
+
+  /** Hits, replication lag and reconciliation progress for diagnostics. */
+  public Map<String, Object> stats() {
+    Map<String, Object> out = new LinkedHashMap<>();
+    long now = System.currentTimeMillis();
+    synchronized (queue) {
+      out.put("outboxPending", queue.size() + syncing.size());
+      long oldest = queue.values().stream().mapToLong(Long::longValue).min().orElse(now);
+      out.put("syncLagMs", now - oldest);
+      out.put("retryInMs", Math.max(0L, retryNotBefore - now));
+    }
+    out.put("lastSyncLagMs", lastSyncLagMs.get());
+    out.put("maxSyncLagMs", maxSyncLagMs.get());
+    out.put("replicated", replicated.get());
+    out.put("syncFailures", syncFailures.get());
+    out.put("localHits", localHits.get());
+    out.put("coldReads", coldReads.get());
+    out.put("remoteMisses", remoteMisses.get());
+    out.put("reconcileTotal", reconcileTotal.get());
+    out.put("refreshing", refreshing.size());
+    out.put("refreshes", refreshes.get());
+    out.put("refreshUpdated", refreshUpdated.get());
+    out.put("refreshRemoved", refreshRemoved.get());
+    out.put("refreshFailures", refreshFailures.get());
+    out.put("refreshAfterMs", refreshAfterMs);
+    return out;
+  }
+
+  /** Stop the background work; unsynced writes stay in the outbox for the next start. */
+  @Override
+  public void close() {
+    closed = true;
+    synchronized (queue) {
+      queue.notifyAll();
+    }
+    refresher.shutdownNow();
+    for (Thread t : syncers) {
+      try {
+        t.join(5_000L);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    }
+    tier.close();
+  }
+
+  // === intern ===============================================================
+
+  /** Encoded snapshot: local tier first, remote only for a cold read. */
+  private byte[] bytes(String code) throws Exception {
+    String key = key(code);
+    if (stale.contains(key)) return fresh(key);
+    byte[] bytes = local.loadBytes(key);
+    if (bytes != null) {
+      localHits.incrementAndGet();
+      if (refreshAfterMs > 0) {
+        Long v = verifiedAt.get(key);
+        if (v == null || System.currentTimeMillis() - v >= refreshAfterMs) scheduleRefresh(key);
+      }
+      return bytes;
+    }
+    if (tier.getBytes(outboxPath(key)) != null) return null; // deleted here, not yet on the remote
+
+    coldReads.incrementAndGet();
+    byte[] fetched = remote.loadBytes(key);
+    if (fetched == null) {
+      remoteMisses.incrementAndGet();
+      return null;
+    }
+    synchronized (lock(key)) {
+      // a write or delete since the fetch wins over what the remote had
+      if (local.loadBytes(key) == null && tier.getBytes(outboxPath(key)) == null) {
+        local.saveBytes(key, fetched);
+        verifiedAt.put(key, System.currentTimeMillis());
+      }
+    }
+    return fetched;
+  }
+
+  /**
+   * The remote copy, which replaces the local one; the local copy while a write of ours is in the
+   * outbox (it is newer) or the remote cannot be reached (the room stays stale for the next read).
+   */
+  private byte[] fresh(String key) throws Exception {
+    if (tier.getBytes(outboxPath(key)) != null) return local.loadBytes(key);
+    stale.remove(key); // an invalidate() while we fetch marks it again
+    byte[] fetched;
+    try {
+      coldReads.incrementAndGet();
+      fetched = remote.loadBytes(key);
+    } catch (Exception e) {
+      stale.add(key);
+      log.debug("Reading room {} from the remote store failed, serving the local copy: {}", key, e.toString());
+      return local.loadBytes(key);
+    }
+    synchronized (lock(key)) {
+      // written or deleted here meanwhile: the local state is newer than what we fetched
+      if (tier.getBytes(outboxPath(key)) != null) return local.loadBytes(key);
+      if (fetched == null) {
+        remoteMisses.incrementAndGet();
+        local.delete(key);
+        verifiedAt.remove(key);
+      } else {
+        local.saveBytes(key, fetched);
+        verifiedAt.put(key, System.currentTimeMillis());
+      }
+    }
+    return fetched;
+  }
+
+  private void enqueue(String code) {
+    synchronized (queue) {
+      queue.putIfAbsent(code, System.currentTimeMillis());
+      queue.notifyAll();
+    }
+  }
+
+  private void syncLoop() {
+    while (!closed) {
+      String code;
+      long queuedAt;
+      synchronized (queue) {
+        Map.Entry<String, Long> next = nextDue();
+        if (next == null) {
+          long wait = Math.max(1L, retryNotBefore - System.currentTimeMillis());
+          try {
+            queue.wait(queue.isEmpty() ? 1_000L : Math.min(wait, 1_000L));
+          } catch (InterruptedException e) {
+            return;
+          }
+          continue;
+        }
+        code = next.getKey();
+        queuedAt = next.getValue();
+        queue.remove(code);
+        syncing.add(code);
+      }
+
+      boolean ok = sync(code);
+      long now = System.currentTimeMillis();
+      synchronized (queue) {
+        syncing.remove(code);
+        if (ok) {
+          failuresInRow = 0;
+          lastSyncLagMs.set(now - queuedAt);
+          maxSyncLagMs.accumulateAndGet(now - queuedAt, Math::max);
+        } else {
+          // the remote is most likely down: back off for all rooms, keep the original queue time
+          failuresInRow++;
+          long backoff = Math.min(RETRY_MAX_MS, RETRY_BASE_MS << Math.min(20, failuresInRow - 1));
+          retryNotBefore = now + backoff;
+          Long newer = queue.remove(code);
+          queue.put(code, newer == null ? queuedAt : Math.min(newer, queuedAt));
+        }
+        queue.notifyAll();
+      }
+    }
+  }
+
+  /** Oldest queued room not being synced right now; caller holds the queue lock. */
+  private Map.Entry<String, Long> nextDue() {
+    if (System.currentTimeMillis() < retryNotBefore) return null;
+    for (Iterator<Map.Entry<String, Long>> it = queue.entrySet().iterator(); it.hasNext(); ) {
+      Map.Entry<String, Long> e = it.next();
+      if (!syncing.contains(e.getKey())) return Map.entry(e.getKey(), e.getValue());
+    }
+    return null;
+  }
+
+  /** Bring the remote in line with the local marker of {@code code}; false = retry later. */
+  private boolean sync(String code) {
+    try {
+      byte[] op = tier.getBytes(outboxPath(code));
+      if (op == null) return true;
+      byte[] bytes = null;
+      if (Arrays.equals(op, DELETE)) {
+        remote.delete(code);
+      } else {
+        bytes = local.loadBytes(code);
+        // marker without a file: crashed before the first local write of a new room
+        if (bytes != null) remote.saveBytes(code, bytes);
+      }
+      synchronized (lock(code)) {
+        boolean unchanged = Arrays.equals(op, tier.getBytes(outboxPath(code)))
+            && Arrays.equals(bytes, Arrays.equals(op, DELETE) ? null : local.loadBytes(code));
+        if (unchanged) {
+          tier.delete(outboxPath(code));
+          if (bytes != null) verifiedAt.put(code, System.currentTimeMillis());
+        }
+        // else: written again meanwhile; that write queued the room once more
+      }
+      replicated.incrementAndGet();
+      return true;
+    } catch (Exception e) {
+      syncFailures.incrementAndGet();
+      log.warn("Replicating room {} to the remote store failed: {}", code, e.toString());
+      return false;
+    }
+  }
+
+  /**
+   * Startup: queue what the previous run left in the outbox, compare the other local copies with
+   * the remote in the background.
+   *
+   * @return {outbox markers, local rooms}
+   */
+  private int[] reconcile() {
+    try {
+      List<String> pending = LocalRoomStore.codes(tier, OUTBOX, OP_SUFFIX);
+      for (String code : pending) enqueue(code);
+      List<String> rooms = LocalRoomStore.codes(tier, LocalRoomStore.DIR, ".json");
+      for (String code : rooms) {
+        if (!queue.containsKey(code)) {
+          reconcileTotal.incrementAndGet();
+          scheduleRefresh(code);
+        }
+      }
+      return new int[]{pending.size(), rooms.size()};
+    } catch (Exception e) {
+      log.warn("Tier reconciliation could not list the local tier: {}", e.toString());
+      return new int[]{0, 0};
+    }
+  }
+
+  private void scheduleRefresh(String code) {
+    if (closed || !refreshing.add(code)) return;
+    try {
+      refresher.execute(() -> {
+        try {
+          refresh(code);
+        } finally {
+          refreshing.remove(code);
+        }
+      });
+    } catch (RejectedExecutionException e) {
+      refreshing.remove(code);
+    }
+  }
+
+  /** Replace the local copy with the remote one if another instance changed it. */
+  private void refresh(String code) {
+    try {
+      byte[] before = local.loadBytes(code);
+      if (before == null || tier.getBytes(outboxPath(code)) != null) return;
+      refreshes.incrementAndGet();
+      byte[] current = remote.loadBytes(code);
+      synchronized (lock(code)) {
+        // written or deleted here meanwhile: the local state is newer than what we fetched
+        if (tier.getBytes(outboxPath(code)) != null || !Arrays.equals(before, local.loadBytes(code))) return;
+        if (current == null) {
+          local.delete(code);
+          verifiedAt.remove(code);
+          refreshRemoved.incrementAndGet();
+          return;
+        }
+        if (!Arrays.equals(before, current)) {
+          local.saveBytes(code, current);
+          refreshUpdated.incrementAndGet();
+        }
+        verifiedAt.put(code, System.currentTimeMillis());
+      }
+    } catch (Exception e) {
+      refreshFailures.incrementAndGet();
+      log.debug("Refreshing room {} from the remote store failed: {}", code, e.toString());
+    }
+  }
+
+  private static String key(String code) {
+    return Objects.requireNonNull(code, "code").trim();
+  }
+
+  private static String outboxPath(String code) {
+    return LocalRoomStore.path(OUTBOX, code, OP_SUFFIX);
+  }
+
+  private Object lock(String code) {
+    return locks[(code.hashCode() & 0x7fffffff) % LOCK_STRIPES];
+  }
+}
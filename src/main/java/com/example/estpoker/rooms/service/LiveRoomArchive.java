@@ -0,0 +1,142 @@
+package com.example.estpoker.rooms.service;
+
+import com.example.estpoker.cluster.ReplicaCodec;
+import com.example.estpoker.cluster.RoomReplica;
+import com.example.estpoker.storage.FileStorage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Live room state handed from one instance to the next across a restart/deploy.
+ * Unlike StoredRoom snapshots this keeps what a reconnect needs: votes, reveal state, cid links,
+ * presence and the round timer.
+ *
+ * Layout under the storage base dir:
+ * <pre>
+ *   live/manifest.txt   first line: savedAtMs; then one room code per line
+ *   live/{code}.bin     one ReplicaCodec batch holding that room
+ * </pre>
+ * The manifest is written last, so a half-finished drain leaves the previous one intact.
+ */
+public class LiveRoomArchive {
+
+  private static final Logger log = LoggerFactory.getLogger(LiveRoomArchive.class);
+
+  static final String DIR = "live";
+  static final String MANIFEST = DIR + "/manifest.txt";
+
+  private final FileStorage storage;
+
+  public LiveRoomArchive(FileStorage storage) {
+    this.storage = storage;
+  }
+
+  /** Saves all rooms (in parallel), then the manifest; returns rooms written. */
+  public int save(Collection<RoomReplica> rooms, int parallelism, long deadlineMs) throws IOException {
+    long now = System.currentTimeMillis();
+    List<String> written = new ArrayList<>();
+    List<RoomReplica> list = new ArrayList<>(rooms);
+    ExecutorService pool = pool(parallelism, "live-archive-save");
+    try {
+      List<Future<String>> futures = new ArrayList<>();
+      for (RoomReplica r : list) {
+        futures.add(pool.submit(() -> {
+          byte[] bytes = ReplicaCodec.encode(new ReplicaCodec.Batch(now, false, List.of(new ReplicaCodec.Entry(r.code(), r))));
+          storage.putBytes(roomPath(r.code()), bytes);
+          return r.code();
+        }));
+      }
+      long end = now + deadlineMs;
+      for (Future<String> f : futures) {
+        try {
+          written.add(f.get(Math.max(1L, end - System.currentTimeMillis()), TimeUnit.MILLISECONDS));
+        } catch (Exception e) {
+          log.warn("Live archive: room not saved: {}", e.toString());
+        }
+      }
+    } finally {
+      pool.shutdownNow();
+    }
+
+    StringBuilder sb = new StringBuilder().append(now).append('\n');
+    for (String code : written) sb.append(code).append('\n');
+    storage.putBytes(MANIFEST, sb.toString().getBytes(StandardCharsets.UTF_8));
+    return written.size();
+  }
+
+  /**
+   * Rooms from the last drain if it is at most {@code maxAgeMs} old; loaded in parallel.
+   * Rooms that cannot be read within {@code deadlineMs} are skipped (logged).
+   */
+  public List<RoomReplica> restore(long maxAgeMs, int parallelism, long deadlineMs) throws IOException {
+    byte[] manifest = storage.getBytes(MANIFEST);
+    if (manifest == null || manifest.length == 0) return List.of();
+
+    String[] lines = new String(manifest, StandardCharsets.UTF_8).split("\n");
+    long savedAt;
+    try {
+      savedAt = Long.parseLong(lines[0].trim());
+    } catch (NumberFormatException e) {
+      log.warn("Live archive: unreadable manifest header '{}'", lines[0]);
+      return List.of();
+    }
+    long age = System.currentTimeMillis() - savedAt;
+    if (age > maxAgeMs) {
+      log.info("Live archive is {} ms old (max {} ms); not restoring", age, maxAgeMs);
+      return List.of();
+    }
+
+    List<RoomReplica> out = new ArrayList<>();
+    ExecutorService pool = pool(parallelism, "live-archive-load");
+    try {
+      List<Future<RoomReplica>> futures = new ArrayList<>();
+      for (int i = 1; i < lines.length; i++) {
+        String code = lines[i].trim();
+        if (code.isEmpty()) continue;
+        futures.add(pool.submit(() -> {
+          byte[] bytes = storage.getBytes(roomPath(code));
+          if (bytes == null) return null;
+          List<ReplicaCodec.Entry> entries = ReplicaCodec.decode(bytes).entries();
+          return entries.isEmpty() ? null : entries.get(0).replica();
+        }));
+      }
+      long end = System.currentTimeMillis() + deadlineMs;
+      for (Future<RoomReplica> f : futures) {
+        try {
+          RoomReplica r = f.get(Math.max(1L, end - System.currentTimeMillis()), TimeUnit.MILLISECONDS);
+          if (r != null) out.add(r);
+        } catch (Exception e) {
+          log.warn("Live archive: room not restored: {}", e.toString());
+        }
+      }
+    } finally {
+      pool.shutdownNow();
+    }
+    return out;
+  }
+
+  static String roomPath(String code) {
+    return DIR + "/" + URLEncoder.encode(code, StandardCharsets.UTF_8) + ".bin";
+  }
+
+  private static ExecutorService pool(int parallelism, String name) {
+    AtomicInteger n = new AtomicInteger();
+    return Executors.newFixedThreadPool(Math.max(1, parallelism), r -> {
+      Thread t = new Thread(r, name + "-" + n.incrementAndGet());
+      t.setDaemon(true);
+      return t;
+    });
+  }
+}
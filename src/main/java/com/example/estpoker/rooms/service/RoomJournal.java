@@ -0,0 +1,503 @@
+package com.example.estpoker.rooms.service;
+
+import com.example.estpoker.model.Room;
+import com.example.estpoker.rooms.codec.RoomCodec;
+import com.example.estpoker.rooms.model.StoredRoom;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Journaled persistence (app.rooms.journal.enabled): every room change is appended to a local
+ * segment log right away, and the stored rooms are brought up to date by periodic compaction.
+ * - Records: the room's stored projection ({@link RoomCodec#toStored}) after each change,
+ *   compact JSON framed as [length][crc32][payload]; replay keeps the newest record per room
+ * - Group commit: one writer thread appends whatever is queued with a single write + fsync
+ * - Compaction rolls the segment, merges the newest state of each changed room into the store
+ *   (password untouched), writes a checkpoint and deletes segments below it
+ * - Startup replays the records after the checkpoint (a torn tail is cut off) and compacts them
+ *   before the app takes traffic
+ * A crash loses at most the group being written instead of a whole debounce window.
+ */
+public class RoomJournal implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(RoomJournal.class);
+
+    static final String SEGMENT_PREFIX = "segment-";
+    static final String SEGMENT_SUFFIX = ".log";
+    static final String CHECKPOINT = "checkpoint";
+
+    private static final int HEADER_BYTES = 8;
+    private static final int MAX_RECORD_BYTES = 16 * 1024 * 1024;
+    private static final int MAX_GROUP = 1024;
+    private static final long CLOSE_WAIT_MS = 10_000L;
+
+    /** One journal record. */
+    record Entry(long seq, long ts, String actor, StoredRoom room) {}
+
+    /** A framed record, or a roll request from the compactor ({@code roll != null}). */
+    private record Frame(long seq, ByteBuffer bytes, CompletableFuture<Long> roll) {}
+
+    /** Newest uncompacted state of a room; guarded by {@link #appendLock}. */
+    private static final class Dirty {
+        StoredRoom room;
+        String actor;
+        long seq;       // newest record
+        long firstSeq;  // oldest record not yet in the store
+
+        Dirty(StoredRoom room, String actor, long seq) {
+            this.room = room;
+            this.actor = actor;
+            this.seq = seq;
+            this.firstSeq = seq;
+        }
+    }
+
+    private final StoredRoomPersistenceService service;
+    private final Path dir;
+    private final long segmentBytes;
+    private final boolean fsync;
+    private final ObjectMapper om = new ObjectMapper().findAndRegisterModules()
+            .setSerializationInclusion(JsonInclude.Include.NON_NULL)
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+    private final Object appendLock = new Object();
+    private final Map<String, Dirty> dirty = new HashMap<>();
+    private long lastSeq;
+
+    private final BlockingQueue<Frame> queue = new LinkedBlockingQueue<>();
+    private final Object compactLock = new Object();
+    private final Thread writer;
+    private final ScheduledExecutorService compactor;
+    private volatile boolean closed;
+
+    // writer thread only
+    private FileChannel active;
+    private long activeBytes;
+    private volatile long lastWritten;
+
+    private final AtomicLong records = new AtomicLong();
+    private final AtomicLong groups = new AtomicLong();
+    private final AtomicLong bytes = new AtomicLong();
+    private final AtomicLong fsyncs = new AtomicLong();
+    private final AtomicLong compactions = new AtomicLong();
+    private final AtomicLong compactedRooms = new AtomicLong();
+    private final AtomicLong compactFailures = new AtomicLong();
+    private final AtomicLong writeErrors = new AtomicLong();
+    private volatile long replayed;
+    private volatile long checkpoint;
+
+    public RoomJournal(StoredRoomPersistenceService service, Path dir, long segmentBytes,
+                       boolean fsync, long compactIntervalMs) throws IOException {
+        this.service = Objects.requireNonNull(service, "service");
+        this.dir = Files.createDirectories(dir).toAbsolutePath();
+        this.segmentBytes = Math.max(64 * 1024, segmentBytes);
+        this.fsync = fsync;
+
+        this.checkpoint = readCheckpoint();
+        replay();
+        this.lastWritten = lastSeq;
+        openSegment(lastSeq + 1);
+
+        this.writer = new Thread(this::writeLoop, "room-journal-writer");
+        writer.setDaemon(true);
+        writer.start();
+
+        int left = compact(); // replayed changes reach the store before the first join
+        log.info("RoomJournal at {} (replayed={}, uncompacted={}, fsync={}, segmentBytes={})",
+                this.dir, replayed, left, fsync, this.segmentBytes);
+
+        this.compactor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "room-journal-compactor");
+            t.setDaemon(true);
+            return t;
+        });
+        long every = Math.max(100L, compactIntervalMs);
+        compactor.scheduleWithFixedDelay(this::compactQuietly, every, every, TimeUnit.MILLISECONDS);
+    }
+
+    // === append ================================================================
+
+    /** Journal the current state of {@code room}; returns at once (the writer commits in groups). */
+    public void append(Room room, String actor) {
+        if (room == null || room.getCode() == null || room.getCode().isBlank()) return;
+        if (closed) {
+            log.warn("Journal closed; change of room {} not recorded", room.getCode());
+            return;
+        }
+        synchronized (appendLock) {
+            // projection, sequence number and queue order all taken under one lock: seq order == state order
+            StoredRoom snap = RoomCodec.toStored(room);
+            long seq = ++lastSeq;
+            byte[] payload;
+            try {
+                payload = om.writeValueAsBytes(new Entry(seq, System.currentTimeMillis(), actor, snap));
+            } catch (IOException e) {
+                lastSeq--;
+                log.warn("Journal record for room {} not encodable: {}", room.getCode(), e.toString());
+                return;
+            }
+            queue.add(new Frame(seq, frame(payload), null));
+            Dirty d = dirty.get(snap.getCode());
+            if (d == null) {
+                dirty.put(snap.getCode(), new Dirty(snap, actor, seq));
+            } else {
+                d.room = snap;
+                d.actor = actor;
+                d.seq = seq;
+            }
+        }
+    }
+
+    private static ByteBuffer frame(byte[] payload) {
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        ByteBuffer b = ByteBuffer.allocate(HEADER_BYTES + payload.length);
+        b.putInt(payload.length).putInt((int) crc.getValue()).put(payload).flip();
+        return b;
+    }
+
+    // === writer (group commit) =================================================
+
+    private void writeLoop() {
+        List<Frame> group = new ArrayList<>(MAX_GROUP);
+        while (!closed || !queue.isEmpty()) {
+            try {
+                Frame first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) continue;
+                group.add(first);
+                queue.drainTo(group, MAX_GROUP - 1);
+                writeGroup(group);
+            } catch (InterruptedException e) {
+                if (closed) break;
+            } finally {
+                group.clear();
+            }
+        }
+    }
+
+    private void writeGroup(List<Frame> group) {
+        List<ByteBuffer> pending = new ArrayList<>(group.size());
+        long groupLast = -1;
+        for (Frame f : group) {
+            if (f.roll() == null) {
+                pending.add(f.bytes());
+                groupLast = f.seq();
+                continue;
+            }
+            // everything queued before the roll request goes into the segment being closed
+            commit(pending, groupLast);
+            pending.clear();
+            try {
+                openSegment(lastWritten + 1);
+                f.roll().complete(lastWritten);
+            } catch (IOException e) {
+                f.roll().completeExceptionally(e);
+            }
+        }
+        commit(pending, groupLast);
+        if (activeBytes >= segmentBytes) {
+            try {
+                openSegment(lastWritten + 1);
+            } catch (IOException e) {
+                log.warn("Journal segment roll failed: {}", e.toString());
+            }
+        }
+    }
+
+    private void commit(List<ByteBuffer> pending, long last) {
+        if (pending.isEmpty()) return;
+        try {
+            ByteBuffer[] bufs = pending.toArray(new ByteBuffer[0]);
+            long n = 0;
+            while (bufs[bufs.length - 1].hasRemaining()) n += active.write(bufs);
+            if (fsync) {
+                active.force(false);
+                fsyncs.incrementAndGet();
+            }
+            activeBytes += n;
+            bytes.addAndGet(n);
+            records.addAndGet(pending.size());
+            groups.incrementAndGet();
+            lastWritten = last;
+        } catch (IOException e) {
+            // the records stay in the dirty map, so compaction still persists their rooms
+            writeErrors.incrementAndGet();
+            log.warn("Journal write of {} record(s) failed: {}", pending.size(), e.toString());
+        }
+    }
+
+    private void openSegment(long firstSeq) throws IOException {
+        FileChannel old = active;
+        Path p = dir.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, firstSeq, SEGMENT_SUFFIX));
+        active = FileChannel.open(p, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        activeBytes = active.size();
+        syncDir();
+        if (old != null) old.close();
+    }
+
+    // === compaction ============================================================
+
+    /**
+     * Write the newest journaled state of every changed room to the store and drop the segments
+     * that are fully covered. Also used by drain and shutdown.
+     *
+     * @return rooms still not in the store (0 = the journal is fully compacted)
+     */
+    public int compact() {
+        synchronized (compactLock) {
+            long boundary = roll();
+
+            Map<String, Dirty> work = new LinkedHashMap<>();
+            Map<String, Long> seqs = new HashMap<>();
+            synchronized (appendLock) {
+                for (var e : dirty.entrySet()) {
+                    Dirty d = e.getValue();
+                    work.put(e.getKey(), d);
+                    seqs.put(e.getKey(), d.seq);
+                }
+            }
+
+            for (var e : work.entrySet()) {
+                String code = e.getKey();
+                StoredRoom room;
+                String actor;
+                synchronized (appendLock) {
+                    room = e.getValue().room;
+                    actor = e.getValue().actor;
+                    seqs.put(code, e.getValue().seq);
+                }
+                try {
+                    service.saveStoredOrThrow(copy(room), actor != null ? actor : "journal");
+                    compactedRooms.incrementAndGet();
+                } catch (Exception ex) {
+                    compactFailures.incrementAndGet();
+                    log.warn("Journal compaction of room {} failed: {}", code, ex.toString());
+                    continue;
+                }
+                synchronized (appendLock) {
+                    Dirty d = dirty.get(code);
+                    long saved = seqs.get(code);
+                    if (d != null && d.seq == saved) dirty.remove(code);
+                    else if (d != null) d.firstSeq = saved + 1;
+                }
+            }
+
+            long cp;
+            int left;
+            synchronized (appendLock) {
+                cp = boundary;
+                for (Dirty d : dirty.values()) cp = Math.min(cp, d.firstSeq - 1);
+                left = dirty.size();
+            }
+            if (cp > checkpoint) {
+                try {
+                    writeCheckpoint(cp);
+                    checkpoint = cp;
+                    deleteSegmentsUpTo(cp);
+                } catch (IOException e) {
+                    log.warn("Journal checkpoint failed: {}", e.toString());
+                }
+            }
+            compactions.incrementAndGet();
+            return left;
+        }
+    }
+
+    private void compactQuietly() {
+        try {
+            compact();
+        } catch (RuntimeException e) {
+            log.warn("Journal compaction failed: {}", e.toString());
+        }
+    }
+
+    /** Close the active segment; returns the last sequence number it holds. */
+    private long roll() {
+        if (!writer.isAlive()) return lastWritten;
+        CompletableFuture<Long> done = new CompletableFuture<>();
+        synchronized (appendLock) {
+            queue.add(new Frame(-1, null, done));
+        }
+        try {
+            return done.get(CLOSE_WAIT_MS, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException | TimeoutException e) {
+            log.warn("Journal roll failed: {}", e.toString());
+        }
+        return checkpoint; // nothing new may be dropped
+    }
+
+    private StoredRoom copy(StoredRoom room) throws IOException {
+        // the store stamps timestamps on the instance; keep the journaled one untouched
+        return om.readValue(om.writeValueAsBytes(room), StoredRoom.class);
+    }
+
+    // === replay ================================================================
+
+    private void replay() throws IOException {
+        long max = checkpoint;
+        List<Path> segments = segments();
+        for (int i = 0; i < segments.size(); i++) {
+            Path seg = segments.get(i);
+            boolean last = (i == segments.size() - 1);
+            try (FileChannel ch = FileChannel.open(seg, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                long size = ch.size();
+                if (size == 0) continue;
+                MappedByteBuffer buf = ch.map(FileChannel.MapMode.READ_ONLY, 0, size);
+                long valid = 0;
+                while (buf.remaining() >= HEADER_BYTES) {
+                    int len = buf.getInt();
+                    int crc = buf.getInt();
+                    if (len < 0 || len > MAX_RECORD_BYTES || len > buf.remaining()) break;
+                    byte[] payload = new byte[len];
+                    buf.get(payload);
+                    CRC32 c = new CRC32();
+                    c.update(payload);
+                    if ((int) c.getValue() != crc) break;
+                    Entry e;
+                    try {
+                        e = om.readValue(payload, Entry.class);
+                    } catch (IOException bad) {
+                        break;
+                    }
+                    valid = buf.position();
+                    max = Math.max(max, e.seq());
+                    if (e.seq() <= checkpoint || e.room() == null || e.room().getCode() == null) continue;
+                    replayed++;
+                    Dirty d = dirty.get(e.room().getCode());
+                    if (d == null) {
+                        dirty.put(e.room().getCode(), new Dirty(e.room(), e.actor(), e.seq()));
+                    } else if (e.seq() > d.seq) {
+                        d.room = e.room();
+                        d.actor = e.actor();
+                        d.seq = e.seq();
+                    }
+                }
+                if (valid < size) {
+                    log.warn("Journal segment {} has a torn or corrupt record at byte {}; {} byte(s) dropped",
+                            seg.getFileName(), valid, size - valid);
+                    if (last) ch.truncate(valid);
+                }
+            }
+        }
+        lastSeq = max;
+    }
+
+    private List<Path> segments() throws IOException {
+        try (Stream<Path> s = Files.list(dir)) {
+            return s.filter(p -> {
+                        String n = p.getFileName().toString();
+                        return n.startsWith(SEGMENT_PREFIX) && n.endsWith(SEGMENT_SUFFIX);
+                    })
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    private static long firstSeqOf(Path segment) {
+        String n = segment.getFileName().toString();
+        return Long.parseLong(n.substring(SEGMENT_PREFIX.length(), n.length() - SEGMENT_SUFFIX.length()));
+    }
+
+    /** Deletes closed segments whose records are all at or below {@code cp}. */
+    private void deleteSegmentsUpTo(long cp) throws IOException {
+        List<Path> segs = segments();
+        for (int i = 0; i + 1 < segs.size(); i++) {
+            long lastInSegment = firstSeqOf(segs.get(i + 1)) - 1;
+            if (lastInSegment > cp) break;
+            Files.deleteIfExists(segs.get(i));
+        }
+        syncDir();
+    }
+
+    private long readCheckpoint() throws IOException {
+        Path p = dir.resolve(CHECKPOINT);
+        if (!Files.exists(p)) return 0L;
+        String s = Files.readString(p, StandardCharsets.UTF_8).trim();
+        return s.isEmpty() ? 0L : Long.parseLong(s);
+    }
+
+    private void writeCheckpoint(long cp) throws IOException {
+        Path tmp = dir.resolve(CHECKPOINT + ".tmp");
+        try (FileChannel ch = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            ch.write(ByteBuffer.wrap(Long.toString(cp).getBytes(StandardCharsets.UTF_8)));
+            ch.force(true);
+        }
+        Files.move(tmp, dir.resolve(CHECKPOINT), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        syncDir();
+    }
+
+    private void syncDir() {
+        try (FileChannel ch = FileChannel.open(dir, StandardOpenOption.READ)) {
+            ch.force(true);
+        } catch (IOException e) {
+            log.debug("Journal directory fsync skipped: {}", e.toString());
+        }
+    }
+
+    // === lifecycle / diagnostics ===============================================
+
+    public Map<String, Object> stats() {
+        Map<String, Object> out = new LinkedHashMap<>();
+        synchronized (appendLock) {
+            out.put("lastSeq", lastSeq);
+            out.put("uncompactedRooms", dirty.size());
+        }
+        out.put("lastWritten", lastWritten);
+        out.put("checkpoint", checkpoint);
+        out.put("queued", queue.size());
+        out.put("records", records.get());
+        out.put("groups", groups.get());
+        out.put("recordsPerGroup", groups.get() == 0 ? 0.0 : (double) records.get() / groups.get());
+        out.put("bytes", bytes.get());
+        out.put("fsyncs", fsyncs.get());
+        out.put("writeErrors", writeErrors.get());
+        out.put("replayed", replayed);
+        out.put("compactions", compactions.get());
+        out.put("compactedRooms", compactedRooms.get());
+        out.put("compactFailures", compactFailures.get());
+        try {
+            out.put("segments", segments().size());
+        } catch (IOException e) {
+            out.put("segments", -1);
+        }
+        return out;
+    }
+
+    /** Commit what is queued, compact once more, then stop. */
+    @Override
+    public void close() {
+        if (closed) return;
+        compactor.shutdownNow();
+        int left = compact();
+        closed = true;
+        try {
+            writer.join(CLOSE_WAIT_MS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        try {
+            if (active != null) active.close();
+        } catch (IOException e) {
+            log.debug("Journal segment close failed: {}", e.toString());
+        }
+        if (left > 0) log.warn("Journal closed with {} room(s) not compacted; they are replayed on next start", left);
+    }
+}
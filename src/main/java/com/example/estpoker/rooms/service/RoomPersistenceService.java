@@ -41,6 +41,14 @@ public interface RoomPersistenceService {
         return true;
     }
 
+    /**
+     * The stored room was changed or deleted outside this service (e.g. REST upsert).
+     * default is a no-op; implementations caching stored state drop it here.
+     */
+    default void forget(String roomCode) {
+        // no-op by default
+    }
+
     // ------------------------------------------------------------------------
     // NEW: Contract-Lock for room metadata persistence (compile-safe defaults)
     // ------------------------------------------------------------------------
@@ -5,68 +5,288 @@ import jakarta.annotation.PreDestroy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.concurrent.*;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
- * Debounces rapid live mutations and persists snapshots via RoomPersistenceService.
+ * Write-behind of live rooms to the RoomPersistenceService.
+ * - Debounce with a cap: a save runs {@code debounceMs} after the last change, but never later
+ *   than {@code maxDelayMs} after the first unsaved one (a busy room is still saved regularly)
+ * - Per-room coalescing: only the latest state is written; changes during a write trigger one
+ *   follow-up write, never two concurrent writes for the same room
+ * - Bounded worker pool: a slow store only delays as many rooms as there are workers
+ * - Failed writes are retried with exponential backoff, up to {@code maxAttempts}
+ * - {@link #stats()} reports the lag (age of the oldest unsaved change) and counters
  */
 public class RoomSnapshotter {
 
     private static final Logger log = LoggerFactory.getLogger(RoomSnapshotter.class);
 
+    private static final long SHUTDOWN_FLUSH_MS = 10_000L;
+    private static final long RETRY_BASE_MS = 1_000L;
+    private static final long RETRY_MAX_MS = 60_000L;
+
     private final RoomPersistenceService service;
     private final long debounceMs;
+    private final long maxDelayMs;
+    private final int maxAttempts;
+
+    private final ScheduledExecutorService timers;
+    private final ThreadPoolExecutor workers;
+    private final ConcurrentMap<String, Pending> pending = new ConcurrentHashMap<>();
 
-    private final ScheduledExecutorService scheduler;
-    private final ConcurrentMap<String, ScheduledFuture<?>> inflight = new ConcurrentHashMap<>();
+    private final AtomicLong writes = new AtomicLong();
+    private final AtomicLong coalesced = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+    private final AtomicLong retries = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong lastLagMs = new AtomicLong();
+    private final AtomicLong maxLagMs = new AtomicLong();
+
+    /** Unsaved state of one room; fields guarded by the instance. */
+    private static final class Pending {
+        final String code;
+        Room room;
+        String actor;
+        boolean dirty;          // a change not yet handed to a worker
+        boolean running;        // a worker is writing this room
+        long firstDirtyAt;      // oldest change not yet persisted
+        long inFlightSince;     // firstDirtyAt of the write in progress
+        long retryNotBefore;    // backoff after a failed write
+        int attempts;           // failed attempts for the current state
+        ScheduledFuture<?> timer;
+
+        Pending(String code) {
+            this.code = code;
+        }
+    }
 
     public RoomSnapshotter(RoomPersistenceService service, long debounceMs) {
+        this(service, debounceMs, Math.max(10_000L, debounceMs * 4), 2, 6);
+    }
+
+    public RoomSnapshotter(RoomPersistenceService service, long debounceMs, long maxDelayMs,
+                           int workerCount, int maxAttempts) {
         this.service = service;
         this.debounceMs = Math.max(0, debounceMs);
-        this.scheduler = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
-            private final AtomicInteger c = new AtomicInteger();
-            @Override public Thread newThread(Runnable r) {
-                Thread t = new Thread(r, "room-snapshotter-" + c.incrementAndGet());
-                t.setDaemon(true);
-                return t;
-            }
-        });
-        log.info("RoomSnapshotter initialized (debounceMs={})", this.debounceMs);
+        this.maxDelayMs = Math.max(this.debounceMs, maxDelayMs);
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.timers = Executors.newSingleThreadScheduledExecutor(daemons("room-snapshotter-timer"));
+        int n = Math.max(1, workerCount);
+        this.workers = new ThreadPoolExecutor(n, n, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(), daemons("room-snapshotter"));
+        log.info("RoomSnapshotter initialized (debounceMs={}, maxDelayMs={}, workers={}, maxAttempts={})",
+                this.debounceMs, this.maxDelayMs, n, this.maxAttempts);
+    }
+
+    private static ThreadFactory daemons(String prefix) {
+        AtomicInteger c = new AtomicInteger();
+        return r -> {
+            Thread t = new Thread(r, prefix + "-" + c.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        };
     }
 
     /**
-     * Signal that a live room has changed. After the debounce window, the latest state is persisted.
+     * Signal that a live room has changed. The latest state is persisted once the room has been
+     * quiet for the debounce window, or at the latest maxDelayMs after its first unsaved change.
      */
     public void onChange(Room room, String actor) {
         if (room == null) return;
         String code = room.getCode();
         if (code == null || code.isBlank()) return;
 
-        Runnable task = () -> {
+        long now = System.currentTimeMillis();
+        pending.compute(code, (k, p) -> {
+            if (p == null) p = new Pending(k);
+            synchronized (p) {
+                p.room = room;
+                p.actor = actor;
+                if (p.dirty) {
+                    coalesced.incrementAndGet();
+                } else {
+                    p.dirty = true;
+                    p.firstDirtyAt = now;
+                }
+                if (!p.running) schedule(p, now);
+            }
+            return p;
+        });
+    }
+
+    /** (Re)arm the timer of a dirty room; caller holds the lock of {@code p}. */
+    private void schedule(Pending p, long now) {
+        long due = Math.min(now + debounceMs, p.firstDirtyAt + maxDelayMs);
+        due = Math.max(due, p.retryNotBefore);
+        if (p.timer != null) p.timer.cancel(false);
+        try {
+            p.timer = timers.schedule(() -> submit(p), Math.max(0L, due - now), TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            p.timer = null; // shutting down; flush() picks it up
+        }
+    }
+
+    private void submit(Pending p) {
+        try {
+            workers.execute(() -> write(p));
+        } catch (RejectedExecutionException e) {
+            log.debug("Snapshot for room {} not submitted (shutting down)", p.code);
+        }
+    }
+
+    /** Persist the latest state of {@code p}; at most one write per room at a time. */
+    private void write(Pending p) {
+        Room room;
+        String actor;
+        synchronized (p) {
+            if (!p.dirty || p.running) return;
+            if (p.timer != null) {
+                p.timer.cancel(false);
+                p.timer = null;
+            }
+            room = p.room;
+            actor = p.actor;
+            p.dirty = false;
+            p.running = true;
+            p.inFlightSince = p.firstDirtyAt;
+        }
+
+        boolean ok = persist(room, actor);
+        long now = System.currentTimeMillis();
+
+        synchronized (p) {
+            p.running = false;
+            if (ok) {
+                long lag = now - p.inFlightSince;
+                lastLagMs.set(lag);
+                maxLagMs.accumulateAndGet(lag, Math::max);
+                p.attempts = 0;
+                p.retryNotBefore = 0L;
+            } else if (++p.attempts < maxAttempts) {
+                retries.incrementAndGet();
+                long backoff = Math.min(RETRY_MAX_MS, RETRY_BASE_MS << Math.min(20, p.attempts - 1));
+                p.retryNotBefore = now + backoff;
+                if (!p.dirty) {
+                    p.dirty = true;
+                    p.firstDirtyAt = p.inFlightSince;
+                } else {
+                    p.firstDirtyAt = Math.min(p.firstDirtyAt, p.inFlightSince);
+                }
+                log.info("Snapshot of room {} failed (attempt {}/{}), retry in {} ms",
+                        p.code, p.attempts, maxAttempts, backoff);
+            } else {
+                dropped.incrementAndGet();
+                p.attempts = 0;
+                p.retryNotBefore = 0L;
+                log.error("Snapshot of room {} failed {} times; giving up until its next change", p.code, maxAttempts);
+            }
+            if (p.dirty) schedule(p, now);
+        }
+        // Nothing left for this room: forget it (onChange creates a new entry)
+        pending.computeIfPresent(p.code, (k, cur) -> {
+            synchronized (cur) {
+                return (cur == p && !cur.dirty && !cur.running) ? null : cur;
+            }
+        });
+    }
+
+    private boolean persist(Room room, String actor) {
+        try {
+            // the stored-room service swallows store errors in saveFromLive; retries need to see them
+            if (service instanceof StoredRoomPersistenceService stored) stored.saveFromLiveOrThrow(room, actor);
+            else service.saveFromLive(room, actor);
+            writes.incrementAndGet();
+            log.debug("Snapshot persisted (room={}, actor={})", room.getCode(), actor);
+            return true;
+        } catch (Throwable t) {
+            failures.incrementAndGet();
+            log.warn("Snapshot failed (room={}, actor={}): {}", room.getCode(), actor, t.toString());
+            return false;
+        }
+    }
+
+    /** Number of rooms with unsaved changes (waiting or being written). */
+    public int pendingCount() {
+        return pending.size();
+    }
+
+    /**
+     * Flush-all: write every pending room now (on the worker pool, skipping the debounce) and wait
+     * until they are persisted or {@code deadlineMs} has passed. Rooms in retry backoff keep their
+     * backoff, so a failing store is not hammered while draining.
+     *
+     * @return rooms still unsaved (0 = fully flushed)
+     */
+    public int flush(long deadlineMs) {
+        long end = System.currentTimeMillis() + Math.max(0L, deadlineMs);
+        while (true) {
+            long now = System.currentTimeMillis();
+            for (Pending p : pending.values()) {
+                synchronized (p) {
+                    if (!p.dirty || p.running || p.retryNotBefore > now) continue;
+                    if (p.timer != null) p.timer.cancel(false);
+                    p.timer = null;
+                }
+                submit(p);
+            }
+            if (pending.isEmpty() || System.currentTimeMillis() >= end) break;
             try {
-                service.saveFromLive(room, actor);
-                log.debug("Snapshot persisted (room={}, actor={})", code, actor);
-            } catch (Throwable t) {
-                log.warn("Snapshot failed (room={}, actor={}): {}", code, actor, t.toString());
-            } finally {
-                inflight.remove(code);
+                Thread.sleep(5);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
             }
-        };
+        }
+        int left = pending.size();
+        if (left > 0) log.warn("Snapshot flush hit its deadline with {} room(s) unsaved", left);
+        return left;
+    }
 
-        ScheduledFuture<?> prev = inflight.get(code);
-        if (prev != null && !prev.isDone()) {
-            prev.cancel(false);
+    /** Lag and counters for diagnostics. */
+    public Map<String, Object> stats() {
+        long now = System.currentTimeMillis();
+        long oldest = 0L;
+        int running = 0;
+        for (Pending p : pending.values()) {
+            synchronized (p) {
+                if (p.running) running++;
+                long since = p.running ? p.inFlightSince : p.firstDirtyAt;
+                if (p.dirty || p.running) oldest = Math.max(oldest, now - since);
+            }
         }
-        ScheduledFuture<?> fut = scheduler.schedule(task, debounceMs, TimeUnit.MILLISECONDS);
-        inflight.put(code, fut);
+        Map<String, Object> out = new LinkedHashMap<>();
+        out.put("pending", pending.size());
+        out.put("writing", running);
+        out.put("queued", workers.getQueue().size());
+        out.put("lagMs", oldest);
+        out.put("lastLagMs", lastLagMs.get());
+        out.put("maxLagMs", maxLagMs.get());
+        out.put("writes", writes.get());
+        out.put("coalesced", coalesced.get());
+        out.put("failures", failures.get());
+        out.put("retries", retries.get());
+        out.put("dropped", dropped.get());
+        return out;
     }
 
+    /** Flush what is pending (bounded), then stop; nothing debounced is dropped silently. */
     @PreDestroy
     public void shutdown() {
         try {
-            scheduler.shutdownNow();
-        } catch (Exception ignored) {
+            flush(SHUTDOWN_FLUSH_MS);
+        } finally {
+            timers.shutdownNow();
+            workers.shutdown();
+            try {
+                if (!workers.awaitTermination(SHUTDOWN_FLUSH_MS, TimeUnit.MILLISECONDS)) workers.shutdownNow();
+            } catch (InterruptedException e) {
+                workers.shutdownNow();
+                Thread.currentThread().interrupt();
+            }
         }
     }
 }
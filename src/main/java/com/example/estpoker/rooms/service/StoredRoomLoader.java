@@ -0,0 +1,149 @@
+package com.example.estpoker.rooms.service;
+
+import com.example.estpoker.rooms.model.StoredRoom;
+import com.example.estpoker.rooms.repo.RoomStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Loads stored rooms off the caller's thread so a first join never waits on the remote store.
+ * - Single flight: concurrent loads of the same code share one fetch
+ * - Negative cache: codes the store does not know are remembered (bounded, with a TTL) and
+ *   answered without a fetch until {@link #forget(String)} is called for them (the persistence
+ *   service does when it creates or changes a stored room, here or, via STORED events, elsewhere)
+ * - Found rooms are not cached here; once loaded they live in GameService (live or hibernated)
+ */
+public class StoredRoomLoader {
+
+    private static final Logger log = LoggerFactory.getLogger(StoredRoomLoader.class);
+
+    private final RoomStore store;
+    private final int negativeCapacity;
+    private final long negativeTtlMs;
+
+    private final ExecutorService executor;
+    private final ConcurrentMap<String, CompletableFuture<Optional<StoredRoom>>> inflight = new ConcurrentHashMap<>();
+    // code -> time the store answered "not found"; access-ordered so the oldest entry is evicted first
+    private final Map<String, Long> missing;
+
+    // bumped by forget(); a fetch that started before a forget() does not record "missing"
+    private final AtomicLong invalidations = new AtomicLong();
+
+    private final AtomicLong fetches = new AtomicLong();
+    private final AtomicLong joined = new AtomicLong();
+    private final AtomicLong negativeHits = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+
+    public StoredRoomLoader(RoomStore store, int threads, int negativeCapacity, long negativeTtlMs) {
+        this.store = store;
+        this.negativeCapacity = Math.max(0, negativeCapacity);
+        this.negativeTtlMs = Math.max(0L, negativeTtlMs);
+        this.missing = new LinkedHashMap<>(64, 0.75f, true) {
+            @Override protected boolean removeEldestEntry(Map.Entry<String, Long> eldest) {
+                return size() > StoredRoomLoader.this.negativeCapacity;
+            }
+        };
+        this.executor = Executors.newFixedThreadPool(Math.max(1, threads), new ThreadFactory() {
+            private final AtomicInteger c = new AtomicInteger();
+            @Override public Thread newThread(Runnable r) {
+                Thread t = new Thread(r, "room-loader-" + c.incrementAndGet());
+                t.setDaemon(true);
+                return t;
+            }
+        });
+        log.info("StoredRoomLoader initialized (threads={}, negativeCapacity={}, negativeTtlMs={})",
+                Math.max(1, threads), this.negativeCapacity, this.negativeTtlMs);
+    }
+
+    /**
+     * Stored state for {@code code}, empty if the store has none. Never blocks; a failed fetch
+     * completes exceptionally and is not remembered, so the next call tries again.
+     */
+    public CompletableFuture<Optional<StoredRoom>> load(String code) {
+        if (code == null || code.isBlank()) return CompletableFuture.completedFuture(Optional.empty());
+        if (knownMissing(code)) {
+            negativeHits.incrementAndGet();
+            return CompletableFuture.completedFuture(Optional.empty());
+        }
+        CompletableFuture<Optional<StoredRoom>> mine = new CompletableFuture<>();
+        CompletableFuture<Optional<StoredRoom>> running = inflight.putIfAbsent(code, mine);
+        if (running != null) {
+            joined.incrementAndGet();
+            return running;
+        }
+        try {
+            executor.execute(() -> fetch(code, mine));
+        } catch (RejectedExecutionException e) {
+            inflight.remove(code, mine);
+            mine.completeExceptionally(e);
+        }
+        return mine;
+    }
+
+    private void fetch(String code, CompletableFuture<Optional<StoredRoom>> result) {
+        fetches.incrementAndGet();
+        long epoch = invalidations.get();
+        try {
+            Optional<StoredRoom> r = store.load(code);
+            if (r.isEmpty()) remember(code, epoch);
+            inflight.remove(code, result);
+            result.complete(r);
+        } catch (Throwable t) {
+            failures.incrementAndGet();
+            log.warn("Loading stored room {} failed: {}", code, t.toString());
+            inflight.remove(code, result);
+            result.completeExceptionally(t);
+        }
+    }
+
+    /** The store now has (or may have) this room: drop it from the negative cache. */
+    public void forget(String code) {
+        if (code == null) return;
+        synchronized (missing) {
+            invalidations.incrementAndGet();
+            missing.remove(code);
+        }
+    }
+
+    private boolean knownMissing(String code) {
+        synchronized (missing) {
+            Long since = missing.get(code);
+            if (since == null) return false;
+            if (negativeTtlMs > 0 && System.currentTimeMillis() - since >= negativeTtlMs) {
+                missing.remove(code);
+                return false;
+            }
+            return true;
+        }
+    }
+
+    private void remember(String code, long epoch) {
+        if (negativeCapacity == 0) return;
+        synchronized (missing) {
+            if (invalidations.get() == epoch) missing.put(code, System.currentTimeMillis());
+        }
+    }
+
+    /** Counters for diagnostics. */
+    public Map<String, Object> stats() {
+        Map<String, Object> out = new LinkedHashMap<>();
+        out.put("fetches", fetches.get());
+        out.put("joinedInflight", joined.get());
+        out.put("negativeHits", negativeHits.get());
+        out.put("failures", failures.get());
+        out.put("inflight", inflight.size());
+        synchronized (missing) { out.put("knownMissing", missing.size()); }
+        return out;
+    }
+
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
@@ -1,5 +1,7 @@
 package com.example.estpoker.rooms.service;
 
+import com.example.estpoker.cluster.RoomEvent;
+import com.example.estpoker.cluster.RoomEventBus;
 import com.example.estpoker.model.Room;
 import com.example.estpoker.rooms.codec.RoomCodec;
 import com.example.estpoker.rooms.model.StoredRoom;
@@ -7,22 +9,142 @@ import com.example.estpoker.rooms.repo.RoomStore;
 import com.example.estpoker.security.PasswordHasher;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.time.Instant;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
 
+/**
+ * Stored rooms on top of a RoomStore.
+ * Live snapshots only carry settings, topic and participants; title, owner, password, createdAt,
+ * stats and history come from what is stored. The last written state of those fields is kept per
+ * room ({@link Base}, identified by the store-stamped version + updatedAt), so a routine snapshot
+ * is a single write. The stored room is read again only if
+ * - nothing is known about the room (first snapshot, evicted, previous write failed)
+ * - it has a password, title or owner: a blind write would put back a cached copy of those over a
+ *   change made elsewhere, so protected rooms are always read first
+ * - it was changed outside the snapshot path ({@link #forget}, e.g. REST upsert/delete, or
+ *   {@link #setPassword}) on this or, via the room event bus, another node; the store's caches
+ *   are invalidated too
+ * Reads before a write use {@link RoomStore#loadFresh}: never a cached or filtered answer.
+ * - the base is older than {@code revalidateMs}: writes by other instances are picked up
+ * A read that finds another version than the one we wrote counts as a conflict and wins.
+ */
 @Service
 public class StoredRoomPersistenceService implements RoomPersistenceService {
 
   private static final Logger log = LoggerFactory.getLogger(StoredRoomPersistenceService.class);
 
+  private static final int LOCK_STRIPES = 64;
+
   private final RoomStore store;
   private final PasswordHasher hasher;
+  private final int maxBases;
+  private final long revalidateMs;
+
+  // access-ordered: the least recently written room is forgotten first
+  private final Map<String, Base> bases;
+  // one merge + write per room at a time (snapshotter, journal and setPassword may overlap)
+  private final Object[] locks = new Object[LOCK_STRIPES];
+  // bumped by drop(), guarded by bases: a write that overlapped a drop does not record its base
+  private final long[] drops = new long[LOCK_STRIPES];
+
+  private final AtomicLong blindWrites = new AtomicLong();
+  private final AtomicLong reloads = new AtomicLong();
+  private final AtomicLong conflicts = new AtomicLong();
+
+  /** Last written state of the fields a live snapshot does not carry. */
+  private record Base(long version, Instant updatedAt, Instant createdAt, String title, String owner,
+                      String passwordHash, StoredRoom.Stats stats, List<StoredRoom.HistoryItem> history,
+                      long verifiedAt) {
+
+    static Base of(StoredRoom r, long verifiedAt) {
+      return new Base(r.getVersion(), r.getUpdatedAt(), r.getCreatedAt(), r.getTitle(), r.getOwner(),
+          r.getPasswordHash(), r.getStats(), new ArrayList<>(r.getHistory()), verifiedAt);
+    }
+
+    /** Password, title or owner set: fields a blind write must not restore from the cache. */
+    boolean carriesAuth() {
+      return passwordHash != null || title != null || owner != null;
+    }
+
+    /** Same write as {@code r}: nobody else saved the room in between. */
+    boolean sameWrite(StoredRoom r) {
+      return r != null && version == r.getVersion() && Objects.equals(updatedAt, r.getUpdatedAt());
+    }
+
+    /** The stored room as it is now, without reading it. */
+    StoredRoom toStored(String code) {
+      StoredRoom r = new StoredRoom();
+      r.setCode(code);
+      r.setTitle(title);
+      r.setOwner(owner);
+      r.setPasswordHash(passwordHash);
+      r.setStats(stats);
+      r.getHistory().addAll(history);
+      r.setVersion(version);
+      r.setCreatedAt(createdAt);
+      r.setUpdatedAt(updatedAt);
+      return r;
+    }
+  }
+
+  private final RoomEventBus bus; // may be null; carries forget() to the other nodes
+  private final StoredRoomLoader loader; // may be null; its "not stored" answers are dropped on writes
 
   public StoredRoomPersistenceService(RoomStore store, PasswordHasher hasher) {
+    this(store, hasher, 10_000, 60_000L);
+  }
+
+  public StoredRoomPersistenceService(RoomStore store, PasswordHasher hasher, int maxBases, long revalidateMs) {
+    this(store, hasher, maxBases, revalidateMs, (RoomEventBus) null);
+  }
+
+  @Autowired
+  public StoredRoomPersistenceService(RoomStore store, PasswordHasher hasher,
+                                      @Value("${app.rooms.versions.max-entries:10000}") int maxBases,
+                                      @Value("${app.rooms.versions.revalidate-ms:60000}") long revalidateMs,
+                                      ObjectProvider<RoomEventBus> bus,
+                                      ObjectProvider<StoredRoomLoader> loader) {
+    this(store, hasher, maxBases, revalidateMs, bus.getIfAvailable(), loader.getIfAvailable());
+  }
+
+  StoredRoomPersistenceService(RoomStore store, PasswordHasher hasher, int maxBases, long revalidateMs,
+                               RoomEventBus bus) {
+    this(store, hasher, maxBases, revalidateMs, bus, null);
+  }
+
+  StoredRoomPersistenceService(RoomStore store, PasswordHasher hasher, int maxBases, long revalidateMs,
+                               RoomEventBus bus, StoredRoomLoader loader) {
     this.store = store;
     this.hasher = hasher;
+    this.maxBases = Math.max(0, maxBases);
+    this.revalidateMs = Math.max(0L, revalidateMs);
+    this.bases = new LinkedHashMap<>(64, 0.75f, true) {
+      @Override protected boolean removeEldestEntry(Map.Entry<String, Base> eldest) {
+        return size() > StoredRoomPersistenceService.this.maxBases;
+      }
+    };
+    for (int i = 0; i < locks.length; i++) locks[i] = new Object();
+    this.bus = bus;
+    this.loader = loader;
+    if (bus != null) {
+      bus.subscribe(e -> {
+        if (e.kind() != RoomEvent.Kind.STORED || e.roomCode() == null) return;
+        drop(e.roomCode());
+        store.invalidate(e.roomCode()); // cache and local tier would hand back the old state
+        if (loader != null) loader.forget(e.roomCode());
+      });
+    }
   }
 
   @Override
@@ -30,84 +152,186 @@ public class StoredRoomPersistenceService implements RoomPersistenceService {
     if (room == null) return;
 
     try {
-      // Build a snapshot from the live model
-      StoredRoom snap = RoomCodec.toStored(room);
+      saveFromLiveOrThrow(room, requestedBy);
+    } catch (Exception e) {
+      // Best-effort: log and swallow so the app keeps running
+      final String code = room.getCode();
+      if (log.isDebugEnabled()) {
+        log.debug("saveFromLive failed for room {}: {}", code, e.toString(), e);
+      } else {
+        log.warn("saveFromLive failed for room {}: {}", code, e.toString());
+      }
+    }
+  }
+
+  /** Like {@link #saveFromLive} but store failures reach the caller (write-behind retries, journal). */
+  void saveFromLiveOrThrow(Room room, String requestedBy) throws Exception {
+    // Build a snapshot from the live model
+    StoredRoom snap = RoomCodec.toStored(room);
+
+    // EXTRA SAFETY: ensure we keep the live code as-is (case-preserving)
+    if (snap.getCode() == null || !snap.getCode().equals(room.getCode())) {
+      snap.setCode(room.getCode());
+    }
+    saveStoredOrThrow(snap, requestedBy);
+  }
 
-      // EXTRA SAFETY: ensure we keep the live code as-is (case-preserving)
-      if (snap.getCode() == null || !snap.getCode().equals(room.getCode())) {
-        snap.setCode(room.getCode());
+  /** Merge a live projection ({@link RoomCodec#toStored}) into the stored room; password stays. */
+  void saveStoredOrThrow(StoredRoom snap, String requestedBy) throws Exception {
+    final String code = snap.getCode();
+    synchronized (lock(code)) {
+      long now = System.currentTimeMillis();
+      Base base = base(code);
+      if (base != null && !base.carriesAuth() && (revalidateMs == 0 || now - base.verifiedAt() < revalidateMs)) {
+        // Routine snapshot: the stored fields are known, no read needed
+        blindWrites.incrementAndGet();
+        write(merge(snap, base.toStored(code), requestedBy), base.verifiedAt());
+        return;
       }
 
-      // Try to load existing persistent state
-      StoredRoom existing = store.load(room.getCode()).orElse(null);
+      // Unknown or due for revalidation: read the stored state
+      reloads.incrementAndGet();
+      // past caches and filters: "missing" here makes this the first write, which drops password etc.
+      StoredRoom existing = store.loadFresh(code).orElse(null);
+      if (base != null && !base.sameWrite(existing)) {
+        conflicts.incrementAndGet();
+        log.info("saveFromLive: room {} was written elsewhere (version {} -> {}); merging onto the stored state",
+            code, base.version(), existing == null ? "deleted" : existing.getVersion());
+      }
 
       if (existing == null) {
         // First write: accept snapshot as-is, keep timestamps sane
         snap.touchCreatedIfNull();
         snap.touchUpdated();
         if (log.isDebugEnabled()) {
-          log.debug("saveFromLive: creating new snapshot for roomCode={} by={}", snap.getCode(), requestedBy);
+          log.debug("saveFromLive: creating new snapshot for roomCode={} by={}", code, requestedBy);
         }
-        store.save(snap);
+        write(snap, now);
+        published(code); // loaders (and filters on other nodes) may still answer "not stored"
         return;
       }
+      write(merge(snap, existing, requestedBy), now);
+    }
+  }
 
-      // --- Merge into existing WITHOUT touching password/auth fields ---
-      final String keepPasswordHash = existing.getPasswordHash(); // preserve!
+  /** Live fields of {@code snap} onto {@code existing}; everything else of existing stays. */
+  private StoredRoom merge(StoredRoom snap, StoredRoom existing, String requestedBy) {
+    // --- Merge into existing WITHOUT touching password/auth fields ---
+    final String keepPasswordHash = existing.getPasswordHash(); // preserve!
 
-      // Settings
-      StoredRoom.Settings ss = snap.getSettings();
-      if (ss != null) {
-        StoredRoom.Settings es = existing.getSettings();
-        if (es == null) {
-          es = new StoredRoom.Settings();
-          existing.setSettings(es);
-        }
-        es.setSequenceId(ss.getSequenceId());
-        es.setAutoRevealEnabled(ss.isAutoRevealEnabled());
-        es.setAllowSpecials(ss.isAllowSpecials());
-        es.setTopicVisible(ss.isTopicVisible());
+    // Settings
+    StoredRoom.Settings ss = snap.getSettings();
+    if (ss != null) {
+      StoredRoom.Settings es = existing.getSettings();
+      if (es == null) {
+        es = new StoredRoom.Settings();
+        existing.setSettings(es);
       }
+      es.setSequenceId(ss.getSequenceId());
+      es.setAutoRevealEnabled(ss.isAutoRevealEnabled());
+      es.setAllowSpecials(ss.isAllowSpecials());
+      es.setTopicVisible(ss.isTopicVisible());
+    }
 
-      // Topic
-      existing.setTopicLabel(snap.getTopicLabel());
-      existing.setTopicUrl(snap.getTopicUrl());
+    // Topic
+    existing.setTopicLabel(snap.getTopicLabel());
+    existing.setTopicUrl(snap.getTopicUrl());
 
-      // Participants (replace with snapshot list)
-      if (snap.getParticipants() != null) {
-        existing.setParticipants(new ArrayList<>(snap.getParticipants()));
-      } else {
-        existing.setParticipants(null);
-      }
+    // Participants (replace with snapshot list)
+    if (snap.getParticipants() != null) {
+      existing.setParticipants(new ArrayList<>(snap.getParticipants()));
+    } else {
+      existing.setParticipants(null);
+    }
 
-      // Make sure code stays identical to live (case-preserving)
-      if (!room.getCode().equals(existing.getCode())) {
-        existing.setCode(room.getCode());
-      }
+    // Make sure code stays identical to live (case-preserving)
+    if (!snap.getCode().equals(existing.getCode())) {
+      existing.setCode(snap.getCode());
+    }
 
-      // Re-apply preserved password hash (in case any setter cascades touched it)
-      if (existing.getPasswordHash() != keepPasswordHash) { // ref-compare is fine for quick check
-        existing.setPasswordHash(keepPasswordHash);
-      }
+    // Re-apply preserved password hash (in case any setter cascades touched it)
+    if (existing.getPasswordHash() != keepPasswordHash) { // ref-compare is fine for quick check
+      existing.setPasswordHash(keepPasswordHash);
+    }
 
-      // Keep createdAt; bump updatedAt
-      existing.touchUpdated();
+    // Keep createdAt; bump updatedAt
+    existing.touchUpdated();
 
-      if (log.isDebugEnabled()) {
-        log.debug("saveFromLive: merged snapshot for roomCode={} by={} (pwdHashKept={})",
-            existing.getCode(), requestedBy, keepPasswordHash != null);
-      }
-      store.save(existing);
+    if (log.isDebugEnabled()) {
+      log.debug("saveFromLive: merged snapshot for roomCode={} by={} (pwdHashKept={})",
+          existing.getCode(), requestedBy, keepPasswordHash != null);
+    }
+    return existing;
+  }
 
+  /** Save and remember what was written; after a failure the stored state is unknown. */
+  private void write(StoredRoom room, long verifiedAt) throws Exception {
+    String code = room.getCode();
+    long dropsBefore;
+    synchronized (bases) {
+      dropsBefore = drops[stripe(code)];
+    }
+    try {
+      store.save(room);
     } catch (Exception e) {
-      // Best-effort: log and swallow so the app keeps running
-      final String code = (room != null ? room.getCode() : "<null>");
-      if (log.isDebugEnabled()) {
-        log.debug("saveFromLive failed for room {}: {}", code, e.toString(), e);
-      } else {
-        log.warn("saveFromLive failed for room {}: {}", code, e.toString());
-      }
+      drop(code);
+      throw e;
     }
+    synchronized (bases) {
+      if (drops[stripe(code)] == dropsBefore) bases.put(code, Base.of(room, verifiedAt));
+    }
+  }
+
+  private Base base(String code) {
+    synchronized (bases) {
+      return bases.get(code);
+    }
+  }
+
+  private Object lock(String code) {
+    return locks[stripe(code)];
+  }
+
+  private static int stripe(String code) {
+    return (code.hashCode() & 0x7fffffff) % LOCK_STRIPES;
+  }
+
+  /**
+   * The stored room was changed outside this service: the next snapshot reads it first, here and on
+   * the other nodes.
+   */
+  @Override
+  public void forget(String roomCode) {
+    if (roomCode == null) return;
+    drop(roomCode);
+    published(roomCode);
+  }
+
+  /** Local only; a write of the room still in progress will not record its base either. */
+  private void drop(String roomCode) {
+    if (roomCode == null) return;
+    synchronized (bases) {
+      bases.remove(roomCode);
+      drops[stripe(roomCode)]++;
+    }
+  }
+
+  /** The store holds a new state of the room: no "not stored" answers for it, here or elsewhere. */
+  private void published(String roomCode) {
+    if (loader != null) loader.forget(roomCode);
+    if (bus != null) bus.publish(RoomEvent.Kind.STORED, roomCode, null, null);
+  }
+
+  /** Known rooms and how snapshots were written, for diagnostics. */
+  public Map<String, Object> stats() {
+    Map<String, Object> out = new LinkedHashMap<>();
+    synchronized (bases) { out.put("knownRooms", bases.size()); }
+    out.put("maxKnownRooms", maxBases);
+    out.put("revalidateMs", revalidateMs);
+    out.put("blindWrites", blindWrites.get());
+    out.put("reloads", reloads.get());
+    out.put("conflicts", conflicts.get());
+    return out;
   }
 
   @Override
@@ -115,15 +339,15 @@ public class StoredRoomPersistenceService implements RoomPersistenceService {
     if (roomCode == null || roomCode.isBlank()) return;
 
     try {
-      StoredRoom r = store.load(roomCode).orElseGet(() -> StoredRoom.newWithCode(roomCode));
-      if (newPassword == null || newPassword.isBlank()) {
-        r.setPasswordHash(null); // clearing password
-      } else {
-        r.setPasswordHash(hasher.hash(newPassword));
+      String hash = (newPassword == null || newPassword.isBlank()) ? null : hasher.hash(newPassword);
+      synchronized (lock(roomCode)) {
+        StoredRoom r = store.loadFresh(roomCode).orElseGet(() -> StoredRoom.newWithCode(roomCode));
+        r.setPasswordHash(hash); // null clears the password
+        r.touchCreatedIfNull();
+        r.touchUpdated();
+        write(r, System.currentTimeMillis());
       }
-      r.touchCreatedIfNull();
-      r.touchUpdated();
-      store.save(r);
+      published(roomCode);
     } catch (Exception e) {
       throw new RuntimeException("setPassword failed for room " + roomCode, e);
     }
@@ -139,8 +363,14 @@ public class StoredRoomPersistenceService implements RoomPersistenceService {
         // no stored record -> only allow when no password provided
         return (password == null || password.isBlank());
       }
-      String hash = rOpt.get().getPasswordHash();
-      return hasher.matches(password, hash);
+      StoredRoom r = rOpt.get();
+      Base base = base(roomCode);
+      if (base != null && !base.sameWrite(r)) {
+        // written elsewhere since our last snapshot: do not write over it blindly
+        conflicts.incrementAndGet();
+        drop(roomCode);
+      }
+      return hasher.matches(password, r.getPasswordHash());
     } catch (Exception e) {
       log.warn("verifyPassword failed for room {}: {}", roomCode, e.getMessage());
       return false;
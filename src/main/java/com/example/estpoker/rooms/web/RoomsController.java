@@ -3,10 +3,18 @@ package com.example.estpoker.rooms.web;
 import com.example.estpoker.rooms.model.StoredRoom;
 import com.example.estpoker.rooms.repo.RoomStore;
 import com.example.estpoker.rooms.service.RoomPersistenceService;
+import com.example.estpoker.rooms.service.StoredRoomLoader;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
 import java.time.Instant;
+import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
 
@@ -16,10 +24,63 @@ public class RoomsController {
 
   private final RoomStore store;
   private final RoomPersistenceService service;
+  private final StoredRoomLoader loader; // may be null; its "not stored" cache is cleared on writes
+  private final byte[] listToken;         // empty = no listing over HTTP
 
   public RoomsController(RoomStore store, RoomPersistenceService service) {
+    this(store, service, null, (StoredRoomLoader) null);
+  }
+
+  public RoomsController(RoomStore store, RoomPersistenceService service, String listToken) {
+    this(store, service, listToken, (StoredRoomLoader) null);
+  }
+
+  @Autowired
+  public RoomsController(RoomStore store, RoomPersistenceService service,
+                         @Value("${app.rooms.list-token:}") String listToken,
+                         ObjectProvider<StoredRoomLoader> loader) {
+    this(store, service, listToken, loader.getIfAvailable());
+  }
+
+  private RoomsController(RoomStore store, RoomPersistenceService service, String listToken,
+                          StoredRoomLoader loader) {
     this.store = store;
     this.service = service;
+    this.listToken = listToken == null ? new byte[0] : listToken.getBytes(StandardCharsets.UTF_8);
+    this.loader = loader;
+  }
+
+  private void stored(String code) {
+    if (loader != null) loader.forget(code);
+  }
+
+  // --- List (paged, from the store's index) --------------------------------
+  // Every room code plus its password flag: not public. Without app.rooms.list-token it does not
+  // exist (404); callers send the token as X-List-Token. The index behind it may lag the store.
+
+  @GetMapping
+  public ResponseEntity<?> list(
+      @RequestHeader(value = "X-List-Token", required = false) String token,
+      @RequestParam(required = false) String prefix,
+      @RequestParam(required = false) String after,
+      @RequestParam(defaultValue = "100") int limit
+  ) {
+    if (listToken.length == 0) return ResponseEntity.notFound().build();
+    if (token == null || !MessageDigest.isEqual(listToken, token.getBytes(StandardCharsets.UTF_8))) {
+      return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+    }
+    if (!store.supportsListing()) {
+      return ResponseEntity.status(501).body(new ErrorView("Listing is not supported (app.rooms.index.enabled=false)"));
+    }
+    try {
+      return ResponseEntity.ok(PageView.from(store.scan(blankToNull(prefix), blankToNull(after), limit)));
+    } catch (Exception e) {
+      return ResponseEntity.status(500).body(new ErrorView(e.getMessage()));
+    }
+  }
+
+  private static String blankToNull(String s) {
+    return (s == null || s.isBlank()) ? null : s;
   }
 
   // --- Exists / Get ---------------------------------------------------------
@@ -52,7 +113,7 @@ public class RoomsController {
       @RequestBody UpsertRequest body
   ) {
     try {
-      StoredRoom r = store.load(code).orElseGet(() -> StoredRoom.newWithCode(code));
+      StoredRoom r = store.loadFresh(code).orElseGet(() -> StoredRoom.newWithCode(code));
 
       if (body.title != null)  r.setTitle(body.title);
       if (body.owner != null)  r.setOwner(body.owner);
@@ -65,6 +126,8 @@ public class RoomsController {
 
       r.touchUpdated();
       store.save(r);
+      service.forget(code); // written past the service: its next snapshot reads the room first
+      stored(code);
       return ResponseEntity.ok(StoredRoomView.from(r));
     } catch (Exception e) {
       return ResponseEntity.status(500).body(new ErrorView(e.getMessage()));
@@ -80,6 +143,7 @@ public class RoomsController {
   ) {
     try {
       service.setPassword(code, (req == null ? null : req.password));
+      stored(code);
       return ResponseEntity.noContent().build();
     } catch (Exception e) {
       return ResponseEntity.status(500).body(new ErrorView(e.getMessage()));
@@ -109,6 +173,7 @@ public class RoomsController {
     try {
       if (!store.exists(code)) return ResponseEntity.notFound().build();
       store.delete(code);
+      service.forget(code);
       return ResponseEntity.noContent().build();
     } catch (Exception e) {
       return ResponseEntity.status(500).body(new ErrorView(e.getMessage()));
@@ -151,6 +216,34 @@ public class RoomsController {
     }
   }
 
+  public static final class PageView {
+    public List<SummaryView> rooms;
+    public String next; // null on the last page
+
+    public static PageView from(RoomStore.Page p) {
+      PageView v = new PageView();
+      v.rooms = p.rooms().stream().map(SummaryView::from).toList();
+      v.next = p.next();
+      return v;
+    }
+  }
+
+  public static final class SummaryView {
+    public String code;
+    public Instant updatedAt;
+    public long size;
+    public boolean passwordProtected;
+
+    public static SummaryView from(RoomStore.Summary s) {
+      SummaryView v = new SummaryView();
+      v.code = s.code();
+      v.updatedAt = s.updatedAt();
+      v.size = s.size();
+      v.passwordProtected = s.passwordProtected();
+      return v;
+    }
+  }
+
   public static final class SettingsView {
     public String  sequenceId;
     public boolean autoRevealEnabled;
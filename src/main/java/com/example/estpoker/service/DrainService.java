@@ -0,0 +1,191 @@
+package com.example.estpoker.service;
+
+import com.example.estpoker.cluster.RoomReplica;
+import com.example.estpoker.handler.MuxWebSocketHandler;
+import com.example.estpoker.rooms.repo.TieredRoomStore;
+import com.example.estpoker.rooms.service.LiveRoomArchive;
+import com.example.estpoker.rooms.service.RoomJournal;
+import com.example.estpoker.rooms.service.RoomSnapshotter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Service;
+import org.springframework.web.socket.CloseStatus;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Restart/deploy handover.
+ * - Startup: restore rooms archived by the previous instance (in parallel), then mark ready
+ * - Drain (SIGTERM, or POST /api/admin/drain with app.drain.token): refuse new sockets, flush
+ *   debounced snapshots (or compact the journal), push the tiered store's outbox to FTPS, archive live rooms (votes, cids, presence, timers), then ask clients
+ *   to reconnect (1012)
+ *
+ * Runs in the last lifecycle phase, so on shutdown the drain happens before the web server stops.
+ */
+@Service
+public class DrainService implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(DrainService.class);
+
+    private final GameService gameService;
+    private final ReadinessGate gate;
+    private final ObjectProvider<RoomSnapshotter> snapshotter;
+    private final ObjectProvider<RoomJournal> journal;
+    private final ObjectProvider<LiveRoomArchive> archive;
+    private final ObjectProvider<MuxWebSocketHandler> mux;
+    private final ObjectProvider<TieredRoomStore> tiered;
+
+    @Value("${app.drain.deadline-ms:10000}")
+    private long deadlineMs = 10_000L;
+
+    @Value("${app.drain.reconnect-spread-ms:2000}")
+    private long reconnectSpreadMs = 2_000L;
+
+    @Value("${app.restore.enabled:true}")
+    private boolean restoreEnabled = true;
+
+    @Value("${app.restore.max-age-ms:600000}")
+    private long restoreMaxAgeMs = 600_000L;
+
+    @Value("${app.restore.parallelism:8}")
+    private int restoreParallelism = 8;
+
+    @Value("${app.restore.grace-ms:30000}")
+    private long restoreGraceMs = 30_000L;
+
+    private volatile boolean running = false;
+    private volatile Map<String, Object> lastDrain;
+
+    public DrainService(GameService gameService, ReadinessGate gate,
+                        ObjectProvider<RoomSnapshotter> snapshotter,
+                        ObjectProvider<LiveRoomArchive> archive,
+                        ObjectProvider<MuxWebSocketHandler> mux,
+                        ObjectProvider<RoomJournal> journal,
+                        ObjectProvider<TieredRoomStore> tiered) {
+        this.gameService = gameService;
+        this.gate = gate;
+        this.snapshotter = snapshotter;
+        this.archive = archive;
+        this.mux = mux;
+        this.journal = journal;
+        this.tiered = tiered;
+        gate.hold("restore");
+    }
+
+    // --- SmartLifecycle ---
+
+    @Override
+    public void start() {
+        running = true;
+        try {
+            restore();
+        } finally {
+            gate.release("restore");
+        }
+    }
+
+    @Override
+    public void stop() {
+        try {
+            drain();
+        } finally {
+            running = false;
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        return Integer.MAX_VALUE; // started last, stopped first
+    }
+
+    // --- restore ---
+
+    /** @return rooms restored */
+    int restore() {
+        LiveRoomArchive a = archive.getIfAvailable();
+        if (!restoreEnabled || a == null) return 0;
+        long start = System.currentTimeMillis();
+        try {
+            List<RoomReplica> rooms = bounded(() -> a.restore(restoreMaxAgeMs, restoreParallelism, deadlineMs), deadlineMs);
+            for (RoomReplica r : rooms) gameService.restoreAfterRestart(r, restoreGraceMs);
+            log.info("Restored {} room(s) from the previous instance in {} ms", rooms.size(), System.currentTimeMillis() - start);
+            return rooms.size();
+        } catch (Exception e) {
+            log.warn("Room restore skipped: {}", e.toString());
+            return 0;
+        }
+    }
+
+    // --- drain ---
+
+    /** Idempotent; the second call returns the first result. */
+    public synchronized Map<String, Object> drain() {
+        if (lastDrain != null) return lastDrain;
+        long start = System.currentTimeMillis();
+        gate.markDraining();
+        gameService.beginDrain();
+
+        Map<String, Object> out = new LinkedHashMap<>();
+        RoomSnapshotter s = snapshotter.getIfAvailable();
+        out.put("snapshotsUnflushed", (s == null) ? 0 : s.flush(deadlineMs));
+        RoomJournal j = journal.getIfAvailable();
+        if (j != null) out.put("journalUncompacted", j.compact());
+        TieredRoomStore t = tiered.getIfAvailable();
+        if (t != null) {
+            // whatever misses the deadline stays in the outbox and is pushed by the next start
+            out.put("outboxUnsynced", t.flush(Math.max(1_000L, deadlineMs - (System.currentTimeMillis() - start))));
+        }
+
+        List<RoomReplica> rooms = gameService.replicas();
+        out.put("rooms", rooms.size());
+        LiveRoomArchive a = archive.getIfAvailable();
+        if (a != null && !rooms.isEmpty()) {
+            long left = Math.max(1_000L, deadlineMs - (System.currentTimeMillis() - start));
+            try {
+                out.put("archived", bounded(() -> a.save(rooms, restoreParallelism, left), left));
+            } catch (Exception e) {
+                log.warn("Live room archive failed: {}", e.toString());
+                out.put("archived", 0);
+            }
+        }
+
+        int sockets = gameService.disconnectAllForRestart(reconnectSpreadMs);
+        MuxWebSocketHandler m = mux.getIfAvailable();
+        if (m != null) sockets += m.closeAll(CloseStatus.SERVICE_RESTARTED);
+        out.put("socketsClosed", sockets);
+        out.put("tookMs", System.currentTimeMillis() - start);
+
+        log.info("Drain complete: {}", out);
+        lastDrain = out;
+        return out;
+    }
+
+    /** Storage calls have no connect timeout of their own; never let one hold up startup/shutdown. */
+    private static <T> T bounded(Callable<T> call, long timeoutMs) throws Exception {
+        FutureTask<T> task = new FutureTask<>(call);
+        Thread t = new Thread(task, "drain-io");
+        t.setDaemon(true);
+        t.start();
+        try {
+            return task.get(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            throw (e.getCause() instanceof Exception ex) ? ex : e;
+        } finally {
+            task.cancel(true);
+        }
+    }
+}
@@ -1,10 +1,20 @@
 package com.example.estpoker.service;
 
+import com.example.estpoker.cluster.RoomEvent;
+import com.example.estpoker.cluster.RoomEventBus;
+import com.example.estpoker.cluster.ReplicaCodec;
+import com.example.estpoker.cluster.RoomReplica;
+import com.example.estpoker.handler.LocaleHandshakeInterceptor;
 import com.example.estpoker.model.CardSequences;
 import com.example.estpoker.model.Participant;
 import com.example.estpoker.model.Room;
+import com.example.estpoker.rooms.codec.RoomCodec;
+import com.example.estpoker.rooms.model.StoredRoom;
+import com.example.estpoker.rooms.service.RoomJournal;
 import com.example.estpoker.rooms.service.RoomSnapshotter;
+import com.example.estpoker.rooms.service.StoredRoomLoader;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.ObjectProvider;
@@ -13,10 +23,17 @@ import org.springframework.stereotype.Service;
 import org.springframework.web.socket.CloseStatus;
 import org.springframework.web.socket.TextMessage;
 import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.ConcurrentWebSocketSessionDecorator;
 
 import java.io.IOException;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
 import java.util.*;
 import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -29,21 +46,67 @@ public class GameService {
     // --- optional snapshot hook (non-fatal, may be null) ---
     private final RoomSnapshotter snapshotter;
 
-    /** Default ctor for tests (no Spring context): snapshotter stays null. */
+    // --- optional read-only observer feed (SSE/long-poll), may be null ---
+    private final RoomObserverFeed observerFeed;
+
+    // --- optional room event bus to other nodes (app.cluster.enabled), may be null ---
+    private final RoomEventBus bus;
+
+    // --- optional loader for stored rooms (first join rehydrates settings), may be null ---
+    private final StoredRoomLoader loader;
+
+    // --- optional change journal (app.rooms.journal.enabled); replaces the snapshotter, may be null ---
+    private final RoomJournal journal;
+
+    /** Default ctor for tests (no Spring context): snapshotter, observer feed, bus, loader and journal stay null. */
     public GameService() {
-        this.snapshotter = null;
+        this((RoomSnapshotter) null, null, null, null, null);
+    }
+
+    /** Multi-node tests: plain service on the given bus. */
+    public GameService(RoomEventBus bus) {
+        this((RoomSnapshotter) null, null, bus, null, null);
     }
 
-    /** Spring-injected provider (preferred at runtime). */
+    /** Rehydration tests: plain service loading stored rooms through the given loader. */
+    public GameService(StoredRoomLoader loader) {
+        this((RoomSnapshotter) null, null, null, loader, null);
+    }
+
+    /** Spring-injected providers (preferred at runtime). */
     @Autowired
-    public GameService(ObjectProvider<RoomSnapshotter> snapshotterProvider) {
-        this.snapshotter = (snapshotterProvider != null ? snapshotterProvider.getIfAvailable() : null);
+    public GameService(ObjectProvider<RoomSnapshotter> snapshotterProvider,
+                       ObjectProvider<RoomObserverFeed> observerFeedProvider,
+                       ObjectProvider<RoomEventBus> busProvider,
+                       ObjectProvider<StoredRoomLoader> loaderProvider,
+                       ObjectProvider<RoomJournal> journalProvider) {
+        this(snapshotterProvider != null ? snapshotterProvider.getIfAvailable() : null,
+             observerFeedProvider != null ? observerFeedProvider.getIfAvailable() : null,
+             busProvider != null ? busProvider.getIfAvailable() : null,
+             loaderProvider != null ? loaderProvider.getIfAvailable() : null,
+             journalProvider != null ? journalProvider.getIfAvailable() : null);
+    }
+
+    private GameService(RoomSnapshotter snapshotter, RoomObserverFeed observerFeed, RoomEventBus bus,
+                        StoredRoomLoader loader, RoomJournal journal) {
+        this.snapshotter = snapshotter;
+        this.observerFeed = observerFeed;
+        this.bus = bus;
+        this.loader = loader;
+        this.journal = journal;
+        if (bus != null) bus.subscribe(this::onBusEvent);
     }
 
     private void snapshot(Room room, String actor) {
-        if (snapshotter != null && room != null) {
-            snapshotter.onChange(room, (actor != null && !actor.isBlank()) ? actor : "system");
+        if ((snapshotter == null && journal == null) || room == null) return;
+        String who = (actor != null && !actor.isBlank()) ? actor : "system";
+        // A room still waiting for its stored state must not overwrite that state with defaults
+        if (awaitingStore.contains(room.getCode())) {
+            deferredSnapshots.put(room.getCode(), who);
+            if (awaitingStore.contains(room.getCode()) || deferredSnapshots.remove(room.getCode()) == null) return;
         }
+        if (journal != null) journal.append(room, who);
+        else snapshotter.onChange(room, who);
     }
 
     // --- in-memory state ---
@@ -86,19 +149,52 @@ public class GameService {
 
     private static String key(Room room, String name) { return room.getCode() + "|" + name; }
 
-    // --- rooms ---
-    public Room getOrCreateRoom(String roomCode) { return rooms.computeIfAbsent(roomCode, Room::new); }
-    public Room getRoom(String roomCode) { return rooms.get(roomCode); }
+    // --- rooms (a hibernated room is woken up transparently by either lookup) ---
+    public Room getOrCreateRoom(String roomCode) { return rooms.computeIfAbsent(roomCode, this::wakeOrCreate); }
+    public Room getRoom(String roomCode) {
+        Room room = rooms.get(roomCode);
+        return (room != null || !hibernated.containsKey(roomCode)) ? room : getOrCreateRoom(roomCode);
+    }
     public Room room(String roomCode) { return getRoom(roomCode); }
 
+    // --- outbound queues: broadcasts go through a per-session decorator so a slow socket
+    //     buffers (and is dropped on overflow) instead of blocking the broadcasting thread ---
+    private static final int SEND_TIME_LIMIT_MS = 10_000;
+    private static final int SEND_BUFFER_LIMIT = 512 * 1024;
+    private final Map<WebSocketSession, ConcurrentWebSocketSessionDecorator> outbound = new ConcurrentHashMap<>();
+
+    private WebSocketSession out(WebSocketSession session) {
+        return outbound.computeIfAbsent(session,
+                s -> new ConcurrentWebSocketSessionDecorator(s, SEND_TIME_LIMIT_MS, SEND_BUFFER_LIMIT));
+    }
+
+    /**
+     * Single frame to one session. Goes through the session's send queue when it is tracked, so it
+     * never overlaps a broadcast to the same socket (Tomcat rejects concurrent partial writes).
+     */
+    public void sendTo(WebSocketSession session, String frame) throws IOException {
+        if (!session.isOpen()) return;
+        WebSocketSession q = outbound.get(session);
+        (q != null ? q : session).sendMessage(new TextMessage(frame));
+    }
+
     // --- ws session tracking ---
-    public void addSession(WebSocketSession session, Room room) { sessionToRoomMap.put(session, room); }
+    public void addSession(WebSocketSession session, Room room) {
+        sessionToRoomMap.put(session, room);
+        out(session);
+        // hibernated between the caller's lookup and now: follow the room to its live object
+        if (room != null && rooms.get(room.getCode()) != room
+                && (hibernated.containsKey(room.getCode()) || rooms.containsKey(room.getCode()))) {
+            moveSessions(room, getOrCreateRoom(room.getCode()));
+        }
+    }
     public void trackParticipant(WebSocketSession session, String participantName) { sessionToParticipantMap.put(session, participantName); }
     public Room getRoomForSession(WebSocketSession session) { return sessionToRoomMap.get(session); }
     public String getParticipantName(WebSocketSession session) { return sessionToParticipantMap.get(session); }
     public void removeSession(WebSocketSession session) {
         sessionToRoomMap.remove(session);
         sessionToParticipantMap.remove(session);
+        outbound.remove(session);
     }
 
     // ========================================================================
@@ -106,7 +202,7 @@ public class GameService {
     // ========================================================================
 
     public Room join(String roomCode, String cid, String requestedName) {
-        Room room = getOrCreateRoom(roomCode);
+        Room room = getOrLoadRoom(roomCode);
         String desired = normalizeName(requestedName);
         String actor = null;
         boolean created = false; // announce "participantJoined" only when a brand-new participant is created
@@ -248,6 +344,7 @@ public class GameService {
 
             if (room.isAutoRevealEnabled() && !room.areVotesRevealed() && allActiveParticipantsHaveValidVotes(room)) {
                 room.setCardsRevealed(true);
+                clearTimer(room);
             }
         }
         broadcastRoomState(room);
@@ -259,6 +356,7 @@ public class GameService {
         String actor = null;
         synchronized (room) {
             room.setCardsRevealed(true);
+            clearTimer(room);
             Participant host = room.getHost();
             actor = (host != null ? host.getName() : null);
         }
@@ -271,6 +369,7 @@ public class GameService {
         String actor = null;
         synchronized (room) {
             room.reset();
+            clearTimer(room);
             Participant host = room.getHost();
             actor = (host != null ? host.getName() : null);
         }
@@ -315,6 +414,7 @@ public class GameService {
             room.setAutoRevealEnabled(enabled);
             if (enabled && !room.areVotesRevealed() && allActiveParticipantsHaveValidVotes(room)) {
                 room.setCardsRevealed(true);
+                clearTimer(room);
                 flippedToRevealed = true;
             }
         }
@@ -445,6 +545,7 @@ public class GameService {
             String normalized = sanitizeSequenceId(sequenceId);
             room.setSequenceId(normalized);
             room.reset();
+            clearTimer(room);
         }
         broadcastRoomState(room);
         snapshot(room, "ws");
@@ -471,6 +572,128 @@ public class GameService {
         snapshot(room, targetName);
     }
 
+    // ========================================================================
+    //  ROUND TIMER (start/pause/stop events with absolute deadline; no ticks)
+    // ========================================================================
+
+    static final long TIMER_MIN_MS = 5_000L;
+    static final long TIMER_MAX_MS = 3_600_000L;
+
+    /** Pending expiry per room code (runs on the presence-grace scheduler). */
+    private final Map<String, ScheduledFuture<?>> pendingTimerExpiries = new ConcurrentHashMap<>();
+
+    /**
+     * Start a round timer. {@code seconds <= 0} resumes a paused timer or restarts
+     * with the last duration; nothing happens if there is neither.
+     */
+    public void startTimer(String roomCode, int seconds) {
+        Room room = getOrCreateRoom(roomCode);
+        long deadline;
+        synchronized (room) {
+            long duration;
+            long runFor;
+            if (seconds > 0) {
+                duration = Math.max(TIMER_MIN_MS, Math.min(TIMER_MAX_MS, seconds * 1000L));
+                runFor = duration;
+            } else if (room.isTimerPaused()) {
+                duration = room.getTimerDurationMs();
+                runFor = room.getTimerRemainingMs();
+            } else if (room.getTimerDurationMs() > 0L) {
+                duration = room.getTimerDurationMs();
+                runFor = duration;
+            } else {
+                return;
+            }
+            deadline = System.currentTimeMillis() + runFor;
+            room.startTimer(duration, deadline);
+            scheduleTimerExpiry(room, deadline, runFor);
+        }
+        broadcastTimer(room, "start");
+        snapshot(room, "ws");
+    }
+
+    public void pauseTimer(String roomCode) {
+        Room room = getRoom(roomCode);
+        if (room == null) return;
+        synchronized (room) {
+            if (!room.isTimerRunning()) return;
+            cancelTimerExpiry(room);
+            room.pauseTimer(room.getTimerDeadline() - System.currentTimeMillis());
+        }
+        broadcastTimer(room, "pause");
+        snapshot(room, "ws");
+    }
+
+    public void stopTimer(String roomCode) {
+        Room room = getRoom(roomCode);
+        if (room == null) return;
+        synchronized (room) {
+            if (!room.isTimerRunning() && !room.isTimerPaused()) return;
+            clearTimer(room);
+        }
+        broadcastTimer(room, "stop");
+        snapshot(room, "ws");
+    }
+
+    /** Caller holds the room lock. */
+    private void clearTimer(Room room) {
+        cancelTimerExpiry(room);
+        room.stopTimer();
+    }
+
+    private void scheduleTimerExpiry(Room room, long deadline, long delayMs) {
+        cancelTimerExpiry(room);
+        ScheduledFuture<?> f = scheduler.schedule(() -> onTimerExpired(room, deadline), delayMs, TimeUnit.MILLISECONDS);
+        pendingTimerExpiries.put(room.getCode(), f);
+    }
+
+    private void cancelTimerExpiry(Room room) {
+        ScheduledFuture<?> f = pendingTimerExpiries.remove(room.getCode());
+        if (f != null) f.cancel(false);
+    }
+
+    /** Deadline reached: stop the timer and reveal (same path as auto-reveal). */
+    private void onTimerExpired(Room room, long deadline) {
+        synchronized (room) {
+            if (room.getTimerDeadline() != deadline) return; // paused/stopped/restarted meanwhile
+            pendingTimerExpiries.remove(room.getCode());
+            room.stopTimer();
+            room.setCardsRevealed(true);
+        }
+        if (log.isDebugEnabled()) log.debug("Round timer expired: revealing room={}", room.getCode());
+        broadcastTimer(room, "expired");
+        broadcastRoomState(room);
+        snapshot(room, "timer");
+    }
+
+    /** Timer fields shared by "timer" events and "voteUpdate". */
+    private Map<String, Object> timerState(Room room) {
+        Map<String, Object> t = new LinkedHashMap<>();
+        t.put("running", room.isTimerRunning());
+        t.put("paused", room.isTimerPaused());
+        t.put("deadline", room.getTimerDeadline());
+        t.put("remainingMs", room.getTimerRemainingMs());
+        t.put("durationMs", room.getTimerDurationMs());
+        return t;
+    }
+
+    private void broadcastTimer(Room room, String action) {
+        try {
+            Map<String, Object> payload = new LinkedHashMap<>();
+            payload.put("type", "timer");
+            payload.put("action", action);
+            synchronized (room) { payload.putAll(timerState(room)); }
+            payload.put("serverNow", System.currentTimeMillis());
+            String json = objectMapper.writeValueAsString(payload);
+            sendToLocalSessions(room, json);
+            publishToBus(RoomEvent.Kind.FRAME, room, json, true);
+            notifyRoomChanged(room);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        publishToObservers(room);
+    }
+
     public boolean shouldAutoReveal(String roomCode) {
         Room room = getRoom(roomCode);
         if (room == null) return false;
@@ -612,9 +835,13 @@ public class GameService {
 
     /** Build the full room-state JSON payload once so both broadcast and targeted send can reuse it. */
     private String buildRoomStateJson(Room room) throws IOException {
-        Map<String, Object> payload = new HashMap<>();
-        payload.put("type", "voteUpdate");
+        Map<String, Object> payload = buildRoomStateBase(room);
+        payload.put("participants", buildParticipantEntries(room));
+        return objectMapper.writeValueAsString(payload);
+    }
 
+    /** Participant entries (host first, merged by name) as sent in "voteUpdate". */
+    private List<Map<String, Object>> buildParticipantEntries(Room room) {
         List<Participant> ordered = getOrderedParticipants(room);
         Map<String, Map<String, Object>> byName = new LinkedHashMap<>();
         for (Participant p : ordered) {
@@ -640,7 +867,13 @@ public class GameService {
                 cur.put("spectator", !Boolean.TRUE.equals(cur.get("participating")));
             }
         }
-        payload.put("participants", new ArrayList<>(byName.values()));
+        return new ArrayList<>(byName.values());
+    }
+
+    /** Everything in "voteUpdate" except the participant list (shared by all recipients). */
+    private Map<String, Object> buildRoomStateBase(Room room) {
+        Map<String, Object> payload = new HashMap<>();
+        payload.put("type", "voteUpdate");
 
         boolean revealed = room.areVotesRevealed();
         payload.put("votesRevealed", revealed);
@@ -705,14 +938,199 @@ public class GameService {
 
         payload.put("specialsEnabled", room.isAllowSpecials()); // legacy alias
 
-        return objectMapper.writeValueAsString(payload);
+        payload.put("timer", timerState(room));
+        payload.put("serverNow", System.currentTimeMillis());
+
+        return payload;
     }
 
-    /** Send full room state to everyone in the room. */
+    // ========================================================================
+    //  LARGE ROOMS (summarized roster)
+    // ========================================================================
+
+    /** Rooms with at least this many participants use the summarized roster automatically. */
+    static final int LARGE_ROOM_AUTO_THRESHOLD = 40;
+
+    /** Upper bound for a single roster page requested via "roster:<offset>:<limit>". */
+    static final int ROSTER_PAGE_MAX = 200;
+
+    /** True if the room is host-flagged as large or has grown past the auto threshold. */
+    public boolean isLargeRoom(Room room) {
+        return room != null && (room.isLargeRoomMode() || isLargeRoomAuto(room));
+    }
+
+    /** At or above the threshold the mode is on regardless of the host flag (clients lock the toggle). */
+    static boolean isLargeRoomAuto(Room room) {
+        return room.getParticipantCount() >= LARGE_ROOM_AUTO_THRESHOLD;
+    }
+
+    public void setLargeRoomMode(String roomCode, boolean enabled) {
+        Room room = getOrCreateRoom(roomCode);
+        synchronized (room) { room.setLargeRoomMode(enabled); }
+        broadcastRoomState(room);
+    }
+
+    /** Compact entry: name, vote when present, and only the flags that are true. */
+    private static Map<String, Object> compactEntry(Map<String, Object> full) {
+        Map<String, Object> c = new LinkedHashMap<>();
+        c.put("name", full.get("name"));
+        if (full.get("vote") != null) c.put("vote", full.get("vote"));
+        if (Boolean.TRUE.equals(full.get("isHost"))) c.put("isHost", true);
+        if (Boolean.TRUE.equals(full.get("spectator"))) c.put("spectator", true);
+        if (Boolean.TRUE.equals(full.get("disconnected"))) c.put("disconnected", true);
+        if (Boolean.TRUE.equals(full.get("away"))) c.put("away", true);
+        return c;
+    }
+
+    /**
+     * Large-room variant of "voteUpdate". The shared part (deck, stats, counts) is serialized once
+     * per state change; before reveal each recipient only gets its own entry and the host's, after
+     * reveal everyone gets the full roster in compact form.
+     */
+    private final class LargeRoomFrame {
+        private final String prefix;                 // shared JSON without the closing brace
+        private final String fullRoster;             // non-null once votes are revealed
+        private final Map<String, String> entryJson; // name -> compact entry JSON
+        private final String hostName;
+
+        LargeRoomFrame(Room room) throws IOException {
+            List<Map<String, Object>> entries = buildParticipantEntries(room);
+            Map<String, Object> base = buildRoomStateBase(room);
+            base.put("largeRoom", true);
+            if (isLargeRoomAuto(room)) base.put("largeRoomAuto", true);
+            base.put("compact", true);
+
+            int voted = 0, waiting = 0, spectators = 0, away = 0;
+            List<Map<String, Object>> compact = new ArrayList<>(entries.size());
+            String host = null;
+            for (Map<String, Object> e : entries) {
+                boolean spectator = Boolean.TRUE.equals(e.get("spectator"));
+                boolean gone = Boolean.TRUE.equals(e.get("disconnected")) || Boolean.TRUE.equals(e.get("away"));
+                if (spectator) spectators++;
+                else if (!gone) { if (e.get("vote") != null) voted++; else waiting++; }
+                if (gone) away++;
+                if (host == null && Boolean.TRUE.equals(e.get("isHost"))) host = (String) e.get("name");
+                compact.add(compactEntry(e));
+            }
+            Map<String, Object> summary = new LinkedHashMap<>();
+            summary.put("total", entries.size());
+            summary.put("voted", voted);
+            summary.put("waiting", waiting);
+            summary.put("spectators", spectators);
+            summary.put("away", away);
+            base.put("summary", summary);
+
+            String json = objectMapper.writeValueAsString(base);
+            this.prefix = json.substring(0, json.length() - 1);
+            this.hostName = host;
+            if (room.areVotesRevealed()) {
+                this.fullRoster = prefix + ",\"participants\":" + objectMapper.writeValueAsString(compact) + "}";
+                this.entryJson = Map.of();
+            } else {
+                this.fullRoster = null;
+                this.entryJson = new HashMap<>();
+                for (Map<String, Object> c : compact) {
+                    entryJson.put((String) c.get("name"), objectMapper.writeValueAsString(c));
+                }
+            }
+        }
+
+        String forRecipient(String name) {
+            if (fullRoster != null) return fullRoster;
+            StringBuilder sb = new StringBuilder(prefix.length() + 128).append(prefix).append(",\"participants\":[");
+            String hostEntry = (hostName != null) ? entryJson.get(hostName) : null;
+            if (hostEntry != null) sb.append(hostEntry);
+            if (name != null && !name.equals(hostName)) {
+                String self = entryJson.get(name);
+                if (self != null) {
+                    if (hostEntry != null) sb.append(',');
+                    sb.append(self);
+                }
+            }
+            return sb.append("]}").toString();
+        }
+    }
+
+    /** Targeted: one page of the compact roster, for large-room clients that want the full list. */
+    public void sendRosterPage(WebSocketSession session, Room room, int offset, int limit) {
+        if (session == null || room == null) return;
+        try {
+            List<Map<String, Object>> entries = buildParticipantEntries(room);
+            int from = Math.max(0, Math.min(offset, entries.size()));
+            int to = Math.min(entries.size(), from + Math.max(1, Math.min(limit, ROSTER_PAGE_MAX)));
+            List<Map<String, Object>> page = new ArrayList<>(to - from);
+            for (Map<String, Object> e : entries.subList(from, to)) page.add(compactEntry(e));
+
+            Map<String, Object> payload = new LinkedHashMap<>();
+            payload.put("type", "roster");
+            payload.put("offset", from);
+            payload.put("total", entries.size());
+            payload.put("participants", page);
+            sendTo(session, objectMapper.writeValueAsString(payload));
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    // ========================================================================
+    //  OBSERVERS (read-only feed, never part of the roster)
+    // ========================================================================
+
+    /**
+     * Observer variant of "voteUpdate": same shared fields plus room code and version;
+     * votes stay hidden until reveal (only a "voted" flag), since screens are public.
+     */
+    private String buildObserverJson(Room room, long version) {
+        try {
+            Map<String, Object> payload = buildRoomStateBase(room);
+            payload.put("type", "observerState");
+            payload.put("roomCode", room.getCode());
+            payload.put("version", version);
+
+            List<Map<String, Object>> entries = buildParticipantEntries(room);
+            if (!room.areVotesRevealed()) {
+                for (Map<String, Object> e : entries) {
+                    e.put("voted", e.get("vote") != null);
+                    e.put("vote", null);
+                }
+            }
+            payload.put("participants", entries);
+            return objectMapper.writeValueAsString(payload);
+        } catch (IOException e) {
+            log.warn("observer frame failed for room {}: {}", room.getCode(), e.toString());
+            return null;
+        }
+    }
+
+    /** Build (and fan out) a fresh observer frame regardless of current viewers. */
+    public RoomObserverFeed.Frame publishObserverFrame(Room room) {
+        if (observerFeed == null || room == null) return null;
+        return observerFeed.publish(room.getCode(), true, v -> buildObserverJson(room, v));
+    }
+
+    private void publishToObservers(Room room) {
+        if (observerFeed == null || room == null) return;
+        observerFeed.publish(room.getCode(), false, v -> buildObserverJson(room, v));
+    }
+
+    /** Send full room state to everyone in the room (all nodes). */
     public void broadcastRoomState(Room room) {
+        notifyRoomChanged(room);
+        publishToObservers(room);
+        renderRoomStateLocally(room);
+        publishToBus(RoomEvent.Kind.STATE, room, null, true);
+    }
+
+    /** Room state to the sessions connected to this node only. */
+    private void renderRoomStateLocally(Room room) {
         try {
+            if (isLargeRoom(room)) {
+                LargeRoomFrame frame = new LargeRoomFrame(room);
+                broadcastPerRecipient(room, frame::forRecipient);
+                return;
+            }
             String json = buildRoomStateJson(room);
-            broadcastToRoom(room, json);
+            sendToLocalSessions(room, json);
         } catch (IOException e) {
             e.printStackTrace();
         }
@@ -722,14 +1140,16 @@ public class GameService {
     public void sendRoomState(WebSocketSession session, Room room) {
         if (session == null || room == null) return;
         try {
-            String json = buildRoomStateJson(room);
-            if (session.isOpen()) session.sendMessage(new TextMessage(json));
+            String json = isLargeRoom(room)
+                    ? new LargeRoomFrame(room).forRecipient(sessionToParticipantMap.get(session))
+                    : buildRoomStateJson(room);
+            sendTo(session, json);
         } catch (IOException e) {
             e.printStackTrace();
         }
     }
 
-    // Aliases for reflection/back-compat used by GameWebSocketHandler
+    // Back-compat aliases (older handlers/tests); the handler now calls sendRoomState directly
     public void sendRoomState(Room room, WebSocketSession session) { sendRoomState(session, room); }
     public void sendRoomSnapshot(WebSocketSession session, Room room) { sendRoomState(session, room); }
     public void sendStateTo(WebSocketSession session, Room room) { sendRoomState(session, room); }
@@ -740,26 +1160,97 @@ public class GameService {
     public void broadcastRoom(Room room) { broadcastRoomState(room); }
     public void broadcast(Room room) { broadcastRoomState(room); }
 
-    /** Low-level broadcast utility. */
+    /** Low-level broadcast utility (local sessions + other nodes). */
     public void broadcastToRoom(Room room, String message) {
+        sendToLocalSessions(room, message);
+        publishToBus(RoomEvent.Kind.FRAME, room, message, false);
+    }
+
+    private void sendToLocalSessions(Room room, String message) {
         sessionToRoomMap.entrySet().removeIf(entry -> {
             WebSocketSession session = entry.getKey();
             if (!entry.getValue().equals(room)) return false;
 
             try {
                 if (session.isOpen()) {
-                    session.sendMessage(new TextMessage(message));
+                    out(session).sendMessage(new TextMessage(message));
                     return false;
-                } else {
-                    return true;
                 }
             } catch (IOException e) {
                 e.printStackTrace();
-                return true;
             }
+            outbound.remove(session); // dropped from the room: its send queue goes too
+            return true;
         });
     }
 
+    /** Broadcast where each session's frame depends on its participant name. */
+    private void broadcastPerRecipient(Room room, Function<String, String> frameFor) {
+        sessionToRoomMap.entrySet().removeIf(entry -> {
+            WebSocketSession session = entry.getKey();
+            if (!entry.getValue().equals(room)) return false;
+
+            try {
+                if (session.isOpen()) {
+                    out(session).sendMessage(new TextMessage(frameFor.apply(sessionToParticipantMap.get(session))));
+                    return false;
+                }
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+            outbound.remove(session); // dropped from the room: its send queue goes too
+            return true;
+        });
+    }
+
+    // ========================================================================
+    //  REACTIONS (ephemeral: no Room state, no snapshot, dropped under pressure)
+    // ========================================================================
+
+    private final ReactionAggregator reactions = new ReactionAggregator(this::flushReactions);
+
+    /** Count a reaction for the room; the aggregate goes out with the next window flush. */
+    public boolean react(String roomCode, String cid, String reaction) {
+        if (getRoom(roomCode) == null) return false;
+        return reactions.add(roomCode, cid, reaction);
+    }
+
+    private void flushReactions(String roomCode, Map<String, Integer> counts) {
+        Room room = getRoom(roomCode);
+        if (room == null) return;
+        String json;
+        try {
+            Map<String, Object> payload = new LinkedHashMap<>();
+            payload.put("type", "reactions");
+            payload.put("counts", counts);
+            json = objectMapper.writeValueAsString(payload);
+        } catch (IOException e) {
+            return;
+        }
+        broadcastDroppable(room, json);
+        publishToBus(RoomEvent.Kind.EPHEMERAL, room, json, false);
+    }
+
+    /**
+     * Best-effort broadcast: skipped for sessions that already have frames queued, so
+     * ephemeral traffic never competes with state updates on a congested socket.
+     */
+    private void broadcastDroppable(Room room, String message) {
+        TextMessage frame = new TextMessage(message);
+        for (Map.Entry<WebSocketSession, Room> e : sessionToRoomMap.entrySet()) {
+            if (!room.equals(e.getValue())) continue;
+            WebSocketSession session = e.getKey();
+            ConcurrentWebSocketSessionDecorator q = outbound.get(session);
+            if (q == null || !session.isOpen()) continue;
+            if (q.getBufferSize() > 0 || q.getTimeSinceSendStarted() > 0) continue; // under pressure → drop
+            try {
+                q.sendMessage(frame);
+            } catch (IOException | RuntimeException ignored) {
+                // regular broadcasts handle broken sessions
+            }
+        }
+    }
+
     public void broadcastHostChange(Room room, String oldHostName, String newHostName) {
         try {
             Map<String, Object> legacy = new HashMap<>();
@@ -943,9 +1434,10 @@ public class GameService {
             }
         }
         for (WebSocketSession s : targetSessions) {
-            try { if (s.isOpen()) s.sendMessage(new TextMessage(json)); } catch (IOException ignored) {}
+            try { if (s.isOpen()) out(s).sendMessage(new TextMessage(json)); } catch (IOException ignored) {}
             sessionToRoomMap.remove(s);
             sessionToParticipantMap.remove(s);
+            outbound.remove(s);
             try { s.close(new CloseStatus(4001, "Kicked")); } catch (IOException ignored) {}
         }
 
@@ -966,30 +1458,577 @@ public class GameService {
 
     public void closeRoom(Room room) {
         if (room == null) return;
+        closeRoomLocally(room);
+        publishToBus(RoomEvent.Kind.CLOSE, room, null, false);
+        notifyRoomChanged(room);
+    }
 
+    private void closeRoomLocally(Room room) {
+        String json = null;
         try {
             Map<String, Object> payload = new HashMap<>();
             payload.put("type", "roomClosed");
             payload.put("redirect", "/");
-            String json = objectMapper.writeValueAsString(payload);
-            broadcastToRoom(room, json);
+            json = objectMapper.writeValueAsString(payload);
         } catch (IOException e) {
             e.printStackTrace();
         }
+        dropRoomLocally(room, json, new CloseStatus(4000, "Room closed"));
+    }
+
+    /** Final frame to local sessions, close them and forget the room on this node. */
+    private void dropRoomLocally(Room room, String finalFrame, CloseStatus status) {
+        if (finalFrame != null) sendToLocalSessions(room, finalFrame);
 
         List<WebSocketSession> toClose = new ArrayList<>();
         for (Map.Entry<WebSocketSession, Room> e : sessionToRoomMap.entrySet()) {
             if (room.equals(e.getValue())) toClose.add(e.getKey());
         }
         for (WebSocketSession s : toClose) {
-            try { s.close(new CloseStatus(4000, "Room closed")); } catch (IOException ignored) {}
+            try { s.close(status); } catch (IOException ignored) {}
             sessionToRoomMap.remove(s);
             sessionToParticipantMap.remove(s);
+            outbound.remove(s);
         }
 
         for (Participant p : new ArrayList<>(room.getParticipants())) cancelPresenceTimers(room, p.getName());
+        cancelTimerExpiry(room);
+        reactions.forget(room.getCode());
         rooms.remove(room.getCode());
         roomSpecialsSelected.remove(room.getCode()); // cleanup selection
+        for (String cid : room.getCidLinks().keySet()) clientToName.remove(mapKey(room.getCode(), cid));
+        emptySince.remove(room.getCode());
+        awaitingStore.remove(room.getCode());
+        deferredSnapshots.remove(room.getCode());
+        if (observerFeed != null) observerFeed.close(room.getCode());
+    }
+
+    // ========================================================================
+    //  CLUSTER (room event bus between nodes)
+    // ========================================================================
+
+    // Set when rooms are owned by exactly one node (consistent-hash ring): then nothing is
+    // replicated and the bus only carries handoffs. Null = every node mirrors every room.
+    private volatile Predicate<String> ownsRoom;
+
+    /** Switch from mirroring to single-owner rooms; {@code ownsRoom} answers for this node. */
+    public void useOwnership(Predicate<String> ownsRoom) {
+        this.ownsRoom = ownsRoom;
+    }
+
+    /** Live and hibernated rooms. */
+    public Set<String> roomCodes() {
+        Set<String> out = new HashSet<>(rooms.keySet());
+        out.addAll(hibernated.keySet());
+        return out;
+    }
+
+    // Warm standby: the primary's stream is told which rooms changed (state is read at send time)
+    private volatile Consumer<String> roomChangeListener;
+
+    public void setRoomChangeListener(Consumer<String> listener) {
+        this.roomChangeListener = listener;
+    }
+
+    private void notifyRoomChanged(Room room) {
+        Consumer<String> l = roomChangeListener;
+        if (l != null && room != null) l.accept(room.getCode());
+    }
+
+    /** Current replica of a live room, or null when it does not exist (anymore). */
+    public RoomReplica replicaOf(String roomCode) {
+        Room room = rooms.get(roomCode);
+        if (room != null) return toReplica(room);
+        byte[] bytes = hibernated.get(roomCode);
+        try {
+            return (bytes == null) ? null : ReplicaCodec.decodeRoom(bytes);
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    /** Standby: mirror a room from the primary (no sessions here yet, nothing is broadcast). */
+    public void restoreReplica(RoomReplica replica) {
+        if (replica == null || replica.code() == null) return;
+        applyReplica(getOrCreateRoom(replica.code()), replica);
+    }
+
+    /** Standby: the room is gone on the primary. */
+    public void dropRoom(String roomCode) {
+        Room room = getRoom(roomCode);
+        if (room != null) closeRoomLocally(room);
+    }
+
+    /** Stop the grace/timer and reaction threads (context shutdown, throwaway instances). */
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+        reactions.close();
+    }
+
+    // ========================================================================
+    //  HIBERNATION (idle rooms leave the heap)
+    // ========================================================================
+
+    // Rooms nobody is connected to are kept as ReplicaCodec bytes (a few hundred bytes each)
+    // instead of Room objects plus their entries in the side maps.
+    private final Map<String, byte[]> hibernated = new ConcurrentHashMap<>();
+    private final Map<String, Long> emptySince = new ConcurrentHashMap<>();
+    private final AtomicLong hibernations = new AtomicLong();
+    private final AtomicLong wakeUps = new AtomicLong();
+
+    // ========================================================================
+    //  REHYDRATION (first join of an unknown code loads its stored settings)
+    // ========================================================================
+
+    // Rooms created by a join whose stored state is still being fetched, and the snapshot held back meanwhile
+    private final Set<String> awaitingStore = ConcurrentHashMap.newKeySet();
+    private final Map<String, String> deferredSnapshots = new ConcurrentHashMap<>();
+
+    /**
+     * Like {@link #getOrCreateRoom} but a brand-new room (neither live nor hibernated) starts with
+     * defaults and gets its stored settings applied once the loader answers; the caller never waits.
+     */
+    private Room getOrLoadRoom(String roomCode) {
+        Room room = rooms.get(roomCode);
+        if (room != null || loader == null || hibernated.containsKey(roomCode)) {
+            return (room != null) ? room : getOrCreateRoom(roomCode);
+        }
+        boolean[] created = {false};
+        room = rooms.computeIfAbsent(roomCode, code -> {
+            created[0] = !hibernated.containsKey(code);
+            if (created[0]) awaitingStore.add(code);
+            return wakeOrCreate(code);
+        });
+        if (created[0]) {
+            loader.load(roomCode).whenComplete((stored, err) -> onStoredLoaded(roomCode, stored, err));
+        }
+        return room;
+    }
+
+    private void onStoredLoaded(String roomCode, Optional<StoredRoom> stored, Throwable err) {
+        // Removed already = something authoritative (replica, restore) was applied meanwhile
+        if (!awaitingStore.remove(roomCode)) return;
+        Room room = rooms.get(roomCode);
+        if (room != null && err == null && stored != null && stored.isPresent()) {
+            synchronized (room) {
+                rehydrate(room, stored.get());
+            }
+            broadcastRoomState(room);
+        }
+        String actor = deferredSnapshots.remove(roomCode);
+        if (room != null && actor != null) snapshot(room, actor);
+    }
+
+    /** Stored values fill only what nobody changed since the room was created (still at defaults). */
+    private void rehydrate(Room room, StoredRoom stored) {
+        Room defaults = new Room(room.getCode());
+        Room fromStore = RoomCodec.toLive(stored);
+        if (Objects.equals(room.getSequenceId(), defaults.getSequenceId())) {
+            room.setSequenceId(fromStore.getSequenceId());
+        }
+        if (room.isAutoRevealEnabled() == defaults.isAutoRevealEnabled()) {
+            room.setAutoRevealEnabled(fromStore.isAutoRevealEnabled());
+        }
+        if (room.isAllowSpecials() == defaults.isAllowSpecials() && fromStore.isAllowSpecials()) {
+            room.setAllowSpecials(true);
+            roomSpecialsSelected.computeIfAbsent(room.getCode(), k -> new ArrayList<>(CardSequences.SPECIALS));
+        }
+        if (room.isTopicVisible() == defaults.isTopicVisible()) {
+            room.setTopicVisible(fromStore.isTopicVisible());
+        }
+        if (room.getTopicLabel() == null && room.getTopicUrl() == null) {
+            room.setTopicLabel(fromStore.getTopicLabel());
+            room.setTopicUrl(fromStore.getTopicUrl());
+        }
+    }
+
+    private Room wakeOrCreate(String roomCode) {
+        Room room = new Room(roomCode);
+        byte[] bytes = hibernated.remove(roomCode);
+        if (bytes != null) {
+            try {
+                applyReplica(room, ReplicaCodec.decodeRoom(bytes));
+                wakeUps.incrementAndGet();
+            } catch (IOException e) {
+                log.warn("Hibernated room {} could not be decoded, starting empty: {}", roomCode, e.toString());
+            }
+        }
+        return room;
+    }
+
+    /**
+     * Hibernate every room that has had no local session, presence timer, running timer or observer
+     * for at least {@code idleMs} (measured from the first scan that saw it empty).
+     *
+     * @return number of rooms hibernated by this scan
+     */
+    public int hibernateIdleRooms(long idleMs) {
+        long now = System.currentTimeMillis();
+        Set<Room> busy = Collections.newSetFromMap(new IdentityHashMap<>());
+        busy.addAll(sessionToRoomMap.values());
+        int n = 0;
+        for (Room room : rooms.values()) {
+            String code = room.getCode();
+            if (busy.contains(room) || room.isTimerRunning() || hasPendingPresence(code)
+                    || (observerFeed != null && observerFeed.isWatched(code))) {
+                emptySince.remove(code);
+                continue;
+            }
+            long since = emptySince.computeIfAbsent(code, k -> now);
+            if (now - since >= idleMs && hibernate(room)) n++;
+        }
+        emptySince.keySet().retainAll(rooms.keySet());
+        return n;
+    }
+
+    private boolean hasPendingPresence(String roomCode) {
+        String prefix = roomCode + "|";
+        for (String k : pendingDisconnects.keySet()) if (k.startsWith(prefix)) return true;
+        for (String k : pendingHostTransfers.keySet()) if (k.startsWith(prefix)) return true;
+        return false;
+    }
+
+    private boolean hasLocalSessions(Room room) {
+        for (Room r : sessionToRoomMap.values()) if (r == room) return true;
+        return false;
+    }
+
+    private boolean hibernate(Room room) {
+        String code = room.getCode();
+        Set<String> cids;
+        synchronized (room) {
+            if (hasLocalSessions(room)) return false;
+            cids = new HashSet<>(room.getCidLinks().keySet());
+            byte[] bytes = ReplicaCodec.encodeRoom(toReplica(room));
+            boolean[] removed = {false};
+            // bytes in, room out in one step: a concurrent wake for this code waits and then sees the bytes
+            rooms.computeIfPresent(code, (k, cur) -> {
+                if (cur != room) return cur;
+                hibernated.put(code, bytes);
+                removed[0] = true;
+                return null;
+            });
+            if (!removed[0]) return false;
+        }
+        // A join that fetched the room just before the removal may have registered on it meanwhile:
+        // put it back, or, if a wake already took the bytes, move its sessions to the woken room
+        if (hasLocalSessions(room)) {
+            Room live = rooms.compute(code, (k, cur) -> {
+                if (cur != null) return cur;
+                hibernated.remove(code);
+                return room;
+            });
+            moveSessions(room, live);
+            return false;
+        }
+        for (String cid : cids) clientToName.remove(mapKey(code, cid)); // cid links mirror clientToName
+        roomSpecialsSelected.remove(code);
+        reactions.forget(code);
+        emptySince.remove(code);
+        hibernations.incrementAndGet();
+        return true;
+    }
+
+    /**
+     * Sessions still on {@code from} (a room object that was hibernated under them) move to the live
+     * {@code to}, together with participants and cid links the woken copy does not have.
+     */
+    private void moveSessions(Room from, Room to) {
+        if (from == to) return;
+        String code = to.getCode();
+        Map<String, String> links;
+        synchronized (from) {
+            synchronized (to) {
+                for (Participant p : from.getParticipants()) {
+                    if (to.getParticipant(p.getName()) == null) to.addParticipant(p);
+                }
+                links = from.getCidLinks();
+                links.keySet().removeAll(to.getCidLinks().keySet());
+                links.forEach(to::linkCid);
+            }
+        }
+        links.forEach((cid, name) -> rememberClientName(code, cid, name));
+        boolean moved = false;
+        for (Map.Entry<WebSocketSession, Room> e : sessionToRoomMap.entrySet()) {
+            if (e.getValue() == from && sessionToRoomMap.replace(e.getKey(), from, to)) moved = true;
+        }
+        if (moved) broadcastRoomState(to);
+    }
+
+    public int liveRoomCount() {
+        return rooms.size();
+    }
+
+    public int hibernatedRoomCount() {
+        return hibernated.size();
+    }
+
+    public Map<String, Object> hibernationStats() {
+        long bytes = 0;
+        for (byte[] b : hibernated.values()) bytes += b.length;
+        Map<String, Object> out = new LinkedHashMap<>();
+        out.put("live", rooms.size());
+        out.put("hibernated", hibernated.size());
+        out.put("hibernatedBytes", bytes);
+        out.put("clientNames", clientToName.size());
+        out.put("hibernations", hibernations.get());
+        out.put("wakeUps", wakeUps.get());
+        return out;
+    }
+
+    // ========================================================================
+    //  DRAIN / RESTORE (deploys and restarts)
+    // ========================================================================
+
+    private volatile boolean draining = false;
+
+    /** While draining, no new sockets are accepted (the handlers close them with 1012). */
+    public boolean isDraining() {
+        return draining;
+    }
+
+    public void beginDrain() {
+        draining = true;
+    }
+
+    /** Current replicas of all live rooms (cid links, presence and timers included). */
+    public List<RoomReplica> replicas() {
+        List<RoomReplica> out = new ArrayList<>();
+        for (Room room : rooms.values()) out.add(toReplica(room));
+        for (String code : Set.copyOf(hibernated.keySet())) {
+            if (rooms.containsKey(code)) continue;
+            RoomReplica r = replicaOf(code);
+            if (r != null) out.add(r);
+        }
+        return out;
+    }
+
+    /**
+     * Ask every connected client to reconnect (to the next instance): a {@code reconnect} frame with
+     * a spread hint, then close 1012. Rooms stay in memory; presence timers are not started.
+     *
+     * @return number of sessions closed
+     */
+    public int disconnectAllForRestart(long spreadMs) {
+        String json = null;
+        try {
+            Map<String, Object> payload = new HashMap<>();
+            payload.put("type", "reconnect");
+            payload.put("afterMs", Math.max(0L, spreadMs));
+            json = objectMapper.writeValueAsString(payload);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        int closed = 0;
+        for (WebSocketSession s : new ArrayList<>(sessionToRoomMap.keySet())) {
+            try {
+                if (json != null && s.isOpen()) out(s).sendMessage(new TextMessage(json));
+            } catch (Exception ignored) {
+                // closing anyway
+            }
+            try { s.close(CloseStatus.SERVICE_RESTARTED); } catch (IOException ignored) {}
+            sessionToRoomMap.remove(s);
+            sessionToParticipantMap.remove(s);
+            outbound.remove(s);
+            closed++;
+        }
+        return closed;
+    }
+
+    /**
+     * Restore a room saved during the previous instance's drain. Participants that were connected get
+     * {@code graceMs} to reconnect before they are marked away and a host transfer kicks in.
+     */
+    public void restoreAfterRestart(RoomReplica replica, long graceMs) {
+        if (replica == null || replica.code() == null) return;
+        Room room = getOrCreateRoom(replica.code());
+        applyReplica(room, replica);
+        resume(room, graceMs);
+    }
+
+    /**
+     * After promotion: like {@link #restoreAfterRestart} for every replicated room. Round timers that
+     * were running on the old primary are re-armed (expired ones reveal now) and participants still
+     * marked active get {@code graceMs} to reconnect here.
+     */
+    public void resumeAfterPromotion(long graceMs) {
+        for (Room room : rooms.values()) resume(room, graceMs);
+    }
+
+    /** Re-arm the round timer; active participants without a session on this node are awaited. */
+    private void resume(Room room, long graceMs) {
+        Set<String> connected = new HashSet<>();
+        for (Map.Entry<WebSocketSession, Room> e : sessionToRoomMap.entrySet()) {
+            if (e.getValue() != room) continue;
+            String name = sessionToParticipantMap.get(e.getKey());
+            if (name != null) connected.add(name);
+        }
+        List<String> awaited = new ArrayList<>();
+        synchronized (room) {
+            for (Participant p : room.getParticipants()) {
+                if (p.isActive() && !connected.contains(p.getName())) awaited.add(p.getName());
+            }
+            if (room.isTimerRunning()) {
+                scheduleTimerExpiry(room, room.getTimerDeadline(),
+                        Math.max(0L, room.getTimerDeadline() - System.currentTimeMillis()));
+            }
+        }
+        for (String name : awaited) schedulePresence(room, name, graceMs, graceMs);
+    }
+
+    /**
+     * This node no longer owns the room: ship its state to the new owner, send local clients
+     * there ({@code roomMoved}, they reload via /room) and forget the room here.
+     * The handoff is addressed to {@code ownerId}: it takes the room even if its own ring has not
+     * caught up yet (every node polls membership on its own timer).
+     */
+    public void handOffRoom(String roomCode, String ownerId, String ownerBaseUrl) {
+        Room room = getRoom(roomCode);
+        if (room == null) return;
+        if (bus != null) {
+            try {
+                bus.publish(RoomEvent.Kind.HANDOFF, roomCode, toReplica(room), ownerId);
+            } catch (RuntimeException e) {
+                log.warn("Room handoff publish failed (room={}): {}", roomCode, e.toString());
+            }
+        }
+        String json = null;
+        try {
+            Map<String, Object> payload = new HashMap<>();
+            payload.put("type", "roomMoved");
+            payload.put("redirect", (ownerBaseUrl == null ? "" : ownerBaseUrl) + "/room?roomCode="
+                    + URLEncoder.encode(roomCode, StandardCharsets.UTF_8));
+            json = objectMapper.writeValueAsString(payload);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        dropRoomLocally(room, json, CloseStatus.SERVICE_RESTARTED);
+        notifyRoomChanged(room);
+        log.info("Handed off room {} to {}", roomCode, ownerBaseUrl);
+    }
+
+    private void publishToBus(RoomEvent.Kind kind, Room room, String frame, boolean withReplica) {
+        if (bus == null || room == null || ownsRoom != null) return;
+        try {
+            bus.publish(kind, room.getCode(), withReplica ? toReplica(room) : null, frame);
+        } catch (RuntimeException e) {
+            log.warn("Room event publish failed (room={}, kind={}): {}", room.getCode(), kind, e.toString());
+        }
+    }
+
+    /** Events from other nodes: apply state and deliver to local sessions only (never republished). */
+    void onBusEvent(RoomEvent e) {
+        if (e == null || e.roomCode() == null) return;
+        switch (e.kind()) {
+            case STATE -> {
+                if (e.replica() == null) return;
+                Room room = getOrCreateRoom(e.roomCode());
+                applyReplica(room, e.replica());
+                publishToObservers(room);
+                renderRoomStateLocally(room);
+            }
+            case FRAME -> {
+                Room room = (e.replica() != null) ? getOrCreateRoom(e.roomCode()) : getRoom(e.roomCode());
+                if (room == null) return;
+                if (e.replica() != null) {
+                    applyReplica(room, e.replica());
+                    publishToObservers(room);
+                }
+                if (e.frame() != null) sendToLocalSessions(room, e.frame());
+            }
+            case EPHEMERAL -> {
+                Room room = getRoom(e.roomCode());
+                if (room != null && e.frame() != null) broadcastDroppable(room, e.frame());
+            }
+            case CLOSE -> {
+                Room room = getRoom(e.roomCode());
+                if (room != null) closeRoomLocally(room);
+            }
+            case HANDOFF -> {
+                Predicate<String> owns = ownsRoom;
+                if (e.replica() == null || owns == null) return;
+                // addressed: only that node, whatever its ring says; unaddressed: whoever owns it
+                boolean ours = (e.frame() != null) ? e.frame().equals(bus.nodeId()) : owns.test(e.roomCode());
+                if (!ours) return;
+                Room room = getOrCreateRoom(e.roomCode());
+                applyReplica(room, e.replica());
+                synchronized (room) {
+                    if (room.isTimerRunning()) {
+                        scheduleTimerExpiry(room, room.getTimerDeadline(),
+                                Math.max(0L, room.getTimerDeadline() - System.currentTimeMillis()));
+                    }
+                }
+                publishToObservers(room);
+                snapshot(room, null);
+                log.info("Took over room {} from {}", e.roomCode(), e.origin());
+            }
+        }
+    }
+
+    RoomReplica toReplica(Room room) {
+        synchronized (room) {
+            Map<String, List<String>> cidsByName = new HashMap<>();
+            for (Map.Entry<String, String> l : room.getCidLinks().entrySet()) {
+                cidsByName.computeIfAbsent(l.getValue(), k -> new ArrayList<>()).add(l.getKey());
+            }
+            List<RoomReplica.Member> members = new ArrayList<>();
+            for (Participant p : room.getParticipants()) {
+                members.add(new RoomReplica.Member(p.getName(), p.isHost(), p.isParticipating(), p.isActive(),
+                        p.getVote(), p.getLastSeenAt(), cidsByName.getOrDefault(p.getName(), List.of())));
+            }
+            List<String> specials = roomSpecialsSelected.get(room.getCode());
+            return new RoomReplica(room.getCode(), room.getSequenceId(), room.areVotesRevealed(),
+                    room.isAutoRevealEnabled(), room.isAllowSpecials(),
+                    specials == null ? null : new ArrayList<>(specials),
+                    room.getTopicLabel(), room.getTopicUrl(), room.isTopicVisible(), room.isLargeRoomMode(),
+                    room.getTimerDurationMs(), room.getTimerDeadline(), room.getTimerRemainingMs(), members);
+        }
+    }
+
+    /**
+     * Overwrite the local copy with a replica from another node (last writer wins).
+     * Timer expiry stays with the node that started the timer.
+     */
+    void applyReplica(Room room, RoomReplica r) {
+        awaitingStore.remove(room.getCode());
+        synchronized (room) {
+            room.setSequenceId(r.sequenceId());
+            room.setCardsRevealed(r.revealed());
+            room.setAutoRevealEnabled(r.autoRevealEnabled());
+            room.setAllowSpecials(r.allowSpecials());
+            room.setTopicLabel(r.topicLabel());
+            room.setTopicUrl(r.topicUrl());
+            room.setTopicVisible(r.topicVisible());
+            room.setLargeRoomMode(r.largeRoomMode());
+            room.restoreTimer(r.timerDurationMs(), r.timerDeadline(), r.timerRemainingMs());
+            if (r.specialsSelected() == null) roomSpecialsSelected.remove(room.getCode());
+            else roomSpecialsSelected.put(room.getCode(), new ArrayList<>(r.specialsSelected()));
+
+            Set<String> keep = new HashSet<>();
+            List<RoomReplica.Member> members = (r.participants() == null) ? List.of() : r.participants();
+            for (RoomReplica.Member m : members) keep.add(m.name());
+            for (Participant p : room.getParticipants()) {
+                if (!keep.contains(p.getName())) room.removeParticipant(p.getName());
+            }
+            for (RoomReplica.Member m : members) {
+                Participant p = room.getParticipant(m.name());
+                if (p == null) {
+                    p = new Participant(m.name());
+                    room.addParticipant(p);
+                }
+                p.setHost(m.host());
+                p.setParticipating(m.participating());
+                p.setActive(m.active());
+                p.setVote(m.vote());
+                if (m.cids() != null) {
+                    for (String cid : m.cids()) {
+                        room.linkCid(cid, m.name());
+                        rememberClientName(room.getCode(), cid, m.name());
+                    }
+                }
+            }
+        }
     }
 
     // ========================================================================
@@ -1002,8 +2041,10 @@ public class GameService {
             payload.put("type", "you");
             payload.put("yourName", yourName);
             if (cid != null) payload.put("cid", cid);
+            // Locale resolved at the handshake (cookie/?lang), so the client and server agree on it
+            payload.put("locale", LocaleHandshakeInterceptor.localeOf(session).toLanguageTag());
             String json = objectMapper.writeValueAsString(payload);
-            if (session.isOpen()) session.sendMessage(new TextMessage(json));
+            sendTo(session, json);
         } catch (IOException e) {
             e.printStackTrace();
         }
@@ -0,0 +1,119 @@
+package com.example.estpoker.service;
+
+import com.example.estpoker.model.CardSequences;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+
+/**
+ * Ephemeral emoji reactions, aggregated per room.
+ * - Counts are collected for one window (~150 ms) and flushed as a single tiny frame
+ * - Never touches Room state, snapshots or persistence
+ * - A flush is only scheduled when something arrived (no idle ticking); counting and the window
+ *   swap are atomic per room, so no reaction is lost between two windows
+ * - Each client may add at most {@link #MAX_PER_CLIENT_PER_WINDOW} reactions per window
+ */
+class ReactionAggregator {
+
+    static final long WINDOW_MS = 150L;
+    static final int MAX_PER_CLIENT_PER_WINDOW = 5;
+
+    /** Palette ids (same icons as the specials palette) plus a few generic ones. */
+    static final Set<String> ALLOWED = buildAllowed();
+
+    private static Set<String> buildAllowed() {
+        Set<String> s = new LinkedHashSet<>(CardSequences.SPECIAL_IDS_ORDER);
+        s.add("question");
+        s.add("thumbsup");
+        s.add("party");
+        return Set.copyOf(s);
+    }
+
+    /** Only touched inside {@code windows.compute} or after the window was removed from the map. */
+    private static final class Window {
+        final Map<String, Integer> counts = new HashMap<>();
+        final Map<String, Integer> perClient = new HashMap<>();
+        boolean scheduled;
+    }
+
+    private final Map<String, Window> windows = new ConcurrentHashMap<>();
+    private final BiConsumer<String, Map<String, Integer>> flusher;
+
+    private final ScheduledExecutorService scheduler =
+            Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread t = new Thread(r, "reactions");
+                t.setDaemon(true);
+                return t;
+            });
+
+    /** {@code flusher} receives (roomCode, counts by reaction id) once per window. */
+    ReactionAggregator(BiConsumer<String, Map<String, Integer>> flusher) {
+        this.flusher = flusher;
+    }
+
+    void close() {
+        scheduler.shutdownNow();
+    }
+
+    /** Map an emoji or id to a canonical reaction id; null if not allowed. */
+    static String canonical(String raw) {
+        if (raw == null) return null;
+        String s = raw.trim();
+        String byEmoji = CardSequences.SPECIALS_EMOJI_TO_ID.get(s);
+        if (byEmoji != null) s = byEmoji;
+        s = s.toLowerCase(Locale.ROOT);
+        return ALLOWED.contains(s) ? s : null;
+    }
+
+    /** Count one reaction; returns false if it was rejected (unknown id or client over its budget). */
+    boolean add(String roomCode, String clientKey, String reaction) {
+        String id = canonical(reaction);
+        if (roomCode == null || id == null) return false;
+
+        // Counted atomically with the window swap in flush(): a reaction lands in the window that is
+        // flushed or in the next one, never in one that was already read
+        boolean[] accepted = {false};
+        windows.compute(roomCode, (k, w) -> {
+            if (w == null) w = new Window();
+            if (clientKey != null && w.perClient.merge(clientKey, 1, Integer::sum) > MAX_PER_CLIENT_PER_WINDOW) {
+                return w;
+            }
+            w.counts.merge(id, 1, Integer::sum);
+            accepted[0] = true;
+            if (!w.scheduled) {
+                w.scheduled = true;
+                Window flushed = w;
+                scheduler.schedule(() -> flush(k, flushed), WINDOW_MS, TimeUnit.MILLISECONDS);
+            }
+            return w;
+        });
+        return accepted[0];
+    }
+
+    private void flush(String roomCode, Window w) {
+        // Swap the window out before reading it; reactions arriving now start the next one
+        if (!windows.remove(roomCode, w)) return; // forgotten (room closed)
+
+        Map<String, Integer> out = new LinkedHashMap<>(w.counts);
+        if (out.isEmpty()) return;
+        try {
+            flusher.accept(roomCode, out);
+        } catch (RuntimeException ignored) {
+            // ephemeral by design: a failed flush is simply lost
+        }
+    }
+
+    /** Drop pending counts of a closed room. */
+    void forget(String roomCode) {
+        windows.remove(roomCode);
+    }
+}
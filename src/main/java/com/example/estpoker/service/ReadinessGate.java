@@ -0,0 +1,45 @@
+package com.example.estpoker.service;
+
+import org.springframework.stereotype.Component;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Whether this instance should receive traffic (/healthz).
+ * Startup steps (room restore, JIT warmup) {@link #hold} the gate until they {@link #release} it;
+ * once draining it never opens again.
+ */
+@Component
+public class ReadinessGate {
+
+    private final Set<String> holds = ConcurrentHashMap.newKeySet();
+    private volatile boolean draining = false;
+
+    public boolean isReady() {
+        return !draining && holds.isEmpty();
+    }
+
+    /** "ok", "starting" or "draining". */
+    public String state() {
+        if (draining) return "draining";
+        return holds.isEmpty() ? "ok" : "starting";
+    }
+
+    /** Startup steps still running. */
+    public Set<String> pending() {
+        return Set.copyOf(holds);
+    }
+
+    public void hold(String step) {
+        holds.add(step);
+    }
+
+    public void release(String step) {
+        holds.remove(step);
+    }
+
+    public void markDraining() {
+        draining = true;
+    }
+}
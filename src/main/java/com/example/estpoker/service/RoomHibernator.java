@@ -0,0 +1,87 @@
+package com.example.estpoker.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Background reaper: rooms without sessions for app.rooms.hibernate.idle-ms are hibernated by
+ * GameService (compact bytes instead of live objects and side-map entries) and woken up
+ * transparently on the next join or lookup.
+ */
+@Service
+public class RoomHibernator implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(RoomHibernator.class);
+
+    private final GameService gameService;
+
+    @Value("${app.rooms.hibernate.enabled:true}")
+    private boolean enabled = true;
+
+    @Value("${app.rooms.hibernate.idle-ms:1800000}")
+    private long idleMs = 1_800_000L;
+
+    @Value("${app.rooms.hibernate.interval-ms:60000}")
+    private long intervalMs = 60_000L;
+
+    private volatile ScheduledExecutorService reaper;
+
+    public RoomHibernator(GameService gameService) {
+        this.gameService = gameService;
+    }
+
+    /** Counts for GET /api/rooms-memory. */
+    public Map<String, Object> stats() {
+        return gameService.hibernationStats();
+    }
+
+    /** One scan (also used by the scheduler). */
+    public int reapNow() {
+        int n = gameService.hibernateIdleRooms(idleMs);
+        if (n > 0) {
+            log.info("Hibernated {} idle room(s); live={} hibernated={}",
+                    n, gameService.liveRoomCount(), gameService.hibernatedRoomCount());
+        }
+        return n;
+    }
+
+    // --- SmartLifecycle ---
+
+    @Override
+    public void start() {
+        if (!enabled) return;
+        ScheduledExecutorService s = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "room-reaper");
+            t.setDaemon(true);
+            return t;
+        });
+        s.scheduleWithFixedDelay(() -> {
+            try {
+                reapNow();
+            } catch (RuntimeException e) {
+                log.warn("Room reaper scan failed: {}", e.toString());
+            }
+        }, intervalMs, intervalMs, TimeUnit.MILLISECONDS);
+        reaper = s;
+    }
+
+    @Override
+    public void stop() {
+        ScheduledExecutorService s = reaper;
+        reaper = null;
+        if (s != null) s.shutdownNow();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return reaper != null;
+    }
+}
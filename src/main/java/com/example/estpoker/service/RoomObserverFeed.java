@@ -0,0 +1,267 @@
+package com.example.estpoker.service;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.function.LongFunction;
+import java.util.function.Supplier;
+
+/**
+ * Read-only room feed for screens/dashboards (SSE + long-poll).
+ *
+ * One encoded frame per room version is shared by all viewers: publishing serializes once,
+ * viewers only get the ready-made String/SSE event. Observers never join the room, so they
+ * don't touch {@code Room} locks or the participant roster.
+ *
+ * Frames are only built while somebody is watching; an unwatched room just drops its cached
+ * frame so the next viewer gets a fresh one (with a higher version). The channel itself goes
+ * away with its last viewer.
+ *
+ * SSE writes happen on a small fan-out pool, never on the thread that changed the room. Per room
+ * only the newest frame is queued: a viewer that is behind skips to the latest state.
+ */
+@Service
+public class RoomObserverFeed {
+
+    /** SSE emitters time out after this long; EventSource reconnects on its own. */
+    static final long SSE_TIMEOUT_MS = 30 * 60_000L;
+
+    /** Long-poll requests answer 304 after this long without a newer version. */
+    static final long POLL_TIMEOUT_MS = 25_000L;
+
+    private static final int FANOUT_THREADS = Math.max(2, Math.min(4, Runtime.getRuntime().availableProcessors()));
+
+    /** Immutable shared frame of one room version. */
+    public record Frame(long version, String json, Set<ResponseBodyEmitter.DataWithMediaType> sseEvent) {}
+
+    private static final class Channel {
+        final String roomCode;
+        volatile Frame frame;           // null = stale or never built
+        final CopyOnWriteArrayList<SseEmitter> emitters = new CopyOnWriteArrayList<>();
+        final Queue<DeferredResult<ResponseEntity<String>>> waiters = new ConcurrentLinkedQueue<>();
+        // newest frame not yet sent to the emitters; at most one fan-out task per channel
+        final AtomicReference<Frame> outgoing = new AtomicReference<>();
+        final AtomicBoolean sending = new AtomicBoolean();
+
+        Channel(String roomCode) { this.roomCode = roomCode; }
+
+        boolean watched() { return !emitters.isEmpty() || !waiters.isEmpty(); }
+    }
+
+    private final Map<String, Channel> channels = new ConcurrentHashMap<>();
+
+    // feed-wide, so a room's versions keep increasing when its channel is dropped and rebuilt
+    private final AtomicLong versions = new AtomicLong();
+
+    private final ExecutorService fanOutPool = Executors.newFixedThreadPool(FANOUT_THREADS, r -> {
+        Thread t = new Thread(r, "observer-fanout");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private Channel channel(String roomCode) { return channels.computeIfAbsent(roomCode, Channel::new); }
+
+    /** Register a viewer atomically with the channel lookup, so it never lands on a channel being dropped. */
+    private Channel watch(String roomCode, Consumer<Channel> add) {
+        return channels.compute(roomCode, (k, ch) -> {
+            Channel c = (ch != null) ? ch : new Channel(k);
+            add.accept(c);
+            return c;
+        });
+    }
+
+    /** Last viewer gone: drop the channel (a later publish or viewer starts a new one). */
+    private void pruneIfUnwatched(Channel ch) {
+        channels.computeIfPresent(ch.roomCode, (k, cur) -> (cur == ch && !cur.watched()) ? null : cur);
+    }
+
+    public boolean isWatched(String roomCode) {
+        Channel ch = channels.get(roomCode);
+        return ch != null && ch.watched();
+    }
+
+    public int observerCount(String roomCode) {
+        Channel ch = channels.get(roomCode);
+        return ch == null ? 0 : ch.emitters.size() + ch.waiters.size();
+    }
+
+    /** Current frame or null if stale / not built yet. */
+    public Frame current(String roomCode) {
+        Channel ch = channels.get(roomCode);
+        return ch == null ? null : ch.frame;
+    }
+
+    /**
+     * Publish a new room version. {@code body} must return the JSON object for the version
+     * passed in; it is only invoked when the room has viewers (or {@code force} is set).
+     */
+    public Frame publish(String roomCode, boolean force, LongFunction<String> body) {
+        Channel ch = force ? channel(roomCode) : channels.get(roomCode);
+        if (ch == null) return null;
+        if (!force && !ch.watched()) {
+            ch.frame = null;
+            pruneIfUnwatched(ch);
+            return null;
+        }
+
+        Frame f;
+        synchronized (ch) {
+            long v = versions.incrementAndGet();
+            String json = body.apply(v);
+            if (json == null) return null;
+            Set<ResponseBodyEmitter.DataWithMediaType> event = SseEmitter.event()
+                    .id(Long.toString(v))
+                    .name("state")
+                    .data(json, MediaType.TEXT_PLAIN)
+                    .build();
+            f = new Frame(v, json, event);
+            ch.frame = f;
+        }
+
+        fanOut(ch, f);
+        return f;
+    }
+
+    /** Room closed: tell viewers and drop the channel. */
+    public void close(String roomCode) {
+        Channel ch = channels.remove(roomCode);
+        if (ch == null) return;
+        for (SseEmitter e : ch.emitters) {
+            try {
+                e.send(SseEmitter.event().name("closed").data("{}", MediaType.TEXT_PLAIN));
+            } catch (IOException | IllegalStateException ignored) {
+                // viewer already gone
+            }
+            e.complete();
+        }
+        ch.emitters.clear();
+        DeferredResult<ResponseEntity<String>> w;
+        while ((w = ch.waiters.poll()) != null) w.setResult(ResponseEntity.status(410).build());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        fanOutPool.shutdownNow();
+    }
+
+    // ------------------------------------------------------------------------
+    //  Viewers
+    // ------------------------------------------------------------------------
+
+    /** Open an SSE stream; the current frame (built via {@code ensure} if needed) is sent first. */
+    public SseEmitter subscribe(String roomCode, Supplier<Frame> ensure) {
+        SseEmitter emitter = new SseEmitter(SSE_TIMEOUT_MS);
+        Channel ch = watch(roomCode, c -> c.emitters.add(emitter));
+        Runnable drop = () -> {
+            ch.emitters.remove(emitter);
+            pruneIfUnwatched(ch);
+        };
+        emitter.onCompletion(drop);
+        emitter.onTimeout(drop);
+        emitter.onError(t -> drop.run());
+
+        Frame f = (ch.frame != null) ? ch.frame : ensure.get();
+        if (f != null) {
+            try {
+                emitter.send(f.sseEvent());
+            } catch (IOException | IllegalStateException e) {
+                drop.run();
+                emitter.completeWithError(e);
+            }
+        }
+        return emitter;
+    }
+
+    /**
+     * Long-poll: answers right away when a version newer than {@code sinceVersion} exists,
+     * otherwise parks until the next publish (or 304 on timeout).
+     */
+    public DeferredResult<ResponseEntity<String>> poll(String roomCode, long sinceVersion, Supplier<Frame> ensure) {
+        DeferredResult<ResponseEntity<String>> result =
+                new DeferredResult<>(POLL_TIMEOUT_MS, ResponseEntity.status(304).build());
+
+        Channel ch = channel(roomCode);
+        Frame f = ch.frame;
+        if (f == null) f = ensure.get();
+        if (f != null && f.version() > sinceVersion) {
+            result.setResult(ok(f));
+            return result;
+        }
+
+        Channel parked = watch(roomCode, c -> c.waiters.add(result));
+        Runnable drop = () -> {
+            parked.waiters.remove(result);
+            pruneIfUnwatched(parked);
+        };
+        result.onCompletion(drop);
+        result.onTimeout(drop);
+
+        // A publish may have slipped in between the check and the enqueue.
+        Frame latest = parked.frame;
+        if (latest != null && latest.version() > sinceVersion && parked.waiters.remove(result)) {
+            result.setResult(ok(latest));
+        }
+        return result;
+    }
+
+    /** Long-polls are answered here (setResult only hands off to the container); SSE writes go to the pool. */
+    private void fanOut(Channel ch, Frame f) {
+        if (!ch.waiters.isEmpty()) {
+            ResponseEntity<String> shared = ok(f);
+            DeferredResult<ResponseEntity<String>> w;
+            while ((w = ch.waiters.poll()) != null) w.setResult(shared);
+        }
+        if (ch.emitters.isEmpty()) return;
+        ch.outgoing.set(f);
+        if (!ch.sending.compareAndSet(false, true)) return; // the running task picks it up
+        try {
+            fanOutPool.execute(() -> drain(ch));
+        } catch (RejectedExecutionException e) {
+            ch.sending.set(false); // shutting down
+        }
+    }
+
+    private void drain(Channel ch) {
+        do {
+            Frame f;
+            while ((f = ch.outgoing.getAndSet(null)) != null) {
+                for (SseEmitter e : ch.emitters) {
+                    try {
+                        e.send(f.sseEvent());
+                    } catch (IOException | IllegalStateException ex) {
+                        ch.emitters.remove(e);
+                    }
+                }
+            }
+            ch.sending.set(false);
+            // a frame set after the last getAndSet but before the reset would otherwise wait for the next publish
+        } while (ch.outgoing.get() != null && ch.sending.compareAndSet(false, true));
+        pruneIfUnwatched(ch);
+    }
+
+    private static ResponseEntity<String> ok(Frame f) {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .header("X-Room-Version", Long.toString(f.version()))
+                .body(f.json());
+    }
+}
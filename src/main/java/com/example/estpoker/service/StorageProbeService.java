@@ -3,6 +3,7 @@ package com.example.estpoker.service;
 import com.example.estpoker.config.AppStorageProperties;
 import org.apache.commons.net.ftp.FTP;
 import org.apache.commons.net.ftp.FTPSClient;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import java.io.ByteArrayInputStream;
@@ -15,10 +16,10 @@ import java.util.function.Supplier;
 public class StorageProbeService {
 
   private final AppStorageProperties props;
-  private final Supplier<FTPSClient> ftpsSupplier;
+  private final Supplier<FTPSClient> ftpsSupplier; // may be null if mode != ftps
 
   public StorageProbeService(AppStorageProperties props,
-                             Supplier<FTPSClient> ftpsSupplier) {
+                             @Autowired(required = false) Supplier<FTPSClient> ftpsSupplier) {
     this.props = props;
     this.ftpsSupplier = ftpsSupplier;
   }
@@ -100,6 +101,9 @@ public class StorageProbeService {
       throw new IllegalStateException("password missing (check DF_FTP_PASS)");
     }
 
+    if (ftpsSupplier == null) {
+      throw new IllegalStateException("FTPS not active (app.storage.mode=" + props.getMode() + ")");
+    }
     FTPSClient c = ftpsSupplier.get();
     c.connect(cfg.getHost(), cfg.getPort());
 
@@ -0,0 +1,346 @@
+package com.example.estpoker.storage;
+
+import com.example.estpoker.config.AppStorageProperties;
+import org.apache.commons.net.ftp.FTP;
+import org.apache.commons.net.ftp.FTPSClient;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Bounded pool of logged-in FTPS control connections shared by the room store and file storage.
+ * A connect + AUTH TLS + login + PBSZ/PROT costs several round trips to the provider; a pooled
+ * connection only pays for the actual command (plus a NOOP when it sat idle).
+ * - Borrowing waits up to borrowTimeoutMs when all connections are in use
+ * - Validation on borrow (NOOP once idle longer than validateAfterIdleMs), keep-alive NOOPs for
+ *   idle connections, max idle time and max lifetime
+ * - An I/O error evicts the connection; work that failed on a reused connection is retried once
+ *   on a fresh one (every storage operation here is idempotent)
+ * - Callers must not leave the connection in another working directory (see {@link FtpsCall})
+ */
+public class FtpsConnectionPool implements AutoCloseable {
+
+  private static final Logger log = LoggerFactory.getLogger(FtpsConnectionPool.class);
+
+  /** Work on a borrowed connection; {@code home} is the directory it must be left in. */
+  @FunctionalInterface
+  public interface FtpsCall<T> {
+    T apply(FTPSClient client, String home) throws IOException;
+  }
+
+  private static final class Pooled {
+    final FTPSClient client;
+    final String home;
+    final long createdAt;
+    long lastUsed;
+    int uses;
+
+    Pooled(FTPSClient client, String home, long now) {
+      this.client = client;
+      this.home = home;
+      this.createdAt = now;
+      this.lastUsed = now;
+    }
+  }
+
+  private final Supplier<FTPSClient> clientSupplier;
+  private final AppStorageProperties.Ftps cfg;
+  private final AppStorageProperties.Pool pc;
+  private final Semaphore permits;
+  private final Deque<Pooled> idle = new ArrayDeque<>();  // most recently used first
+  private final ScheduledExecutorService keepAlive;
+  private volatile boolean closed = false;
+
+  // --- metrics ---
+  private final AtomicLong borrows = new AtomicLong();
+  private final AtomicLong created = new AtomicLong();
+  private final AtomicLong connectNanos = new AtomicLong();
+  private final AtomicLong reused = new AtomicLong();
+  private final AtomicLong validationFailures = new AtomicLong();
+  private final AtomicLong brokenEvicted = new AtomicLong();
+  private final AtomicLong expired = new AtomicLong();
+  private final AtomicLong retries = new AtomicLong();
+  private final AtomicLong timeouts = new AtomicLong();
+  private final AtomicLong waitNanos = new AtomicLong();
+  private final AtomicLong waitMaxNanos = new AtomicLong();
+  private final AtomicLong open = new AtomicLong();
+
+  public FtpsConnectionPool(Supplier<FTPSClient> clientSupplier, AppStorageProperties.Ftps cfg) {
+    this.clientSupplier = Objects.requireNonNull(clientSupplier, "clientSupplier");
+    this.cfg = Objects.requireNonNull(cfg, "cfg");
+    this.pc = (cfg.getPool() != null) ? cfg.getPool() : new AppStorageProperties.Pool();
+    this.permits = new Semaphore(Math.max(1, pc.getMaxSize()), true);
+    this.keepAlive = Executors.newSingleThreadScheduledExecutor(r -> {
+      Thread t = new Thread(r, "ftps-keepalive");
+      t.setDaemon(true);
+      return t;
+    });
+    if (pc.getKeepAliveMs() > 0) {
+      keepAlive.scheduleWithFixedDelay(this::maintainIdle, pc.getKeepAliveMs(), pc.getKeepAliveMs(), TimeUnit.MILLISECONDS);
+    }
+  }
+
+  // ========================================================================
+  //  API
+  // ========================================================================
+
+  /** Run {@code call} on a pooled connection; returns it afterwards unless it broke. */
+  public <T> T execute(FtpsCall<T> call) throws IOException {
+    Pooled p = borrow();
+    boolean wasReused = p.uses > 0;
+    try {
+      T result = call.apply(p.client, p.home);
+      giveBack(p);
+      return result;
+    } catch (IOException e) {
+      discard(p);
+      if (!wasReused || closed) throw e;
+      // A connection the server dropped while idle: one more try on a fresh login
+      retries.incrementAndGet();
+      log.debug("FTPS call failed on a reused connection ({}), retrying on a new one", e.toString());
+      Pooled fresh = borrowFresh();
+      try {
+        T result = call.apply(fresh.client, fresh.home);
+        giveBack(fresh);
+        return result;
+      } catch (IOException again) {
+        discard(fresh);
+        throw again;
+      } catch (RuntimeException again) {
+        giveBack(fresh);
+        throw again;
+      }
+    } catch (RuntimeException e) {
+      // Protocol-level failure (bad reply code); the connection itself is fine
+      giveBack(p);
+      throw e;
+    }
+  }
+
+  /** Pool counters (wait time, size, evictions) for diagnostics. */
+  public Map<String, Object> stats() {
+    long b = borrows.get();
+    long c = created.get();
+    Map<String, Object> out = new LinkedHashMap<>();
+    out.put("maxSize", Math.max(1, pc.getMaxSize()));
+    out.put("open", open.get());
+    synchronized (idle) { out.put("idle", idle.size()); }
+    out.put("inUse", Math.max(1, pc.getMaxSize()) - permits.availablePermits());
+    out.put("waiting", permits.getQueueLength());
+    out.put("borrows", b);
+    out.put("reused", reused.get());
+    out.put("created", c);
+    out.put("avgConnectMs", c == 0 ? 0.0 : round(connectNanos.get() / 1e6 / c));
+    out.put("avgWaitMs", b == 0 ? 0.0 : round(waitNanos.get() / 1e6 / b));
+    out.put("maxWaitMs", round(waitMaxNanos.get() / 1e6));
+    out.put("borrowTimeouts", timeouts.get());
+    out.put("validationFailures", validationFailures.get());
+    out.put("brokenEvicted", brokenEvicted.get());
+    out.put("expired", expired.get());
+    out.put("retries", retries.get());
+    return out;
+  }
+
+  @Override
+  public void close() {
+    closed = true;
+    keepAlive.shutdownNow();
+    List<Pooled> all;
+    synchronized (idle) {
+      all = new ArrayList<>(idle);
+      idle.clear();
+    }
+    for (Pooled p : all) disconnect(p, true);
+  }
+
+  // ========================================================================
+  //  Borrow / return
+  // ========================================================================
+
+  private Pooled borrow() throws IOException {
+    acquire();
+    try {
+      long now = System.currentTimeMillis();
+      Pooled p;
+      while ((p = pollIdle()) != null) {
+        if (expiredAt(p, now)) {
+          evict(p, expired);
+          continue;
+        }
+        if (now - p.lastUsed >= pc.getValidateAfterIdleMs() && !noop(p)) {
+          evict(p, validationFailures);
+          continue;
+        }
+        reused.incrementAndGet();
+        return p;
+      }
+      return connect();
+    } catch (IOException | RuntimeException e) {
+      permits.release();
+      throw e;
+    }
+  }
+
+  private Pooled borrowFresh() throws IOException {
+    acquire();
+    try {
+      return connect();
+    } catch (IOException | RuntimeException e) {
+      permits.release();
+      throw e;
+    }
+  }
+
+  private void acquire() throws IOException {
+    if (closed) throw new IOException("FTPS pool is closed");
+    long t0 = System.nanoTime();
+    boolean ok;
+    try {
+      ok = permits.tryAcquire(pc.getBorrowTimeoutMs(), TimeUnit.MILLISECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IOException("Interrupted while waiting for an FTPS connection", e);
+    }
+    long waited = System.nanoTime() - t0;
+    borrows.incrementAndGet();
+    waitNanos.addAndGet(waited);
+    waitMaxNanos.accumulateAndGet(waited, Math::max);
+    if (!ok) {
+      timeouts.incrementAndGet();
+      throw new IOException("No FTPS connection available within " + pc.getBorrowTimeoutMs() + " ms");
+    }
+  }
+
+  private void giveBack(Pooled p) {
+    p.lastUsed = System.currentTimeMillis();
+    p.uses++;
+    if (!p.client.isConnected()) {
+      evict(p, brokenEvicted);
+    } else if (closed || expiredAt(p, p.lastUsed)) {
+      evict(p, expired);
+    } else {
+      synchronized (idle) { idle.push(p); }
+    }
+    permits.release();
+  }
+
+  /** Borrowed connection that broke: close it and free its slot. */
+  private void discard(Pooled p) {
+    evict(p, brokenEvicted);
+    permits.release();
+  }
+
+  private void evict(Pooled p, AtomicLong reason) {
+    reason.incrementAndGet();
+    // A broken or unresponsive connection gets no QUIT (it would wait for the socket timeout)
+    disconnect(p, reason == expired);
+  }
+
+  private Pooled pollIdle() {
+    synchronized (idle) { return idle.poll(); }
+  }
+
+  private boolean expiredAt(Pooled p, long now) {
+    return pc.getMaxLifetimeMs() > 0 && now - p.createdAt >= pc.getMaxLifetimeMs();
+  }
+
+  // ========================================================================
+  //  Keep-alive (idle connections only; never more than maxSize in use)
+  // ========================================================================
+
+  private void maintainIdle() {
+    List<Pooled> snapshot;
+    synchronized (idle) { snapshot = new ArrayList<>(idle); }
+    for (Pooled p : snapshot) {
+      if (closed || !permits.tryAcquire()) return;
+      try {
+        synchronized (idle) {
+          if (!idle.remove(p)) continue; // borrowed meanwhile
+        }
+        long now = System.currentTimeMillis();
+        if (expiredAt(p, now)) {
+          evict(p, expired);
+        } else if (pc.getMaxIdleMs() > 0 && now - p.lastUsed >= pc.getMaxIdleMs()) {
+          evict(p, expired);
+        } else if (now - p.lastUsed >= pc.getKeepAliveMs() && !noop(p)) {
+          evict(p, validationFailures);
+        } else {
+          synchronized (idle) { idle.addLast(p); } // pinged, not used: keep it behind fresher ones
+        }
+      } finally {
+        permits.release();
+      }
+    }
+  }
+
+  // ========================================================================
+  //  Connections
+  // ========================================================================
+
+  /** Connects, logs in, protects the data channel, passive + binary. */
+  private Pooled connect() throws IOException {
+    long t0 = System.nanoTime();
+    FTPSClient c = clientSupplier.get();
+    try {
+      if (cfg.getSoTimeoutMs() != null) c.setConnectTimeout(cfg.getSoTimeoutMs());
+      if (cfg.getDataTimeoutMs() != null) c.setDataTimeout(Duration.ofMillis(cfg.getDataTimeoutMs()));
+      c.connect(cfg.getHost(), cfg.getPort());
+      if (cfg.getSoTimeoutMs() != null) c.setSoTimeout(cfg.getSoTimeoutMs());
+      if (!c.login(cfg.getUser(), cfg.getPass())) {
+        throw new IOException("FTPS login failed for user " + cfg.getUser() + ": " + c.getReplyCode());
+      }
+      // Protect data channel (TLS on data connection as well).
+      c.execPBSZ(0);
+      c.execPROT("P");
+      if (cfg.isPassive()) c.enterLocalPassiveMode();
+      c.setFileType(FTP.BINARY_FILE_TYPE);
+      String home = c.printWorkingDirectory();
+      Pooled p = new Pooled(c, (home == null || home.isBlank()) ? "/" : home, System.currentTimeMillis());
+      created.incrementAndGet();
+      open.incrementAndGet();
+      connectNanos.addAndGet(System.nanoTime() - t0);
+      return p;
+    } catch (IOException | RuntimeException e) {
+      quietClose(c, false);
+      throw e;
+    }
+  }
+
+  private static boolean noop(Pooled p) {
+    try {
+      return p.client.sendNoOp();
+    } catch (IOException e) {
+      return false;
+    }
+  }
+
+  private void disconnect(Pooled p, boolean logout) {
+    open.decrementAndGet();
+    quietClose(p.client, logout);
+  }
+
+  private static void quietClose(FTPSClient c, boolean logout) {
+    if (c == null) return;
+    try { if (logout && c.isConnected()) c.logout(); } catch (IOException ignore) {}
+    try { if (c.isConnected()) c.disconnect(); } catch (IOException ignore) {}
+  }
+
+  private static double round(double v) {
+    return Math.round(v * 100.0) / 100.0;
+  }
+}
@@ -1,7 +1,6 @@
 package com.example.estpoker.storage;
 
 import com.example.estpoker.config.AppStorageProperties;
-import org.apache.commons.net.ftp.FTP;
 import org.apache.commons.net.ftp.FTPFile;
 import org.apache.commons.net.ftp.FTPSClient;
 
@@ -11,21 +10,22 @@ import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
-import java.util.function.Supplier;
-
-import java.nio.charset.StandardCharsets;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
- * Short-lived FTPS operations: connect -> login -> do work -> logout/disconnect.
- * This is resilient on platforms where idle sockets are killed (mobile sleep, PaaS).
+ * FTPS operations on pooled, logged-in connections (see {@link FtpsConnectionPool}).
+ * Paths are absolute under the base directory, so no per-call CWD is needed; a connection the
+ * server killed while idle is detected on borrow and replaced.
  */
 public class FtpsFileStorage implements FileStorage {
 
-  private final Supplier<FTPSClient> clientSupplier;
+  private final FtpsConnectionPool pool;
   private final AppStorageProperties.Ftps cfg;
+  private final Set<String> knownDirs = ConcurrentHashMap.newKeySet();
 
-  public FtpsFileStorage(Supplier<FTPSClient> clientSupplier, AppStorageProperties.Ftps cfg) {
-    this.clientSupplier = Objects.requireNonNull(clientSupplier);
+  public FtpsFileStorage(FtpsConnectionPool pool, AppStorageProperties.Ftps cfg) {
+    this.pool = Objects.requireNonNull(pool);
     this.cfg = Objects.requireNonNull(cfg);
   }
 
@@ -52,129 +52,81 @@ public class FtpsFileStorage implements FileStorage {
     return sb.toString();
   }
 
-  /** Connects, logs in, enters passive mode, switches to binary + secure data channel. */
-  private FTPSClient open() throws IOException {
-    FTPSClient c = clientSupplier.get();
-    try {
-      c.connect(cfg.getHost(), cfg.getPort());
-      if (!c.login(cfg.getUser(), cfg.getPass())) {
-        throw new IOException("FTPS login failed for user " + cfg.getUser());
-      }
-
-      // Always use passive; works behind NAT/reverse proxies.
-      c.enterLocalPassiveMode();
-
-      // Protect data channel (TLS on data connection as well).
-      c.execPBSZ(0);
-      c.execPROT("P");
-
-      // Use binary for JSON/blobs.
-      c.setFileType(FTP.BINARY_FILE_TYPE);
-
-      // Ensure UTF-8 listing/paths if enabled.
-      if (cfg.isUseUtf8()) {
-       c.setControlEncoding(StandardCharsets.UTF_8.name());
-      }
-
-      // Change into base directory if configured.
-      String b = base();
-      if (!b.isEmpty()) {
-        // create the base directory chain if missing
-        ensureDirs(c, b);
-        if (!c.changeWorkingDirectory("/" + b)) {
-          throw new IOException("changeWorkingDirectory failed for base: " + b);
-        }
-      }
-
-      return c;
-    } catch (IOException e) {
-      safeClose(c);
-      throw e;
-    }
-  }
-
-  private static void safeClose(FTPSClient c) {
-    if (c == null) return;
-    try { if (c.isConnected()) { c.logout(); c.disconnect(); } } catch (IOException ignore) {}
+  /** Absolute remote path for a path relative to base(). */
+  private String abs(String remotePath) {
+    return "/" + join(base(), remotePath);
   }
 
-  private static void ensureDirs(FTPSClient c, String path) throws IOException {
+  /**
+   * Creates missing directories of {@code path} (relative to the root) and returns to {@code home}.
+   * Directories seen once are remembered, so steady-state writes do not walk the chain again.
+   */
+  private void ensureDirs(FTPSClient c, String home, String path) throws IOException {
     // path like "data/rooms/a/b"
     String[] parts = path.replace('\\','/').split("/");
     String cur = "";
-    for (String p : parts) {
-      if (p == null || p.isBlank()) continue;
-      cur = cur.isEmpty() ? p : (cur + "/" + p);
-      // Try to cd; if fail, try to create then cd.
-      if (!c.changeWorkingDirectory("/" + cur)) {
-        if (!c.makeDirectory("/" + cur)) {
-          // Allow concurrent "already exists".
-          // Try to cd again right after.
-        }
+    boolean moved = false;
+    try {
+      for (String p : parts) {
+        if (p == null || p.isBlank()) continue;
+        cur = cur.isEmpty() ? p : (cur + "/" + p);
+        if (knownDirs.contains(cur)) continue;
+        // Try to cd; if fail, try to create then cd.
+        moved = true;
         if (!c.changeWorkingDirectory("/" + cur)) {
-          throw new IOException("Cannot create or enter directory: " + cur);
+          if (!c.makeDirectory("/" + cur)) {
+            // Allow concurrent "already exists".
+            // Try to cd again right after.
+          }
+          if (!c.changeWorkingDirectory("/" + cur)) {
+            throw new IOException("Cannot create or enter directory: " + cur);
+          }
         }
+        knownDirs.add(cur);
       }
+    } finally {
+      // Pooled connection: leave it where the next caller expects it
+      if (moved) c.changeWorkingDirectory(home);
     }
   }
 
   @Override
   public void putBytes(String remotePath, byte[] bytes) throws IOException {
     Objects.requireNonNull(remotePath, "remotePath");
-    if (bytes == null) bytes = new byte[0];
+    final byte[] data = (bytes == null) ? new byte[0] : bytes;
 
-    FTPSClient c = open();
-    try {
-      ensureParentDirs(remotePath, c);
-      try (var in = new ByteArrayInputStream(bytes)) {
-        if (!c.storeFile(remotePath, in)) {
+    pool.execute((c, home) -> {
+      ensureParentDirs(remotePath, c, home);
+      try (var in = new ByteArrayInputStream(data)) {
+        if (!c.storeFile(abs(remotePath), in)) {
           throw new IOException("storeFile failed for " + remotePath + " - reply: " + c.getReplyString());
         }
       }
-    } finally {
-      safeClose(c);
-    }
+      return null;
+    });
   }
 
   @Override
   public byte[] getBytes(String remotePath) throws IOException {
     Objects.requireNonNull(remotePath, "remotePath");
-    FTPSClient c = open();
-    try (var out = new ByteArrayOutputStream(4096)) {
-      var is = c.retrieveFileStream(remotePath);
-      if (is == null) {
-        // Either not found or another reply; try to drain reply.
-        c.completePendingCommand();
-        return null;
-      }
-      is.transferTo(out);
-      is.close();
-      if (!c.completePendingCommand()) {
-        throw new IOException("retrieveFileStream completePendingCommand failed for " + remotePath);
-      }
-      return out.toByteArray();
-    } finally {
-      safeClose(c);
-    }
+    return pool.execute((c, home) -> {
+      var out = new ByteArrayOutputStream(4096);
+      // Not found (or another negative reply) -> null; the connection stays usable
+      return c.retrieveFile(abs(remotePath), out) ? out.toByteArray() : null;
+    });
   }
 
   @Override
   public boolean delete(String remotePath) throws IOException {
     Objects.requireNonNull(remotePath, "remotePath");
-    FTPSClient c = open();
-    try {
-      return c.deleteFile(remotePath);
-    } finally {
-      safeClose(c);
-    }
+    return pool.execute((c, home) -> c.deleteFile(abs(remotePath)));
   }
 
   @Override
   public List<String> list(String dirPath) throws IOException {
-    String d = (dirPath == null || dirPath.isBlank()) ? "." : dirPath;
-    FTPSClient c = open();
-    try {
-      FTPFile[] files = c.listFiles(d);
+    String d = (dirPath == null || dirPath.isBlank() || ".".equals(dirPath)) ? "" : dirPath;
+    return pool.execute((c, home) -> {
+      FTPFile[] files = c.listFiles(abs(d));
       List<String> out = new ArrayList<>();
       if (files != null) {
         for (FTPFile f : files) {
@@ -183,28 +135,24 @@ public class FtpsFileStorage implements FileStorage {
         }
       }
       return out;
-    } finally {
-      safeClose(c);
-    }
+    });
   }
 
   @Override
   public void ensureParentDirs(String remotePath) throws IOException {
-    FTPSClient c = open();
-    try {
-      ensureParentDirs(remotePath, c);
-    } finally {
-      safeClose(c);
-    }
+    pool.execute((c, home) -> {
+      ensureParentDirs(remotePath, c, home);
+      return null;
+    });
   }
 
-  private void ensureParentDirs(String remotePath, FTPSClient c) throws IOException {
+  private void ensureParentDirs(String remotePath, FTPSClient c, String home) throws IOException {
     String norm = remotePath.replace('\\','/');
     int idx = norm.lastIndexOf('/');
-    if (idx < 0) return;
-    String parent = norm.substring(0, idx);
-    if (parent.isBlank()) return;
-    // parent is relative to base(); we are already cd'ed into base().
-    ensureDirs(c, join(base(), parent));
+    String parent = (idx < 0) ? "" : norm.substring(0, idx);
+    // parent is relative to base(); base itself has to exist as well
+    String dirs = join(base(), parent);
+    if (dirs.isEmpty()) return;
+    ensureDirs(c, home, dirs);
   }
 }
@@ -0,0 +1,250 @@
+package com.example.estpoker.storage;
+
+import com.example.estpoker.config.AppStorageProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * FileStorage on the local disk, for dev and self-hosted setups without an FTPS server.
+ * - Writes go to a temp file in the target directory and are renamed over the target
+ *   (atomic: readers see the old or the new file, never a torn one)
+ * - Durability per {@link Fsync}: ALWAYS fsyncs file and directory before returning, BATCHED
+ *   fsyncs the file before the rename and the directories written in the last interval from a
+ *   background thread (a crash may roll a file of that interval back to its previous version,
+ *   never leave it empty or torn), NEVER leaves it to the OS
+ * - Reads use NIO; files of at least mmapThresholdBytes are read memory-mapped (safe, since a
+ *   file is never modified in place)
+ * Paths are relative to the root directory and may not escape it.
+ */
+public class LocalFileStorage implements FileStorage, AutoCloseable {
+
+  private static final Logger log = LoggerFactory.getLogger(LocalFileStorage.class);
+
+  private static final String TMP_SUFFIX = ".tmp";
+
+  public enum Fsync {
+    ALWAYS, BATCHED, NEVER;
+
+    static Fsync parse(String s) {
+      if (s == null || s.isBlank()) return BATCHED;
+      try {
+        return valueOf(s.trim().toUpperCase(Locale.ROOT));
+      } catch (IllegalArgumentException e) {
+        throw new IllegalArgumentException("app.storage.local.fsync must be always, batched or never: " + s);
+      }
+    }
+  }
+
+  private final Path root;
+  private final Fsync fsync;
+  private final int mmapThresholdBytes;
+  private final Set<Path> knownDirs = ConcurrentHashMap.newKeySet();
+
+  // BATCHED: directories with renames since the last sync (the files themselves are fsynced on write)
+  private final Set<Path> dirtyDirs = ConcurrentHashMap.newKeySet();
+  private final ScheduledExecutorService syncer;
+
+  private final AtomicLong writes = new AtomicLong();
+  private final AtomicLong reads = new AtomicLong();
+  private final AtomicLong mappedReads = new AtomicLong();
+  private final AtomicLong fsyncs = new AtomicLong();
+  private final AtomicLong batches = new AtomicLong();
+
+  public LocalFileStorage(AppStorageProperties.Local cfg) throws IOException {
+    this(Paths.get(cfg.getDir()), Fsync.parse(cfg.getFsync()), cfg.getFsyncIntervalMs(), cfg.getMmapThresholdBytes());
+  }
+
+  public LocalFileStorage(Path root, Fsync fsync, long fsyncIntervalMs, int mmapThresholdBytes) throws IOException {
+    this.root = Files.createDirectories(root).toAbsolutePath().normalize();
+    this.fsync = Objects.requireNonNull(fsync, "fsync");
+    this.mmapThresholdBytes = Math.max(1, mmapThresholdBytes);
+    if (fsync == Fsync.BATCHED) {
+      long every = Math.max(10L, fsyncIntervalMs);
+      this.syncer = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "local-storage-fsync");
+        t.setDaemon(true);
+        return t;
+      });
+      syncer.scheduleWithFixedDelay(this::syncQuietly, every, every, TimeUnit.MILLISECONDS);
+    } else {
+      this.syncer = null;
+    }
+    log.info("LocalFileStorage at {} (fsync={}, mmapThresholdBytes={})", this.root, fsync, this.mmapThresholdBytes);
+  }
+
+  // === FileStorage =========================================================
+
+  @Override
+  public void putBytes(String remotePath, byte[] bytes) throws IOException {
+    Path target = resolve(remotePath);
+    Path dir = target.getParent();
+    ensureDir(dir);
+
+    Path tmp = Files.createTempFile(dir, "." + target.getFileName(), TMP_SUFFIX);
+    try {
+      try (FileChannel ch = FileChannel.open(tmp, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+        ByteBuffer buf = ByteBuffer.wrap(bytes);
+        while (buf.hasRemaining()) ch.write(buf);
+        if (fsync != Fsync.NEVER) force(ch); // the rename must not point at data not yet on disk
+      }
+      move(tmp, target);
+    } finally {
+      Files.deleteIfExists(tmp); // only left over when the write or rename failed
+    }
+    writes.incrementAndGet();
+
+    switch (fsync) {
+      case ALWAYS -> syncDir(dir);
+      case BATCHED -> dirtyDirs.add(dir);
+      case NEVER -> { }
+    }
+  }
+
+  @Override
+  public byte[] getBytes(String remotePath) throws IOException {
+    Path p = resolve(remotePath);
+    try (FileChannel ch = FileChannel.open(p, StandardOpenOption.READ)) {
+      long size = ch.size();
+      if (size > Integer.MAX_VALUE - 8) throw new IOException("File too large: " + remotePath);
+      byte[] out = new byte[(int) size];
+      reads.incrementAndGet();
+      if (size >= mmapThresholdBytes) {
+        mappedReads.incrementAndGet();
+        MappedByteBuffer map = ch.map(FileChannel.MapMode.READ_ONLY, 0, size);
+        map.get(out);
+      } else {
+        ByteBuffer buf = ByteBuffer.wrap(out);
+        while (buf.hasRemaining()) {
+          if (ch.read(buf) < 0) return Arrays.copyOf(out, buf.position());
+        }
+      }
+      return out;
+    } catch (NoSuchFileException e) {
+      return null;
+    }
+  }
+
+  @Override
+  public boolean delete(String remotePath) throws IOException {
+    Path p = resolve(remotePath);
+    boolean existed = Files.deleteIfExists(p);
+    if (existed) {
+      if (fsync == Fsync.ALWAYS) syncDir(p.getParent());
+      else if (fsync == Fsync.BATCHED) dirtyDirs.add(p.getParent());
+    }
+    return existed;
+  }
+
+  @Override
+  public List<String> list(String dirPath) throws IOException {
+    Path dir = resolve(dirPath);
+    if (!Files.isDirectory(dir)) return List.of();
+    List<String> out = new ArrayList<>();
+    try (Stream<Path> s = Files.list(dir)) {
+      s.filter(Files::isRegularFile)
+          .map(f -> f.getFileName().toString())
+          .filter(n -> !(n.startsWith(".") && n.endsWith(TMP_SUFFIX)))
+          .forEach(out::add);
+    }
+    return out;
+  }
+
+  @Override
+  public void ensureParentDirs(String remotePath) throws IOException {
+    ensureDir(resolve(remotePath).getParent());
+  }
+
+  // === durability ============================================================
+
+  /** Fsync the directories written since the last batch (no-op unless fsync=batched). */
+  public void sync() {
+    for (Iterator<Path> it = dirtyDirs.iterator(); it.hasNext(); ) {
+      Path d = it.next();
+      it.remove();
+      syncDir(d);
+    }
+    batches.incrementAndGet();
+  }
+
+  private void syncQuietly() {
+    if (!dirtyDirs.isEmpty()) sync();
+  }
+
+  /** Pending writes reach the disk before the app stops. */
+  @Override
+  public void close() {
+    if (syncer != null) syncer.shutdownNow();
+    syncQuietly();
+  }
+
+  public Map<String, Object> stats() {
+    Map<String, Object> out = new LinkedHashMap<>();
+    out.put("root", root.toString());
+    out.put("fsync", fsync.name().toLowerCase(Locale.ROOT));
+    out.put("writes", writes.get());
+    out.put("reads", reads.get());
+    out.put("mappedReads", mappedReads.get());
+    out.put("fsyncs", fsyncs.get());
+    out.put("batches", batches.get());
+    out.put("unsyncedDirs", dirtyDirs.size());
+    return out;
+  }
+
+  // === intern ===============================================================
+
+  /** Path under the root; rejects anything that would leave it. */
+  private Path resolve(String remotePath) throws IOException {
+    String rel = (remotePath == null) ? "" : remotePath.replace('\\', '/');
+    while (rel.startsWith("/")) rel = rel.substring(1);
+    Path p = root.resolve(rel).normalize();
+    if (!p.startsWith(root)) throw new IOException("Path escapes storage root: " + remotePath);
+    return p;
+  }
+
+  private void ensureDir(Path dir) throws IOException {
+    if (dir == null || knownDirs.contains(dir)) return;
+    if (!Files.isDirectory(dir)) {
+      Files.createDirectories(dir);
+      // a new directory entry is only durable once its parent is synced
+      if (fsync == Fsync.ALWAYS) syncDir(dir.getParent());
+      else if (fsync == Fsync.BATCHED) dirtyDirs.add(dir.getParent());
+    }
+    knownDirs.add(dir);
+  }
+
+  private static void move(Path tmp, Path target) throws IOException {
+    try {
+      Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    } catch (AtomicMoveNotSupportedException e) {
+      Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING);
+    }
+  }
+
+  private void force(FileChannel ch) throws IOException {
+    ch.force(true);
+    fsyncs.incrementAndGet();
+  }
+
+  private void syncDir(Path dir) {
+    if (dir == null) return;
+    try (FileChannel ch = FileChannel.open(dir, StandardOpenOption.READ)) {
+      force(ch);
+    } catch (IOException e) {
+      // not supported everywhere (e.g. Windows); the rename is still atomic
+      log.debug("Directory fsync skipped for {}: {}", dir, e.toString());
+    }
+  }
+}
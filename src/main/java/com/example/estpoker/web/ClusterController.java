@@ -0,0 +1,53 @@
+package com.example.estpoker.web;
+
+import com.example.estpoker.cluster.RoomEventBus;
+import com.example.estpoker.cluster.RoomOwnership;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@RestController
+public class ClusterController {
+
+  private final ObjectProvider<RoomEventBus> bus;
+  private final ObjectProvider<RoomOwnership> ownership;
+
+  public ClusterController(ObjectProvider<RoomEventBus> bus, ObjectProvider<RoomOwnership> ownership) {
+    this.bus = bus;
+    this.ownership = ownership;
+  }
+
+  // --- node id + cross-node latency (received events) ------------------------
+  @GetMapping("/api/cluster/stats")
+  public Map<String, Object> stats() {
+    RoomEventBus b = bus.getIfAvailable();
+    Map<String, Object> out = new LinkedHashMap<>();
+    out.put("enabled", b != null);
+    if (b != null) {
+      out.put("nodeId", b.nodeId());
+      out.put("latency", b.latency().toMap());
+    }
+    RoomOwnership o = ownership.getIfAvailable();
+    if (o != null) {
+      out.put("ring", o.ring().nodes());
+      out.put("members", o.members());
+    }
+    return out;
+  }
+
+  // --- which node owns a room (for scripts / debugging) ---------------------
+  @GetMapping("/api/cluster/owner")
+  public Map<String, Object> owner(@RequestParam("roomCode") String roomCode) {
+    RoomOwnership o = ownership.getIfAvailable();
+    Map<String, Object> out = new LinkedHashMap<>();
+    out.put("roomCode", roomCode);
+    out.put("owner", o == null ? null : o.ownerOf(roomCode));
+    out.put("local", o == null || o.isLocal(roomCode));
+    out.put("ownerUrl", o == null ? null : o.ownerBaseUrl(roomCode));
+    return out;
+  }
+}
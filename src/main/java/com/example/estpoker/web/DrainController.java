@@ -0,0 +1,42 @@
+package com.example.estpoker.web;
+
+import com.example.estpoker.service.DrainService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.Map;
+
+/**
+ * HTTP trigger for the drain, for deploy hooks that cannot send SIGTERM first.
+ * Only registered when {@code app.drain.token} is set; callers send it as {@code X-Drain-Token}.
+ */
+@RestController
+@ConditionalOnProperty(name = "app.drain.token")
+public class DrainController {
+
+  private final DrainService drain;
+  private final byte[] token;
+
+  public DrainController(DrainService drain, @Value("${app.drain.token}") String token) {
+    this.drain = drain;
+    this.token = token.getBytes(StandardCharsets.UTF_8);
+  }
+
+  // --- pre-stop hook for deploys: same as the drain that runs on SIGTERM ---
+  @PostMapping("/api/admin/drain")
+  public ResponseEntity<Map<String, Object>> drain(
+      @RequestHeader(value = "X-Drain-Token", required = false) String given) {
+    if (token.length == 0 || given == null
+        || !MessageDigest.isEqual(token, given.getBytes(StandardCharsets.UTF_8))) {
+      return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+    }
+    return ResponseEntity.ok(drain.drain());
+  }
+}
@@ -0,0 +1,23 @@
+package com.example.estpoker.web;
+
+import com.example.estpoker.service.RoomHibernator;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+@RestController
+public class RoomMemoryController {
+
+  private final RoomHibernator hibernator;
+
+  public RoomMemoryController(RoomHibernator hibernator) {
+    this.hibernator = hibernator;
+  }
+
+  // --- live vs hibernated rooms (idle-room reaper) ---
+  @GetMapping("/api/rooms-memory")
+  public Map<String, Object> stats() {
+    return hibernator.stats();
+  }
+}
@@ -0,0 +1,58 @@
+package com.example.estpoker.web;
+
+import com.example.estpoker.cluster.StandbyReceiver;
+import com.example.estpoker.cluster.StandbySender;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@RestController
+public class StandbyController {
+
+  private final ObjectProvider<StandbySender> sender;
+  private final ObjectProvider<StandbyReceiver> receiver;
+
+  public StandbyController(ObjectProvider<StandbySender> sender, ObjectProvider<StandbyReceiver> receiver) {
+    this.sender = sender;
+    this.receiver = receiver;
+  }
+
+  // --- role + stream counters; on a promoted standby also the measured failover window ---
+  @GetMapping("/api/standby/status")
+  public Map<String, Object> status() {
+    Map<String, Object> out = new LinkedHashMap<>();
+    StandbySender s = sender.getIfAvailable();
+    StandbyReceiver r = receiver.getIfAvailable();
+    if (s != null) {
+      out.put("role", "primary");
+      out.put("connected", s.isConnected());
+      out.put("framesSent", s.framesSent());
+      out.put("roomsSent", s.roomsSent());
+      out.put("bytesSent", s.bytesSent());
+      out.put("pending", s.pending());
+    } else if (r != null) {
+      out.put("role", r.isPromoted() ? "promoted" : "standby");
+      out.putAll(r.stats());
+    } else {
+      out.put("role", "off");
+    }
+    return out;
+  }
+
+  // --- manual promotion (planned switchover or when auto failover is disabled) ---
+  @PostMapping("/api/standby/promote")
+  public ResponseEntity<Map<String, Object>> promote() {
+    StandbyReceiver r = receiver.getIfAvailable();
+    if (r == null) return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("error", "not a standby"));
+    boolean changed = r.promote("manual");
+    Map<String, Object> out = new LinkedHashMap<>(r.stats());
+    out.put("changed", changed);
+    return ResponseEntity.ok(out);
+  }
+}
@@ -1,8 +1,17 @@
 package com.example.estpoker.web;
 
 import com.example.estpoker.config.AppStorageProperties;
+import com.example.estpoker.rooms.repo.BloomRoomStore;
+import com.example.estpoker.rooms.repo.CachingRoomStore;
+import com.example.estpoker.rooms.repo.TieredRoomStore;
+import com.example.estpoker.rooms.service.RoomJournal;
+import com.example.estpoker.rooms.service.RoomSnapshotter;
+import com.example.estpoker.rooms.service.StoredRoomPersistenceService;
 import com.example.estpoker.service.StorageDiagnosticsService;
 import com.example.estpoker.service.StorageProbeService;
+import com.example.estpoker.storage.FtpsConnectionPool;
+import com.example.estpoker.storage.LocalFileStorage;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.web.bind.annotation.*;
 
 import java.nio.charset.StandardCharsets;
@@ -15,13 +24,37 @@ public class StorageController {
   private final StorageDiagnosticsService diag;
   private final StorageProbeService probe;
   private final AppStorageProperties props;
+  private final ObjectProvider<FtpsConnectionPool> pool;
+  private final ObjectProvider<RoomSnapshotter> snapshotter;
+  private final ObjectProvider<CachingRoomStore> roomCache;
+  private final ObjectProvider<LocalFileStorage> local;
+  private final ObjectProvider<RoomJournal> journal;
+  private final ObjectProvider<StoredRoomPersistenceService> rooms;
+  private final ObjectProvider<TieredRoomStore> tier;
+  private final ObjectProvider<BloomRoomStore> bloom;
 
   public StorageController(StorageDiagnosticsService diag,
                            StorageProbeService probe,
-                           AppStorageProperties props) {
+                           AppStorageProperties props,
+                           ObjectProvider<FtpsConnectionPool> pool,
+                           ObjectProvider<RoomSnapshotter> snapshotter,
+                           ObjectProvider<CachingRoomStore> roomCache,
+                           ObjectProvider<LocalFileStorage> local,
+                           ObjectProvider<RoomJournal> journal,
+                           ObjectProvider<StoredRoomPersistenceService> rooms,
+                           ObjectProvider<TieredRoomStore> tier,
+                           ObjectProvider<BloomRoomStore> bloom) {
     this.diag = diag;
     this.probe = probe;
     this.props = props;
+    this.pool = pool;
+    this.snapshotter = snapshotter;
+    this.roomCache = roomCache;
+    this.local = local;
+    this.journal = journal;
+    this.rooms = rooms;
+    this.tier = tier;
+    this.bloom = bloom;
   }
 
   // --- health (null-safe) ---------------------------------------------------
@@ -37,6 +70,86 @@ public class StorageController {
     return out;
   }
 
+  // --- connection pool: size, wait time, evictions ---------------------------
+  @GetMapping("/api/storage/pool")
+  public Map<String, Object> pool() {
+    FtpsConnectionPool p = pool.getIfAvailable();
+    Map<String, Object> out = new LinkedHashMap<>();
+    out.put("enabled", p != null);
+    if (p != null) out.putAll(p.stats());
+    return out;
+  }
+
+  // --- snapshot write-behind: lag, retries, drops ------------------------------
+  @GetMapping("/api/storage/snapshots")
+  public Map<String, Object> snapshots() {
+    RoomSnapshotter s = snapshotter.getIfAvailable();
+    Map<String, Object> out = new LinkedHashMap<>();
+    out.put("enabled", s != null);
+    if (s != null) out.putAll(s.stats());
+    return out;
+  }
+
+  // --- room store cache: hit ratio, load latency --------------------------------
+  @GetMapping("/api/storage/room-cache")
+  public Map<String, Object> roomCache() {
+    CachingRoomStore c = roomCache.getIfAvailable();
+    Map<String, Object> out = new LinkedHashMap<>();
+    out.put("enabled", c != null);
+    if (c != null) out.putAll(c.stats());
+    return out;
+  }
+
+  // --- local disk: writes, mapped reads, fsyncs ---------------------------------
+  @GetMapping("/api/storage/local")
+  public Map<String, Object> local() {
+    LocalFileStorage l = local.getIfAvailable();
+    Map<String, Object> out = new LinkedHashMap<>();
+    out.put("enabled", l != null);
+    if (l != null) out.putAll(l.stats());
+    return out;
+  }
+
+  // --- change journal: group commit, compaction, replay -------------------------
+  @GetMapping("/api/storage/journal")
+  public Map<String, Object> journal() {
+    RoomJournal j = journal.getIfAvailable();
+    Map<String, Object> out = new LinkedHashMap<>();
+    out.put("enabled", j != null);
+    if (j != null) out.putAll(j.stats());
+    return out;
+  }
+
+  // --- stored-room versions: blind snapshot writes vs. reloads ---------------
+  @GetMapping("/api/storage/room-versions")
+  public Map<String, Object> roomVersions() {
+    StoredRoomPersistenceService r = rooms.getIfAvailable();
+    Map<String, Object> out = new LinkedHashMap<>();
+    out.put("enabled", r != null);
+    if (r != null) out.putAll(r.stats());
+    return out;
+  }
+
+  // --- tiered store: local hits, outbox lag, reconciliation ------------------
+  @GetMapping("/api/storage/tier")
+  public Map<String, Object> tier() {
+    TieredRoomStore t = tier.getIfAvailable();
+    Map<String, Object> out = new LinkedHashMap<>();
+    out.put("enabled", t != null);
+    if (t != null) out.putAll(t.stats());
+    return out;
+  }
+
+  // --- room bloom filter: lookups answered without the store ------------------
+  @GetMapping("/api/storage/room-bloom")
+  public Map<String, Object> roomBloom() {
+    BloomRoomStore b = bloom.getIfAvailable();
+    Map<String, Object> out = new LinkedHashMap<>();
+    out.put("enabled", b != null);
+    if (b != null) out.putAll(b.stats());
+    return out;
+  }
+
   // --- probe: write ----------------------------------------------------------
   @PostMapping("/api/storage/probe/write")
   public Map<String, Object> probeWrite(
@@ -0,0 +1,31 @@
+package com.example.estpoker.web;
+
+import com.example.estpoker.handler.JitWarmup;
+import com.example.estpoker.service.ReadinessGate;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@RestController
+public class WarmupController {
+
+  private final JitWarmup warmup;
+  private final ReadinessGate gate;
+
+  public WarmupController(JitWarmup warmup, ReadinessGate gate) {
+    this.warmup = warmup;
+    this.gate = gate;
+  }
+
+  // --- warmup report (cold vs warm latencies) + what still holds readiness ---
+  @GetMapping("/api/warmup")
+  public Map<String, Object> warmup() {
+    Map<String, Object> out = new LinkedHashMap<>();
+    out.put("readiness", gate.state());
+    out.put("pending", gate.pending());
+    out.put("warmup", warmup.report());
+    return out;
+  }
+}
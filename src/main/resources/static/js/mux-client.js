@@ -0,0 +1,103 @@
+/* mux-client.js v1.0 — several rooms over one /gameSocket/mux connection
+   Usage:
+     const mux = EpMux.connect();
+     const ch  = mux.subscribe({ roomCode, cid, name }, function (frame) { ... });
+     ch.send('vote:' + name + ':5');   // any regular /gameSocket command
+     ch.close();                       // leave this room only
+
+   Responsibilities:
+   - One heartbeat per connection (server refreshes presence in all subscribed rooms)
+   - Route "<ch>|<frame>" to the channel's callback (JSON frames are parsed)
+   - Re-subscribe every open channel after a reconnect
+*/
+
+(() => {
+  'use strict';
+  if (window.EpMux) return; // guard against double load
+
+  const HEARTBEAT_MS = 15000;
+  const RECONNECT_MAX_MS = 15000;
+
+  function wsUrl() {
+    const proto = location.protocol === 'https:' ? 'wss:' : 'ws:';
+    return proto + '//' + location.host + '/gameSocket/mux';
+  }
+
+  function parse(frame) {
+    if (frame && frame.charAt(0) === '{') {
+      try { return JSON.parse(frame); } catch { /* plain text frame */ }
+    }
+    return frame;
+  }
+
+  function connect() {
+    const channels = new Map(); // id -> { spec, onFrame }
+    let ws = null;
+    let hb = null;
+    let nextId = 1;
+    let backoff = 500;
+    let stopped = false;
+
+    function raw(line) { if (ws && ws.readyState === 1) ws.send(line); }
+
+    function subLine(id, spec) {
+      return 'sub:' + id + ':' + encodeURIComponent(spec.roomCode) + ':' +
+        encodeURIComponent(spec.cid) + ':' + encodeURIComponent(spec.name || 'Guest');
+    }
+
+    function open() {
+      ws = new WebSocket(wsUrl());
+      ws.onopen = function () {
+        backoff = 500;
+        channels.forEach(function (c, id) { raw(subLine(id, c.spec)); });
+        clearInterval(hb);
+        hb = setInterval(function () { raw('ping'); }, HEARTBEAT_MS);
+      };
+      ws.onmessage = function (ev) {
+        const data = String(ev.data || '');
+        if (data === 'pong') return;
+        const bar = data.indexOf('|');
+        if (bar <= 0) return;
+        const id = data.slice(0, bar);
+        const frame = data.slice(bar + 1);
+        const c = channels.get(id);
+        if (!c) return;
+        if (frame.indexOf('@close:') === 0) {
+          channels.delete(id);
+          const parts = frame.split(':');
+          c.onFrame({ type: 'channelClosed', code: Number(parts[1]), reason: parts.slice(2).join(':') });
+          return;
+        }
+        c.onFrame(parse(frame));
+      };
+      ws.onclose = function () {
+        clearInterval(hb);
+        if (stopped) return;
+        setTimeout(open, backoff);
+        backoff = Math.min(backoff * 2, RECONNECT_MAX_MS);
+      };
+    }
+
+    function subscribe(spec, onFrame) {
+      const id = 'c' + (nextId++);
+      channels.set(id, { spec: spec, onFrame: onFrame || function () {} });
+      raw(subLine(id, spec));
+      return {
+        id: id,
+        send: function (cmd) { if (channels.has(id)) raw(id + '|' + cmd); },
+        close: function () { if (channels.delete(id)) raw('unsub:' + id); }
+      };
+    }
+
+    function close() {
+      stopped = true;
+      clearInterval(hb);
+      if (ws) try { ws.close(1000); } catch {}
+    }
+
+    open();
+    return { subscribe: subscribe, close: close };
+  }
+
+  window.EpMux = { connect: connect };
+})();
@@ -108,6 +108,17 @@
 
     autoRevealEnabled: false,
 
+    // round timer: server deadline + local clock offset (serverNow - clientNow)
+    timer: null,
+    clockOffset: 0,
+    clockRtt: Infinity,
+
+    // large-room mode: server sends counts + own/host entry until reveal
+    largeRoom: false,
+    largeRoomAuto: false,
+    roomSummary: null,
+    rosterExpanded: false,
+
     // client-only toggles
     hardMode: false,
 
@@ -306,7 +317,7 @@
     stopHeartbeat();
     hbTimer = setInterval(function () {
       if (state.ws && state.ws.readyState === 1) {
-        try { state.ws.send('ping'); } catch {}
+        try { state.ws.send('ping:' + Date.now()); } catch {}
       }
     }, HEARTBEAT_MS);
   }
@@ -336,7 +347,8 @@
     const attempt = rcAttempts++;
     const base = Math.min(RECO_MAX_MS, RECO_BASE_MS * Math.pow(2, attempt));
     const jitter = base * (0.3 * Math.random());
-    const delay = Math.max(300, base - (base * 0.15) + jitter);
+    let delay = Math.max(300, base - (base * 0.15) + jitter);
+    if (state.reconnectSpreadMs) { delay = 300 + Math.random() * state.reconnectSpreadMs; state.reconnectSpreadMs = 0; }
     console.warn(TAG, 'scheduleReconnect', { reason: reason, attempt: attempt, delay: delay });
     rcTimer = setTimeout(function () {
       rcTimer = null;
@@ -349,7 +361,7 @@
   }
 
   function pokeServerAndSync() {
-    try { if (state.ws && state.ws.readyState === 1) state.ws.send('ping'); } catch {}
+    try { if (state.ws && state.ws.readyState === 1) state.ws.send('ping:' + Date.now()); } catch {}
     try { send('requestSync'); } catch {}
     setTimeout(function () { try { send('requestSync'); } catch {} }, 200);
   }
@@ -443,6 +455,7 @@
       lastInboundAt = Date.now();
 
       if (ev.data === 'pong') return;
+      if (typeof ev.data === 'string' && ev.data.indexOf('pong:') === 0) { applyPong(ev.data); return; }
 
       // Legacy plain-text roster frames first
       if (typeof ev.data === 'string') {
@@ -515,6 +528,17 @@
         try { if (state.ws) state.ws.close(4001, 'Kicked'); } catch {}
         break;
       }
+      case 'reconnect': {
+        // server restarts/deploys: the socket closes with 1012; spread reconnects over afterMs
+        state.reconnectSpreadMs = Math.max(0, Number(m.afterMs) || 0);
+        break;
+      }
+      case 'roomMoved': {
+        // room now lives on another node: reload the room page there (server closes this socket)
+        state.hardRedirect = (m.redirect || ('/room?roomCode=' + encodeURIComponent(state.roomCode))) +
+          '&participantName=' + encodeURIComponent(state.youName);
+        break;
+      }
       case 'participantJoined': {
         addParticipantLocal((m.name || '').trim());
         try { if (renderParticipants) renderParticipants(); } catch {}
@@ -542,6 +566,18 @@
         applyVoteUpdate(m);
         break;
       }
+      case 'roster': {
+        applyRosterPage(m);
+        break;
+      }
+      case 'timer': {
+        applyTimer(m, m.serverNow);
+        break;
+      }
+      case 'reactions': {
+        showReactions(m.counts);
+        break;
+      }
       case 'specialsChanged': {
         // Optional explicit event from server (enabled + selected IDs)
         if (typeof m.enabled === 'boolean') state.allowSpecials = !!m.enabled;
@@ -678,6 +714,15 @@
         state._topicIncomingWhileEditing = { label: m.topicLabel, url: m.topicUrl };
       }
 
+      if (m.timer) applyTimer(m.timer, m.serverNow);
+
+      // large rooms: aggregate counts; compact entries omit false flags and null votes
+      state.largeRoom = !!m.largeRoom;
+      state.largeRoomAuto = state.largeRoom && !!m.largeRoomAuto;
+      state.roomSummary = (state.largeRoom && m.summary) ? m.summary : null;
+      if (!state.largeRoom) state.rosterExpanded = false;
+      const compact = !!m.compact;
+
       // participants; only mark host-known if authoritative data is present
       let hostInfoUpdated = false;
 
@@ -685,6 +730,7 @@
         const prevByName = {};
         (state.participants || []).forEach(function (p) { if (p && p.name) prevByName[p.name] = p; });
         const next = [];
+        const seen = {};
 
         for (let i = 0; i < m.participants.length; i++) {
           const p = m.participants[i];
@@ -693,6 +739,20 @@
 
           const name = (p.name || (prev && prev.name) || '').trim();
           if (!name) continue;
+          seen[name] = true;
+
+          if (compact) {
+            next.push({
+              name: name,
+              vote: has(p, 'vote') ? p.vote : null,
+              spectator: !!p.spectator,
+              participating: !p.spectator,
+              disconnected: !!p.disconnected,
+              away: !!p.away,
+              isHost: !!p.isHost
+            });
+            continue;
+          }
 
           const vote = has(p, 'vote') ? (p.vote != null ? p.vote : null) : (prev ? (prev.vote != null ? prev.vote : null) : null);
 
@@ -716,6 +776,13 @@
           });
         }
 
+        // Partial large-room frame: keep an expanded roster, refreshing only the entries we got
+        if (state.largeRoom && !state.votesRevealed && state.rosterExpanded) {
+          (state.participants || []).forEach(function (p) {
+            if (p && p.name && !seen[p.name]) next.push(p.isHost ? Object.assign({}, p, { isHost: false }) : p);
+          });
+        }
+
         if (next.length) state.participants = next;
 
         const meNow = state.participants.find(function (p) { return p && p.name === state.youName; });
@@ -767,6 +834,171 @@
     }
   }
 
+  /*** ---------- Reactions (ephemeral) ---------- ***/
+  const REACTION_ICON_BY_ID = Object.freeze(Object.assign({ thumbsup: '👍', party: '🎉', question: QUESTION }, SPECIALS_ICON_BY_ID));
+  const REACTION_POPS_MAX = 6;
+
+  function showReactions(counts) {
+    const sink = $('#reactionFloat');
+    if (!sink || !counts) return;
+    Object.keys(counts).forEach(function (id) {
+      const icon = REACTION_ICON_BY_ID[id];
+      const n = Number(counts[id]) || 0;
+      if (!icon || n <= 0) return;
+      const pop = document.createElement('div');
+      pop.className = 'reaction-pop';
+      pop.textContent = n > 1 ? (icon + ' ×' + n) : icon;
+      sink.appendChild(pop);
+      setTimeout(function () { pop.remove(); }, 2100);
+    });
+    while (sink.children.length > REACTION_POPS_MAX) sink.firstChild.remove();
+  }
+
+  (function bindReactionBar() {
+    const bar = $('#reactionBar');
+    if (!bar) return;
+    bar.addEventListener('click', function (ev) {
+      const btn = ev.target.closest('[data-react]');
+      if (btn) send('react:' + btn.getAttribute('data-react'));
+    });
+  })();
+
+  /*** ---------- Round timer ---------- ***/
+  // Server sends only start/pause/stop/expired with an absolute deadline; we count down locally.
+  let timerTick = null;
+
+  // "pong:<clientTs>:<serverNow>" → keep the offset from the lowest-RTT sample (NTP-style)
+  function applyPong(line) {
+    const parts = line.split(':');
+    const sent = Number(parts[1]), serverNow = Number(parts[2]);
+    if (!isFinite(sent) || !isFinite(serverNow)) return;
+    const now = Date.now();
+    const rtt = Math.max(0, now - sent);
+    if (rtt <= state.clockRtt * 1.5 || !isFinite(state.clockRtt)) {
+      state.clockRtt = Math.min(rtt, state.clockRtt);
+      state.clockOffset = serverNow + rtt / 2 - now;
+    }
+  }
+
+  function applyTimer(tm, serverNow) {
+    if (!tm) return;
+    // Until a ping sample exists, the frame's serverNow is the best offset estimate we have
+    if (!isFinite(state.clockRtt) && isFinite(Number(serverNow))) state.clockOffset = Number(serverNow) - Date.now();
+    state.timer = {
+      running: !!tm.running,
+      paused: !!tm.paused,
+      deadline: Number(tm.deadline) || 0,
+      remainingMs: Number(tm.remainingMs) || 0,
+      durationMs: Number(tm.durationMs) || 0
+    };
+    renderTimer();
+  }
+
+  function timerRemainingMs() {
+    const tm = state.timer;
+    if (!tm) return 0;
+    if (tm.running) return Math.max(0, tm.deadline - (Date.now() + state.clockOffset));
+    if (tm.paused) return tm.remainingMs;
+    return 0;
+  }
+
+  function fmtClock(ms) {
+    const total = Math.ceil(ms / 1000);
+    const m = Math.floor(total / 60), sec = total % 60;
+    return m + ':' + (sec < 10 ? '0' : '') + sec;
+  }
+
+  function renderTimer() {
+    const tm = state.timer;
+    const active = !!(tm && (tm.running || tm.paused));
+    const el = $('#roundTimer');
+    if (el) {
+      el.hidden = !active;
+      if (active) {
+        const left = timerRemainingMs();
+        el.textContent = fmtClock(left);
+        el.classList.toggle('is-paused', !!tm.paused);
+        el.classList.toggle('is-low', !!tm.running && left <= 10000);
+      }
+    }
+
+    const canControl = state.isHost && !state.votesRevealed;
+    const btn = $('#timerButton'), stopBtn = $('#timerStopButton'), dur = $('#timerDuration');
+    if (btn) {
+      btn.hidden = !canControl;
+      const key = (tm && tm.running) ? 'timer.pause' : ((tm && tm.paused) ? 'timer.resume' : 'timer.start');
+      const fb = (tm && tm.running) ? 'Pause' : ((tm && tm.paused) ? (isDe() ? 'Fortsetzen' : 'Resume') : (isDe() ? 'Timer starten' : 'Start timer'));
+      btn.textContent = t(key, fb);
+    }
+    if (stopBtn) stopBtn.hidden = !(canControl && active);
+    if (dur) dur.hidden = !(canControl && !active);
+
+    if (tm && tm.running) {
+      if (!timerTick) timerTick = setInterval(renderTimer, 250);
+    } else if (timerTick) {
+      clearInterval(timerTick); timerTick = null;
+    }
+  }
+
+  function onTimerButton() {
+    const tm = state.timer;
+    if (tm && tm.running) { send('timer:pause'); return; }
+    if (tm && tm.paused) { send('timer:start'); return; }
+    const dur = $('#timerDuration');
+    send('timer:start:' + ((dur && dur.value) || '120'));
+  }
+
+  /*** ---------- Large rooms ---------- ***/
+  const ROSTER_PAGE = 200;
+
+  function requestRoster(offset) {
+    state.rosterExpanded = true;
+    send('roster:' + (offset || 0) + ':' + ROSTER_PAGE);
+  }
+
+  function applyRosterPage(m) {
+    if (!Array.isArray(m.participants)) return;
+    const byName = {};
+    (state.participants || []).forEach(function (p) { if (p && p.name) byName[p.name] = p; });
+    m.participants.forEach(function (p) {
+      if (!p || !p.name) return;
+      byName[p.name] = {
+        name: p.name,
+        vote: (p.vote != null ? p.vote : null),
+        spectator: !!p.spectator,
+        participating: !p.spectator,
+        disconnected: !!p.disconnected,
+        away: !!p.away,
+        isHost: !!p.isHost
+      };
+    });
+    state.participants = Object.keys(byName).map(function (k) { return byName[k]; });
+    const next = (m.offset || 0) + m.participants.length;
+    if (next < (m.total || 0)) requestRoster(next);
+    renderParticipants();
+  }
+
+  function summaryRow() {
+    const s = state.roomSummary;
+    const li = document.createElement('li');
+    li.className = 'participant-row participant-summary';
+    const txt = document.createElement('span');
+    txt.className = 'name';
+    txt.textContent = isDe()
+      ? (s.voted + ' abgestimmt · ' + s.waiting + ' ausstehend · ' + s.spectators + ' zuschauend')
+      : (s.voted + ' voted · ' + s.waiting + ' waiting · ' + s.spectators + ' spectating');
+    li.appendChild(txt);
+    if (!state.rosterExpanded) {
+      const btn = document.createElement('button');
+      btn.type = 'button';
+      btn.className = 'row-action';
+      btn.textContent = isDe() ? ('Alle ' + s.total + ' anzeigen') : ('Show all ' + s.total);
+      btn.addEventListener('click', function () { requestRoster(0); });
+      li.appendChild(btn);
+    }
+    return li;
+  }
+
   /*** ---------- Participants ---------- ***/
   function isSpectator(p) { return !!(p && (p.spectator === true || p.participating === false)); }
 
@@ -784,6 +1016,7 @@
         .filter(function (p) { return p && p.name; });
 
       const frag = document.createDocumentFragment();
+      if (state.largeRoom && state.roomSummary && !state.votesRevealed) frag.appendChild(summaryRow());
 
       list.forEach(function (p) {
         if (!p || !p.name) return;
@@ -1112,6 +1345,8 @@
     if (resetBtn) {
       resetBtn.hidden = !showReset;
     }
+
+    renderTimer();
   } // end renderCards()
 
   // SR announcement: concise sentence for screen readers (English only)
@@ -1542,6 +1777,7 @@
     setRowDisabled('menuTopicToggle',      !state.isHost && state._hostKnown);
     setRowDisabled('menuSpecialsToggle',   !state.isHost && state._hostKnown);
     setRowDisabled('menuHardModeToggle',   !state.isHost && state._hostKnown);
+    setRowDisabled('menuLargeRoomToggle',  (!state.isHost && state._hostKnown) || state.largeRoomAuto);
 
     const mTgl = $('#menuTopicToggle'); const mSt = $('#menuTopicStatus');
     if (mTgl) { mTgl.checked = !!state.topicVisible; mTgl.setAttribute('aria-checked', String(!!state.topicVisible)); }
@@ -1564,6 +1800,12 @@
     if (mSPTgl) { mSPTgl.checked = !!state.allowSpecials; mSPTgl.setAttribute('aria-checked', String(!!state.allowSpecials)); }
     if (mSPSt) mSPSt.textContent = state.allowSpecials ? (isDe() ? 'An' : 'On') : (isDe() ? 'Aus' : 'Off');
 
+    const mLRTgl = $('#menuLargeRoomToggle'); const mLRSt = $('#menuLargeRoomStatus');
+    if (mLRTgl) { mLRTgl.checked = !!state.largeRoom; mLRTgl.setAttribute('aria-checked', String(!!state.largeRoom)); }
+    if (mLRSt)  mLRSt.textContent = state.largeRoomAuto
+      ? t('menu.largeRoom.auto', isDe() ? 'Automatisch (viele Teilnehmende)' : 'Automatic (many participants)')
+      : state.largeRoom ? (isDe() ? 'An' : 'On') : (isDe() ? 'Aus' : 'Off');
+
     const mHRTgl = $('#menuHardModeToggle'); const mHRSt = $('#menuHardStatus');
     if (mHRTgl) { mHRTgl.checked = !!state.hardMode; mHRTgl.setAttribute('aria-checked', String(!!state.hardMode)); }
     if (mHRSt)  mHRSt.textContent = state.hardMode ? (isDe() ? 'An' : 'On') : (isDe() ? 'Aus' : 'Off');
@@ -1655,6 +1897,10 @@
       document.dispatchEvent(new CustomEvent('ep:auto-reveal-toggle', { detail: { on: on } }));
     }, el); });
 
+    bindSwitch('menuLargeRoomToggle', function (on, el) { hostGuard(function () {
+      document.dispatchEvent(new CustomEvent('ep:large-room-toggle', { detail: { on: on } }));
+    }, el); });
+
     bindSwitch('menuTopicToggle', function (on, el) { hostGuard(function () {
       document.dispatchEvent(new CustomEvent('ep:topic-toggle', { detail: { on: on } }));
     }, el); });
@@ -1684,6 +1930,12 @@
   window.revealCards = revealCards;
   window.resetRoom   = resetRoom;
 
+  (function bindTimerControls() {
+    const btn = $('#timerButton'), stopBtn = $('#timerStopButton');
+    if (btn) btn.addEventListener('click', onTimerButton);
+    if (stopBtn) stopBtn.addEventListener('click', function () { send('timer:stop'); });
+  })();
+
   /*** ---------- Toast & copy helpers ---------- ***/
   function showToast(msg, ms) {
     if (ms == null) ms = 2600;
@@ -1908,6 +2160,12 @@
       send('autoReveal:' + on);
     });
 
+    document.addEventListener('ep:large-room-toggle', function (ev) {
+      if (!state.isHost) return;
+      const on = !!(ev && ev.detail && ev.detail.on);
+      send('largeRoom:' + on);
+    });
+
     document.addEventListener('ep:topic-toggle', function (ev) {
       if (!state.isHost) return;
       const on = !!(ev && ev.detail && ev.detail.on);
@@ -0,0 +1,104 @@
+package com.example.estpoker.cluster;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.http.server.ServletServerHttpResponse;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.socket.WebSocketHandler;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+class HashRingTest {
+
+  @Test
+  void spreads_rooms_and_moves_only_the_leaving_nodes_share() {
+    HashRing three = new HashRing(List.of("a", "b", "c"), 128);
+    HashRing two = new HashRing(List.of("a", "b"), 128);
+
+    Map<String, Integer> perNode = new HashMap<>();
+    int moved = 0;
+    for (int i = 0; i < 3_000; i++) {
+      String code = "room-" + i;
+      String before = three.ownerOf(code);
+      perNode.merge(before, 1, Integer::sum);
+      String after = two.ownerOf(code);
+      if (!before.equals("c")) {
+        assertEquals(before, after, "rooms of remaining nodes must stay put");
+      } else {
+        moved++;
+      }
+    }
+    for (int n : perNode.values()) assertTrue(n > 700 && n < 1300, "uneven spread: " + perNode);
+    assertEquals((int) perNode.get("c"), moved);
+  }
+
+  @Test
+  void same_members_give_the_same_owner_regardless_of_order() {
+    HashRing x = new HashRing(List.of("a", "b", "c"), 64);
+    HashRing y = new HashRing(List.of("c", "a", "b"), 64);
+    for (int i = 0; i < 200; i++) assertEquals(x.ownerOf("r" + i), y.ownerOf("r" + i));
+    assertNull(new HashRing(List.of(), 64).ownerOf("r1"));
+  }
+
+  @Test
+  void ownership_follows_members_file_and_notifies_listeners(@TempDir Path dir) throws Exception {
+    Path file = dir.resolve("members.properties");
+    Files.writeString(file, "a=http://127.0.0.1:8081\n");
+    try (RoomOwnership o = new RoomOwnership("a", 64, Map.of(), file, 0)) {
+      AtomicInteger changes = new AtomicInteger();
+      o.addListener((prev, next) -> changes.incrementAndGet());
+      assertTrue(o.isLocal("anything"));
+      assertNull(o.ownerBaseUrl("anything"));
+
+      Files.writeString(file, "a=http://127.0.0.1:8081\nb=http://127.0.0.1:8082/\n");
+      Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis() + 5_000));
+      o.refresh();
+      assertEquals(1, changes.get());
+      assertEquals(List.of("a", "b"), o.ring().nodes());
+
+      String remote = null;
+      for (int i = 0; i < 100 && remote == null; i++) if (!o.isLocal("r" + i)) remote = "r" + i;
+      assertNotNull(remote);
+      assertEquals("http://127.0.0.1:8082", o.ownerBaseUrl(remote));
+    }
+  }
+
+  @Test
+  void handshake_for_a_remote_room_is_redirected_once() throws Exception {
+    try (RoomOwnership o = new RoomOwnership("a", 64, Map.of("b", "https://b.example"), null, 0)) {
+      OwnerHandshakeInterceptor interceptor = new OwnerHandshakeInterceptor(o);
+
+      MockHttpServletResponse first = new MockHttpServletResponse();
+      assertFalse(handshake(interceptor, "roomCode=r1&cid=x", first));
+      assertEquals(307, first.getStatus());
+      assertEquals("wss://b.example/gameSocket?roomCode=r1&cid=x&hop=1", first.getHeader("Location"));
+
+      // b still thinks a owns it: the second hop is accepted instead of bounced back
+      MockHttpServletResponse second = new MockHttpServletResponse();
+      assertTrue(handshake(interceptor, "roomCode=r1&cid=x&hop=1", second));
+      assertNull(second.getHeader("Location"));
+    }
+  }
+
+  private static boolean handshake(OwnerHandshakeInterceptor interceptor, String query, MockHttpServletResponse out)
+      throws Exception {
+    MockHttpServletRequest req = new MockHttpServletRequest("GET", "/gameSocket");
+    req.setQueryString(query);
+    ServletServerHttpResponse response = new ServletServerHttpResponse(out);
+    boolean accepted = interceptor.beforeHandshake(new ServletServerHttpRequest(req), response,
+        mock(WebSocketHandler.class), new HashMap<>());
+    response.flush();
+    return accepted;
+  }
+}
@@ -0,0 +1,109 @@
+package com.example.estpoker.cluster;
+
+import com.example.estpoker.model.Room;
+import com.example.estpoker.service.GameService;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StandbyReplicationTest {
+
+  @Test
+  void codec_roundtrips_batches_compactly() throws Exception {
+    List<RoomReplica.Member> ms = new ArrayList<>();
+    for (int i = 0; i < 8; i++) {
+      ms.add(new RoomReplica.Member("Person " + i, i == 0, i != 7, true, i % 2 == 0 ? "5" : null,
+          1_760_000_000_000L + i, List.of("cid-" + i)));
+    }
+    RoomReplica r = new RoomReplica("team-a", "fib.scrum", false, true, true, List.of("☕"),
+        "JIRA-1", null, true, false, 60_000L, 1_760_000_060_000L, 0L, ms);
+
+    byte[] bytes = ReplicaCodec.encode(new ReplicaCodec.Batch(42L, false,
+        List.of(new ReplicaCodec.Entry("team-a", r), new ReplicaCodec.Entry("gone", null))));
+    ReplicaCodec.Batch back = ReplicaCodec.decode(bytes);
+
+    assertEquals(42L, back.sentAtMs());
+    assertFalse(back.heartbeat());
+    assertEquals(r, back.entries().get(0).replica());
+    assertNull(back.entries().get(1).replica());
+    assertTrue(bytes.length < 400, "8-person room should stay small, was " + bytes.length);
+    assertTrue(ReplicaCodec.decode(ReplicaCodec.heartbeat(7L)).heartbeat());
+  }
+
+  @Test
+  void standby_mirrors_primary_and_promotes_when_it_goes_silent() throws Exception {
+    GameService primary = new GameService();
+    GameService standby = new GameService();
+
+    try (StandbyReceiver receiver = new StandbyReceiver("127.0.0.1", 0, 300,
+        batch -> batch.entries().forEach(e -> {
+          if (e.replica() == null) standby.dropRoom(e.code());
+          else standby.restoreReplica(e.replica());
+        }),
+        () -> standby.resumeAfterPromotion(30_000L))) {
+
+      StandbySender sender = new StandbySender("127.0.0.1", receiver.port(), 10, 50,
+          primary::replicaOf, primary::roomCodes);
+      primary.setRoomChangeListener(sender::markDirty);
+
+      primary.join("r1", "cidA", "Alice");
+      primary.join("r1", "cidB", "Bob");
+      primary.setVote("r1", "cidA", "8");
+      primary.startTimer("r1", 60);
+      await(() -> {
+        Room r = standby.getRoom("r1");
+        return r != null && r.getParticipant("Alice") != null && "8".equals(r.getParticipant("Alice").getVote())
+            && r.isTimerRunning();
+      });
+      assertTrue(standby.getRoom("r1").getParticipant("Alice").isHost());
+      assertFalse(receiver.isPromoted());
+
+      sender.close(); // primary dies
+      await(receiver::isPromoted);
+      long failover = (long) receiver.stats().get("failoverMs");
+      assertTrue(failover >= 300 && failover < 2_000, "failover window " + failover);
+      assertEquals("8", standby.getRoom("r1").getParticipant("Alice").getVote());
+    }
+  }
+
+  @Test
+  void promoted_standby_gives_replicated_participants_a_grace_period() throws Exception {
+    GameService primary = new GameService();
+    GameService standby = new GameService();
+
+    try (StandbyReceiver receiver = new StandbyReceiver("127.0.0.1", 0, 200,
+        batch -> batch.entries().forEach(e -> {
+          if (e.replica() != null) standby.restoreReplica(e.replica());
+        }),
+        () -> standby.resumeAfterPromotion(300L))) {
+
+      StandbySender sender = new StandbySender("127.0.0.1", receiver.port(), 10, 50,
+          primary::replicaOf, primary::roomCodes);
+      primary.setRoomChangeListener(sender::markDirty);
+
+      primary.join("r1", "cidA", "Alice");
+      primary.join("r1", "cidB", "Bob");
+      await(() -> standby.getRoom("r1") != null && standby.getRoom("r1").getParticipant("Bob") != null);
+
+      sender.close();
+      await(receiver::isPromoted);
+      assertTrue(standby.getRoom("r1").getParticipant("Alice").isActive(), "still within the grace period");
+
+      // nobody reconnected to the standby: presence rules apply once the grace period is over
+      await(() -> !standby.getRoom("r1").getParticipant("Alice").isActive()
+          && !standby.getRoom("r1").getParticipant("Bob").isActive());
+    }
+  }
+
+  private static void await(BooleanSupplier cond) throws InterruptedException {
+    long end = System.currentTimeMillis() + 5_000L;
+    while (!cond.getAsBoolean()) {
+      if (System.currentTimeMillis() > end) fail("condition not met within 5s");
+      Thread.sleep(10);
+    }
+  }
+}
@@ -0,0 +1,46 @@
+package com.example.estpoker.cluster;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TcpRoomEventBusTest {
+
+  @Test
+  void events_reach_the_other_node_in_order_and_never_echo_back() throws Exception {
+    try (TcpRoomEventBus a = new TcpRoomEventBus("a", "127.0.0.1", 0, List.of());
+         TcpRoomEventBus b = new TcpRoomEventBus("b", "127.0.0.1", 0, List.of())) {
+      a.addPeer("127.0.0.1:" + b.port());
+      b.addPeer("127.0.0.1:" + a.port());
+
+      LinkedBlockingQueue<RoomEvent> atA = new LinkedBlockingQueue<>();
+      LinkedBlockingQueue<RoomEvent> atB = new LinkedBlockingQueue<>();
+      a.subscribe(atA::add);
+      b.subscribe(atB::add);
+
+      RoomReplica replica = new RoomReplica("r1", "fib.scrum", false, false, true, null,
+          "T-1", null, true, false, 0L, 0L, 0L,
+          List.of(new RoomReplica.Member("Alice", true, true, true, "5", 1L, List.of("cidA"))));
+      a.publish(RoomEvent.Kind.STATE, "r1", replica, null);
+      a.publish(RoomEvent.Kind.FRAME, "r1", null, "{\"type\":\"x\"}");
+
+      RoomEvent first = atB.poll(5, TimeUnit.SECONDS);
+      RoomEvent second = atB.poll(5, TimeUnit.SECONDS);
+      assertNotNull(first);
+      assertNotNull(second);
+      assertEquals(RoomEvent.Kind.STATE, first.kind());
+      assertEquals("a", first.origin());
+      assertEquals("5", first.replica().participants().get(0).vote());
+      assertEquals(List.of("cidA"), first.replica().participants().get(0).cids());
+      assertEquals(RoomEvent.Kind.FRAME, second.kind());
+      assertEquals("{\"type\":\"x\"}", second.frame());
+
+      assertNull(atA.poll(200, TimeUnit.MILLISECONDS));
+      assertEquals(2, b.latency().count());
+    }
+  }
+}
@@ -0,0 +1,82 @@
+package com.example.estpoker.controller;
+
+import com.example.estpoker.config.LocaleConfig;
+import com.example.estpoker.handler.LocaleHandshakeInterceptor;
+import jakarta.servlet.http.Cookie;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.net.URI;
+import java.util.Locale;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * The normal join flow (landing page, language switch, join, room, invite) must not create an
+ * HTTP session; the language lives in a cookie the WebSocket handshake reads as well.
+ */
+@SpringBootTest(properties = {
+        "app.warmup.enabled=false",
+        "app.restore.enabled=false",
+        "app.rooms.hibernate.enabled=false",
+        "features.persistentRooms.snapshot.enabled=false"
+})
+@AutoConfigureMockMvc
+class StatelessLocaleTest {
+
+    @Autowired
+    private MockMvc mvc;
+
+    private static void assertNoSession(MvcResult r) {
+        assertNull(r.getRequest().getSession(false), "HTTP session created by " + r.getRequest().getRequestURI());
+    }
+
+    @Test
+    @DisplayName("Landing, language switch, join and room pages run without an HTTP session")
+    void joinFlowIsSessionless() throws Exception {
+        assertNoSession(mvc.perform(get("/")).andExpect(status().isOk()).andReturn());
+
+        MvcResult switched = mvc.perform(get("/i18n").param("lang", "de").header("Referer", "http://localhost/"))
+                .andExpect(status().isSeeOther()).andReturn();
+        assertNoSession(switched);
+        Cookie lang = switched.getResponse().getCookie(LocaleConfig.LOCALE_COOKIE);
+        assertNotNull(lang);
+        assertEquals("de", lang.getValue());
+
+        MvcResult home = mvc.perform(get("/").cookie(lang)).andExpect(status().isOk()).andReturn();
+        assertNoSession(home);
+        assertEquals(Locale.GERMAN, home.getResponse().getLocale());
+
+        assertNoSession(mvc.perform(post("/join").cookie(lang)
+                        .param("participantName", "Alice").param("roomCode", "stateless"))
+                .andExpect(status().is3xxRedirection()).andReturn());
+        assertNoSession(mvc.perform(get("/room").cookie(lang)
+                        .param("roomCode", "stateless").param("participantName", "Alice").param("preflight", "1"))
+                .andExpect(status().isOk()).andReturn());
+        assertNoSession(mvc.perform(get("/invite").param("roomCode", "stateless").param("lang", "en"))
+                .andExpect(status().isOk()).andReturn());
+        assertNoSession(mvc.perform(get("/i18n/messages").param("lang", "de"))
+                .andExpect(status().isOk()).andReturn());
+    }
+
+    @Test
+    @DisplayName("The WebSocket handshake takes the locale from ?lang, then the cookie, else English")
+    void handshakeLocale() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.add(HttpHeaders.COOKIE, "other=1; " + LocaleConfig.LOCALE_COOKIE + "=de");
+        URI plain = URI.create("/gameSocket?roomCode=r&participantName=A");
+
+        assertEquals(Locale.GERMAN, LocaleHandshakeInterceptor.resolve(plain, headers));
+        assertEquals(Locale.ENGLISH, LocaleHandshakeInterceptor.resolve(URI.create(plain + "&lang=en"), headers));
+        assertEquals(Locale.ENGLISH, LocaleHandshakeInterceptor.resolve(plain, new HttpHeaders()));
+    }
+}
@@ -0,0 +1,62 @@
+package com.example.estpoker.handler;
+
+import com.example.estpoker.service.ReadinessGate;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class JitWarmupTest {
+
+    private static JitWarmup warmup(ReadinessGate gate, boolean enabled) {
+        JitWarmup w = new JitWarmup(gate);
+        ReflectionTestUtils.setField(w, "enabled", enabled);
+        ReflectionTestUtils.setField(w, "maxMs", 5_000L);
+        ReflectionTestUtils.setField(w, "minRounds", 100);
+        ReflectionTestUtils.setField(w, "roomCount", 2);
+        ReflectionTestUtils.setField(w, "participants", 3);
+        return w;
+    }
+
+    @Test
+    @DisplayName("Readiness stays closed until both the warmup and the room restore are done")
+    void gateWaitsForWarmupAndRestore() throws Exception {
+        ReadinessGate gate = new ReadinessGate();
+        gate.hold("restore"); // as DrainService does until its restore ran
+        JitWarmup w = warmup(gate, true);
+
+        w.start();
+        assertFalse(gate.isReady());
+        assertTrue(gate.pending().contains("warmup"));
+
+        long end = System.currentTimeMillis() + 10_000;
+        while (gate.pending().contains("warmup") && System.currentTimeMillis() < end) Thread.sleep(10);
+
+        Map<String, Object> report = w.report();
+        assertEquals("done", report.get("state"));
+        assertTrue((Integer) report.get("rounds") >= 100);
+        assertTrue((Long) report.get("warmRoundUs") >= 0);
+        assertEquals(Set.of("restore"), gate.pending());
+        assertEquals("starting", gate.state());
+
+        gate.release("restore");
+        assertTrue(gate.isReady());
+        w.stop();
+    }
+
+    @Test
+    @DisplayName("Disabled by default: no thread, no hold on readiness")
+    void disabledDoesNotHoldReadiness() {
+        ReadinessGate gate = new ReadinessGate();
+        JitWarmup w = new JitWarmup(gate);
+
+        w.start();
+        assertTrue(gate.isReady());
+        assertEquals("disabled", w.report().get("state"));
+        w.stop();
+    }
+}
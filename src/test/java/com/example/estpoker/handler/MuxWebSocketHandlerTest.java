@@ -0,0 +1,101 @@
+package com.example.estpoker.handler;
+
+import com.example.estpoker.model.Room;
+import com.example.estpoker.service.GameService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.net.URI;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class MuxWebSocketHandlerTest {
+
+    private GameService service;
+    private MuxWebSocketHandler mux;
+    private WebSocketSession socket;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        service = new GameService();
+        mux = new MuxWebSocketHandler(new GameWebSocketHandler(service), service);
+        socket = mock(WebSocketSession.class);
+        when(socket.getId()).thenReturn("p1");
+        when(socket.isOpen()).thenReturn(true);
+        when(socket.getUri()).thenReturn(URI.create("ws://localhost/gameSocket/mux"));
+        mux.afterConnectionEstablished(socket);
+    }
+
+    private List<String> sent() throws Exception {
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<WebSocketMessage<?>> cap = ArgumentCaptor.forClass((Class) WebSocketMessage.class);
+        verify(socket, atLeast(0)).sendMessage(cap.capture());
+        return cap.getAllValues().stream().map(m -> String.valueOf(m.getPayload())).toList();
+    }
+
+    @Test
+    @DisplayName("Two rooms on one socket: joins and frames are tagged with the channel id")
+    void subscribesSeveralRooms() throws Exception {
+        mux.handleTextMessage(socket, new TextMessage("sub:a:team-a:cid1:Alice"));
+        mux.handleTextMessage(socket, new TextMessage("sub:b:team-b:cid1:Alice"));
+
+        assertNotNull(service.getRoom("team-a").getParticipant("Alice"));
+        assertNotNull(service.getRoom("team-b").getParticipant("Alice"));
+
+        List<String> frames = sent();
+        assertTrue(frames.stream().anyMatch(f -> f.startsWith("a|")));
+        assertTrue(frames.stream().anyMatch(f -> f.startsWith("b|")));
+        assertTrue(frames.stream().allMatch(f -> f.startsWith("a|") || f.startsWith("b|")));
+    }
+
+    @Test
+    @DisplayName("Commands are routed to the channel's room only")
+    void routesCommandsPerChannel() throws Exception {
+        mux.handleTextMessage(socket, new TextMessage("sub:a:team-a:cid1:Alice"));
+        mux.handleTextMessage(socket, new TextMessage("sub:b:team-b:cid1:Alice"));
+
+        mux.handleTextMessage(socket, new TextMessage("b|vote:Alice:5"));
+
+        assertNull(service.getRoom("team-a").getParticipant("Alice").getVote());
+        assertEquals("5", service.getRoom("team-b").getParticipant("Alice").getVote());
+    }
+
+    @Test
+    @DisplayName("One ping per connection: single pong, presence refreshed in every room")
+    void pingOncePerConnection() throws Exception {
+        mux.handleTextMessage(socket, new TextMessage("sub:a:team-a:cid1:Alice"));
+        mux.handleTextMessage(socket, new TextMessage("sub:b:team-b:cid1:Alice"));
+        service.getRoom("team-a").getParticipant("Alice").setActive(false);
+        service.getRoom("team-b").getParticipant("Alice").setActive(false);
+
+        mux.handleTextMessage(socket, new TextMessage("ping"));
+
+        assertEquals(1, sent().stream().filter("pong"::equals).count());
+        assertTrue(service.getRoom("team-a").getParticipant("Alice").isActive());
+        assertTrue(service.getRoom("team-b").getParticipant("Alice").isActive());
+    }
+
+    @Test
+    @DisplayName("Closing one room's channel keeps the socket and the other room")
+    void roomCloseEndsOnlyThatChannel() throws Exception {
+        mux.handleTextMessage(socket, new TextMessage("sub:a:team-a:cid1:Alice"));
+        mux.handleTextMessage(socket, new TextMessage("sub:b:team-b:cid1:Alice"));
+
+        Room a = service.getRoom("team-a");
+        service.closeRoom(a);
+
+        assertTrue(sent().stream().anyMatch(f -> f.startsWith("a|@close:4000")));
+        verify(socket, never()).close(any(CloseStatus.class));
+
+        mux.handleTextMessage(socket, new TextMessage("b|vote:Alice:8"));
+        assertEquals("8", service.getRoom("team-b").getParticipant("Alice").getVote());
+    }
+}
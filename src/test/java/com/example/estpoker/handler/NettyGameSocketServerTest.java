@@ -0,0 +1,113 @@
+package com.example.estpoker.handler;
+
+import com.example.estpoker.service.GameService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.WebSocket;
+import java.net.http.WebSocketHandshakeException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class NettyGameSocketServerTest {
+
+    private GameService service;
+    private NettyGameSocketServer server;
+    private final LinkedBlockingQueue<CloseStatus> closed = new LinkedBlockingQueue<>();
+    private final HttpClient http = HttpClient.newHttpClient();
+
+    @BeforeEach
+    void setUp() {
+        service = new GameService();
+        GameWebSocketHandler handler = new GameWebSocketHandler(service) {
+            @Override
+            public void afterConnectionClosed(WebSocketSession session, CloseStatus status) {
+                super.afterConnectionClosed(session, status);
+                closed.add(status);
+            }
+        };
+        server = new NettyGameSocketServer(handler, "http://localhost:*", "127.0.0.1", 0, 64);
+        server.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop();
+        service.shutdown();
+    }
+
+    private record Client(WebSocket ws, LinkedBlockingQueue<String> frames) {
+        String await(String contains) throws InterruptedException {
+            long end = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (System.nanoTime() < end) {
+                String f = frames.poll(100, TimeUnit.MILLISECONDS);
+                if (f != null && f.contains(contains)) return f;
+            }
+            return null;
+        }
+    }
+
+    private Client connect(String room, String name, String cid) throws Exception {
+        LinkedBlockingQueue<String> frames = new LinkedBlockingQueue<>();
+        StringBuilder partial = new StringBuilder();
+        WebSocket ws = http.newWebSocketBuilder()
+                .buildAsync(URI.create("ws://127.0.0.1:" + server.port() + "/gameSocket?roomCode=" + room
+                        + "&participantName=" + name + "&cid=" + cid), new WebSocket.Listener() {
+                    @Override
+                    public CompletionStage<?> onText(WebSocket w, CharSequence data, boolean last) {
+                        partial.append(data);
+                        if (last) { frames.add(partial.toString()); partial.setLength(0); }
+                        w.request(1);
+                        return null;
+                    }
+                }).get(5, TimeUnit.SECONDS);
+        return new Client(ws, frames);
+    }
+
+    @Test
+    @DisplayName("Join, vote and reveal over the Netty engine reach every client of the room")
+    void sameProtocolAsServletEndpoint() throws Exception {
+        Client alice = connect("netty-room", "Alice", "cidA");
+        assertNotNull(alice.await("\"type\":\"you\""));
+        Client bob = connect("netty-room", "Bob", "cidB");
+        assertNotNull(bob.await("\"type\":\"voteUpdate\""));
+
+        bob.ws().sendText("vote:Bob:8", true).get(5, TimeUnit.SECONDS);
+        alice.ws().sendText("revealCards", true).get(5, TimeUnit.SECONDS);
+
+        assertNotNull(bob.await("\"votesRevealed\":true"));
+        assertEquals("8", service.getRoom("netty-room").getParticipant("Bob").getVote());
+    }
+
+    @Test
+    @DisplayName("Foreign origins are refused before the upgrade")
+    void rejectsForeignOrigin() {
+        var ex = assertThrows(Exception.class, () -> http.newWebSocketBuilder()
+                .header("Origin", "https://evil.example")
+                .buildAsync(URI.create("ws://127.0.0.1:" + server.port() + "/gameSocket?roomCode=x&participantName=Eve&cid=e"),
+                        new WebSocket.Listener() { })
+                .get(5, TimeUnit.SECONDS));
+        assertTrue(ex.getCause() instanceof WebSocketHandshakeException h && h.getResponse().statusCode() == 403, ex.toString());
+    }
+
+    @Test
+    @DisplayName("Closing the socket runs the regular disconnect handling")
+    void closeRunsDisconnect() throws Exception {
+        Client alice = connect("netty-close", "Alice", "cidA");
+        assertNotNull(alice.await("\"type\":\"you\""));
+        alice.ws().sendClose(WebSocket.NORMAL_CLOSURE, "bye").get(5, TimeUnit.SECONDS);
+
+        CloseStatus status = closed.poll(5, TimeUnit.SECONDS);
+        assertNotNull(status);
+        assertEquals(WebSocket.NORMAL_CLOSURE, status.getCode());
+    }
+}
@@ -0,0 +1,145 @@
+package com.example.estpoker.rooms.codec;
+
+import com.example.estpoker.rooms.model.StoredParticipant;
+import com.example.estpoker.rooms.model.StoredRoom;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BinarySnapshotCodecTest {
+
+    /** A room as the snapshotter writes it: a dozen voters, topic, settings, some history. */
+    static StoredRoom realisticRoom(int participants) {
+        StoredRoom r = StoredRoom.newWithCode("Sprint Planning Team Ü");
+        r.setTitle("Sprint 42 refinement");
+        r.setOwner("Alice");
+        r.setTopicLabel("JIRA-1234: checkout flow");
+        r.setTopicUrl("https://jira.example.com/browse/JIRA-1234");
+        r.setPasswordHash("$2a$10$abcdefghijklmnopqrstuu5Jq0Yk8yWjVj0fE1dC4x2zYbq1v3Z6e");
+        r.setVersion(42);
+        r.getSettings().setSequenceId("fib.scrum");
+        r.getSettings().setAllowSpecials(true);
+        r.getSettings().setTopicVisible(true);
+        StoredRoom.Stats stats = new StoredRoom.Stats();
+        stats.setRoundsPlayed(7);
+        stats.setLastAverage(5.5);
+        r.setStats(stats);
+        List<StoredParticipant> list = new ArrayList<>();
+        String[] votes = {"1", "2", "3", "5", "8", "13", null, "☕"};
+        for (int i = 0; i < participants; i++) {
+            StoredParticipant p = new StoredParticipant();
+            p.setName("Participant " + i);
+            p.setHost(i == 0);
+            p.setParticipating(i % 5 != 4);
+            p.setActive(i % 3 != 2);
+            p.setVote(votes[i % votes.length]);
+            list.add(p);
+        }
+        r.setParticipants(list);
+        for (int i = 0; i < 5; i++) {
+            StoredRoom.HistoryItem h = new StoredRoom.HistoryItem();
+            h.setAt(Instant.parse("2025-01-01T10:00:00Z").plusSeconds(i * 60L));
+            h.setActor("Alice");
+            h.setAction(i % 2 == 0 ? "reveal" : "reset");
+            r.getHistory().add(h);
+        }
+        return r;
+    }
+
+    static void assertSameRoom(StoredRoom a, StoredRoom b) {
+        assertSameRoom(a, b, true);
+    }
+
+    static void assertSameRoom(StoredRoom a, StoredRoom b, boolean exactUpdatedAt) {
+        assertEquals(a.getCode(), b.getCode());
+        assertEquals(a.getTitle(), b.getTitle());
+        assertEquals(a.getOwner(), b.getOwner());
+        assertEquals(a.getCreatedAt(), b.getCreatedAt());
+        if (exactUpdatedAt) assertEquals(a.getUpdatedAt(), b.getUpdatedAt());
+        assertEquals(a.getTopicLabel(), b.getTopicLabel());
+        assertEquals(a.getTopicUrl(), b.getTopicUrl());
+        assertEquals(a.getPasswordHash(), b.getPasswordHash());
+        assertEquals(a.getVersion(), b.getVersion());
+        assertEquals(a.getSettings().getSequenceId(), b.getSettings().getSequenceId());
+        assertEquals(a.getSettings().isAllowSpecials(), b.getSettings().isAllowSpecials());
+        assertEquals(a.getSettings().isAutoRevealEnabled(), b.getSettings().isAutoRevealEnabled());
+        assertEquals(a.getSettings().isTopicVisible(), b.getSettings().isTopicVisible());
+        assertEquals(a.getStats().getRoundsPlayed(), b.getStats().getRoundsPlayed());
+        assertEquals(a.getStats().getLastAverage(), b.getStats().getLastAverage());
+        assertEquals(a.getParticipants().size(), b.getParticipants().size());
+        for (int i = 0; i < a.getParticipants().size(); i++) {
+            StoredParticipant x = a.getParticipants().get(i), y = b.getParticipants().get(i);
+            assertEquals(x.getName(), y.getName());
+            assertEquals(x.getVote(), y.getVote());
+            assertEquals(x.isHost(), y.isHost());
+            assertEquals(x.isParticipating(), y.isParticipating());
+            assertEquals(x.isActive(), y.isActive());
+        }
+        assertEquals(a.getHistory().size(), b.getHistory().size());
+        assertEquals(a.getHistory().get(3).getAt(), b.getHistory().get(3).getAt());
+        assertEquals(a.getHistory().get(3).getAction(), b.getHistory().get(3).getAction());
+    }
+
+    @Test
+    void round_trips_every_field_with_and_without_compression() throws Exception {
+        StoredRoom room = realisticRoom(12);
+        for (BinarySnapshotCodec codec : List.of(new BinarySnapshotCodec(false, 0), new BinarySnapshotCodec(true, 0))) {
+            byte[] bytes = codec.encode(room);
+            assertTrue(BinarySnapshotCodec.isBinary(bytes));
+            assertSameRoom(room, codec.decode(bytes));
+        }
+
+        StoredRoom empty = new StoredRoom();
+        StoredRoom back = new BinarySnapshotCodec(true, 0).decode(new BinarySnapshotCodec(true, 0).encode(empty));
+        assertNull(back.getCode());
+        assertNull(back.getStats());
+        assertTrue(back.getParticipants().isEmpty());
+    }
+
+    @Test
+    void is_much_smaller_than_pretty_json() throws Exception {
+        StoredRoom room = realisticRoom(12);
+        int json = new JsonSnapshotCodec().encode(room).length;
+        int plain = new BinarySnapshotCodec(false, 0).encode(room).length;
+        int deflated = new BinarySnapshotCodec(true, 0).encode(room).length;
+
+        assertTrue(plain * 3 < json, "binary " + plain + " vs json " + json);
+        assertTrue(deflated < plain, "deflate " + deflated + " vs binary " + plain);
+        // tiny rooms stay uncompressed below the threshold
+        byte[] small = new BinarySnapshotCodec(true, 256).encode(StoredRoom.newWithCode("x"));
+        assertEquals(0, small[BinarySnapshotCodec.MAGIC.length + 1]);
+    }
+
+    @Test
+    void legacy_json_and_binary_are_read_by_either_codec() throws Exception {
+        StoredRoom room = realisticRoom(3);
+        byte[] legacy = new JsonSnapshotCodec().encode(room);
+        byte[] binary = new BinarySnapshotCodec(true, 0).encode(room);
+
+        assertFalse(BinarySnapshotCodec.isBinary(legacy));
+        // Jackson runs the touching setters after updatedAt, as it always has for legacy files
+        assertSameRoom(room, new BinarySnapshotCodec(true, 0).decode(legacy), false);
+        assertSameRoom(room, new JsonSnapshotCodec().decode(binary));
+    }
+
+    @Test
+    void corrupt_or_unknown_input_fails_loudly() throws Exception {
+        byte[] bytes = new BinarySnapshotCodec(false, 0).encode(realisticRoom(12));
+        BinarySnapshotCodec codec = new BinarySnapshotCodec(false, 0);
+
+        assertThrows(IOException.class, () -> codec.decode(Arrays.copyOf(bytes, bytes.length / 2)));
+        byte[] future = bytes.clone();
+        future[BinarySnapshotCodec.MAGIC.length] = 99;
+        IOException e = assertThrows(IOException.class, () -> codec.decode(future));
+        assertTrue(e.getMessage().contains("version 99"));
+
+        byte[] deflated = new BinarySnapshotCodec(true, 0).encode(realisticRoom(12));
+        assertThrows(IOException.class, () -> codec.decode(Arrays.copyOf(deflated, deflated.length - 10)));
+    }
+}
@@ -0,0 +1,114 @@
+package com.example.estpoker.rooms.repo;
+
+import com.example.estpoker.rooms.model.StoredRoom;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CachingRoomStoreTest {
+
+    /** In-memory store counting (and optionally slowing down) loads. */
+    static class MemStore implements RoomStore {
+        final Map<String, StoredRoom> rooms = new ConcurrentHashMap<>();
+        final AtomicInteger loads = new AtomicInteger();
+        volatile CountDownLatch gate;
+
+        @Override public Optional<StoredRoom> load(String code) throws Exception {
+            loads.incrementAndGet();
+            CountDownLatch g = gate;
+            if (g != null) g.await(5, TimeUnit.SECONDS);
+            return Optional.ofNullable(rooms.get(code));
+        }
+        @Override public void save(StoredRoom room) { room.touchUpdated(); rooms.put(room.getCode(), room); }
+        @Override public boolean exists(String code) { return rooms.containsKey(code); }
+        @Override public void delete(String code) { rooms.remove(code); }
+    }
+
+    @Test
+    void repeated_loads_hit_the_cache_and_copies_are_isolated() throws Exception {
+        MemStore mem = new MemStore();
+        StoredRoom r = StoredRoom.newWithCode("team");
+        r.setTitle("Sprint");
+        mem.rooms.put("team", r);
+        CachingRoomStore cache = new CachingRoomStore(mem, 100, 60_000);
+
+        StoredRoom first = cache.load("team").orElseThrow();
+        first.setTitle("mutated but never saved");
+        assertEquals("Sprint", cache.load("team").orElseThrow().getTitle());
+        assertTrue(cache.exists("team"));
+
+        assertFalse(cache.load("unknown").isPresent());
+        assertFalse(cache.exists("unknown"));
+        assertEquals(2, mem.loads.get(), "one delegate load per code");
+        assertEquals(2L, cache.stats().get("misses"));
+        assertEquals(2L, cache.stats().get("hits"));
+        assertEquals(1L, cache.stats().get("negativeHits"));
+    }
+
+    @Test
+    void save_and_delete_write_through() throws Exception {
+        MemStore mem = new MemStore();
+        CachingRoomStore cache = new CachingRoomStore(mem, 100, 60_000);
+        assertFalse(cache.load("r").isPresent()); // cached as missing
+
+        StoredRoom r = StoredRoom.newWithCode("r");
+        r.setTitle("v1");
+        cache.save(r);
+        assertEquals("v1", cache.load("r").orElseThrow().getTitle());
+
+        cache.delete("r");
+        assertFalse(cache.exists("r"));
+        assertEquals(1, mem.loads.get(), "writes replace the entry, no reload needed");
+    }
+
+    @Test
+    void entries_expire_after_ttl_and_lru_is_bounded() throws Exception {
+        MemStore mem = new MemStore();
+        CachingRoomStore cache = new CachingRoomStore(mem, 2, 50);
+        cache.load("a");
+        Thread.sleep(80);
+        cache.load("a");
+        assertEquals(2, mem.loads.get());
+
+        cache.load("b");
+        cache.load("c"); // evicts "a"
+        cache.load("a");
+        assertEquals(5, mem.loads.get());
+        assertEquals(2L, cache.stats().get("evictions"));
+    }
+
+    @Test
+    void concurrent_loads_of_one_code_share_a_single_delegate_call() throws Exception {
+        MemStore mem = new MemStore();
+        mem.rooms.put("hot", StoredRoom.newWithCode("hot"));
+        mem.gate = new CountDownLatch(1);
+        CachingRoomStore cache = new CachingRoomStore(mem, 100, 60_000);
+
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            CountDownLatch started = new CountDownLatch(8);
+            List<Future<Optional<StoredRoom>>> futures = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                futures.add(pool.submit(() -> {
+                    started.countDown();
+                    return cache.load("hot");
+                }));
+            }
+            started.await();
+            Thread.sleep(100); // let all callers reach the in-flight load
+            mem.gate.countDown();
+            for (var f : futures) assertTrue(f.get(5, TimeUnit.SECONDS).isPresent());
+        } finally {
+            pool.shutdownNow();
+        }
+        assertEquals(1, mem.loads.get());
+        assertEquals(7L, cache.stats().get("joinedInflight"));
+    }
+}
@@ -0,0 +1,116 @@
+package com.example.estpoker.rooms.repo;
+
+import com.example.estpoker.rooms.codec.BinarySnapshotCodec;
+import com.example.estpoker.rooms.model.StoredRoom;
+import com.example.estpoker.storage.LocalFileStorage;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LocalRoomStoreTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void rooms_round_trip_including_codes_with_slashes_and_dots() throws Exception {
+        try (LocalFileStorage storage = new LocalFileStorage(dir, LocalFileStorage.Fsync.NEVER, 1_000, 64 * 1024)) {
+            LocalRoomStore store = new LocalRoomStore(storage, new BinarySnapshotCodec(true, 256));
+            for (String code : new String[]{"team/a", "..", "Ünïcode room"}) {
+                assertFalse(store.exists(code));
+                StoredRoom r = StoredRoom.newWithCode(code);
+                r.setTitle("T " + code);
+                store.save(r);
+
+                assertTrue(store.exists(code));
+                StoredRoom back = store.load(code).orElseThrow();
+                assertEquals(code, back.getCode());
+                assertEquals("T " + code, back.getTitle());
+                assertNotNull(back.getUpdatedAt());
+            }
+            store.delete("team/a");
+            assertTrue(store.load("team/a").isEmpty());
+            assertFalse(Files.exists(dir.resolve("outside")));
+        }
+    }
+
+    @Test
+    void rooms_spread_over_shard_directories() {
+        Set<String> shards = new HashSet<>();
+        for (int i = 0; i < 10_000; i++) {
+            String p = LocalRoomStore.path("room-" + i);
+            shards.add(p.substring(0, p.lastIndexOf('/')));
+        }
+        assertEquals(256, shards.size());
+    }
+
+    @Test
+    void listing_pages_through_the_index_and_survives_a_lost_manifest() throws Exception {
+        try (LocalFileStorage storage = new LocalFileStorage(dir, LocalFileStorage.Fsync.NEVER, 1_000, 64 * 1024)) {
+            LocalRoomStore store = new LocalRoomStore(storage, new BinarySnapshotCodec(true, 256), true, 10);
+            for (int i = 0; i < 25; i++) store.save(StoredRoom.newWithCode(String.format("team-%02d", i)));
+            StoredRoom locked = StoredRoom.newWithCode("other");
+            locked.setPasswordHash("$2a$10$hash");
+            store.save(locked);
+            store.delete("team-24");
+
+            assertTrue(store.supportsListing());
+            RoomStore.Page first = store.scan("team-", null, 10);
+            assertEquals(10, first.rooms().size());
+            assertEquals("team-00", first.rooms().get(0).code());
+            assertEquals("team-09", first.next());
+            RoomStore.Page last = store.scan("team-", store.scan("team-", first.next(), 10).next(), 10);
+            assertEquals(4, last.rooms().size());
+            assertEquals("team-23", last.rooms().get(3).code());
+            assertNull(last.next());
+
+            RoomStore.Summary other = store.scan("oth", null, 10).rooms().get(0);
+            assertTrue(other.passwordProtected());
+            assertTrue(other.size() > 0);
+            assertNotNull(other.updatedAt());
+            store.close();
+
+            // written on close; rebuilt from the room files when it is gone
+            assertNotNull(storage.getBytes(LocalRoomStore.INDEX_FILE));
+            storage.delete(LocalRoomStore.INDEX_FILE);
+            LocalRoomStore reopened = new LocalRoomStore(storage, new BinarySnapshotCodec(true, 256), true, 10);
+            assertEquals(25, reopened.list(null, 100).rooms().size());
+            reopened.close();
+            assertNotNull(storage.getBytes(LocalRoomStore.INDEX_FILE));
+        }
+    }
+
+    @Test
+    void the_index_is_reconciled_with_the_room_files_at_startup() throws Exception {
+        try (LocalFileStorage storage = new LocalFileStorage(dir, LocalFileStorage.Fsync.NEVER, 1_000, 64 * 1024)) {
+            LocalRoomStore store = new LocalRoomStore(storage, new BinarySnapshotCodec(true, 256), true, 10);
+            store.save(StoredRoom.newWithCode("kept"));
+            store.save(StoredRoom.newWithCode("gone"));
+            store.close();
+
+            // changes the manifest never saw: a crash before the flush, another instance's lost write
+            LocalRoomStore unindexed = new LocalRoomStore(storage, new BinarySnapshotCodec(true, 256));
+            assertFalse(unindexed.supportsListing());
+            unindexed.save(StoredRoom.newWithCode("unlisted"));
+            unindexed.delete("gone");
+            Thread.sleep(5); // the deleted entry must be older than the listing
+
+            LocalRoomStore reopened = new LocalRoomStore(storage, new BinarySnapshotCodec(true, 256), true, 10);
+            long end = System.currentTimeMillis() + 5_000;
+            Set<String> listed = new HashSet<>();
+            while (!listed.equals(Set.of("kept", "unlisted"))) {
+                assertTrue(System.currentTimeMillis() < end, "not reconciled: " + listed);
+                Thread.sleep(20);
+                listed.clear();
+                reopened.list(null, 100).rooms().forEach(r -> listed.add(r.code()));
+            }
+            reopened.close();
+        }
+    }
+}
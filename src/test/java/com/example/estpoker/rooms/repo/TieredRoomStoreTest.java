@@ -0,0 +1,173 @@
+package com.example.estpoker.rooms.repo;
+
+import com.example.estpoker.rooms.codec.BinarySnapshotCodec;
+import com.example.estpoker.rooms.codec.SnapshotCodec;
+import com.example.estpoker.rooms.model.StoredRoom;
+import com.example.estpoker.storage.LocalFileStorage;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TieredRoomStoreTest {
+
+    @TempDir
+    Path dir;
+
+    private final SnapshotCodec codec = new BinarySnapshotCodec(true, 256);
+
+    /** The FTPS side: bytes per code, can be taken down. */
+    static class FakeRemote implements RawRoomStore {
+        final Map<String, byte[]> files = new ConcurrentHashMap<>();
+        final AtomicInteger loads = new AtomicInteger();
+        volatile boolean down;
+
+        @Override public byte[] loadBytes(String code) throws Exception {
+            check();
+            loads.incrementAndGet();
+            return files.get(code);
+        }
+        @Override public void saveBytes(String code, byte[] bytes) throws Exception {
+            check();
+            files.put(code, bytes);
+        }
+        @Override public Optional<StoredRoom> load(String code) throws Exception {
+            byte[] b = loadBytes(code);
+            return b == null ? Optional.empty() : Optional.of(new BinarySnapshotCodec(false, 0).decode(b));
+        }
+        @Override public void save(StoredRoom room) throws Exception {
+            room.setVersion(room.getVersion() + 1);
+            saveBytes(room.getCode(), new BinarySnapshotCodec(false, 0).encode(room));
+        }
+        @Override public boolean exists(String code) throws Exception {
+            return loadBytes(code) != null;
+        }
+        @Override public void delete(String code) throws Exception {
+            check();
+            files.remove(code);
+        }
+        private void check() throws IOException {
+            if (down) throw new IOException("FTPS unreachable");
+        }
+    }
+
+    private TieredRoomStore open(FakeRemote remote, long refreshAfterMs) throws IOException {
+        LocalFileStorage tier = new LocalFileStorage(dir, LocalFileStorage.Fsync.NEVER, 1_000, 64 * 1024);
+        return new TieredRoomStore(tier, codec, remote, 1, 1, refreshAfterMs);
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long end = System.currentTimeMillis() + 5_000;
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.currentTimeMillis() < end, "condition not met in time");
+            Thread.sleep(10);
+        }
+    }
+
+    @Test
+    void writes_land_locally_and_reach_the_remote_in_the_background() throws Exception {
+        FakeRemote remote = new FakeRemote();
+        try (TieredRoomStore store = open(remote, 0)) {
+            StoredRoom r = StoredRoom.newWithCode("alpha");
+            r.setTitle("Planning");
+            store.save(r);
+            assertEquals(1, r.getVersion());
+
+            assertEquals(0, store.flush(5_000));
+            StoredRoom upstream = remote.load("alpha").orElseThrow();
+            assertEquals("Planning", upstream.getTitle());
+            assertEquals(1, upstream.getVersion());
+            assertEquals(r.getUpdatedAt(), upstream.getUpdatedAt());
+
+            // warm reads never go to the remote
+            int loads = remote.loads.get();
+            for (int i = 0; i < 10; i++) assertEquals("Planning", store.load("alpha").orElseThrow().getTitle());
+            assertEquals(loads, remote.loads.get());
+
+            store.delete("alpha");
+            assertEquals(0, store.flush(5_000));
+            assertFalse(remote.files.containsKey("alpha"));
+            assertEquals(0, store.stats().get("outboxPending"));
+        }
+    }
+
+    @Test
+    void cold_reads_populate_the_local_tier() throws Exception {
+        FakeRemote remote = new FakeRemote();
+        StoredRoom r = StoredRoom.newWithCode("beta");
+        r.setOwner("Bob");
+        remote.save(r);
+
+        try (TieredRoomStore store = open(remote, 0)) {
+            assertEquals("Bob", store.load("beta").orElseThrow().getOwner());
+            assertTrue(store.load("unknown").isEmpty());
+            int loads = remote.loads.get();
+
+            remote.down = true; // served from disk from now on
+            assertTrue(store.exists("beta"));
+            assertEquals("Bob", store.load("beta").orElseThrow().getOwner());
+            assertEquals(loads, remote.loads.get());
+        }
+    }
+
+    @Test
+    void the_outbox_survives_a_restart_while_the_remote_is_down() throws Exception {
+        FakeRemote remote = new FakeRemote();
+        remote.save(StoredRoom.newWithCode("gone"));
+        remote.down = true;
+
+        try (TieredRoomStore store = open(remote, 0)) {
+            StoredRoom r = StoredRoom.newWithCode("gamma");
+            r.setTitle("offline write");
+            store.save(r);
+            store.delete("gone");
+
+            assertTrue(store.load("gone").isEmpty()); // not resurrected from the remote
+            assertEquals("offline write", store.load("gamma").orElseThrow().getTitle());
+            assertEquals(Set.of("gamma", "gone"), store.localCodes()); // not listed by the remote yet
+            assertEquals(2, store.flush(200));
+        }
+
+        remote.down = false;
+        try (TieredRoomStore store = open(remote, 0)) {
+            assertEquals(0, store.flush(5_000));
+            assertEquals("offline write", remote.load("gamma").orElseThrow().getTitle());
+            assertFalse(remote.files.containsKey("gone"));
+        }
+    }
+
+    @Test
+    void startup_reconciliation_picks_up_changes_made_elsewhere() throws Exception {
+        FakeRemote remote = new FakeRemote();
+        try (TieredRoomStore store = open(remote, 0)) {
+            StoredRoom r = StoredRoom.newWithCode("delta");
+            r.setTitle("v1");
+            store.save(r);
+            store.save(StoredRoom.newWithCode("epsilon"));
+            assertEquals(0, store.flush(5_000));
+        }
+
+        // another instance writes one room and deletes the other while we are down
+        StoredRoom other = remote.load("delta").orElseThrow();
+        other.setTitle("v2");
+        remote.save(other);
+        remote.delete("epsilon");
+
+        try (TieredRoomStore store = open(remote, 0)) {
+            await(() -> store.stats().get("refreshUpdated").equals(1L) && store.stats().get("refreshRemoved").equals(1L));
+            StoredRoom back = store.load("delta").orElseThrow();
+            assertEquals("v2", back.getTitle());
+            assertEquals(2, back.getVersion());
+            assertTrue(store.load("epsilon").isEmpty());
+        }
+    }
+}
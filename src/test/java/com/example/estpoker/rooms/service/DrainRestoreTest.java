@@ -0,0 +1,78 @@
+package com.example.estpoker.rooms.service;
+
+import com.example.estpoker.model.Room;
+import com.example.estpoker.service.GameService;
+import com.example.estpoker.storage.FileStorage;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class DrainRestoreTest {
+
+    /** Minimal in-memory FileStorage. */
+    static class MemStorage implements FileStorage {
+        final Map<String, byte[]> files = new ConcurrentHashMap<>();
+        @Override public void putBytes(String p, byte[] b) { files.put(p, b.clone()); }
+        @Override public byte[] getBytes(String p) { return files.get(p); }
+        @Override public boolean delete(String p) { return files.remove(p) != null; }
+        @Override public List<String> list(String d) { return new ArrayList<>(files.keySet()); }
+        @Override public void ensureParentDirs(String p) { }
+    }
+
+    @Test
+    void liveRooms_survive_a_restart_with_votes_cids_and_host() throws Exception {
+        GameService before = new GameService();
+        before.join("team/a", "cidA", "Alice");
+        before.join("team/a", "cidB", "Bob");
+        before.setVote("team/a", "cidB", "13");
+        before.startTimer("team/a", 120);
+
+        MemStorage storage = new MemStorage();
+        LiveRoomArchive archive = new LiveRoomArchive(storage);
+        assertEquals(1, archive.save(before.replicas(), 4, 5_000));
+
+        GameService after = new GameService();
+        var restored = archive.restore(60_000, 4, 5_000);
+        assertEquals(1, restored.size());
+        after.restoreAfterRestart(restored.get(0), 30_000);
+
+        Room room = after.getRoom("team/a");
+        assertNotNull(room);
+        assertEquals("13", room.getParticipant("Bob").getVote());
+        assertTrue(room.getParticipant("Alice").isHost());
+        assertTrue(room.getParticipant("Alice").isActive(), "still inside the reconnect grace");
+        assertTrue(room.isTimerRunning());
+        assertEquals("Bob", after.getClientName("team/a", "cidB"));
+
+        // Too old -> nothing restored
+        assertTrue(archive.restore(-1, 4, 5_000).isEmpty());
+    }
+
+    @Test
+    void snapshotter_flush_persists_pending_saves_immediately() {
+        RoomPersistenceService service = mock(RoomPersistenceService.class);
+        RoomSnapshotter snapshotter = new RoomSnapshotter(service, 60_000);
+        try {
+            Room a = new Room("a");
+            Room b = new Room("b");
+            snapshotter.onChange(a, "x");
+            snapshotter.onChange(a, "y"); // coalesced
+            snapshotter.onChange(b, "z");
+            assertEquals(2, snapshotter.pendingCount());
+
+            assertEquals(0, snapshotter.flush(5_000));
+            verify(service, times(1)).saveFromLive(a, "y");
+            verify(service, times(1)).saveFromLive(b, "z");
+            verifyNoMoreInteractions(service);
+        } finally {
+            snapshotter.shutdown();
+        }
+        verifyNoMoreInteractions(service); // nothing left for shutdown
+    }
+}
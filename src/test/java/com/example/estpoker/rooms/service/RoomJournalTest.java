@@ -0,0 +1,134 @@
+package com.example.estpoker.rooms.service;
+
+import com.example.estpoker.model.Room;
+import com.example.estpoker.rooms.model.StoredRoom;
+import com.example.estpoker.rooms.repo.RoomStore;
+import com.example.estpoker.security.PasswordHasher;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RoomJournalTest {
+
+    private static final long NEVER = 3_600_000L;
+
+    @TempDir
+    Path dir;
+
+    /** In-memory store counting saves. */
+    static class MemStore implements RoomStore {
+        final Map<String, StoredRoom> rooms = new ConcurrentHashMap<>();
+        final AtomicInteger saves = new AtomicInteger();
+        @Override public Optional<StoredRoom> load(String code) { return Optional.ofNullable(rooms.get(code)); }
+        @Override public void save(StoredRoom room) { saves.incrementAndGet(); rooms.put(room.getCode(), room); }
+        @Override public boolean exists(String code) { return rooms.containsKey(code); }
+        @Override public void delete(String code) { rooms.remove(code); }
+    }
+
+    private static Room room(String code, String topic) {
+        Room r = new Room(code);
+        r.setTopicLabel(topic);
+        return r;
+    }
+
+    private static void awaitWritten(RoomJournal j) throws InterruptedException {
+        long end = System.currentTimeMillis() + 5_000;
+        while (System.currentTimeMillis() < end
+                && !j.stats().get("lastWritten").equals(j.stats().get("lastSeq"))) Thread.sleep(5);
+    }
+
+    private List<Path> segments() throws Exception {
+        try (Stream<Path> s = Files.list(dir)) {
+            return s.filter(p -> p.getFileName().toString().startsWith(RoomJournal.SEGMENT_PREFIX)).sorted().toList();
+        }
+    }
+
+    @Test
+    void compaction_writes_the_newest_state_once_per_room_and_drops_old_segments() throws Exception {
+        MemStore store = new MemStore();
+        StoredRoom protectedRoom = StoredRoom.newWithCode("a");
+        protectedRoom.setPasswordHash("hash");
+        store.rooms.put("a", protectedRoom);
+
+        try (RoomJournal j = new RoomJournal(new StoredRoomPersistenceService(store, new PasswordHasher()),
+                dir, 64 * 1024, true, NEVER)) {
+            for (int i = 0; i < 50; i++) {
+                j.append(room("a", "A" + i), "alice");
+                j.append(room("b", "B" + i), "bob");
+            }
+            awaitWritten(j);
+            assertEquals(0, store.saves.get(), "nothing is rewritten per change");
+
+            assertEquals(0, j.compact());
+            assertEquals(2, store.saves.get());
+            assertEquals("A49", store.rooms.get("a").getTopicLabel());
+            assertEquals("hash", store.rooms.get("a").getPasswordHash(), "password survives compaction");
+            assertEquals("B49", store.rooms.get("b").getTopicLabel());
+            assertEquals(100L, j.stats().get("checkpoint"));
+            assertEquals(1, segments().size(), "only the active segment is left");
+            assertTrue((Long) j.stats().get("groups") <= 100L);
+        }
+    }
+
+    @Test
+    void changes_survive_a_crash_and_are_replayed_into_the_store() throws Exception {
+        MemStore store = new MemStore();
+        StoredRoomPersistenceService service = new StoredRoomPersistenceService(store, new PasswordHasher());
+
+        RoomJournal crashed = new RoomJournal(service, dir, 64 * 1024, true, NEVER);
+        crashed.append(room("r", "first"), "alice");
+        crashed.append(room("r", "second"), "alice");
+        crashed.append(room("s", "other"), "bob");
+        awaitWritten(crashed);
+        assertTrue(store.rooms.isEmpty(), "not compacted before the crash");
+
+        // torn tail: a record header without its payload
+        Path last = segments().get(segments().size() - 1);
+        Files.write(last, new byte[]{0, 0, 1, 0, 7, 7}, StandardOpenOption.APPEND);
+
+        try (RoomJournal restarted = new RoomJournal(service, dir, 64 * 1024, true, NEVER)) {
+            assertEquals("second", store.rooms.get("r").getTopicLabel());
+            assertEquals("other", store.rooms.get("s").getTopicLabel());
+            assertEquals(3L, restarted.stats().get("replayed"));
+            assertEquals(0, restarted.stats().get("uncompactedRooms"));
+
+            restarted.append(room("r", "third"), "alice");
+            awaitWritten(restarted);
+            assertEquals(4L, restarted.stats().get("lastSeq"), "sequence continues after replay");
+        }
+        assertEquals("third", store.rooms.get("r").getTopicLabel(), "close compacts");
+    }
+
+    @Test
+    void failed_compaction_keeps_the_records_for_the_next_round() throws Exception {
+        MemStore healthy = new MemStore();
+        AtomicInteger failuresLeft = new AtomicInteger(1);
+        RoomStore flaky = new MemStore() {
+            @Override public void save(StoredRoom room) {
+                if (failuresLeft.getAndDecrement() > 0) throw new IllegalStateException("store down");
+                healthy.save(room);
+            }
+        };
+        try (RoomJournal j = new RoomJournal(new StoredRoomPersistenceService(flaky, new PasswordHasher()),
+                dir, 64 * 1024, true, NEVER)) {
+            j.append(room("x", "kept"), "alice");
+            awaitWritten(j);
+
+            assertEquals(1, j.compact());
+            assertEquals(0L, j.stats().get("checkpoint"), "checkpoint does not pass the failed room");
+            assertEquals(0, j.compact());
+            assertEquals("kept", healthy.rooms.get("x").getTopicLabel());
+        }
+    }
+}
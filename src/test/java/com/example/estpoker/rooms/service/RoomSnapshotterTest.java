@@ -0,0 +1,109 @@
+package com.example.estpoker.rooms.service;
+
+import com.example.estpoker.model.Room;
+import com.example.estpoker.security.PasswordHasher;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class RoomSnapshotterTest {
+
+    @Test
+    void busy_room_is_saved_within_max_delay_even_if_changes_never_pause() throws Exception {
+        RoomPersistenceService service = mock(RoomPersistenceService.class);
+        RoomSnapshotter snapshotter = new RoomSnapshotter(service, 200, 300, 1, 3);
+        try {
+            Room room = new Room("busy");
+            long end = System.currentTimeMillis() + 1_000;
+            while (System.currentTimeMillis() < end) {
+                snapshotter.onChange(room, "a"); // faster than the debounce window
+                Thread.sleep(20);
+            }
+            // plain debounce would not have written anything yet
+            verify(service, atLeast(2)).saveFromLive(room, "a");
+            assertTrue((Long) snapshotter.stats().get("maxLagMs") < 1_000);
+        } finally {
+            snapshotter.shutdown();
+        }
+    }
+
+    @Test
+    void failed_write_is_retried_with_the_latest_state() throws Exception {
+        RoomPersistenceService service = mock(RoomPersistenceService.class);
+        doThrow(new IllegalStateException("store down")).doNothing()
+                .when(service).saveFromLive(any(), anyString());
+        RoomSnapshotter snapshotter = new RoomSnapshotter(service, 0, 0, 1, 3);
+        try {
+            Room room = new Room("r");
+            snapshotter.onChange(room, "x");
+            verify(service, timeout(500).times(1)).saveFromLive(room, "x");
+            snapshotter.onChange(room, "y"); // arrives during the backoff: no early retry
+
+            assertEquals(0, snapshotter.flush(5_000));
+            verify(service, times(1)).saveFromLive(room, "y");
+            assertEquals(1L, snapshotter.stats().get("retries"));
+            assertEquals(0L, snapshotter.stats().get("dropped"));
+        } finally {
+            snapshotter.shutdown();
+        }
+    }
+
+    @Test
+    void store_failures_behind_the_stored_room_service_are_retried() throws Exception {
+        StoredRoomPersistenceServiceTest.VersioningStore store = new StoredRoomPersistenceServiceTest.VersioningStore();
+        store.failSaves = true;
+        RoomSnapshotter snapshotter = new RoomSnapshotter(
+                new StoredRoomPersistenceService(store, new PasswordHasher()), 0, 0, 1, 3);
+        try {
+            Room room = new Room("r");
+            snapshotter.onChange(room, "x");
+            long end = System.currentTimeMillis() + 2_000;
+            while ((Long) snapshotter.stats().get("failures") == 0 && System.currentTimeMillis() < end) Thread.sleep(5);
+            assertEquals(1L, snapshotter.stats().get("failures"));
+            assertEquals(1L, snapshotter.stats().get("retries"));
+            assertEquals(0L, snapshotter.stats().get("writes"));
+
+            store.failSaves = false; // the store is back before the backoff ends
+            assertEquals(0, snapshotter.flush(5_000));
+            assertTrue(store.rooms.containsKey("r"));
+            assertEquals(1L, snapshotter.stats().get("writes"));
+            assertEquals(0L, snapshotter.stats().get("dropped"));
+        } finally {
+            snapshotter.shutdown();
+        }
+    }
+
+    @Test
+    void writes_are_bounded_by_the_worker_count_and_serial_per_room() throws Exception {
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger peak = new AtomicInteger();
+        RoomPersistenceService service = mock(RoomPersistenceService.class);
+        doAnswer(inv -> {
+            peak.accumulateAndGet(running.incrementAndGet(), Math::max);
+            Thread.sleep(50);
+            running.decrementAndGet();
+            return null;
+        }).when(service).saveFromLive(any(), anyString());
+
+        RoomSnapshotter snapshotter = new RoomSnapshotter(service, 0, 0, 2, 3);
+        try {
+            for (int i = 0; i < 6; i++) snapshotter.onChange(new Room("room-" + i), "a");
+            Room hot = new Room("hot");
+            for (int i = 0; i < 20; i++) {
+                snapshotter.onChange(hot, "h" + i);
+                Thread.sleep(5);
+            }
+
+            assertEquals(0, snapshotter.flush(5_000));
+            assertTrue(peak.get() <= 2, "peak concurrency " + peak.get());
+            verify(service).saveFromLive(hot, "h19"); // the latest state always lands
+            verify(service, atMost(10)).saveFromLive(eq(hot), anyString());
+        } finally {
+            snapshotter.shutdown();
+        }
+    }
+}
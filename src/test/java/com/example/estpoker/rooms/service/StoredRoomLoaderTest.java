@@ -0,0 +1,80 @@
+package com.example.estpoker.rooms.service;
+
+import com.example.estpoker.rooms.model.StoredRoom;
+import com.example.estpoker.rooms.repo.RoomStore;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class StoredRoomLoaderTest {
+
+    private StoredRoomLoader loader;
+
+    @AfterEach
+    void tearDown() {
+        if (loader != null) loader.shutdown();
+    }
+
+    @Test
+    @DisplayName("Concurrent loads of one code share a single fetch")
+    void singleFlight() throws Exception {
+        RoomStore store = mock(RoomStore.class);
+        CountDownLatch release = new CountDownLatch(1);
+        when(store.load("r1")).thenAnswer(inv -> {
+            release.await(5, TimeUnit.SECONDS);
+            return Optional.of(StoredRoom.newWithCode("r1"));
+        });
+        loader = new StoredRoomLoader(store, 4, 100, 0);
+
+        List<CompletableFuture<Optional<StoredRoom>>> loads = new ArrayList<>();
+        for (int i = 0; i < 10; i++) loads.add(loader.load("r1"));
+        assertFalse(loads.get(0).isDone(), "load() must not wait for the store");
+        release.countDown();
+
+        for (CompletableFuture<Optional<StoredRoom>> f : loads) {
+            assertEquals("r1", f.get(5, TimeUnit.SECONDS).orElseThrow().getCode());
+        }
+        verify(store, times(1)).load("r1");
+        assertEquals(9L, loader.stats().get("joinedInflight"));
+    }
+
+    @Test
+    @DisplayName("Unknown codes are answered from the negative cache until forget()")
+    void negativeCache() throws Exception {
+        RoomStore store = mock(RoomStore.class);
+        when(store.load("nope")).thenReturn(Optional.empty());
+        loader = new StoredRoomLoader(store, 1, 100, 0);
+
+        assertTrue(loader.load("nope").get(5, TimeUnit.SECONDS).isEmpty());
+        assertTrue(loader.load("nope").get(5, TimeUnit.SECONDS).isEmpty());
+        verify(store, times(1)).load("nope");
+
+        loader.forget("nope");
+        when(store.load("nope")).thenReturn(Optional.of(StoredRoom.newWithCode("nope")));
+        assertTrue(loader.load("nope").get(5, TimeUnit.SECONDS).isPresent());
+        verify(store, times(2)).load("nope");
+    }
+
+    @Test
+    @DisplayName("A failed fetch is not cached and the next load retries")
+    void failuresRetry() throws Exception {
+        RoomStore store = mock(RoomStore.class);
+        when(store.load("r1")).thenThrow(new java.io.IOException("down")).thenReturn(Optional.empty());
+        loader = new StoredRoomLoader(store, 1, 100, 0);
+
+        CompletableFuture<Optional<StoredRoom>> first = loader.load("r1");
+        assertThrows(Exception.class, () -> first.get(5, TimeUnit.SECONDS));
+        assertTrue(loader.load("r1").get(5, TimeUnit.SECONDS).isEmpty());
+        verify(store, times(2)).load("r1");
+    }
+}
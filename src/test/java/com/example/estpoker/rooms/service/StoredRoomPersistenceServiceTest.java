@@ -1,16 +1,27 @@
 package com.example.estpoker.rooms.service;
 
+import com.example.estpoker.cluster.InJvmRoomEventBus;
 import com.example.estpoker.model.Participant;
 import com.example.estpoker.model.Room;
+import com.example.estpoker.rooms.codec.BinarySnapshotCodec;
 import com.example.estpoker.rooms.model.StoredRoom;
+import com.example.estpoker.rooms.repo.CachingRoomStore;
+import com.example.estpoker.rooms.repo.LocalRoomStore;
 import com.example.estpoker.rooms.repo.RoomStore;
+import com.example.estpoker.rooms.repo.TieredRoomStore;
 import com.example.estpoker.security.PasswordHasher;
+import com.example.estpoker.storage.LocalFileStorage;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import org.mockito.ArgumentCaptor;
 
+import java.nio.file.Path;
 import java.time.Instant;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -21,6 +32,43 @@ class StoredRoomPersistenceServiceTest {
         return new StoredRoomPersistenceService(store, new PasswordHasher());
     }
 
+    /** Stamps versions like the real stores and keeps a copy of what was written. */
+    static class VersioningStore implements RoomStore {
+        final Map<String, StoredRoom> rooms = new ConcurrentHashMap<>();
+        final AtomicInteger loads = new AtomicInteger();
+        final AtomicInteger saves = new AtomicInteger();
+        volatile boolean failSaves;
+
+        @Override public Optional<StoredRoom> load(String code) {
+            loads.incrementAndGet();
+            return Optional.ofNullable(rooms.get(code)).map(VersioningStore::copy);
+        }
+        @Override public void save(StoredRoom room) {
+            if (failSaves) throw new IllegalStateException("store down");
+            saves.incrementAndGet();
+            room.touchUpdated();
+            room.setVersion(room.getVersion() + 1);
+            rooms.put(room.getCode(), copy(room));
+        }
+        @Override public boolean exists(String code) { return rooms.containsKey(code); }
+        @Override public void delete(String code) { rooms.remove(code); }
+
+        static StoredRoom copy(StoredRoom r) {
+            StoredRoom c = new StoredRoom();
+            c.setCode(r.getCode());
+            c.setTitle(r.getTitle());
+            c.setOwner(r.getOwner());
+            c.setPasswordHash(r.getPasswordHash());
+            c.setTopicLabel(r.getTopicLabel());
+            c.setParticipants(List.copyOf(r.getParticipants()));
+            c.getSettings().setSequenceId(r.getSettings().getSequenceId());
+            c.setVersion(r.getVersion());
+            c.setCreatedAt(r.getCreatedAt());
+            c.setUpdatedAt(r.getUpdatedAt());
+            return c;
+        }
+    }
+
     private Room sampleLive(String code) {
         Room r = new Room(code);
         r.setSequenceId("fibonacci");
@@ -50,6 +98,7 @@ class StoredRoomPersistenceServiceTest {
     @Test
     void saveFromLive_creates_whenAbsent() throws Exception {
         RoomStore store = mock(RoomStore.class);
+        when(store.loadFresh(anyString())).thenCallRealMethod();
         when(store.load("X")).thenReturn(Optional.empty());
 
         StoredRoomPersistenceService svc = svcWith(store);
@@ -75,6 +124,7 @@ class StoredRoomPersistenceServiceTest {
     @Test
     void saveFromLive_merges_whenExisting_preservesPassword() throws Exception {
         RoomStore store = mock(RoomStore.class);
+        when(store.loadFresh(anyString())).thenCallRealMethod();
 
         StoredRoom existing = StoredRoom.newWithCode("Y");
         existing.setPasswordHash("$2a$10$existingHashValue"); // pretend an existing bcrypt hash
@@ -114,6 +164,7 @@ class StoredRoomPersistenceServiceTest {
     @Test
     void setPassword_and_verifyPassword_works() throws Exception {
         RoomStore store = mock(RoomStore.class);
+        when(store.loadFresh(anyString())).thenCallRealMethod();
         when(store.load("Z")).thenReturn(Optional.empty()); // first call in setPassword
 
         StoredRoomPersistenceService svc = svcWith(store);
@@ -135,6 +186,7 @@ class StoredRoomPersistenceServiceTest {
 
         // Clear password and verify that blank works
         reset(store);
+        when(store.loadFresh(anyString())).thenCallRealMethod();
         when(store.load("Z")).thenReturn(Optional.of(savedWithPwd));
         doAnswer(inv -> {
             StoredRoom sr = inv.getArgument(0);
@@ -150,4 +202,194 @@ class StoredRoomPersistenceServiceTest {
         assertTrue(svc.verifyPassword("Z", null));
         assertTrue(svc.verifyPassword("Z", "")); // blank allowed when no password set
     }
+
+    @Test
+    void routine_snapshots_are_single_writes_and_keep_stored_fields() throws Exception {
+        VersioningStore store = new VersioningStore();
+        StoredRoom existing = StoredRoom.newWithCode("V");
+        store.rooms.put("V", existing);
+
+        StoredRoomPersistenceService svc = svcWith(store);
+        Room live = sampleLive("V");
+        for (int i = 0; i < 5; i++) {
+            live.setTopicLabel("Topic " + i);
+            svc.saveFromLive(live, "tester");
+        }
+
+        assertEquals(1, store.loads.get(), "only the first snapshot reads the room");
+        assertEquals(5, store.saves.get());
+        StoredRoom stored = store.rooms.get("V");
+        assertEquals("Topic 4", stored.getTopicLabel());
+        assertEquals(existing.getCreatedAt(), stored.getCreatedAt());
+        assertEquals(5, stored.getVersion());
+        assertEquals(4L, svc.stats().get("blindWrites"));
+    }
+
+    @Test
+    void rooms_with_password_title_or_owner_are_read_before_every_write() throws Exception {
+        VersioningStore store = new VersioningStore();
+        StoredRoom existing = StoredRoom.newWithCode("V");
+        existing.setTitle("Refinement");
+        existing.setPasswordHash("$2a$10$existingHashValue");
+        store.rooms.put("V", existing);
+
+        StoredRoomPersistenceService svc = svcWith(store);
+        Room live = sampleLive("V");
+        for (int i = 0; i < 3; i++) {
+            live.setTopicLabel("Topic " + i);
+            svc.saveFromLive(live, "tester");
+        }
+        assertEquals(3, store.loads.get());
+        assertEquals(0L, svc.stats().get("blindWrites"));
+        assertEquals("Refinement", store.rooms.get("V").getTitle());
+        assertEquals("$2a$10$existingHashValue", store.rooms.get("V").getPasswordHash());
+
+        // cleared by another instance right after our write: the next snapshot does not put it back
+        StoredRoom other = store.load("V").orElseThrow();
+        other.setPasswordHash(null);
+        store.save(other);
+        svc.saveFromLive(live, "tester");
+        assertNull(store.rooms.get("V").getPasswordHash());
+    }
+
+    @Test
+    void a_password_set_on_another_node_is_not_undone() throws Exception {
+        VersioningStore store = new VersioningStore();
+        InJvmRoomEventBus.Hub hub = new InJvmRoomEventBus.Hub();
+        try (InJvmRoomEventBus busA = new InJvmRoomEventBus("a", hub);
+             InJvmRoomEventBus busB = new InJvmRoomEventBus("b", hub)) {
+            StoredRoomPersistenceService a = new StoredRoomPersistenceService(store, new PasswordHasher(), 100, 60_000L, busA);
+            StoredRoomPersistenceService b = new StoredRoomPersistenceService(store, new PasswordHasher(), 100, 60_000L, busB);
+            Room live = sampleLive("N");
+            a.saveFromLive(live, "tester");
+            assertEquals(1, a.stats().get("knownRooms"));
+
+            b.setPassword("N", "secret");
+            long end = System.currentTimeMillis() + 5_000;
+            while ((Integer) a.stats().get("knownRooms") > 0 && System.currentTimeMillis() < end) Thread.sleep(5);
+            assertEquals(0, a.stats().get("knownRooms"));
+
+            a.saveFromLive(live, "tester");
+            assertTrue(a.verifyPassword("N", "secret"));
+            assertEquals(0L, a.stats().get("blindWrites"));
+        }
+    }
+
+    @Test
+    void a_first_write_clears_not_stored_answers_on_every_node() throws Exception {
+        VersioningStore store = new VersioningStore();
+        InJvmRoomEventBus.Hub hub = new InJvmRoomEventBus.Hub();
+        StoredRoomLoader loaderA = new StoredRoomLoader(store, 1, 100, 3_600_000L);
+        StoredRoomLoader loaderB = new StoredRoomLoader(store, 1, 100, 3_600_000L);
+        try (InJvmRoomEventBus busA = new InJvmRoomEventBus("a", hub);
+             InJvmRoomEventBus busB = new InJvmRoomEventBus("b", hub)) {
+            StoredRoomPersistenceService a = new StoredRoomPersistenceService(store, new PasswordHasher(), 100, 60_000L, busA, loaderA);
+            new StoredRoomPersistenceService(store, new PasswordHasher(), 100, 60_000L, busB, loaderB);
+            assertTrue(loaderA.load("F").get().isEmpty());
+            assertTrue(loaderB.load("F").get().isEmpty());
+
+            a.saveFromLive(sampleLive("F"), "tester");
+
+            assertTrue(loaderA.load("F").get().isPresent());
+            long end = System.currentTimeMillis() + 5_000;
+            while (loaderB.load("F").get().isEmpty() && System.currentTimeMillis() < end) Thread.sleep(5);
+            assertTrue(loaderB.load("F").get().isPresent());
+        } finally {
+            loaderA.shutdown();
+            loaderB.shutdown();
+        }
+    }
+
+    @Test
+    void a_password_set_on_another_node_survives_the_cache_and_the_local_tier(@TempDir Path dir) throws Exception {
+        BinarySnapshotCodec codec = new BinarySnapshotCodec(true, 256);
+        InJvmRoomEventBus.Hub hub = new InJvmRoomEventBus.Hub();
+        try (LocalFileStorage shared = new LocalFileStorage(dir.resolve("remote"), LocalFileStorage.Fsync.NEVER, 1_000, 64 * 1024);
+             TieredRoomStore tierA = new TieredRoomStore(new LocalFileStorage(dir.resolve("a"), LocalFileStorage.Fsync.NEVER, 1_000, 64 * 1024),
+                     codec, new LocalRoomStore(shared, codec), 1, 1, 60_000L);
+             TieredRoomStore tierB = new TieredRoomStore(new LocalFileStorage(dir.resolve("b"), LocalFileStorage.Fsync.NEVER, 1_000, 64 * 1024),
+                     codec, new LocalRoomStore(shared, codec), 1, 1, 60_000L);
+             InJvmRoomEventBus busA = new InJvmRoomEventBus("a", hub);
+             InJvmRoomEventBus busB = new InJvmRoomEventBus("b", hub)) {
+            // the production chain: cache (30 s TTL) over the local tier over the shared store
+            StoredRoomPersistenceService a = new StoredRoomPersistenceService(
+                    new CachingRoomStore(tierA, 100, 30_000L), new PasswordHasher(), 100, 60_000L, busA);
+            StoredRoomPersistenceService b = new StoredRoomPersistenceService(
+                    new CachingRoomStore(tierB, 100, 30_000L), new PasswordHasher(), 100, 60_000L, busB);
+            Room live = sampleLive("T");
+            b.saveFromLive(live, "tester");
+            assertEquals(0, tierB.flush(5_000));
+            assertTrue(b.verifyPassword("T", null)); // cached and in b's tier: no password
+
+            a.setPassword("T", "secret");
+            assertEquals(0, tierA.flush(5_000));
+            long end = System.currentTimeMillis() + 5_000;
+            while (!b.verifyPassword("T", "secret")) {
+                assertTrue(System.currentTimeMillis() < end, "b still reads the old room");
+                Thread.sleep(10);
+            }
+
+            b.saveFromLive(live, "tester");
+            assertEquals(0, tierB.flush(5_000));
+            StoredRoom stored = new LocalRoomStore(shared, codec).load("T").orElseThrow();
+            assertTrue(new PasswordHasher().matches("secret", stored.getPasswordHash()));
+        }
+    }
+
+    @Test
+    void out_of_band_writes_are_read_before_the_next_snapshot() throws Exception {
+        VersioningStore store = new VersioningStore();
+        StoredRoomPersistenceService svc = svcWith(store);
+        Room live = sampleLive("W");
+        svc.saveFromLive(live, "tester");
+
+        // REST upsert through this instance: forget() is called
+        StoredRoom upserted = store.load("W").orElseThrow();
+        upserted.setTitle("Renamed");
+        store.save(upserted);
+        svc.forget("W");
+        svc.saveFromLive(live, "tester");
+        assertEquals("Renamed", store.rooms.get("W").getTitle());
+
+        // password set elsewhere is seen by verifyPassword: the next snapshot does not overwrite it
+        StoredRoom other = store.load("W").orElseThrow();
+        other.setPasswordHash(new PasswordHasher().hash("secret"));
+        store.save(other);
+        assertTrue(svc.verifyPassword("W", "secret"));
+        svc.saveFromLive(live, "tester");
+        assertTrue(svc.verifyPassword("W", "secret"));
+        assertEquals(1L, svc.stats().get("conflicts"));
+    }
+
+    @Test
+    void conflicting_writes_by_other_instances_are_detected_on_revalidation() throws Exception {
+        VersioningStore store = new VersioningStore();
+        StoredRoomPersistenceService svc = new StoredRoomPersistenceService(store, new PasswordHasher(), 100, 1);
+        Room live = sampleLive("C");
+        svc.saveFromLive(live, "tester");
+
+        StoredRoom other = store.load("C").orElseThrow();
+        other.setOwner("Bob");
+        store.save(other);
+        Thread.sleep(5);
+
+        svc.saveFromLive(live, "tester");
+        assertEquals("Bob", store.rooms.get("C").getOwner());
+        assertEquals(1L, svc.stats().get("conflicts"));
+    }
+
+    @Test
+    void a_failed_write_makes_the_room_unknown_again() throws Exception {
+        VersioningStore store = new VersioningStore();
+        StoredRoomPersistenceService svc = svcWith(store);
+        Room live = sampleLive("F");
+        svc.saveFromLive(live, "tester");
+        int loads = store.loads.get();
+
+        store.failSaves = true;
+        assertThrows(IllegalStateException.class, () -> svc.saveFromLiveOrThrow(live, "tester"));
+        store.failSaves = false;
+        svc.saveFromLive(live, "tester");
+        assertEquals(loads + 1, store.loads.get());
+    }
 }
@@ -14,8 +14,10 @@ import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 
 import java.time.Instant;
+import java.util.List;
 import java.util.Optional;
 
+import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.is;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -26,6 +28,7 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
  * RoomsControllerCrudTests (standalone MockMvc)
  *
  * Scope:
+ * - GET /api/rooms
  * - GET /api/rooms/{code}
  * - GET /api/rooms/{code}/exists
  * - PUT /api/rooms/{code}
@@ -41,8 +44,9 @@ class RoomsControllerCrudTests {
     private MockMvc mockMvc;
 
     @BeforeEach
-    void setUp() {
+    void setUp() throws Exception {
         store = mock(RoomStore.class);
+        when(store.loadFresh(anyString())).thenCallRealMethod();
         service = mock(RoomPersistenceService.class);
 
         controller = new RoomsController(store, service);
@@ -52,6 +56,72 @@ class RoomsControllerCrudTests {
                 .build();
     }
 
+    @Nested
+    @DisplayName("GET /api/rooms")
+    class ListRooms {
+
+        @BeforeEach
+        void withListToken() {
+            mockMvc = MockMvcBuilders
+                    .standaloneSetup(new RoomsController(store, service, "s3cret"))
+                    .setMessageConverters(new MappingJackson2HttpMessageConverter())
+                    .build();
+        }
+
+        @Test
+        @DisplayName("returns one page of the index and the cursor for the next")
+        void page() throws Exception {
+            RoomStore.Summary a = new RoomStore.Summary("team-a", Instant.parse("2025-01-01T10:00:00Z"), 120, true);
+            RoomStore.Summary b = new RoomStore.Summary("team-b", null, 80, false);
+            when(store.supportsListing()).thenReturn(true);
+            when(store.scan("team", "team-0", 2)).thenReturn(new RoomStore.Page(List.of(a, b), "team-b"));
+
+            mockMvc.perform(get("/api/rooms").header("X-List-Token", "s3cret").param("prefix", "team").param("after", "team-0").param("limit", "2"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.rooms.length()", is(2)))
+                    .andExpect(jsonPath("$.rooms[0].code", is("team-a")))
+                    .andExpect(jsonPath("$.rooms[0].size", is(120)))
+                    .andExpect(jsonPath("$.rooms[0].passwordProtected", is(true)))
+                    .andExpect(jsonPath("$.rooms[1].code", is("team-b")))
+                    .andExpect(jsonPath("$.next", is("team-b")));
+
+            verify(store).supportsListing();
+            verify(store).scan("team", "team-0", 2);
+            verifyNoMoreInteractions(store, service);
+        }
+
+        @Test
+        @DisplayName("returns 501 when the store cannot list, without calling scan")
+        void unsupported() throws Exception {
+            when(store.supportsListing()).thenReturn(false);
+
+            mockMvc.perform(get("/api/rooms").header("X-List-Token", "s3cret"))
+                    .andExpect(status().isNotImplemented())
+                    .andExpect(jsonPath("$.message", containsString("not supported")));
+
+            verify(store).supportsListing();
+            verifyNoMoreInteractions(store, service);
+        }
+
+        @Test
+        @DisplayName("returns 403 without the list token and never touches the store")
+        void wrong_token() throws Exception {
+            mockMvc.perform(get("/api/rooms")).andExpect(status().isForbidden());
+            mockMvc.perform(get("/api/rooms").header("X-List-Token", "guess")).andExpect(status().isForbidden());
+
+            verifyNoInteractions(store, service);
+        }
+
+        @Test
+        @DisplayName("returns 404 when no list token is configured")
+        void not_configured() throws Exception {
+            MockMvc open = MockMvcBuilders.standaloneSetup(new RoomsController(store, service)).build();
+            open.perform(get("/api/rooms").header("X-List-Token", "")).andExpect(status().isNotFound());
+
+            verifyNoInteractions(store, service);
+        }
+    }
+
     @Nested
     @DisplayName("GET /api/rooms/{code}/exists")
     class Exists {
@@ -165,8 +235,10 @@ class RoomsControllerCrudTests {
                     .andExpect(jsonPath("$.settings.topicVisible", is(false)));
 
             ArgumentCaptor<StoredRoom> saved = ArgumentCaptor.forClass(StoredRoom.class);
+            verify(store).loadFresh("new1");
             verify(store).load("new1");
             verify(store).save(saved.capture());
+            verify(service).forget("new1");
             verifyNoMoreInteractions(store, service);
 
             StoredRoom sr = saved.getValue();
@@ -212,8 +284,10 @@ class RoomsControllerCrudTests {
                     .andExpect(jsonPath("$.settings.topicVisible", is(true)));
 
             ArgumentCaptor<StoredRoom> saved = ArgumentCaptor.forClass(StoredRoom.class);
+            verify(store).loadFresh("e1");
             verify(store).load("e1");
             verify(store).save(saved.capture());
+            verify(service).forget("e1");
             verifyNoMoreInteractions(store, service);
 
             StoredRoom sr = saved.getValue();
@@ -252,6 +326,7 @@ class RoomsControllerCrudTests {
 
             verify(store).exists("yes");
             verify(store).delete("yes");
+            verify(service).forget("yes");
             verifyNoMoreInteractions(store, service);
         }
     }
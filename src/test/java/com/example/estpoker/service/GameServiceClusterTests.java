@@ -0,0 +1,120 @@
+package com.example.estpoker.service;
+
+import com.example.estpoker.cluster.InJvmRoomEventBus;
+import com.example.estpoker.model.Participant;
+import com.example.estpoker.model.Room;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class GameServiceClusterTests {
+
+    @Test
+    @DisplayName("Votes, reveal and close on one node show up on the other node")
+    void stateFollowsAcrossNodes() throws Exception {
+        InJvmRoomEventBus.Hub hub = new InJvmRoomEventBus.Hub();
+        InJvmRoomEventBus busA = new InJvmRoomEventBus("a", hub);
+        InJvmRoomEventBus busB = new InJvmRoomEventBus("b", hub);
+        try {
+            GameService nodeA = new GameService(busA);
+            GameService nodeB = new GameService(busB);
+
+            nodeA.join("r1", "cidA", "Alice");
+            nodeA.setVote("r1", "cidA", "8");
+            await(() -> {
+                Room r = nodeB.getRoom("r1");
+                Participant p = (r == null) ? null : r.getParticipant("Alice");
+                return p != null && "8".equals(p.getVote());
+            });
+            assertEquals("Alice", nodeB.getRoom("r1").getParticipantByCid("cidA").map(Participant::getName).orElse(null));
+
+            nodeB.reveal("r1");
+            await(() -> nodeA.getRoom("r1").areVotesRevealed());
+
+            nodeA.closeRoom(nodeA.getRoom("r1"));
+            await(() -> nodeB.getRoom("r1") == null);
+        } finally {
+            busA.close();
+            busB.close();
+        }
+    }
+
+    @Test
+    @DisplayName("With single-owner rooms nothing is mirrored; a handoff moves the room to its new owner")
+    void handoffMovesRoom() throws Exception {
+        InJvmRoomEventBus.Hub hub = new InJvmRoomEventBus.Hub();
+        InJvmRoomEventBus busA = new InJvmRoomEventBus("a", hub);
+        InJvmRoomEventBus busB = new InJvmRoomEventBus("b", hub);
+        try {
+            GameService nodeA = new GameService(busA);
+            GameService nodeB = new GameService(busB);
+            AtomicBoolean aOwns = new AtomicBoolean(true);
+            nodeA.useOwnership(code -> aOwns.get());
+            nodeB.useOwnership(code -> !aOwns.get());
+
+            nodeA.join("r1", "cidA", "Alice");
+            nodeA.setVote("r1", "cidA", "5");
+            Thread.sleep(100);
+            assertNull(nodeB.getRoom("r1"), "rooms must not be mirrored in ownership mode");
+
+            aOwns.set(false);
+            nodeA.handOffRoom("r1", "b", "http://node-b");
+            assertNull(nodeA.getRoom("r1"));
+            await(() -> nodeB.getRoom("r1") != null);
+            assertEquals("5", nodeB.getRoom("r1").getParticipant("Alice").getVote());
+        } finally {
+            busA.close();
+            busB.close();
+        }
+    }
+
+    @Test
+    @DisplayName("A handoff addressed to a node whose ring still lags is applied there, not dropped")
+    void handoffReachesLaggingOwner() throws Exception {
+        InJvmRoomEventBus.Hub hub = new InJvmRoomEventBus.Hub();
+        InJvmRoomEventBus busA = new InJvmRoomEventBus("a", hub);
+        InJvmRoomEventBus busB = new InJvmRoomEventBus("b", hub);
+        InJvmRoomEventBus busC = new InJvmRoomEventBus("c", hub);
+        try {
+            GameService nodeA = new GameService(busA);
+            GameService nodeB = new GameService(busB);
+            GameService nodeC = new GameService(busC);
+            AtomicBoolean aOwns = new AtomicBoolean(true);
+            nodeA.useOwnership(code -> aOwns.get());
+            nodeB.useOwnership(code -> false); // old ring: still thinks a owns r1
+            nodeC.useOwnership(code -> false);
+
+            nodeA.join("r1", "cidA", "Alice");
+            nodeA.setVote("r1", "cidA", "5");
+            nodeA.saveTopic("r1", "PROJ-7");
+            String topic = nodeA.getRoom("r1").getTopicLabel();
+
+            aOwns.set(false);
+            nodeA.handOffRoom("r1", "b", "http://node-b");
+            await(() -> nodeB.getRoom("r1") != null);
+            Room moved = nodeB.getRoom("r1");
+            assertEquals("5", moved.getParticipant("Alice").getVote());
+            assertNotNull(topic);
+            assertEquals(topic, moved.getTopicLabel());
+            assertEquals("Alice", moved.getParticipantByCid("cidA").map(Participant::getName).orElse(null));
+            Thread.sleep(100);
+            assertNull(nodeC.getRoom("r1"), "only the addressed node takes the room");
+        } finally {
+            busA.close();
+            busB.close();
+            busC.close();
+        }
+    }
+
+    private static void await(BooleanSupplier cond) throws InterruptedException {
+        long end = System.currentTimeMillis() + 5_000L;
+        while (!cond.getAsBoolean()) {
+            if (System.currentTimeMillis() > end) fail("condition not met within 5s");
+            Thread.sleep(10);
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package com.example.estpoker.service;
+
+import com.example.estpoker.model.Participant;
+import com.example.estpoker.model.Room;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class GameServiceHibernationTests {
+
+    @Test
+    @DisplayName("An idle room leaves the heap with its side maps and comes back intact on the next join")
+    void hibernateAndWake() {
+        GameService service = new GameService();
+        service.join("r1", "cidA", "Alice");
+        service.join("r1", "cidB", "Bob");
+        service.setVote("r1", "cidA", "8");
+        service.saveTopic("r1", "ABC-1");
+        Room before = service.getRoom("r1");
+        before.getParticipant("Alice").setActive(false);
+        before.getParticipant("Bob").setActive(false);
+
+        assertEquals(1, service.hibernateIdleRooms(0));
+        assertEquals(0, service.liveRoomCount());
+        assertEquals(1, service.hibernatedRoomCount());
+        assertEquals(0, service.hibernationStats().get("clientNames"));
+        assertTrue(service.roomCodes().contains("r1"));
+        assertEquals("8", service.replicaOf("r1").participants().get(0).vote());
+
+        Room after = service.getOrCreateRoom("r1");
+        assertNotSame(before, after);
+        assertEquals("8", after.getParticipant("Alice").getVote());
+        assertEquals("ABC-1", after.getTopicLabel());
+        assertEquals("Bob", service.getClientName("r1", "cidB"));
+        assertEquals(1, service.liveRoomCount());
+        assertEquals(0, service.hibernatedRoomCount());
+        service.shutdown();
+    }
+
+    @Test
+    @DisplayName("Rooms with a session, or idle for less than the threshold, stay live")
+    void busyOrRecentRoomsStay() {
+        GameService service = new GameService();
+        service.join("busy", "c1", "Alice");
+        WebSocketSession s = mock(WebSocketSession.class);
+        when(s.isOpen()).thenReturn(true);
+        service.addSession(s, service.getRoom("busy"));
+        service.join("recent", "c2", "Bob");
+
+        assertEquals(0, service.hibernateIdleRooms(60_000));
+        assertEquals(2, service.liveRoomCount());
+
+        assertEquals(1, service.hibernateIdleRooms(0));
+        assertNotNull(service.getRoom("busy"));
+        assertEquals(1, service.hibernatedRoomCount());
+
+        // lookups wake the room as well
+        assertNotNull(service.getRoom("recent").getParticipant("Bob"));
+        assertEquals(0, service.hibernatedRoomCount());
+        service.shutdown();
+    }
+
+    @Test
+    @DisplayName("A join that registers on a room object hibernated under it is moved to the woken room")
+    void lateSessionFollowsTheRoom() throws Exception {
+        GameService service = new GameService();
+        service.join("r1", "cidA", "Alice");
+        Room stale = service.getRoom("r1");
+        stale.getParticipant("Alice").setActive(false);
+        assertEquals(1, service.hibernateIdleRooms(0));
+
+        // the join's own changes landed on the old object after the bytes were taken
+        stale.addParticipant(new Participant("Late"));
+        stale.linkCid("cidL", "Late");
+        WebSocketSession s = mock(WebSocketSession.class);
+        when(s.isOpen()).thenReturn(true);
+        service.addSession(s, stale);
+        service.trackParticipant(s, "Late");
+
+        Room live = service.getRoom("r1");
+        assertNotSame(stale, live);
+        assertSame(live, service.getRoomForSession(s));
+        assertNotNull(live.getParticipant("Alice"));
+        assertNotNull(live.getParticipant("Late"));
+        assertEquals("Late", service.getClientName("r1", "cidL"));
+        assertEquals(0, service.hibernatedRoomCount());
+
+        // broadcasts for the live room reach the session
+        clearInvocations(s);
+        service.saveTopic("r1", "ABC-2");
+        verify(s, atLeastOnce()).sendMessage(any(TextMessage.class));
+
+        // and a room with a session stays live
+        assertEquals(0, service.hibernateIdleRooms(0));
+        service.shutdown();
+    }
+}
@@ -0,0 +1,149 @@
+package com.example.estpoker.service;
+
+import com.example.estpoker.model.Room;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class GameServiceLargeRoomTests {
+
+    private final ObjectMapper json = new ObjectMapper();
+
+    private static WebSocketSession openSession() {
+        WebSocketSession s = mock(WebSocketSession.class);
+        when(s.isOpen()).thenReturn(true);
+        return s;
+    }
+
+    /** Last frame written to the session, parsed. */
+    private JsonNode lastFrame(WebSocketSession s) throws Exception {
+        ArgumentCaptor<TextMessage> frames = ArgumentCaptor.forClass(TextMessage.class);
+        verify(s, atLeastOnce()).sendMessage(frames.capture());
+        return json.readTree(frames.getValue().getPayload());
+    }
+
+    private static List<String> names(JsonNode participants) {
+        List<String> out = new ArrayList<>();
+        participants.forEach(p -> out.add(p.get("name").asText()));
+        return out;
+    }
+
+    @Test
+    @DisplayName("Before reveal a recipient sees the host and itself plus counts; after reveal the full compact roster")
+    void frameForRecipient() throws Exception {
+        GameService service = new GameService();
+        service.join("r1", "cidA", "Alice");
+        service.join("r1", "cidB", "Bob");
+        service.join("r1", "cidC", "Carol");
+        service.join("r1", "cidD", "Dave");
+        service.setLargeRoomMode("r1", true);
+        service.setVote("r1", "cidB", "5");
+        service.setVote("r1", "cidC", "8");
+        Room room = service.getRoom("r1");
+
+        WebSocketSession carol = openSession();
+        service.trackParticipant(carol, "Carol");
+        service.sendRoomState(carol, room);
+        JsonNode hidden = lastFrame(carol);
+        assertTrue(hidden.get("largeRoom").asBoolean());
+        assertFalse(hidden.has("largeRoomAuto"), "host-flagged: the toggle stays usable");
+        assertEquals(List.of("Alice", "Carol"), names(hidden.get("participants")));
+        assertEquals(4, hidden.get("summary").get("total").asInt());
+        assertEquals(2, hidden.get("summary").get("voted").asInt());
+        assertEquals(2, hidden.get("summary").get("waiting").asInt());
+        // compact entries leave out false flags and missing votes
+        JsonNode alice = hidden.get("participants").get(0);
+        assertTrue(alice.get("isHost").asBoolean());
+        assertFalse(alice.has("vote"));
+        assertFalse(alice.has("spectator"));
+
+        WebSocketSession host = openSession();
+        service.trackParticipant(host, "Alice");
+        service.sendRoomState(host, room);
+        assertEquals(List.of("Alice"), names(lastFrame(host).get("participants")));
+
+        service.reveal("r1");
+        service.sendRoomState(carol, room);
+        JsonNode revealed = lastFrame(carol);
+        assertEquals(4, revealed.get("participants").size());
+        assertEquals("5", revealed.get("participants").findValues("vote").get(0).asText());
+        service.shutdown();
+    }
+
+    @Test
+    @DisplayName("Roster pages clamp offset and limit and never exceed ROSTER_PAGE_MAX")
+    void rosterPageClamping() throws Exception {
+        GameService service = new GameService();
+        int total = GameService.ROSTER_PAGE_MAX + 50;
+        for (int i = 0; i < total; i++) service.join("big", "cid" + i, "P" + i);
+        Room room = service.getRoom("big");
+        WebSocketSession s = openSession();
+
+        service.sendRosterPage(s, room, -5, 10_000);
+        JsonNode page = lastFrame(s);
+        assertEquals("roster", page.get("type").asText());
+        assertEquals(0, page.get("offset").asInt());
+        assertEquals(total, page.get("total").asInt());
+        assertEquals(GameService.ROSTER_PAGE_MAX, page.get("participants").size());
+
+        service.sendRosterPage(s, room, total - 10, 50);
+        page = lastFrame(s);
+        assertEquals(total - 10, page.get("offset").asInt());
+        assertEquals(10, page.get("participants").size());
+
+        service.sendRosterPage(s, room, total + 100, 50);
+        page = lastFrame(s);
+        assertEquals(total, page.get("offset").asInt());
+        assertEquals(0, page.get("participants").size());
+
+        service.sendRosterPage(s, room, 3, 0);
+        page = lastFrame(s);
+        assertEquals(1, page.get("participants").size());
+        assertEquals("P3", page.get("participants").get(0).get("name").asText());
+        service.shutdown();
+    }
+
+    @Test
+    @DisplayName("The summarized roster starts at the auto threshold; the host flag only matters below it, and frames say so")
+    void autoThreshold() throws Exception {
+        GameService service = new GameService();
+        for (int i = 0; i < GameService.LARGE_ROOM_AUTO_THRESHOLD - 1; i++) service.join("r1", "cid" + i, "P" + i);
+        Room room = service.getRoom("r1");
+        WebSocketSession s = openSession();
+        service.trackParticipant(s, "P1");
+
+        assertFalse(service.isLargeRoom(room));
+        service.sendRoomState(s, room);
+        JsonNode full = lastFrame(s);
+        assertFalse(full.has("largeRoom"));
+        assertEquals(GameService.LARGE_ROOM_AUTO_THRESHOLD - 1, full.get("participants").size());
+
+        service.setLargeRoomMode("r1", true);
+        assertTrue(service.isLargeRoom(room));
+        service.setLargeRoomMode("r1", false);
+        assertFalse(service.isLargeRoom(room));
+
+        service.join("r1", "cidLast", "Last");
+        assertTrue(service.isLargeRoom(room));
+        service.sendRoomState(s, room);
+        JsonNode summarized = lastFrame(s);
+        assertTrue(summarized.get("largeRoom").asBoolean());
+        assertTrue(summarized.get("largeRoomAuto").asBoolean(), "clients lock the toggle");
+        assertEquals(List.of("P0", "P1"), names(summarized.get("participants")));
+
+        // switching the flag off does not leave large-room mode above the threshold
+        service.setLargeRoomMode("r1", false);
+        assertTrue(service.isLargeRoom(room));
+        service.shutdown();
+    }
+}
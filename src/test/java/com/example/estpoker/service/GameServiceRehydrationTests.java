@@ -0,0 +1,86 @@
+package com.example.estpoker.service;
+
+import com.example.estpoker.model.Room;
+import com.example.estpoker.rooms.model.StoredRoom;
+import com.example.estpoker.rooms.repo.RoomStore;
+import com.example.estpoker.rooms.service.StoredRoomLoader;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class GameServiceRehydrationTests {
+
+    private static StoredRoom stored(String code) {
+        StoredRoom s = StoredRoom.newWithCode(code);
+        s.getSettings().setSequenceId("tshirt");
+        s.getSettings().setAutoRevealEnabled(true);
+        s.getSettings().setAllowSpecials(true);
+        s.getSettings().setTopicVisible(true);
+        s.setTopicLabel("ABC-7");
+        return s;
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long end = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean() && System.nanoTime() < end) Thread.sleep(10);
+        assertTrue(condition.getAsBoolean());
+    }
+
+    @Test
+    @DisplayName("The first join returns at once and the stored settings arrive asynchronously")
+    void firstJoinRehydrates() throws Exception {
+        RoomStore store = mock(RoomStore.class);
+        CountDownLatch release = new CountDownLatch(1);
+        when(store.load("r1")).thenAnswer(inv -> {
+            release.await(5, TimeUnit.SECONDS);
+            return Optional.of(stored("r1"));
+        });
+        StoredRoomLoader loader = new StoredRoomLoader(store, 1, 100, 0);
+        GameService service = new GameService(loader);
+
+        Room room = service.join("r1", "cidA", "Alice");
+        service.join("r1", "cidB", "Bob");
+        assertFalse(room.isAutoRevealEnabled());
+        release.countDown();
+
+        await(room::isAutoRevealEnabled);
+        assertEquals("tshirt", room.getSequenceId());
+        assertTrue(room.isAllowSpecials());
+        assertEquals("ABC-7", room.getTopicLabel());
+        assertEquals(2, room.getParticipants().size());
+        verify(store, times(1)).load("r1");
+
+        service.shutdown();
+        loader.shutdown();
+    }
+
+    @Test
+    @DisplayName("A setting changed before the load finishes wins over the stored value")
+    void liveChangesWin() throws Exception {
+        RoomStore store = mock(RoomStore.class);
+        CountDownLatch release = new CountDownLatch(1);
+        when(store.load("r2")).thenAnswer(inv -> {
+            release.await(5, TimeUnit.SECONDS);
+            return Optional.of(stored("r2"));
+        });
+        StoredRoomLoader loader = new StoredRoomLoader(store, 1, 100, 0);
+        GameService service = new GameService(loader);
+
+        Room room = service.join("r2", "cidA", "Alice");
+        service.setSequence("r2", "pow2");
+        release.countDown();
+
+        await(room::isAutoRevealEnabled);
+        assertEquals("pow2", room.getSequenceId());
+
+        service.shutdown();
+        loader.shutdown();
+    }
+}
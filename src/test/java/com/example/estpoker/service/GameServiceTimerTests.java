@@ -0,0 +1,90 @@
+package com.example.estpoker.service;
+
+import com.example.estpoker.model.Room;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class GameServiceTimerTests {
+
+    @Test
+    @DisplayName("Start sets an absolute deadline; pause keeps the remaining time; resume continues")
+    void startPauseResume() {
+        GameService svc = new GameService();
+        Room room = svc.join("r1", "cidA", "Alice");
+
+        long before = System.currentTimeMillis();
+        svc.startTimer("r1", 60);
+        assertTrue(room.isTimerRunning());
+        assertEquals(60_000L, room.getTimerDurationMs());
+        assertTrue(room.getTimerDeadline() >= before + 60_000L);
+
+        svc.pauseTimer("r1");
+        assertFalse(room.isTimerRunning());
+        assertTrue(room.isTimerPaused());
+        long remaining = room.getTimerRemainingMs();
+        assertTrue(remaining > 0 && remaining <= 60_000L);
+
+        svc.startTimer("r1", 0);
+        assertTrue(room.isTimerRunning());
+        assertTrue(room.getTimerDeadline() <= System.currentTimeMillis() + remaining);
+    }
+
+    @Test
+    @DisplayName("Reveal and reset end a running timer; the duration is kept for the next round")
+    void revealAndResetClearTimer() {
+        GameService svc = new GameService();
+        Room room = svc.join("r1", "cidA", "Alice");
+
+        svc.startTimer("r1", 120);
+        svc.reveal("r1");
+        assertFalse(room.isTimerRunning());
+        assertFalse(room.isTimerPaused());
+
+        svc.reset("r1");
+        svc.startTimer("r1", 0);
+        assertTrue(room.isTimerRunning());
+        assertEquals(120_000L, room.getTimerDurationMs());
+    }
+
+    @Test
+    @DisplayName("Expiry reveals the round; a sequence change cancels a running timer")
+    void expiryRevealsAndSequenceChangeCancels() throws Exception {
+        GameService svc = new GameService();
+        Room room = svc.join("r1", "cidA", "Alice");
+
+        // resume with a short remaining time instead of waiting for TIMER_MIN_MS
+        svc.startTimer("r1", 60);
+        svc.pauseTimer("r1");
+        room.pauseTimer(50L);
+        svc.startTimer("r1", 0);
+        long end = System.currentTimeMillis() + 5_000L;
+        while (!room.areVotesRevealed() && System.currentTimeMillis() < end) Thread.sleep(10);
+        assertTrue(room.areVotesRevealed());
+        assertFalse(room.isTimerRunning());
+
+        svc.reset("r1");
+        svc.startTimer("r1", 60);
+        svc.pauseTimer("r1");
+        room.pauseTimer(100L);
+        svc.startTimer("r1", 0);
+        svc.setSequence("r1", "fib.scrum");
+        assertFalse(room.isTimerRunning());
+        Thread.sleep(300L);
+        assertFalse(room.areVotesRevealed());
+    }
+
+    @Test
+    @DisplayName("Durations are clamped and resume without a previous timer is a no-op")
+    void clampAndNoop() {
+        GameService svc = new GameService();
+        Room room = svc.join("r1", "cidA", "Alice");
+
+        svc.startTimer("r1", 0);
+        assertFalse(room.isTimerRunning());
+
+        svc.startTimer("r1", 1);
+        assertEquals(GameService.TIMER_MIN_MS, room.getTimerDurationMs());
+    }
+}
@@ -0,0 +1,95 @@
+package com.example.estpoker.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ReactionAggregatorTest {
+
+    @Test
+    @DisplayName("Reactions within one window are flushed once as counts")
+    void aggregatesPerWindow() throws Exception {
+        List<Map<String, Integer>> flushed = new CopyOnWriteArrayList<>();
+        CountDownLatch latch = new CountDownLatch(1);
+        ReactionAggregator agg = new ReactionAggregator((room, counts) -> { flushed.add(counts); latch.countDown(); });
+
+        assertTrue(agg.add("r1", "a", "coffee"));
+        assertTrue(agg.add("r1", "b", "☕"));
+        assertTrue(agg.add("r1", "b", "thumbsup"));
+
+        assertTrue(latch.await(2, TimeUnit.SECONDS));
+        Thread.sleep(ReactionAggregator.WINDOW_MS);
+        assertEquals(1, flushed.size());
+        assertEquals(Map.of("coffee", 2, "thumbsup", 1), flushed.get(0));
+    }
+
+    @Test
+    @DisplayName("Reactions racing a flush are counted in exactly one window")
+    void noReactionLostAcrossWindows() throws Exception {
+        AtomicInteger flushed = new AtomicInteger();
+        ReactionAggregator agg = new ReactionAggregator((room, counts) -> flushed.addAndGet(counts.get("party")));
+        int threads = 4, perThread = 2_000;
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<?>> adders = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                adders.add(pool.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < perThread; i++) {
+                        assertTrue(agg.add("r1", null, "party"));
+                        if (i % 100 == 0) Thread.sleep(10); // spread over several windows
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> f : adders) f.get(30, TimeUnit.SECONDS);
+
+            long end = System.currentTimeMillis() + 2_000;
+            while (flushed.get() < threads * perThread && System.currentTimeMillis() < end) Thread.sleep(10);
+            assertEquals(threads * perThread, flushed.get());
+        } finally {
+            pool.shutdownNow();
+            agg.close();
+        }
+    }
+
+    @Test
+    @DisplayName("Pending reactions of a forgotten room are not flushed")
+    void forgetDropsPending() throws Exception {
+        List<Map<String, Integer>> flushed = new CopyOnWriteArrayList<>();
+        ReactionAggregator agg = new ReactionAggregator((room, counts) -> flushed.add(counts));
+
+        assertTrue(agg.add("r1", "a", "party"));
+        agg.forget("r1");
+        Thread.sleep(ReactionAggregator.WINDOW_MS * 3);
+        assertTrue(flushed.isEmpty());
+        agg.close();
+    }
+
+    @Test
+    @DisplayName("Unknown reactions and clients over their budget are rejected")
+    void rejectsUnknownAndFlooding() {
+        ReactionAggregator agg = new ReactionAggregator((room, counts) -> {});
+
+        assertFalse(agg.add("r1", "a", "<script>"));
+        for (int i = 0; i < ReactionAggregator.MAX_PER_CLIENT_PER_WINDOW; i++) {
+            assertTrue(agg.add("r1", "a", "party"));
+        }
+        assertFalse(agg.add("r1", "a", "party"));
+        assertTrue(agg.add("r1", "b", "party"));
+    }
+}
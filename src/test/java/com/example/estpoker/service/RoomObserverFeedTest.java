@@ -0,0 +1,81 @@
+package com.example.estpoker.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RoomObserverFeedTest {
+
+    @Test
+    @DisplayName("Unwatched rooms are not encoded")
+    void publishSkipsUnwatchedRoom() {
+        RoomObserverFeed feed = new RoomObserverFeed();
+        AtomicInteger builds = new AtomicInteger();
+
+        assertNull(feed.publish("r1", false, v -> { builds.incrementAndGet(); return "{}"; }));
+        assertEquals(0, builds.get());
+        assertNull(feed.current("r1"));
+    }
+
+    @Test
+    @DisplayName("Long-poll answers immediately when a newer version exists")
+    void pollReturnsNewerVersionRightAway() {
+        RoomObserverFeed feed = new RoomObserverFeed();
+        feed.publish("r1", true, v -> "{\"version\":" + v + "}");
+
+        DeferredResult<ResponseEntity<String>> r = feed.poll("r1", 0, () -> null);
+
+        assertTrue(r.hasResult());
+        ResponseEntity<?> res = (ResponseEntity<?>) r.getResult();
+        assertEquals("{\"version\":1}", res.getBody());
+        assertEquals("1", res.getHeaders().getFirst("X-Room-Version"));
+    }
+
+    @Test
+    @DisplayName("Parked long-polls share one frame and the room is encoded once per version")
+    void parkedPollsShareFrame() {
+        RoomObserverFeed feed = new RoomObserverFeed();
+        AtomicInteger builds = new AtomicInteger();
+        feed.publish("r1", true, v -> { builds.incrementAndGet(); return "{\"v\":" + v + "}"; });
+
+        DeferredResult<ResponseEntity<String>> a = feed.poll("r1", 1, () -> null);
+        DeferredResult<ResponseEntity<String>> b = feed.poll("r1", 1, () -> null);
+        assertFalse(a.hasResult());
+        assertEquals(2, feed.observerCount("r1"));
+
+        feed.publish("r1", false, v -> { builds.incrementAndGet(); return "{\"v\":" + v + "}"; });
+
+        assertEquals(2, builds.get());
+        assertSame(a.getResult(), b.getResult());
+        assertEquals("{\"v\":2}", ((ResponseEntity<?>) a.getResult()).getBody());
+        assertEquals(0, feed.observerCount("r1"));
+    }
+
+    @Test
+    @DisplayName("SSE writes leave the publishing thread; the channel goes away with its last viewer")
+    void fanOutOffThreadAndPruneChannel() throws Exception {
+        RoomObserverFeed feed = new RoomObserverFeed();
+        SseEmitter gone = feed.subscribe("r1", () -> null);
+        assertTrue(feed.isWatched("r1"));
+        gone.complete(); // the next write to it fails
+
+        RoomObserverFeed.Frame f = feed.publish("r1", false, v -> "{\"v\":" + v + "}");
+        assertNotNull(f);
+
+        long end = System.currentTimeMillis() + 5_000;
+        while (feed.isWatched("r1") && System.currentTimeMillis() < end) Thread.sleep(5);
+        assertEquals(0, feed.observerCount("r1"));
+        assertNull(feed.current("r1"), "channel dropped with its frame");
+
+        // versions keep counting when the channel is rebuilt
+        RoomObserverFeed.Frame next = feed.publish("r1", true, v -> "{\"v\":" + v + "}");
+        assertTrue(next.version() > f.version());
+        feed.shutdown();
+    }
+}
@@ -0,0 +1,143 @@
+package com.example.estpoker.storage;
+
+import com.example.estpoker.config.AppStorageProperties;
+import org.apache.commons.net.ftp.FTPSClient;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class FtpsConnectionPoolTest {
+
+    private final List<FTPSClient> clients = new ArrayList<>();
+    private FtpsConnectionPool pool;
+
+    @AfterEach
+    void tearDown() {
+        if (pool != null) pool.close();
+    }
+
+    private FtpsConnectionPool pool(int maxSize, long validateAfterIdleMs, long maxLifetimeMs) {
+        AppStorageProperties.Ftps cfg = new AppStorageProperties.Ftps();
+        cfg.setHost("ftp.test");
+        cfg.setUser("u");
+        cfg.setPass("p");
+        cfg.getPool().setMaxSize(maxSize);
+        cfg.getPool().setBorrowTimeoutMs(100);
+        cfg.getPool().setValidateAfterIdleMs(validateAfterIdleMs);
+        cfg.getPool().setKeepAliveMs(0);
+        cfg.getPool().setMaxLifetimeMs(maxLifetimeMs);
+        pool = new FtpsConnectionPool(() -> {
+            FTPSClient c = mock(FTPSClient.class);
+            try {
+                when(c.login("u", "p")).thenReturn(true);
+                when(c.printWorkingDirectory()).thenReturn("/home/u");
+                when(c.sendNoOp()).thenReturn(true);
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+            when(c.isConnected()).thenReturn(true);
+            clients.add(c);
+            return c;
+        }, cfg);
+        return pool;
+    }
+
+    @Test
+    @DisplayName("Consecutive operations share one login")
+    void reusesLoggedInConnection() throws Exception {
+        pool(2, 60_000, 0);
+        assertEquals("/home/u", pool.execute((c, home) -> home));
+        pool.execute((c, home) -> c.deleteFile("x"));
+        pool.execute((c, home) -> c.deleteFile("y"));
+
+        assertEquals(1, clients.size());
+        verify(clients.get(0), times(1)).login("u", "p");
+        verify(clients.get(0), never()).sendNoOp();
+        assertEquals(2L, pool.stats().get("reused"));
+        assertEquals(1L, pool.stats().get("open"));
+    }
+
+    @Test
+    @DisplayName("A connection failing NOOP on borrow is replaced")
+    void validatesOnBorrow() throws Exception {
+        pool(2, 0, 0);
+        pool.execute((c, home) -> null);
+        when(clients.get(0).sendNoOp()).thenReturn(false);
+        pool.execute((c, home) -> null);
+
+        assertEquals(2, clients.size());
+        verify(clients.get(0)).disconnect();
+        assertEquals(1L, pool.stats().get("validationFailures"));
+    }
+
+    @Test
+    @DisplayName("An I/O error on a reused connection evicts it and retries once on a fresh login")
+    void retriesBrokenReusedConnection() throws Exception {
+        pool(2, 60_000, 0);
+        pool.execute((c, home) -> null);
+        FTPSClient first = clients.get(0);
+        when(first.deleteFile("x")).thenThrow(new IOException("Connection closed without indication"));
+
+        Boolean deleted = pool.execute((c, home) -> c == first ? c.deleteFile("x") : Boolean.TRUE);
+        assertTrue(deleted);
+        assertEquals(2, clients.size());
+        assertEquals(1L, pool.stats().get("retries"));
+        assertEquals(1L, pool.stats().get("brokenEvicted"));
+        assertEquals(0, pool.stats().get("inUse"));
+    }
+
+    @Test
+    @DisplayName("Protocol errors keep the connection; expired ones are replaced")
+    void lifetimeAndProtocolErrors() throws Exception {
+        pool(1, 60_000, 50);
+        assertThrows(IllegalStateException.class, () -> pool.execute((c, home) -> {
+            throw new IllegalStateException("550 denied");
+        }));
+        pool.execute((c, home) -> null);
+        assertEquals(1, clients.size());
+
+        Thread.sleep(60);
+        pool.execute((c, home) -> null);
+        assertEquals(2, clients.size());
+        assertEquals(1L, pool.stats().get("expired"));
+    }
+
+    @Test
+    @DisplayName("Borrowing is bounded by max-size and times out")
+    void boundedWait() throws Exception {
+        pool(1, 60_000, 0);
+        CountDownLatch inside = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<Object> holder = CompletableFuture.supplyAsync(() -> {
+            try {
+                return pool.execute((c, home) -> {
+                    inside.countDown();
+                    try { release.await(5, TimeUnit.SECONDS); } catch (InterruptedException ignored) {}
+                    return null;
+                });
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        assertTrue(inside.await(5, TimeUnit.SECONDS));
+
+        IOException ex = assertThrows(IOException.class, () -> pool.execute((c, home) -> null));
+        assertTrue(ex.getMessage().contains("No FTPS connection available"));
+        assertEquals(1L, pool.stats().get("borrowTimeouts"));
+
+        release.countDown();
+        holder.get(5, TimeUnit.SECONDS);
+        pool.execute((c, home) -> null);
+        assertEquals(1, clients.size());
+    }
+}
@@ -0,0 +1,79 @@
+package com.example.estpoker.storage;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LocalFileStorageTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void write_replaces_atomically_and_leaves_no_temp_files() throws Exception {
+        try (LocalFileStorage s = new LocalFileStorage(dir, LocalFileStorage.Fsync.ALWAYS, 1_000, 64 * 1024)) {
+            s.putBytes("rooms/ab/x.json", "v1".getBytes(StandardCharsets.UTF_8));
+            s.putBytes("rooms/ab/x.json", "v2".getBytes(StandardCharsets.UTF_8));
+
+            assertEquals("v2", new String(s.getBytes("rooms/ab/x.json"), StandardCharsets.UTF_8));
+            assertEquals(List.of("x.json"), s.list("rooms/ab"));
+            try (Stream<Path> files = Files.list(dir.resolve("rooms/ab"))) {
+                assertEquals(1, files.count(), "temp file left behind");
+            }
+            assertNull(s.getBytes("rooms/ab/missing.json"));
+            assertTrue(s.delete("rooms/ab/x.json"));
+            assertFalse(s.delete("rooms/ab/x.json"));
+            assertTrue((Long) s.stats().get("fsyncs") >= 2);
+        }
+    }
+
+    @Test
+    void large_files_are_read_memory_mapped() throws Exception {
+        try (LocalFileStorage s = new LocalFileStorage(dir, LocalFileStorage.Fsync.NEVER, 1_000, 1024)) {
+            byte[] big = new byte[200_000];
+            Arrays.fill(big, (byte) 'x');
+            s.putBytes("big.bin", big);
+            s.putBytes("small.bin", new byte[]{1, 2, 3});
+
+            assertArrayEquals(big, s.getBytes("big.bin"));
+            assertArrayEquals(new byte[]{1, 2, 3}, s.getBytes("small.bin"));
+            assertEquals(1L, s.stats().get("mappedReads"));
+        }
+    }
+
+    @Test
+    void batched_fsync_writes_data_first_and_catches_up_on_directories() throws Exception {
+        try (LocalFileStorage s = new LocalFileStorage(dir, LocalFileStorage.Fsync.BATCHED, 300, 64 * 1024)) {
+            for (int i = 0; i < 10; i++) s.putBytes("a/f" + i, new byte[]{(byte) i});
+            // the data is on disk before the rename; only the directory entry waits for the batch
+            assertEquals(10L, s.stats().get("fsyncs"));
+            assertTrue((Integer) s.stats().get("unsyncedDirs") > 0);
+
+            long end = System.currentTimeMillis() + 2_000;
+            while ((Integer) s.stats().get("unsyncedDirs") > 0 && System.currentTimeMillis() < end) {
+                Thread.sleep(10);
+            }
+            assertEquals(0, s.stats().get("unsyncedDirs"));
+            assertTrue((Long) s.stats().get("batches") >= 1);
+        }
+    }
+
+    @Test
+    void paths_cannot_escape_the_root() throws Exception {
+        try (LocalFileStorage s = new LocalFileStorage(dir.resolve("root"), LocalFileStorage.Fsync.NEVER, 1_000, 1024)) {
+            assertThrows(IOException.class, () -> s.putBytes("../outside.txt", new byte[]{1}));
+            assertThrows(IOException.class, () -> s.getBytes("a/../../outside.txt"));
+            s.putBytes("/leading/slash.txt", new byte[]{1});
+            assertTrue(Files.exists(dir.resolve("root/leading/slash.txt")));
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.example.estpoker.web;
+
+import com.example.estpoker.service.DrainService;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.util.Map;
+
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Standalone MVC test: no Spring context, no @MockBean.
+ */
+class DrainControllerTest {
+
+    @Test
+    void drain_requiresTheConfiguredToken() throws Exception {
+        DrainService drain = Mockito.mock(DrainService.class);
+        when(drain.drain()).thenReturn(Map.of("drained", true));
+        MockMvc mvc = MockMvcBuilders.standaloneSetup(new DrainController(drain, "s3cret")).build();
+
+        mvc.perform(post("/api/admin/drain")).andExpect(status().isForbidden());
+        mvc.perform(post("/api/admin/drain").header("X-Drain-Token", "wrong")).andExpect(status().isForbidden());
+        verify(drain, never()).drain();
+
+        mvc.perform(post("/api/admin/drain").header("X-Drain-Token", "s3cret"))
+           .andExpect(status().isOk())
+           .andExpect(jsonPath("$.drained").value(true));
+        verify(drain).drain();
+    }
+
+    @Test
+    void drain_isRefused_withAnEmptyToken() throws Exception {
+        DrainService drain = Mockito.mock(DrainService.class);
+        MockMvc mvc = MockMvcBuilders.standaloneSetup(new DrainController(drain, "")).build();
+
+        mvc.perform(post("/api/admin/drain").header("X-Drain-Token", "")).andExpect(status().isForbidden());
+        verify(drain, never()).drain();
+    }
+}